@@ -0,0 +1,96 @@
+package tringaa;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.BiFunction;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * A panel showing the deadlines and events of the current week or month, grouped by day.
+ * The panel only lays out the agenda it is given; the days are looked up through the
+ * source set with {@link #setSource(BiFunction)} whenever the panel is refreshed.
+ */
+public class AgendaPanel extends VBox {
+    private static final DateTimeFormatter TITLE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd");
+
+    private final Label title = new Label();
+    private final VBox days = new VBox(8);
+    private AgendaPeriod period = AgendaPeriod.WEEK;
+    private BiFunction<LocalDate, LocalDate, NavigableMap<LocalDate, List<String>>> source;
+
+    /**
+     * Creates an empty agenda panel showing the current week.
+     */
+    public AgendaPanel() {
+        Button weekButton = new Button("Week");
+        weekButton.setOnAction(event -> show(AgendaPeriod.WEEK));
+        Button monthButton = new Button("Month");
+        monthButton.setOnAction(event -> show(AgendaPeriod.MONTH));
+        HBox header = new HBox(8, weekButton, monthButton, title);
+        header.setPadding(new Insets(8));
+
+        days.setPadding(new Insets(0, 8, 8, 8));
+        ScrollPane scrollPane = new ScrollPane(days);
+        scrollPane.setFitToWidth(true);
+        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+        getChildren().addAll(header, scrollPane);
+    }
+
+    /**
+     * Sets where the panel gets its agenda from.
+     *
+     * @param source Gets the task lines on each day between two dates, inclusive
+     */
+    public void setSource(BiFunction<LocalDate, LocalDate, NavigableMap<LocalDate, List<String>>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Shows the agenda of the period containing today.
+     *
+     * @param period The period to show
+     */
+    public void show(AgendaPeriod period) {
+        this.period = period;
+        refresh();
+    }
+
+    /**
+     * Looks up the agenda of the period shown again, e.g. after a command changed the tasks.
+     */
+    public void refresh() {
+        if (source == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = period.firstDay(today);
+        LocalDate to = period.lastDay(today);
+        title.setText(from.format(TITLE_FORMAT) + " - " + to.format(TITLE_FORMAT));
+
+        NavigableMap<LocalDate, List<String>> agenda = source.apply(from, to);
+        days.getChildren().clear();
+        if (agenda.isEmpty()) {
+            days.getChildren().add(new Label("Nothing on your agenda!"));
+            return;
+        }
+        for (Map.Entry<LocalDate, List<String>> day : agenda.entrySet()) {
+            Label heading = new Label(day.getKey().format(DAY_FORMAT));
+            heading.setStyle(day.getKey().equals(today) ? "-fx-font-weight: bold; -fx-underline: true;"
+                    : "-fx-font-weight: bold;");
+            Label tasks = new Label(String.join("\n", day.getValue()));
+            tasks.setWrapText(true);
+            days.getChildren().add(new VBox(2, heading, tasks));
+        }
+    }
+}
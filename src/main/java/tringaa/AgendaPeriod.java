@@ -0,0 +1,36 @@
+package tringaa;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The periods an agenda can cover: the week from Monday to Sunday or the calendar month.
+ */
+public enum AgendaPeriod {
+    WEEK, MONTH;
+
+    /**
+     * Gets the first day of the period containing a date.
+     *
+     * @param date A date in the period
+     * @return The Monday of the week or the first day of the month
+     */
+    public LocalDate firstDay(LocalDate date) {
+        return this == WEEK
+                ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : date.withDayOfMonth(1);
+    }
+
+    /**
+     * Gets the last day of the period containing a date.
+     *
+     * @param date A date in the period
+     * @return The Sunday of the week or the last day of the month
+     */
+    public LocalDate lastDay(LocalDate date) {
+        return this == WEEK
+                ? date.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY))
+                : date.with(TemporalAdjusters.lastDayOfMonth());
+    }
+}
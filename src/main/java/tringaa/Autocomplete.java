@@ -0,0 +1,152 @@
+package tringaa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Works out how to complete a command that is still being typed. The command word is completed
+ * from the commands Tringa knows, the description of a new task from the descriptions already
+ * in the list, and the keyword of a find from the words in the descriptions. While a find is
+ * typed, the first tasks it would list are previewed as well.
+ */
+public class Autocomplete {
+    /** Every command word, in alphabetical order */
+    private static final List<String> COMMAND_WORDS = List.of("agenda", "archive", "bye", "conflicts",
+            "deadline", "delete", "edit", "event", "export", "filter", "find", "import", "list", "lists", "mark",
+            "recur", "redo", "storage", "sync", "todo", "undo", "upcoming", "use");
+    /** Commands whose arguments start with the description of a new task */
+    private static final Set<String> ADDING_COMMANDS = Set.of("todo", "deadline", "event", "recur");
+
+    /**
+     * Ways to complete the input and a preview of the tasks it would find.
+     *
+     * @param completions Whole inputs that complete what was typed, best first
+     * @param preview The first tasks the find being typed would list, or null if no find is being typed
+     */
+    public record Suggestions(List<String> completions, String preview) {
+        /** Nothing to suggest */
+        public static final Suggestions NONE = new Suggestions(List.of(), null);
+    }
+
+    /**
+     * Suggests how to complete the input.
+     *
+     * @param input What the user has typed so far
+     * @param tasks The list the command would run on
+     * @param limit Largest number of completions to suggest
+     * @param previewLimit Largest number of tasks to preview for a find
+     * @return The completions and preview, or {@link Suggestions#NONE} if there are none
+     */
+    public static Suggestions suggest(String input, TaskList tasks, int limit, int previewLimit) {
+        Suggestions completions = complete(input, tasks, limit);
+        String keyword = previewKeyword(input);
+        if (keyword == null) {
+            return completions;
+        }
+        return new Suggestions(completions.completions(), tasks.previewMatching(keyword, previewLimit));
+    }
+
+    /**
+     * Suggests how to complete the input without previewing a find, which only uses the prefix
+     * trees of the list and so takes little time once they are built.
+     *
+     * @param input What the user has typed so far
+     * @param tasks The list the command would run on
+     * @param limit Largest number of completions to suggest
+     * @return The completions, without a preview
+     */
+    public static Suggestions complete(String input, TaskList tasks, int limit) {
+        String text = input.stripLeading();
+        if (text.isEmpty()) {
+            return Suggestions.NONE;
+        }
+        int space = text.indexOf(' ');
+        if (space < 0) {
+            return new Suggestions(completeCommandWord(text, limit), null);
+        }
+        String command = text.substring(0, space).toLowerCase();
+        String typed = text.substring(0, space + 1);
+        String arguments = text.substring(space + 1);
+        if (ADDING_COMMANDS.contains(command)) {
+            return new Suggestions(completeDescription(typed, arguments, tasks, limit), null);
+        }
+        if (command.equals("find")) {
+            return new Suggestions(completeKeyword(typed, arguments, tasks, limit), null);
+        }
+        return Suggestions.NONE;
+    }
+
+    /**
+     * Gets the keyword of the plain find being typed, whose first matches are previewed.
+     * A find with labels or a ranked find is only run once it is sent.
+     *
+     * @param input What the user has typed so far
+     * @return The keyword, or null if no plain find is being typed
+     */
+    public static String previewKeyword(String input) {
+        String text = input.stripLeading();
+        int space = text.indexOf(' ');
+        if (space < 0 || !text.substring(0, space).equalsIgnoreCase("find")) {
+            return null;
+        }
+        String keyword = text.substring(space + 1).trim();
+        if (keyword.isEmpty() || keyword.startsWith("~") || keyword.contains("#") || keyword.contains("/")) {
+            return null;
+        }
+        return keyword;
+    }
+
+    private static List<String> completeCommandWord(String text, int limit) {
+        String prefix = text.toLowerCase();
+        List<String> completions = new ArrayList<>();
+        for (String word : COMMAND_WORDS) {
+            if (completions.size() == limit) {
+                break;
+            }
+            if (word.startsWith(prefix) && !word.equals(prefix)) {
+                completions.add(word + " ");
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Completes the description of a new task from the descriptions in the list, until the
+     * user moves on to the dates or labels of the task.
+     */
+    private static List<String> completeDescription(String typed, String arguments, TaskList tasks, int limit) {
+        List<String> completions = new ArrayList<>();
+        if (arguments.isBlank() || arguments.contains("/") || arguments.contains("#")) {
+            return completions;
+        }
+        for (String description : tasks.completeDescription(arguments, limit + 1)) {
+            if (!description.equalsIgnoreCase(arguments) && completions.size() < limit) {
+                completions.add(typed + description);
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Completes the last word of a find keyword from the words in the descriptions.
+     */
+    private static List<String> completeKeyword(String typed, String arguments, TaskList tasks, int limit) {
+        List<String> completions = new ArrayList<>();
+        int wordStart = arguments.length();
+        while (wordStart > 0 && Character.isLetterOrDigit(arguments.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        String partial = arguments.substring(wordStart);
+        if (partial.isEmpty()) {
+            return completions;
+        }
+        String before = typed + arguments.substring(0, wordStart);
+        for (String word : tasks.completeWord(partial, limit + 1)) {
+            if (!word.equalsIgnoreCase(partial) && completions.size() < limit) {
+                completions.add(before + word);
+            }
+        }
+        return completions;
+    }
+}
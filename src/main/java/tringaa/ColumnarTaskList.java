@@ -0,0 +1,367 @@
+package tringaa;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.UncheckedTaskStorageException;
+import tringaa.index.TaskQuery;
+import tringaa.tasks.Task;
+
+/**
+ * A compact list of tasks for very large task lists, stored as parallel arrays instead of
+ * one object per task. The fields used by scans (type, done status and date) are kept in
+ * primitive columns, and the rest of each task is kept in its storage format in a shared
+ * byte arena where identical records are stored only once.
+ *
+ * Task objects are created on demand by {@link #get(int)}, so changes made to a returned
+ * task must be written back with {@link #set(int, Task)}.
+ */
+public class ColumnarTaskList extends AbstractList<Task> implements QueryableTaskList, RandomAccess {
+    /** Marks a task without a date in the date column */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+    /** Bytes before each record in the arena: its length and the number of tasks referring to it */
+    private static final int HEADER_LENGTH = 8;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] recordOffsets = new int[INITIAL_CAPACITY];
+    private final BitSet doneBits = new BitSet();
+    private int size;
+
+    /** UTF-8 records, each after its header, shared between tasks with identical records */
+    private byte[] arena = new byte[1024];
+    private int arenaLength;
+    /** Bytes in the arena taken by records that no task refers to any more */
+    private int garbageLength;
+    /** Open-addressing table of record offsets plus one, used to find identical records */
+    private int[] recordTable = new int[64];
+    private int recordCount;
+
+    /**
+     * Creates an empty columnar task list.
+     */
+    public ColumnarTaskList() {
+    }
+
+    /**
+     * Creates a columnar task list containing the given tasks.
+     *
+     * @param tasks The tasks to copy into the list
+     */
+    public ColumnarTaskList(Collection<Task> tasks) {
+        ensureCapacity(tasks.size());
+        addAll(tasks);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        String record = getRecord(index);
+        try {
+            return TextStorage.deserializeTask(record);
+        } catch (TaskStorageException e) {
+            throw new UncheckedTaskStorageException(new TaskStorageException("Corrupt task record: " + record));
+        }
+    }
+
+    @Override
+    public String getRecord(int index) {
+        checkIndex(index, size);
+        int offset = recordOffsets[index];
+        return new String(arena, offset + HEADER_LENGTH, readLength(offset), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        checkIndex(index, size);
+        Task previous = get(index);
+        int previousOffset = recordOffsets[index];
+        write(index, task);
+        release(previousOffset);
+        compactArenaIfNeeded();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        int moved = size - index;
+        System.arraycopy(types, index, types, index + 1, moved);
+        System.arraycopy(epochDays, index, epochDays, index + 1, moved);
+        System.arraycopy(recordOffsets, index, recordOffsets, index + 1, moved);
+        for (int i = doneBits.previousSetBit(size - 1); i >= index; i = doneBits.previousSetBit(i - 1)) {
+            doneBits.clear(i);
+            doneBits.set(i + 1);
+        }
+        size++;
+        write(index, task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        checkIndex(index, size);
+        Task removed = get(index);
+        release(recordOffsets[index]);
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(epochDays, index + 1, epochDays, index, moved);
+        System.arraycopy(recordOffsets, index + 1, recordOffsets, index, moved);
+        doneBits.clear(index);
+        for (int i = doneBits.nextSetBit(index + 1); i >= 0; i = doneBits.nextSetBit(i + 1)) {
+            doneBits.clear(i);
+            doneBits.set(i - 1);
+        }
+        size--;
+        modCount++;
+        compactArenaIfNeeded();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        doneBits.clear();
+        arenaLength = 0;
+        garbageLength = 0;
+        Arrays.fill(recordTable, 0);
+        recordCount = 0;
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            release(recordOffsets[i]);
+        }
+        int moved = size - toIndex;
+        System.arraycopy(types, toIndex, types, fromIndex, moved);
+        System.arraycopy(epochDays, toIndex, epochDays, fromIndex, moved);
+        System.arraycopy(recordOffsets, toIndex, recordOffsets, fromIndex, moved);
+        BitSet tail = doneBits.get(toIndex, size);
+        doneBits.clear(fromIndex, size);
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+            doneBits.set(fromIndex + i);
+        }
+        size -= toIndex - fromIndex;
+        modCount++;
+        compactArenaIfNeeded();
+    }
+
+    /**
+     * Checks whether the task at a position is done without creating the task.
+     *
+     * @param index Zero-based position of the task
+     * @return True if the task is done
+     */
+    public boolean isDone(int index) {
+        checkIndex(index, size);
+        return doneBits.get(index);
+    }
+
+    /**
+     * Selects the tasks that are not done and whose date is on or after the given date,
+     * plus every recurring task that is not done, by scanning only the primitive columns.
+     *
+     * @param today The earliest date to include
+     * @return Positions of the selected tasks
+     */
+    @Override
+    public BitSet selectUpcoming(LocalDate today) {
+        int todayEpochDay = (int) today.toEpochDay();
+        BitSet selected = new BitSet(size);
+        for (int i = doneBits.nextClearBit(0); i < size; i = doneBits.nextClearBit(i + 1)) {
+            if (types[i] == 'R' || (epochDays[i] != NO_DATE && epochDays[i] >= todayEpochDay)) {
+                selected.set(i);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the tasks that are done by reading only the done column.
+     *
+     * @return Positions of the done tasks
+     */
+    @Override
+    public BitSet selectDone() {
+        return doneBits.get(0, size);
+    }
+
+    /**
+     * Finds a task by its stored record, only reading the records of the tasks that are not
+     * done and have the same type and date.
+     */
+    @Override
+    public int indexOfReminded(Task task) {
+        String wanted = TextStorage.withoutReminderState(TextStorage.serializeTask(task));
+        byte type = (byte) TaskQuery.typeOf(task);
+        LocalDate date = task.getDate();
+        int epochDay = date == null ? NO_DATE : (int) date.toEpochDay();
+        for (int i = doneBits.nextClearBit(0); i < size; i = doneBits.nextClearBit(i + 1)) {
+            // The date of a recurring task moves on with its occurrences, so it is not compared
+            boolean isCandidate = types[i] == type && (type == 'R' || epochDays[i] == epochDay);
+            if (isCandidate && TextStorage.withoutReminderState(getRecord(i)).equals(wanted)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void write(int index, Task task) {
+        types[index] = (byte) TaskQuery.typeOf(task);
+        LocalDate date = task.getDate();
+        epochDays[index] = date == null ? NO_DATE : (int) date.toEpochDay();
+        doneBits.set(index, task.isDone());
+        recordOffsets[index] = intern(TextStorage.serializeTask(task).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stores a record in the arena for one more task, reusing an identical record if one is
+     * already stored, even one that no task refers to any more.
+     *
+     * @return Offset of the record in the arena
+     */
+    private int intern(byte[] record) {
+        int hash = hash(record, 0, record.length);
+        int mask = recordTable.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = recordTable[slot];
+            if (entry == 0) {
+                int offset = append(record);
+                recordTable[slot] = offset + 1;
+                recordCount++;
+                if (recordCount * 2 > recordTable.length) {
+                    rehash(recordTable.length * 2);
+                }
+                return offset;
+            }
+            int offset = entry - 1;
+            int length = readLength(offset);
+            if (length == record.length && Arrays.equals(arena, offset + HEADER_LENGTH,
+                    offset + HEADER_LENGTH + length, record, 0, length)) {
+                int references = readInt(arena, offset + 4);
+                if (references == 0) {
+                    garbageLength -= HEADER_LENGTH + length;
+                }
+                writeInt(arena, offset + 4, references + 1);
+                return offset;
+            }
+        }
+    }
+
+    /**
+     * Drops the reference of one task to a record, counting the record as garbage once no
+     * task refers to it. Records shared with other tasks stay in use.
+     */
+    private void release(int offset) {
+        int references = readInt(arena, offset + 4) - 1;
+        writeInt(arena, offset + 4, references);
+        if (references == 0) {
+            garbageLength += HEADER_LENGTH + readLength(offset);
+        }
+    }
+
+    /** Appends a record referred to by one task */
+    private int append(byte[] record) {
+        int end = arenaLength + HEADER_LENGTH + record.length;
+        if (end > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, end));
+        }
+        int offset = arenaLength;
+        writeInt(arena, offset, record.length);
+        writeInt(arena, offset + 4, 1);
+        System.arraycopy(record, 0, arena, offset + HEADER_LENGTH, record.length);
+        arenaLength = end;
+        return offset;
+    }
+
+    private int readLength(int offset) {
+        return readInt(arena, offset);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+                | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int hash(byte[] bytes, int from, int length) {
+        int hash = 1;
+        for (int i = from; i < from + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private void rehash(int capacity) {
+        recordTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int offset = 0; offset < arenaLength; offset += HEADER_LENGTH + readLength(offset)) {
+            int length = readLength(offset);
+            int hash = hash(arena, offset + HEADER_LENGTH, length);
+            int slot = hash & mask;
+            while (recordTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            recordTable[slot] = offset + 1;
+        }
+    }
+
+    /**
+     * Rebuilds the arena from the records still in use once more than half of it is garbage,
+     * so that the time taken is paid for by the records that became garbage since the last
+     * rebuild.
+     */
+    private void compactArenaIfNeeded() {
+        if (garbageLength * 2 <= arenaLength) {
+            return;
+        }
+        byte[] oldArena = arena;
+        arena = new byte[Math.max(1024, arenaLength - garbageLength)];
+        arenaLength = 0;
+        garbageLength = 0;
+        Arrays.fill(recordTable, 0);
+        recordCount = 0;
+        for (int i = 0; i < size; i++) {
+            int offset = recordOffsets[i];
+            int length = readInt(oldArena, offset);
+            recordOffsets[i] = intern(Arrays.copyOfRange(oldArena, offset + HEADER_LENGTH,
+                    offset + HEADER_LENGTH + length));
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        recordOffsets = Arrays.copyOf(recordOffsets, newCapacity);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package tringaa;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.UncheckedTaskStorageException;
+import tringaa.tasks.Task;
+
+/**
+ * Stores a task list in the tasks table of an embedded H2 database, for lists too large to
+ * hold in memory. The list returned by {@link #load()} reads and writes the table directly,
+ * so every change to a task is saved as it is made, and saving that list again does nothing.
+ *
+ * The history, archive and change log are kept in the same files as for a text task list.
+ */
+public class DatabaseStorage implements Storage {
+    /** Suffix of the database file that H2 adds to the name it is given */
+    public static final String FILE_SUFFIX = ".mv.db";
+
+    private final Path databasePath;
+    /** Storage for the files other than the tasks, which are shared with text task lists */
+    private final TextStorage files;
+    private Connection connection;
+    private DatabaseTaskList tasks;
+    private List<Task> pendingReminders = new ArrayList<>();
+
+    /**
+     * Creates a storage for a task list kept in NAME.mv.db. No connection is opened until the list is loaded.
+     *
+     * @param directory The directory holding the list's files
+     * @param name The base name of the list's files
+     */
+    public DatabaseStorage(Path directory, String name) {
+        this.databasePath = directory.resolve(name);
+        this.files = new TextStorage(directory, name);
+    }
+
+    /**
+     * Checks whether a task list is kept in a database.
+     *
+     * @param directory The directory holding the list's files
+     * @param name The base name of the list's files
+     * @return True if the list has a database file
+     */
+    public static boolean exists(Path directory, String name) {
+        return Files.exists(directory.resolve(name + FILE_SUFFIX));
+    }
+
+    @Override
+    public Path getFilePath() {
+        return databasePath.resolveSibling(databasePath.getFileName() + FILE_SUFFIX);
+    }
+
+    @Override
+    public Path getChangeLogPath() {
+        return files.getChangeLogPath();
+    }
+
+    /**
+     * Opens the database, creating it and its tasks table if needed. Only the sequence numbers
+     * of the tasks are read, and the tasks themselves stay in the database until they are used.
+     *
+     * @return A list reading and writing the tasks table
+     * @throws TaskStorageException if the database cannot be opened
+     */
+    @Override
+    public List<Task> load() throws TaskStorageException {
+        try {
+            if (tasks == null) {
+                Files.createDirectories(databasePath.getParent());
+                connection = DriverManager.getConnection("jdbc:h2:file:" + databasePath.toAbsolutePath(), "sa", "");
+                DatabaseTaskList.createTable(connection);
+                tasks = new DatabaseTaskList(connection);
+            }
+            pendingReminders = new ArrayList<>();
+            for (Task task : tasks.selectRemindable()) {
+                if (TextStorage.hasPendingReminder(task)) {
+                    pendingReminders.add(task);
+                }
+            }
+            return tasks;
+        } catch (IOException | SQLException e) {
+            throw new TaskStorageException("Error opening task database: " + e.getMessage());
+        } catch (UncheckedTaskStorageException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public List<String> takeLoadWarnings() {
+        return List.of();
+    }
+
+    @Override
+    public List<Task> takePendingReminders() {
+        List<Task> pending = pendingReminders;
+        pendingReminders = new ArrayList<>();
+        return pending;
+    }
+
+    /**
+     * Saves the given list of tasks. The list returned by {@link #load()} is already saved,
+     * so saving it does nothing; {@link TaskList#saveTo(Storage)} hands over that list itself
+     * rather than a copy. Any other list replaces every task in the database in a single
+     * transaction, which is only done when a list is moved into the database.
+     *
+     * @param tasks List of tasks to save
+     * @throws TaskStorageException if the tasks cannot be written
+     */
+    @Override
+    public void save(List<Task> tasks) throws TaskStorageException {
+        if (tasks == this.tasks) {
+            return;
+        }
+        load();
+        try {
+            this.tasks.replaceTasks(tasks);
+        } catch (UncheckedTaskStorageException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Tasks are only changed through the list returned by {@link #load()}, so a save never
+     * conflicts with changes made outside the bot.
+     */
+    @Override
+    public boolean hasConflict() {
+        return false;
+    }
+
+    /**
+     * The database is not edited outside the bot, so there are never changes to reload.
+     */
+    @Override
+    public List<FileChange> reload() {
+        return List.of();
+    }
+
+    @Override
+    public void archive(List<Task> tasks) throws TaskStorageException {
+        files.archive(tasks);
+    }
+
+    @Override
+    public List<Task> findInArchive(String keyword) throws TaskStorageException {
+        return files.findInArchive(keyword);
+    }
+
+    @Override
+    public History loadHistory() throws TaskStorageException {
+        return files.loadHistory();
+    }
+
+    @Override
+    public void saveHistory(History history) throws TaskStorageException {
+        files.saveHistory(history);
+    }
+
+    /**
+     * Closes the connection to the database. The list returned by {@link #load()} can no longer be used.
+     *
+     * @throws TaskStorageException if the database cannot be closed
+     */
+    public void close() throws TaskStorageException {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new TaskStorageException("Error closing task database: " + e.getMessage());
+        } finally {
+            connection = null;
+            tasks = null;
+        }
+    }
+
+    /**
+     * Closes and deletes the database once its tasks are kept elsewhere.
+     *
+     * @throws TaskStorageException if the database cannot be deleted
+     */
+    public void delete() throws TaskStorageException {
+        close();
+        try {
+            Files.deleteIfExists(getFilePath());
+            Files.deleteIfExists(databasePath.resolveSibling(databasePath.getFileName() + ".trace.db"));
+        } catch (IOException e) {
+            throw new TaskStorageException("Error deleting task database: " + e.getMessage());
+        }
+    }
+}
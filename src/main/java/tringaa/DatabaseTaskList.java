@@ -0,0 +1,506 @@
+package tringaa;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.UncheckedTaskStorageException;
+import tringaa.index.TaskQuery;
+import tringaa.tasks.Task;
+
+/**
+ * A list of tasks kept in the tasks table of an embedded database instead of the heap.
+ * Each row holds a task in its storage format next to the type, done status, date and
+ * description columns used by queries. Rows are ordered by a sequence number, and only the
+ * sequence numbers are held in memory, so marking, replacing, inserting or deleting a task
+ * changes a single row and never renumbers the rows after it.
+ *
+ * Tasks are read a page at a time by {@link #get(int)} and created on demand, so changes
+ * made to a returned task must be written back with {@link #set(int, Task)}.
+ *
+ * Only the selections of this class are answered by the database. The indexes of a
+ * {@link TaskList}, used by ranked search, filters, the agenda, conflicts, tags and
+ * suggestions, are built in memory from every task, so the first of those commands after
+ * the list is loaded or changed in bulk reads and creates every task in the table once.
+ *
+ * Database errors and corrupt records are thrown as {@link UncheckedTaskStorageException},
+ * since the methods of a list cannot throw checked exceptions.
+ */
+public class DatabaseTaskList extends AbstractList<Task> implements QueryableTaskList, RandomAccess {
+    /** Distance between the sequence numbers of tasks appended to the list */
+    private static final long SEQUENCE_GAP = 1L << 20;
+    /** Number of consecutive tasks read with each query */
+    private static final int PAGE_SIZE = 256;
+    private static final String INSERT = "INSERT INTO tasks (seq, type, done, task_date, description, record) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE tasks SET type = ?, done = ?, task_date = ?, description = ?, "
+            + "record = ? WHERE seq = ?";
+
+    private final Connection connection;
+    /** Sequence numbers of the rows in list order, which is also ascending order */
+    private long[] sequences;
+    private int size;
+    /** Records of the tasks from {@link #pageStart}, read by the last page query */
+    private final String[] page = new String[PAGE_SIZE];
+    private int pageStart;
+    private int pageLength;
+
+    /**
+     * Creates a list over the tasks table of an open database, reading the sequence number of every row.
+     *
+     * @param connection An open connection to a database holding the tasks table
+     * @throws SQLException if the table cannot be read
+     */
+    DatabaseTaskList(Connection connection) throws SQLException {
+        this.connection = connection;
+        readSequences();
+    }
+
+    /**
+     * Creates the tasks table and its indexes if they do not exist yet.
+     *
+     * @param connection An open connection to the database
+     * @throws SQLException if the table cannot be created
+     */
+    static void createTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS tasks (seq BIGINT PRIMARY KEY, type CHAR(1) NOT NULL, "
+                    + "done BOOLEAN NOT NULL, task_date DATE, description VARCHAR NOT NULL, record VARCHAR NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS tasks_date ON tasks (task_date)");
+            statement.execute("CREATE INDEX IF NOT EXISTS tasks_done ON tasks (done)");
+            statement.execute("CREATE INDEX IF NOT EXISTS tasks_type ON tasks (type)");
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        String record = getRecord(index);
+        try {
+            return TextStorage.deserializeTask(record);
+        } catch (TaskStorageException e) {
+            throw new UncheckedTaskStorageException(new TaskStorageException("Corrupt task record: " + record));
+        }
+    }
+
+    @Override
+    public String getRecord(int index) {
+        checkIndex(index, size);
+        if (index < pageStart || index >= pageStart + pageLength) {
+            readPage(index);
+        }
+        return page[index - pageStart];
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        checkIndex(index, size);
+        Task previous = get(index);
+        String record = TextStorage.serializeTask(task);
+        try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+            bindColumns(update, 1, task, record);
+            update.setLong(6, sequences[index]);
+            update.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("updating", e);
+        }
+        page[index - pageStart] = record;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        long sequence = sequenceBefore(index);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            insertRow(insert, sequence, task);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("adding", e);
+        }
+        insertSequence(index, sequence);
+    }
+
+    /**
+     * Appends the tasks in a single transaction, sending the rows to the database in one batch.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        if (tasks.isEmpty()) {
+            return false;
+        }
+        ensureCapacity(size + tasks.size());
+        long sequence = size == 0 ? 0 : sequences[size - 1];
+        inTransaction("adding", () -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                long next = sequence;
+                for (Task task : tasks) {
+                    next += SEQUENCE_GAP;
+                    insertRow(insert, next, task);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+        for (int i = 0; i < tasks.size(); i++) {
+            sequences[size++] = sequence + (i + 1) * SEQUENCE_GAP;
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        checkIndex(index, size);
+        Task removed = get(index);
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM tasks WHERE seq = ?")) {
+            delete.setLong(1, sequences[index]);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("deleting", e);
+        }
+        removeSequences(index, index + 1);
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM tasks WHERE seq BETWEEN ? AND ?")) {
+            delete.setLong(1, sequences[fromIndex]);
+            delete.setLong(2, sequences[toIndex - 1]);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("deleting", e);
+        }
+        removeSequences(fromIndex, toIndex);
+    }
+
+    /**
+     * Replaces every task in the list in a single transaction.
+     *
+     * @param replacements The tasks to keep in the list instead, in order
+     */
+    public void replaceTasks(Collection<Task> replacements) {
+        inTransaction("replacing", () -> {
+            clear();
+            addAll(replacements);
+        });
+    }
+
+    /**
+     * Deletes the tasks at the given positions in a single transaction, one row each.
+     *
+     * @param positions Zero-based positions in ascending order
+     * @return The deleted tasks in list order
+     */
+    public List<Task> removePositions(int[] positions) {
+        List<Task> removed = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            removed.add(get(position));
+        }
+        inTransaction("deleting", () -> {
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM tasks WHERE seq = ?")) {
+                for (int position : positions) {
+                    delete.setLong(1, sequences[position]);
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+        });
+        int write = positions.length == 0 ? size : positions[0];
+        int next = 0;
+        for (int read = write; read < size; read++) {
+            if (next < positions.length && positions[next] == read) {
+                next++;
+            } else {
+                sequences[write++] = sequences[read];
+            }
+        }
+        size = write;
+        pageLength = 0;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Inserts tasks so that they end up at the given positions in a single transaction, one row each.
+     *
+     * @param positions Zero-based positions in ascending order that the tasks should end up at
+     * @param inserted The tasks to insert in the same order as the positions
+     */
+    public void insertPositions(int[] positions, List<Task> inserted) {
+        inTransaction("adding", () -> {
+            for (int i = 0; i < positions.length; i++) {
+                add(positions[i], inserted.get(i));
+            }
+        });
+    }
+
+    @Override
+    public BitSet selectUpcoming(LocalDate today) {
+        return select("SELECT seq FROM tasks WHERE done = FALSE AND (type = 'R' OR task_date >= ?)",
+                Date.valueOf(today));
+    }
+
+    @Override
+    public BitSet selectDone() {
+        return select("SELECT seq FROM tasks WHERE done = TRUE");
+    }
+
+    /**
+     * Selects the tasks whose description contains the search term, letting the database scan the descriptions.
+     *
+     * @param search The search term in lower case
+     * @return Zero-based positions of the matching tasks
+     */
+    public BitSet selectMatching(String search) {
+        String escaped = search.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return select("SELECT seq FROM tasks WHERE LOWER(description) LIKE ? ESCAPE '!'", "%" + escaped + "%");
+    }
+
+    /**
+     * Finds a task by its stored record, letting the database select the tasks that are not
+     * done and have the same type and description.
+     */
+    @Override
+    public int indexOfReminded(Task task) {
+        String wanted = TextStorage.withoutReminderState(TextStorage.serializeTask(task));
+        BitSet candidates = select("SELECT seq FROM tasks WHERE done = FALSE AND type = ? AND description = ?",
+                String.valueOf(TaskQuery.typeOf(task)), task.getDescription());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (TextStorage.withoutReminderState(getRecord(i)).equals(wanted)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Selects the tasks that are not done and have a date or a scheduled reminder, which are
+     * the only tasks that can have a pending reminder.
+     *
+     * @return The selected tasks in list order
+     */
+    List<Task> selectRemindable() {
+        BitSet positions = select("SELECT seq FROM tasks WHERE done = FALSE "
+                + "AND (task_date IS NOT NULL OR record LIKE '%| next=%')");
+        List<Task> selected = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            selected.add(get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Runs a query returning sequence numbers and converts them into positions, which are
+     * found by binary search since the sequence numbers are kept in ascending order.
+     */
+    private BitSet select(String query, Object... parameters) {
+        BitSet selected = new BitSet(size);
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    int position = Arrays.binarySearch(sequences, 0, size, rows.getLong(1));
+                    if (position >= 0) {
+                        selected.set(position);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw failure("reading", e);
+        }
+        return selected;
+    }
+
+    /** Reads the records of the page of tasks starting at the given position */
+    private void readPage(int index) {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT record FROM tasks WHERE seq >= ? ORDER BY seq LIMIT ?")) {
+            query.setLong(1, sequences[index]);
+            query.setInt(2, PAGE_SIZE);
+            pageStart = index;
+            pageLength = 0;
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    page[pageLength++] = rows.getString(1);
+                }
+            }
+        } catch (SQLException e) {
+            pageLength = 0;
+            throw failure("reading", e);
+        }
+    }
+
+    private void readSequences() throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM tasks")) {
+            count.next();
+            sequences = new long[Math.max(16, count.getInt(1))];
+        }
+        size = 0;
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT seq FROM tasks ORDER BY seq")) {
+            while (rows.next()) {
+                ensureCapacity(size + 1);
+                sequences[size++] = rows.getLong(1);
+            }
+        }
+        pageLength = 0;
+        modCount++;
+    }
+
+    /**
+     * Finds a sequence number for a task inserted at the given position, halfway between its
+     * neighbours. Once two neighbours have no number left between them, every row is renumbered.
+     */
+    private long sequenceBefore(int index) {
+        if (size == 0) {
+            return 0;
+        }
+        if (index == size) {
+            return sequences[size - 1] + SEQUENCE_GAP;
+        }
+        if (index == 0) {
+            return sequences[0] - SEQUENCE_GAP;
+        }
+        long previous = sequences[index - 1];
+        long next = sequences[index];
+        if (next - previous < 2) {
+            renumber();
+            previous = sequences[index - 1];
+            next = sequences[index];
+        }
+        return previous + (next - previous) / 2;
+    }
+
+    /**
+     * Spreads the sequence numbers out evenly again. The new numbers start after the largest
+     * existing one, so no row ever takes a number that another row still holds.
+     */
+    private void renumber() {
+        long base = sequences[size - 1] + SEQUENCE_GAP;
+        inTransaction("reordering", () -> {
+            try (PreparedStatement update = connection.prepareStatement("UPDATE tasks SET seq = ? WHERE seq = ?")) {
+                for (int i = 0; i < size; i++) {
+                    update.setLong(1, base + i * SEQUENCE_GAP);
+                    update.setLong(2, sequences[i]);
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+        });
+        for (int i = 0; i < size; i++) {
+            sequences[i] = base + i * SEQUENCE_GAP;
+        }
+    }
+
+    private void insertSequence(int index, long sequence) {
+        ensureCapacity(size + 1);
+        System.arraycopy(sequences, index, sequences, index + 1, size - index);
+        sequences[index] = sequence;
+        size++;
+        pageLength = 0;
+        modCount++;
+    }
+
+    private void removeSequences(int fromIndex, int toIndex) {
+        System.arraycopy(sequences, toIndex, sequences, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        pageLength = 0;
+        modCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > sequences.length) {
+            sequences = Arrays.copyOf(sequences, Math.max(capacity, sequences.length * 2));
+        }
+    }
+
+    private static void insertRow(PreparedStatement insert, long sequence, Task task) throws SQLException {
+        insert.setLong(1, sequence);
+        bindColumns(insert, 2, task, TextStorage.serializeTask(task));
+    }
+
+    /** Binds the type, done, date, description and record columns of a task from the given parameter */
+    private static void bindColumns(PreparedStatement statement, int first, Task task, String record)
+            throws SQLException {
+        statement.setString(first, String.valueOf(TaskQuery.typeOf(task)));
+        statement.setBoolean(first + 1, task.isDone());
+        if (task.getDate() == null) {
+            statement.setNull(first + 2, Types.DATE);
+        } else {
+            statement.setDate(first + 2, Date.valueOf(task.getDate()));
+        }
+        statement.setString(first + 3, task.getDescription());
+        statement.setString(first + 4, record);
+    }
+
+    /**
+     * A change to the database that may fail.
+     */
+    private interface Work {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Runs several changes as one transaction, so that either all of them are saved or none are.
+     * A transaction that is already open is joined instead.
+     */
+    private void inTransaction(String action, Work work) {
+        try {
+            if (!connection.getAutoCommit()) {
+                work.run();
+                return;
+            }
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                // Changes already made in memory are discarded by reading the rows back
+                readSequences();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw failure(action, e);
+        }
+    }
+
+    private static UncheckedTaskStorageException failure(String action, SQLException e) {
+        return new UncheckedTaskStorageException(
+                new TaskStorageException("Database error while " + action + " tasks: " + e.getMessage()));
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+}
@@ -1,60 +1,89 @@
 package tringaa;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * A dialog box is created for every message, so it is built in code instead of being
+ * loaded from an FXML layout each time, and the display pictures are decoded once and
+ * shared by every dialog box.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private static final double PICTURE_SIZE = 99.0;
+    private static final double PREFERRED_WIDTH = 400.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
+
+    /**
+     * The display pictures, decoded the first time a dialog box with one of them is created.
+     */
+    private static final class Pictures {
+        private static final Image USER = load("/images/cinna.png");
+        private static final Image TRINGA = load("/images/poc.png");
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+        private static Image load(String path) {
+            return new Image(DialogBox.class.getResourceAsStream(path));
+        }
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Creates a dialog box with the text on the left and the picture on the right, or the
+     * other way round if the picture comes first.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    private DialogBox(String text, Image img, boolean isPictureFirst) {
+        Label dialog = new Label(text);
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+
+        ImageView displayPicture = new ImageView(img);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREFERRED_WIDTH);
+        setPadding(PADDING);
+        if (isPictureFirst) {
+            getChildren().addAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        } else {
+            getChildren().addAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        }
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        return new DialogBox(text, img, false);
+    }
+
+    /**
+     * Creates a dialog box for a message from the user, with the shared picture of the user.
+     *
+     * @param text The message
+     * @return The dialog box
+     */
+    public static DialogBox getUserDialog(String text) {
+        return getUserDialog(text, Pictures.USER);
     }
 
     public static DialogBox getTringaDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
+        return new DialogBox(text, img, true);
+    }
+
+    /**
+     * Creates a dialog box for a reply from Tringa, with the shared picture of Tringa.
+     *
+     * @param text The reply
+     * @return The dialog box
+     */
+    public static DialogBox getTringaDialog(String text) {
+        return getTringaDialog(text, Pictures.TRINGA);
     }
 }
@@ -0,0 +1,164 @@
+package tringaa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tringaa.tasks.Task;
+
+/**
+ * Keeps a bounded history of edits made to a TaskList so that they can be undone and redone.
+ * Edits are stored as small delta records in a ring buffer rather than as snapshots of the
+ * whole list, so the memory used grows with the number of edits and not with the list size.
+ * Once the buffer is full, the oldest edit is dropped to make room for a new one.
+ */
+public class History {
+    /** Default number of edits kept in the history */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * The kinds of edits that can be recorded.
+     */
+    public enum Kind {
+        ADD, DELETE, MARK, EDIT
+    }
+
+    /**
+     * A single recorded edit, which may affect several tasks at once. ADD and DELETE edits keep
+     * the affected tasks so they can be restored, while MARK edits only need their positions.
+     * EDIT edits keep a copy of the task from before and after it was changed.
+     *
+     * @param kind The kind of edit
+     * @param indices Zero-based positions of the affected tasks in ascending order
+     * @param tasks The added or deleted tasks in the same order as the positions, the task before and
+     *         after the change for EDIT edits, or null for MARK edits
+     */
+    public record Edit(Kind kind, int[] indices, List<Task> tasks) {
+        /**
+         * Creates an edit that affects a single task.
+         *
+         * @param kind The kind of edit
+         * @param index Zero-based position of the affected task
+         * @param task The added or deleted task, or null for MARK edits
+         */
+        public Edit(Kind kind, int index, Task task) {
+            this(kind, new int[]{index}, task == null ? null : List.of(task));
+        }
+    }
+
+    private final Edit[] ring;
+    /** Position in the ring of the oldest edit */
+    private int start;
+    /** Number of edits currently stored, including those that can be redone */
+    private int size;
+    /** Number of edits that can be undone; edits after the cursor can be redone */
+    private int cursor;
+
+    /**
+     * Creates an empty history with the default capacity.
+     */
+    public History() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty history that keeps at most the given number of edits.
+     *
+     * @param capacity Maximum number of edits to keep
+     */
+    public History(int capacity) {
+        assert capacity > 0 : "History capacity must be positive";
+        this.ring = new Edit[capacity];
+    }
+
+    /**
+     * Records a new edit. Any edits that could previously be redone are discarded.
+     *
+     * @param edit The edit to record
+     */
+    public void record(Edit edit) {
+        assert edit != null : "Edit cannot be null";
+        for (int i = cursor; i < size; i++) {
+            ring[slot(i)] = null;
+        }
+        size = cursor;
+        if (size == ring.length) {
+            ring[start] = null;
+            start = (start + 1) % ring.length;
+            size--;
+            cursor--;
+        }
+        ring[slot(size)] = edit;
+        size++;
+        cursor++;
+    }
+
+    /**
+     * Steps back over the most recent edit.
+     *
+     * @return The edit to undo, or null if there is nothing to undo
+     */
+    public Edit undo() {
+        if (cursor == 0) {
+            return null;
+        }
+        cursor--;
+        return ring[slot(cursor)];
+    }
+
+    /**
+     * Steps forward over the most recently undone edit.
+     *
+     * @return The edit to redo, or null if there is nothing to redo
+     */
+    public Edit redo() {
+        if (cursor == size) {
+            return null;
+        }
+        Edit edit = ring[slot(cursor)];
+        cursor++;
+        return edit;
+    }
+
+    /**
+     * Removes all recorded edits.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            ring[slot(i)] = null;
+        }
+        start = 0;
+        size = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Gets all stored edits from oldest to newest, including those that can be redone.
+     *
+     * @return List of stored edits
+     */
+    public List<Edit> getEdits() {
+        List<Edit> edits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            edits.add(ring[slot(i)]);
+        }
+        return edits;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Restores the undo position after the edits have been reloaded from storage.
+     *
+     * @param cursor Number of stored edits that can be undone
+     */
+    public void setCursor(int cursor) {
+        assert cursor >= 0 && cursor <= size : "Cursor must be within the stored edits";
+        this.cursor = cursor;
+    }
+
+    private int slot(int offset) {
+        return (start + offset) % ring.length;
+    }
+}
@@ -1,21 +1,49 @@
 package tringaa;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 
 /**
  * Controller for the main GUI.
+ * Only the latest messages of the conversation are kept as dialog boxes. The rest are kept in
+ * the session log of a {@link Transcript} and shown again, a page at a time, when the user
+ * scrolls back to them. The number of messages kept can be set with the system property
+ * tringa.transcript.capacity, and the number of session logs kept with tringa.transcript.sessions.
+ * While the user types, completions and a preview of a find are worked out on a background
+ * thread once typing pauses, so a large list never holds up the keystrokes. Tab accepts the
+ * first completion.
  */
 public class MainWindow extends AnchorPane {
+    /** System property that sets the number of messages kept in memory */
+    private static final String CAPACITY_PROPERTY = "tringa.transcript.capacity";
+    /** System property that sets the number of session logs kept */
+    private static final String KEPT_SESSIONS_PROPERTY = "tringa.transcript.sessions";
+    /** Number of messages read back from the session log each time the user scrolls past the shown ones */
+    private static final int PAGE_SIZE = 20;
+    /** Milliseconds typing has to pause for before suggestions are worked out */
+    private static final long SUGGESTION_DELAY_MILLIS = 150;
+
     @FXML
     private ScrollPane scrollPane;
     @FXML
@@ -24,28 +52,78 @@ public class MainWindow extends AnchorPane {
     private TextField userInput;
     @FXML
     private Button sendButton;
-
+    @FXML
+    private Button agendaButton;
+    @FXML
+    private AgendaPanel agendaPanel;
+    @FXML
+    private Label suggestionLabel;
 
     private Tringa tringa;
-
-
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/cinna.png"));
-    private Image tringaImage = new Image(this.getClass().getResourceAsStream("/images/poc.png"));
-
+    /** The messages of the session, or null if they are all kept as dialog boxes */
+    private Transcript transcript;
+    /** Whether the conversation scrolls down to each new message */
+    private boolean isFollowingLatest = true;
+    /** Whether messages are being paged in, during which scrolling does not page again */
+    private boolean isPaging;
+    /** Works out suggestions off the GUI thread, one input at a time */
+    private final ScheduledExecutorService suggester = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tringa-suggestions");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Suggestions waiting for typing to pause, or null if there are none */
+    private ScheduledFuture<?> pendingSuggestions;
+    /** Completions of the input as it is now, best first */
+    private List<String> completions = List.of();
 
     /** Injects the program */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
-        dialogContainer.getChildren().add(
-                DialogBox.getTringaDialog("Hello, I'm Tringa! How can I help you today?",
-                        tringaImage)
-        );
+        dialogContainer.heightProperty().addListener(observable -> {
+            if (isFollowingLatest) {
+                scrollPane.setVvalue(scrollPane.getVmax());
+            }
+        });
+        scrollPane.vvalueProperty().addListener((observable, oldValue, newValue) ->
+                handleScroll(newValue.doubleValue()));
+        userInput.textProperty().addListener((observable, oldText, newText) -> scheduleSuggestions(newText));
+        userInput.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.TAB && !completions.isEmpty()) {
+                userInput.setText(completions.get(0));
+                userInput.positionCaret(userInput.getText().length());
+                event.consume();
+            }
+        });
+        try {
+            transcript = Transcript.startSession(Paths.get("data", "sessions"),
+                    Math.max(1, Integer.getInteger(CAPACITY_PROPERTY, Transcript.DEFAULT_CAPACITY)),
+                    Math.max(1, Integer.getInteger(KEPT_SESSIONS_PROPERTY, Transcript.DEFAULT_KEPT_SESSIONS)));
+        } catch (IOException e) {
+            transcript = null;
+        }
+        addMessages(List.of(new Transcript.Entry(Transcript.Speaker.TRINGA,
+                "Hello, I'm Tringa! How can I help you today?")));
     }
 
     /** Injects the Tringa instance */
     public void setTringa(Tringa t) {
         tringa = t;
+        agendaPanel.setSource(tringa::getAgenda);
+    }
+
+    /**
+     * Switches between the conversation and the agenda of the current week or month.
+     */
+    @FXML
+    private void toggleAgenda() {
+        boolean isShowingAgenda = !agendaPanel.isVisible();
+        agendaPanel.setVisible(isShowingAgenda);
+        scrollPane.setVisible(!isShowingAgenda);
+        agendaButton.setText(isShowingAgenda ? "Chat" : "Agenda");
+        if (isShowingAgenda) {
+            agendaPanel.refresh();
+        }
     }
 
 
@@ -58,11 +136,12 @@ public class MainWindow extends AnchorPane {
     private void handleUserInput() {
         String input = userInput.getText();
         String response = tringa.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getTringaDialog(response, tringaImage)
-        );
+        addMessages(List.of(new Transcript.Entry(Transcript.Speaker.USER, input),
+                new Transcript.Entry(Transcript.Speaker.TRINGA, response)));
         userInput.clear();
+        if (agendaPanel.isVisible()) {
+            agendaPanel.refresh();
+        }
 
         // Check if response was to "bye" command
         if (input.equalsIgnoreCase("bye")) {
@@ -70,7 +149,134 @@ public class MainWindow extends AnchorPane {
         }
     }
 
+    /**
+     * Works out the suggestions for the input once typing has paused, replacing any that were
+     * waiting. Suggestions are only shown if the input has not changed while they were worked out.
+     */
+    private void scheduleSuggestions(String input) {
+        if (pendingSuggestions != null) {
+            pendingSuggestions.cancel(false);
+            pendingSuggestions = null;
+        }
+        showSuggestions(Autocomplete.Suggestions.NONE);
+        if (tringa == null || input.isBlank()) {
+            return;
+        }
+        pendingSuggestions = suggester.schedule(() -> {
+            Autocomplete.Suggestions suggestions = tringa.getSuggestions(input);
+            Platform.runLater(() -> {
+                if (input.equals(userInput.getText())) {
+                    showSuggestions(suggestions);
+                }
+            });
+        }, SUGGESTION_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void showSuggestions(Autocomplete.Suggestions suggestions) {
+        completions = suggestions.completions();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < completions.size(); i++) {
+            lines.add((i == 0 ? "Tab: " : "     ") + completions.get(i));
+        }
+        if (suggestions.preview() != null) {
+            lines.add(suggestions.preview());
+        }
+        suggestionLabel.setText(String.join("\n", lines));
+        suggestionLabel.setVisible(!lines.isEmpty());
+    }
+
+    /**
+     * Adds messages after the latest one and scrolls down to them. The oldest dialog boxes are
+     * removed once there are more than the transcript keeps in memory.
+     */
+    private void addMessages(List<Transcript.Entry> entries) {
+        isFollowingLatest = true;
+        ObservableList<Node> dialogs = dialogContainer.getChildren();
+        if (transcript == null) {
+            dialogs.addAll(createDialogs(entries));
+            return;
+        }
+        try {
+            boolean wasAtLatest = transcript.isAtLatest();
+            for (Transcript.Entry entry : entries) {
+                transcript.add(entry);
+            }
+            if (wasAtLatest) {
+                dialogs.addAll(createDialogs(entries));
+                dialogs.remove(0, Math.max(0, dialogs.size() - transcript.size()));
+            } else {
+                // The user had scrolled back to earlier messages, which are replaced by the latest ones
+                dialogs.setAll(createDialogs(transcript.getEntries()));
+            }
+        } catch (IOException e) {
+            stopTranscript(e);
+            dialogs.addAll(createDialogs(entries));
+        }
+    }
+
+    /**
+     * Pages in earlier messages when the conversation is scrolled to the top, and later ones
+     * when it is scrolled back down to the bottom, keeping the shown messages within the
+     * capacity of the transcript.
+     */
+    private void handleScroll(double value) {
+        if (isPaging) {
+            return;
+        }
+        isFollowingLatest = value >= scrollPane.getVmax() && (transcript == null || transcript.isAtLatest());
+        if (transcript == null) {
+            return;
+        }
+        ObservableList<Node> dialogs = dialogContainer.getChildren();
+        isPaging = true;
+        try {
+            if (value <= scrollPane.getVmin() && transcript.hasEarlier()) {
+                List<Transcript.Entry> earlier = transcript.pageBack(PAGE_SIZE);
+                dialogs.addAll(0, createDialogs(earlier));
+                dialogs.remove(Math.min(transcript.size(), dialogs.size()), dialogs.size());
+                // Keeps the message that was at the top in view instead of jumping to the earliest one
+                scrollPane.setVvalue((double) earlier.size() / dialogs.size());
+            } else if (value >= scrollPane.getVmax() && !transcript.isAtLatest()) {
+                List<Transcript.Entry> later = transcript.pageForward(PAGE_SIZE);
+                dialogs.addAll(createDialogs(later));
+                dialogs.remove(0, Math.max(0, dialogs.size() - transcript.size()));
+                scrollPane.setVvalue(1 - (double) later.size() / dialogs.size());
+            }
+        } catch (IOException e) {
+            stopTranscript(e);
+        } finally {
+            isPaging = false;
+        }
+    }
+
+    /**
+     * Keeps every later message as a dialog box once the session log cannot be used.
+     */
+    private void stopTranscript(IOException e) {
+        transcript = null;
+        dialogContainer.getChildren().add(DialogBox.getTringaDialog("The session log cannot be used, so "
+                + "earlier messages may be missing and new ones are kept in memory: " + e.getMessage()));
+    }
+
+    private List<Node> createDialogs(List<Transcript.Entry> entries) {
+        List<Node> dialogs = new ArrayList<>(entries.size());
+        for (Transcript.Entry entry : entries) {
+            dialogs.add(entry.speaker() == Transcript.Speaker.USER
+                    ? DialogBox.getUserDialog(entry.text())
+                    : DialogBox.getTringaDialog(entry.text()));
+        }
+        return dialogs;
+    }
+
     private void handleExit() {
+        suggester.shutdownNow();
+        if (transcript != null) {
+            try {
+                transcript.close();
+            } catch (IOException e) {
+                // The log only has to be readable while the window is open
+            }
+        }
         TimerTask timerTask = new TimerTask() {
             public void run() {
                 Platform.exit();
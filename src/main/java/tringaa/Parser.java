@@ -1,19 +1,33 @@
 package tringaa;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import tringaa.exceptions.InvalidCommandException;
 import tringaa.exceptions.TaskStorageException;
 import tringaa.exceptions.TringaException;
+import tringaa.exceptions.UncheckedTaskStorageException;
 import tringaa.exceptions.UnknownCommandException;
+import tringaa.index.TaskQuery;
 import tringaa.tasks.Deadline;
 import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
 import tringaa.tasks.Task;
 import tringaa.tasks.ToDo;
+import tringaa.transfer.TaskTransfer;
 
 /**
  * Handles the parsing and execution of user commands in the Tringa application.
@@ -36,14 +50,94 @@ public class Parser {
     /** Pattern to match event task arguments: description, start date, and end date */
     private static final Pattern EVENT_ARGS_FORMAT =
             Pattern.compile("(?<description>[^/]+)/from(?<startDate>[^/]+)/to(?<endDate>.+)");
+    /** Pattern to match recurring task arguments: description, frequency and either a date or a date range */
+    private static final Pattern RECUR_ARGS_FORMAT =
+            Pattern.compile("(?<description>[^/]+)/every\\s*(?<frequency>week|month)\\s*"
+                    + "(/by(?<date>[^/]+)|/from(?<startDate>[^/]+)/to(?<endDate>[^/]+))",
+                    Pattern.CASE_INSENSITIVE);
     /** Pattern to match index arguments for mark and delete commands */
     private static final Pattern INDEX_ARGS_FORMAT =
             Pattern.compile("(?<targetIndex>\\d+)");
+    /** Pattern to match edit command arguments: the index followed by the details to change */
+    private static final Pattern EDIT_ARGS_FORMAT =
+            Pattern.compile("(?<targetIndex>\\d+)(?<options>(\\s*/(desc|by|from|to)[^/]+)+)",
+                    Pattern.CASE_INSENSITIVE);
+    /** Pattern to match one detail to change in an edit command, e.g. /by 2025-05-03 */
+    private static final Pattern EDIT_OPTION_FORMAT =
+            Pattern.compile("/(?<option>desc|by|from|to)(?<value>[^/]+)", Pattern.CASE_INSENSITIVE);
+    /** Pattern to match a list of indices and index ranges for bulk commands, e.g. 1,5,9-20 */
+    private static final Pattern INDEX_LIST_FORMAT =
+            Pattern.compile("\\d+(-\\d+)?(\\s*,\\s*\\d+(-\\d+)?)*");
+    /** Pattern to match a keyword selection for bulk commands, e.g. find report */
+    private static final Pattern FIND_SELECTION_FORMAT =
+            Pattern.compile("find\\s+(?<keyword>.+)", Pattern.CASE_INSENSITIVE);
+    /** Pattern to match ranked find arguments: ~KEYWORD with an optional result limit */
+    private static final Pattern RANKED_FIND_ARGS_FORMAT =
+            Pattern.compile("~(?<keyword>[^/]+)(/top\\s*(?<limit>\\d{1,4}))?");
     private static final Pattern FIND_ARGS_FORMAT =
             Pattern.compile("(?<keyword>.+)");
     /** Pattern to match upcoming tasks command: must be exactly "tasks" */
     private static final Pattern UPCOMING_TASKS_FORMAT =
-            Pattern.compile("^upcoming tasks$", Pattern.CASE_INSENSITIVE);
+            Pattern.compile("^tasks$", Pattern.CASE_INSENSITIVE);
+    /** Pattern to match a reminder offset at the end of the arguments, e.g. /remind 15m */
+    private static final Pattern REMIND_OPTION_FORMAT =
+            Pattern.compile("(?<arguments>.*?)\\s*/remind\\s*(?<amount>\\d{1,5})\\s*(?<unit>m|min|h|d|w)\\s*",
+                    Pattern.CASE_INSENSITIVE);
+    /**
+     * Pattern to match a tag anywhere in the arguments, e.g. #q4. Every word starting with #
+     * is taken as a tag and left out of the description, including words such as #42.
+     */
+    private static final Pattern TAG_FORMAT =
+            Pattern.compile("(?<=^|\\s)#(?<tag>[\\w-]+)");
+    /** Pattern to match a priority option anywhere in the arguments, e.g. /priority high */
+    private static final Pattern PRIORITY_OPTION_FORMAT =
+            Pattern.compile("/priority\\s*(?<priority>high|medium|low)\\b", Pattern.CASE_INSENSITIVE);
+    /** Pattern to match agenda command arguments: week or month, optionally with a date in the period */
+    private static final Pattern AGENDA_ARGS_FORMAT =
+            Pattern.compile("(?<period>week|month)(\\s+(?<date>\\S+))?", Pattern.CASE_INSENSITIVE);
+
+    /** Pattern to match use command arguments: the name of the list */
+    private static final Pattern USE_ARGS_FORMAT =
+            Pattern.compile("(?<name>\\S+)");
+    /** Number of days a task stays in the list after being marked as done before it is archived */
+    private static final int ARCHIVE_AFTER_DAYS = 7;
+    /** Commands that only add tasks, so that they can be run again on a list that changed */
+    private static final Set<String> ADDING_COMMANDS = Set.of("todo", "deadline", "event", "recur", "import");
+    /** Pattern to match storage command arguments: where to keep the list in use */
+    private static final Pattern STORAGE_ARGS_FORMAT =
+            Pattern.compile("(?<kind>text|database)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Executes a command against the list in use in the workspace. Commands that switch
+     * or show the lists themselves are handled here, and every other command is run on
+     * the current list.
+     *
+     * @param input The raw input string from the user
+     * @param workspace The Workspace holding the user's task lists
+     * @return A response message indicating the result of the command execution
+     * @throws TringaException if the command is invalid or execution fails
+     */
+    public static String executeCommand(String input, Workspace workspace) throws TringaException {
+        final Matcher matcher = BASIC_COMMAND_FORMAT.matcher(input.trim());
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("Invalid command format. Refer to documentation.");
+        }
+
+        final String arguments = matcher.group("arguments").trim();
+        try {
+            return switch (matcher.group("commandWord").toLowerCase()) {
+                case "use" -> prepareUse(arguments, workspace);
+                case "lists" -> workspace.listLists();
+                case "storage" -> prepareStorage(arguments, workspace);
+                case "sync" -> prepareSync(arguments, workspace);
+                default -> executeOnCurrentList(input, workspace);
+            };
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error loading list: " + e.getMessage());
+        } catch (UncheckedTaskStorageException e) {
+            throw new TringaException("Error loading list: " + e.getCause().getMessage());
+        }
+    }
 
     /**
      * Executes a command based on the user input.
@@ -54,7 +148,6 @@ public class Parser {
      * @return A response message indicating the result of the command execution
      * @throws TringaException if the command is invalid or execution fails
      */
-    @SuppressWarnings("checkstyle:Indentation")
     public static String executeCommand(String input, TaskList tasks, Storage storage)
             throws TringaException {
 
@@ -68,18 +161,62 @@ public class Parser {
         final String commandWord = matcher.group("commandWord").toLowerCase();
         final String arguments = matcher.group("arguments").trim();
 
-        return switch (commandWord) {
-            case "list" -> tasks.listTasks();
-            case "mark" -> prepareMark(arguments, tasks, storage);
-            case "delete" -> prepareDelete(arguments, tasks, storage);
-            case "todo" -> prepareTodo(arguments, tasks, storage);
-            case "deadline" -> prepareDeadline(arguments, tasks, storage);
-            case "event" -> prepareEvent(arguments, tasks, storage);
-            case "bye" -> "Bye. Hope to see you again soon!";
-            case "find" -> prepareFind(arguments, tasks);
-            case "upcoming" -> prepareUpcomingTasks(input, tasks);
-            default -> throw new UnknownCommandException(commandWord);
-        };
+        try {
+            return switch (commandWord) {
+                case "list" -> prepareList(arguments, tasks);
+                case "mark" -> prepareMark(arguments, tasks, storage);
+                case "delete" -> prepareDelete(arguments, tasks, storage);
+                case "edit" -> prepareEdit(arguments, tasks, storage);
+                case "todo" -> prepareTodo(arguments, tasks, storage);
+                case "deadline" -> prepareDeadline(arguments, tasks, storage);
+                case "event" -> prepareEvent(arguments, tasks, storage);
+                case "recur" -> prepareRecur(arguments, tasks, storage);
+                case "bye" -> "Bye. Hope to see you again soon!";
+                case "find" -> prepareFind(arguments, tasks);
+                case "upcoming" -> prepareUpcomingTasks(arguments, tasks);
+                case "agenda" -> prepareAgenda(arguments, tasks);
+                case "conflicts" -> prepareConflicts(arguments, tasks);
+                case "undo" -> prepareUndo(arguments, tasks, storage);
+                case "redo" -> prepareRedo(arguments, tasks, storage);
+                case "archive" -> prepareArchive(arguments, tasks, storage);
+                case "filter" -> prepareFilter(arguments, tasks);
+                case "import" -> prepareImport(arguments, tasks, storage);
+                case "export" -> prepareExport(arguments, tasks);
+                default -> throw new UnknownCommandException(commandWord);
+            };
+        } catch (UncheckedTaskStorageException e) {
+            // A list kept on disk could not read or write a task
+            throw new TringaException("Error accessing list: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Executes a command on the list in use. If the change could not be saved because the
+     * task file was changed outside the bot, the change is discarded and the list is brought
+     * up to date with the file. A command that only adds tasks is then run once more, so that
+     * the change is kept and the user is told why the list looks different. Any other command
+     * refers to tasks by their number or by what the list held, which the changes in the file
+     * may have altered, so it is not run again and the user is asked to check the list first.
+     */
+    private static String executeOnCurrentList(String input, Workspace workspace)
+            throws TringaException, TaskStorageException {
+        Storage storage = workspace.getStorage();
+        try {
+            return executeCommand(input, workspace.getTasks(), storage);
+        } catch (TringaException e) {
+            if (!storage.hasConflict()) {
+                throw e;
+            }
+        }
+        TaskList reloaded = workspace.getTasks();
+        Matcher matcher = BASIC_COMMAND_FORMAT.matcher(input.trim());
+        if (!matcher.matches() || !ADDING_COMMANDS.contains(matcher.group("commandWord").toLowerCase())) {
+            throw new TringaException("The task file was changed outside Tringa, so the list was loaded "
+                    + "again from it and your command was not applied. Check the list and try again.");
+        }
+        String response = executeCommand(input, reloaded, workspace.getStorage());
+        return "The task file was changed outside Tringa, so the list was loaded again from it "
+                + "before your command was applied.\n" + response;
     }
 
     /**
@@ -94,12 +231,15 @@ public class Parser {
      */
     private static String prepareDeadline(String args, TaskList tasks, Storage storage)
             throws TringaException {
+        final Labelled labelled = extractLabels(args);
+        final Reminded reminded = extractReminder(labelled.arguments());
+        args = reminded.arguments();
         final Matcher matcher = DEADLINE_ARGS_FORMAT.matcher(args);
         if (!matcher.matches()) {
             throw new InvalidCommandException("""
                 Invalid deadline command.
-                Format: deadline DESCRIPTION /by DATE
-                Date format: yyyy-MM-dd (e.g., 2023-02-22)
+                Format: deadline DESCRIPTION /by DATE [/remind OFFSET] [#TAG]... [/priority LEVEL]
+                Date format: yyyy-MM-dd or yyyy-MM-dd HH:mm (e.g., 2023-02-22 14:30)
                 """);
         }
         if (args.trim().startsWith("/by")) {
@@ -111,13 +251,15 @@ public class Parser {
             String description = matcher.group("description").trim();
             String dateStr = matcher.group("deadline").trim();
             Task deadlineTask = new Deadline(description, dateStr);
+            deadlineTask.setRemindBefore(reminded.remindBefore());
+            applyLabels(deadlineTask, labelled);
             String response = tasks.addTask(deadlineTask);
             Reminder.scheduleReminder(deadlineTask);
-            storage.save(tasks.getTasks());
-            return response;
+            saveAll(tasks, storage);
+            return response + describeReminder(deadlineTask);
         } catch (DateTimeParseException e) {
-            throw new InvalidCommandException("Invalid date format. Use: yyyy-MM-dd (e.g., "
-                    + "2023-02-22)");
+            throw new InvalidCommandException("Invalid date format. Use: yyyy-MM-dd or yyyy-MM-dd HH:mm (e.g., "
+                    + "2023-02-22 14:30)");
         } catch (TaskStorageException e) {
             throw new TringaException("Error saving task: " + e.getMessage());
         }
@@ -135,12 +277,15 @@ public class Parser {
      */
     private static String prepareEvent(String args, TaskList tasks, Storage storage)
             throws TringaException {
+        final Labelled labelled = extractLabels(args);
+        final Reminded reminded = extractReminder(labelled.arguments());
+        args = reminded.arguments();
         final Matcher matcher = EVENT_ARGS_FORMAT.matcher(args);
         if (!matcher.matches()) {
             throw new InvalidCommandException("""
             Invalid event command.
-            Format: event DESCRIPTION /from DATE /to DATE
-            Date format: yyyy-MM-dd (e.g., 2023-02-22)
+            Format: event DESCRIPTION /from DATE /to DATE [/remind OFFSET] [#TAG]... [/priority LEVEL]
+            Date format: yyyy-MM-dd or yyyy-MM-dd HH:mm (e.g., 2023-02-22 14:30)
             """);
         }
         try {
@@ -149,42 +294,206 @@ public class Parser {
                     matcher.group("endDate").trim());
 
             Task eventTask = new Event(description, formattedDates[0], formattedDates[1]);
-            String response = tasks.addTask(eventTask);
+            eventTask.setRemindBefore(reminded.remindBefore());
+            applyLabels(eventTask, labelled);
+            String response = tasks.addTask(eventTask) + describeReminder(eventTask);
             Reminder.scheduleReminder(eventTask);
-            storage.save(tasks.getTasks());
-            return response;
+            saveAll(tasks, storage);
+            String conflicts = tasks.describeConflicts(tasks.size());
+            return conflicts.isEmpty() ? response : response + "\n" + conflicts;
+        } catch (DateTimeParseException e) {
+            throw new InvalidCommandException("Invalid date format. Use: yyyy-MM-dd or yyyy-MM-dd HH:mm (e.g., "
+                    + "2023-02-22 14:30)");
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error saving task: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prepares and executes a recurring task creation command.
+     * Format: recur DESCRIPTION /every week|month /by DATE
+     * or recur DESCRIPTION /every week|month /from DATE /to DATE
+     *
+     * @param args The arguments string containing description, frequency and dates
+     * @param tasks The TaskList to add the recurring task to
+     * @param storage The Storage object for saving the task
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if the recur command is invalid
+     * @throws TringaException if saving fails
+     */
+    private static String prepareRecur(String args, TaskList tasks, Storage storage)
+            throws TringaException {
+        final Labelled labelled = extractLabels(args);
+        final Reminded reminded = extractReminder(labelled.arguments());
+        args = reminded.arguments();
+        final Matcher matcher = RECUR_ARGS_FORMAT.matcher(args);
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("""
+                Invalid recur command.
+                Format: recur DESCRIPTION /every week|month /by DATE [/remind OFFSET] [#TAG]... [/priority LEVEL]
+                or: recur DESCRIPTION /every week|month /from DATE /to DATE [/remind OFFSET] [#TAG]... [/priority LEVEL]
+                Date format: yyyy-MM-dd (e.g., 2023-02-22)
+                """);
+        }
+        try {
+            String description = matcher.group("description").trim();
+            Recurring.Frequency frequency = matcher.group("frequency").equalsIgnoreCase("week")
+                    ? Recurring.Frequency.WEEKLY
+                    : Recurring.Frequency.MONTHLY;
+            Task recurringTask;
+            if (matcher.group("date") != null) {
+                recurringTask = new Recurring(description, frequency, LocalDate.parse(matcher.group("date").trim()));
+            } else {
+                recurringTask = new Recurring(description, frequency,
+                        LocalDate.parse(matcher.group("startDate").trim()),
+                        LocalDate.parse(matcher.group("endDate").trim()));
+            }
+            recurringTask.setRemindBefore(reminded.remindBefore());
+            applyLabels(recurringTask, labelled);
+            String response = tasks.addTask(recurringTask);
+            Reminder.scheduleReminder(recurringTask);
+            saveAll(tasks, storage);
+            return response + describeReminder(recurringTask);
         } catch (DateTimeParseException e) {
             throw new InvalidCommandException("Invalid date format. Use: yyyy-MM-dd (e.g., "
                     + "2023-02-22)");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCommandException(e.getMessage());
         } catch (TaskStorageException e) {
             throw new TringaException("Error saving task: " + e.getMessage());
         }
     }
 
     /**
-     * Formats the start and end dates from yyyy-MM-dd to MMM dd yyyy.
+     * Formats the start and end dates from yyyy-MM-dd to MMM dd yyyy, keeping a time
+     * given as yyyy-MM-dd HH:mm as MMM dd yyyy, HH:mm.
      *
-     * @param startDateStr The start date string in yyyy-MM-dd format
-     * @param endDateStr The end date string in yyyy-MM-dd format
+     * @param startDateStr The start date string in yyyy-MM-dd format, optionally followed by HH:mm
+     * @param endDateStr The end date string in yyyy-MM-dd format, optionally followed by HH:mm
      * @return Array containing formatted start and end dates
      * @throws DateTimeParseException if date format is invalid
      */
     private static String[] formatDates(String startDateStr, String endDateStr)
             throws DateTimeParseException {
-        LocalDate startDate = LocalDate.parse(startDateStr);
-        LocalDate endDate = LocalDate.parse(endDateStr);
+        return new String[]{formatDate(startDateStr), formatDate(endDateStr)};
+    }
+
+    private static String formatDate(String date) throws DateTimeParseException {
+        String[] dateAndTime = date.trim().split("[T\\s]+", 2);
+        String formatted = LocalDate.parse(dateAndTime[0]).format(DateTimeFormatter.ofPattern("MMM dd yyyy"));
+        if (dateAndTime.length == 1) {
+            return formatted;
+        }
+        return formatted + ", " + LocalTime.parse(dateAndTime[1]).format(DateTimeFormatter.ofPattern("HH:mm"));
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
-        return new String[]{
-                startDate.format(formatter),
-                endDate.format(formatter)
+    /**
+     * Removes a reminder offset such as /remind 15m, 2h, 1d or 1w from the end of the arguments.
+     *
+     * @param args The arguments string
+     * @return The remaining arguments and the offset in minutes, or {@link Task#DEFAULT_REMINDER} if none was given
+     * @throws InvalidCommandException if the reminder offset is invalid
+     */
+    private static Reminded extractReminder(String args) throws InvalidCommandException {
+        if (!args.toLowerCase().contains("/remind")) {
+            return new Reminded(args, Task.DEFAULT_REMINDER);
+        }
+        final Matcher matcher = REMIND_OPTION_FORMAT.matcher(args);
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("Invalid reminder. Use /remind followed by minutes, hours, days "
+                    + "or weeks at the end (e.g., /remind 15m, /remind 2h, /remind 1d, /remind 1w)");
+        }
+        int amount = Integer.parseInt(matcher.group("amount"));
+        int minutes = switch (matcher.group("unit").toLowerCase()) {
+            case "h" -> amount * 60;
+            case "d" -> amount * 24 * 60;
+            case "w" -> amount * 7 * 24 * 60;
+            default -> amount;
         };
+        return new Reminded(matcher.group("arguments"), minutes);
+    }
+
+    /**
+     * Removes the tags (#TAG) and the priority option (/priority high|medium|low) from the arguments.
+     *
+     * @param args The arguments string
+     * @return The remaining arguments with the tags and priority found
+     * @throws InvalidCommandException if the priority is invalid
+     */
+    private static Labelled extractLabels(String args) throws InvalidCommandException {
+        Task.Priority priority = null;
+        final Matcher priorityMatcher = PRIORITY_OPTION_FORMAT.matcher(args);
+        if (priorityMatcher.find()) {
+            priority = Task.Priority.valueOf(priorityMatcher.group("priority").toUpperCase());
+            args = args.substring(0, priorityMatcher.start()) + " " + args.substring(priorityMatcher.end());
+        }
+        if (args.toLowerCase().contains("/priority")) {
+            throw new InvalidCommandException("Invalid priority. Use /priority high, /priority medium "
+                    + "or /priority low");
+        }
+        List<String> tags = new ArrayList<>();
+        final Matcher tagMatcher = TAG_FORMAT.matcher(args);
+        while (tagMatcher.find()) {
+            tags.add(tagMatcher.group("tag").toLowerCase());
+        }
+        if (!tags.isEmpty()) {
+            args = tagMatcher.replaceAll("");
+        }
+        return new Labelled(args.replaceAll("\\s{2,}", " ").trim(), priority, tags);
+    }
+
+    private static void applyLabels(Task task, Labelled labelled) {
+        task.setPriority(labelled.priority());
+        task.setTags(labelled.tags());
+    }
+
+    /**
+     * Arguments of a command with the tags and priority taken out.
+     *
+     * @param arguments The arguments without the tags and priority option
+     * @param priority The priority given, or null
+     * @param tags The tags given in lower case, without the leading #
+     */
+    private record Labelled(String arguments, Task.Priority priority, List<String> tags) {
+        boolean hasLabels() {
+            return priority != null || !tags.isEmpty();
+        }
+    }
+
+    /** Describes a reminder offset set by the user, to confirm it after adding the task */
+    private static String describeReminder(Task task) {
+        int minutes = task.getRemindBefore();
+        if (minutes == Task.DEFAULT_REMINDER) {
+            return "";
+        }
+        String offset;
+        if (minutes % (7 * 24 * 60) == 0 && minutes > 0) {
+            offset = minutes / (7 * 24 * 60) + " week(s)";
+        } else if (minutes % (24 * 60) == 0 && minutes > 0) {
+            offset = minutes / (24 * 60) + " day(s)";
+        } else if (minutes % 60 == 0 && minutes > 0) {
+            offset = minutes / 60 + " hour(s)";
+        } else {
+            offset = minutes + " minute(s)";
+        }
+        return "\nI'll remind you " + offset + " before it.";
+    }
+
+    /**
+     * Arguments of a command with the reminder offset taken out.
+     *
+     * @param arguments The arguments without the reminder option
+     * @param remindBefore Minutes before the task is due to remind, or {@link Task#DEFAULT_REMINDER}
+     */
+    private record Reminded(String arguments, int remindBefore) {
     }
 
     /**
      * Prepares and executes a mark-as-done command.
+     * Besides a single index, several tasks can be marked at once with a list of
+     * indices and ranges (e.g. 1,5,9-20), "done" or "find KEYWORD".
      *
-     * @param args The arguments string containing the task index
+     * @param args The arguments string containing the task index or selection
      * @param tasks The TaskList containing the task to mark
      * @param storage The Storage object for saving the changes
      * @return A response message indicating the result
@@ -198,14 +507,17 @@ public class Parser {
         assert storage != null : "Storage cannot be null";
 
         final Matcher matcher = INDEX_ARGS_FORMAT.matcher(args);
-        if (!matcher.matches()) {
-            throw new InvalidCommandException("Invalid mark command. Format: mark INDEX");
-        }
-
         try {
-            int index = Integer.parseInt(matcher.group("targetIndex"));
-            String response = tasks.markTaskDone(index);
-            storage.save(tasks.getTasks());
+            String response;
+            if (matcher.matches()) {
+                response = tasks.markTaskDone(Integer.parseInt(matcher.group("targetIndex")));
+            } else {
+                response = tasks.markTasksDone(parseSelection(args, tasks, """
+                        Invalid mark command.
+                        Format: mark INDEX, mark INDEX,INDEX-INDEX, mark done or mark find KEYWORD
+                        """));
+            }
+            saveAll(tasks, storage);
             return response;
         } catch (NumberFormatException e) {
             throw new InvalidCommandException("Task index must be a number.");
@@ -216,8 +528,10 @@ public class Parser {
 
     /**
      * Prepares and executes a delete task command.
+     * Besides a single index, several tasks can be deleted at once with a list of
+     * indices and ranges (e.g. 3-400), "done" or "find KEYWORD".
      *
-     * @param args The arguments string containing the task index
+     * @param args The arguments string containing the task index or selection
      * @param tasks The TaskList containing the task to delete
      * @param storage The Storage object for saving the changes
      * @return A response message indicating the result
@@ -231,22 +545,126 @@ public class Parser {
         assert storage != null : "Storage cannot be null";
 
         final Matcher matcher = INDEX_ARGS_FORMAT.matcher(args);
-        if (!matcher.matches()) {
-            throw new InvalidCommandException("Invalid delete command. Format: delete INDEX");
+        try {
+            String response;
+            if (matcher.matches()) {
+                response = tasks.deleteTask(Integer.parseInt(matcher.group("targetIndex")));
+            } else {
+                response = tasks.deleteTasks(parseSelection(args, tasks, """
+                        Invalid delete command.
+                        Format: delete INDEX, delete INDEX,INDEX-INDEX, delete done or delete find KEYWORD
+                        """));
+            }
+            saveAll(tasks, storage);
+            return response;
+        } catch (NumberFormatException e) {
+            throw new InvalidCommandException("Task index must be a number.");
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error saving changes: " + e.getMessage());
         }
+    }
 
+    /**
+     * Prepares and executes an edit command, which changes the description or dates of a task
+     * in place without changing its position.
+     * Format: edit INDEX [/desc DESCRIPTION] [/by DATE] [/from DATE] [/to DATE]
+     *
+     * @param args The arguments string containing the task index and the details to change
+     * @param tasks The TaskList containing the task to edit
+     * @param storage The Storage object for saving the changes
+     * @return A response message showing the changed task
+     * @throws InvalidCommandException if the edit command is invalid
+     * @throws TringaException if the task does not have the dates given or saving fails
+     */
+    private static String prepareEdit(String args, TaskList tasks, Storage storage)
+            throws TringaException {
+        final Matcher matcher = EDIT_ARGS_FORMAT.matcher(args);
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("""
+                Invalid edit command.
+                Format: edit INDEX [/desc DESCRIPTION] [/by DATE] [/from DATE] [/to DATE]
+                Date format: yyyy-MM-dd or yyyy-MM-dd HH:mm (e.g., 2023-02-22 14:30)
+                """);
+        }
+        Map<String, String> changes = new HashMap<>();
+        final Matcher optionMatcher = EDIT_OPTION_FORMAT.matcher(matcher.group("options"));
+        while (optionMatcher.find()) {
+            String value = optionMatcher.group("value").trim();
+            if (value.isEmpty() || changes.put(optionMatcher.group("option").toLowerCase(), value) != null) {
+                throw new InvalidCommandException("Each detail of the task can only be given once, "
+                        + "and cannot be empty.");
+            }
+        }
         try {
             int index = Integer.parseInt(matcher.group("targetIndex"));
-            String response = tasks.deleteTask(index);
-            storage.save(tasks.getTasks());
-            return response;
+            String start = changes.containsKey("from") ? formatDate(changes.get("from")) : null;
+            String end = changes.containsKey("to") ? formatDate(changes.get("to")) : null;
+            String description = changes.get("desc");
+            List<String> tags = null;
+            if (description != null) {
+                // Tags in the new description replace the tags of the task, as when it was added
+                Labelled labelled = extractLabels(description);
+                description = labelled.arguments().isEmpty() ? null : labelled.arguments();
+                tags = labelled.tags().isEmpty() ? null : labelled.tags();
+            }
+            Task edited = tasks.editTask(index, description, tags, changes.get("by"), start, end);
+            if (changes.containsKey("by") || start != null || end != null) {
+                Reminder.rescheduleReminder(edited);
+            }
+            saveAll(tasks, storage);
+            String response = String.format("Got it. I've changed this task:\n  %s", edited);
+            String conflicts = start != null || end != null ? tasks.describeConflicts(index) : "";
+            return conflicts.isEmpty() ? response : response + "\n" + conflicts;
         } catch (NumberFormatException e) {
             throw new InvalidCommandException("Task index must be a number.");
+        } catch (DateTimeParseException e) {
+            throw new InvalidCommandException("Invalid date format. Use: yyyy-MM-dd or yyyy-MM-dd HH:mm (e.g., "
+                    + "2023-02-22 14:30)");
         } catch (TaskStorageException e) {
             throw new TringaException("Error saving changes: " + e.getMessage());
         }
     }
 
+    /**
+     * Parses the selection of a bulk mark or delete command.
+     *
+     * @param args The selection: a list of indices and ranges, "done" or "find KEYWORD"
+     * @param tasks The TaskList to select tasks from
+     * @param usage The message to show if the selection is invalid
+     * @return One-based indices of the selected tasks
+     * @throws TringaException if the selection is invalid
+     */
+    private static BitSet parseSelection(String args, TaskList tasks, String usage)
+            throws TringaException {
+        if (args.equalsIgnoreCase("done")) {
+            return tasks.selectDone();
+        }
+        final Matcher findMatcher = FIND_SELECTION_FORMAT.matcher(args);
+        if (findMatcher.matches()) {
+            return tasks.selectMatching(findMatcher.group("keyword"));
+        }
+        if (!INDEX_LIST_FORMAT.matcher(args).matches()) {
+            throw new InvalidCommandException(usage);
+        }
+
+        BitSet selected = new BitSet();
+        for (String range : args.split(",")) {
+            String[] bounds = range.trim().split("-");
+            int first = Integer.parseInt(bounds[0]);
+            int last = bounds.length > 1 ? Integer.parseInt(bounds[1]) : first;
+            if (first > last) {
+                throw new InvalidCommandException("Invalid range: " + range.trim()
+                        + ". The first index cannot be larger than the last.");
+            }
+            if (last > tasks.size()) {
+                throw new TringaException(String.format("Invalid task number: %d. Please provide a number"
+                        + " that is between 1 and %d.", last, tasks.size()));
+            }
+            selected.set(first, last + 1);
+        }
+        return selected;
+    }
+
     /**
      * Prepares and executes a todo task creation command.
      *
@@ -263,15 +681,18 @@ public class Parser {
         assert tasks != null : "TaskList cannot be null";
         assert storage != null : "Storage cannot be null";
 
-        final Matcher matcher = TODO_ARGS_FORMAT.matcher(args);
+        final Labelled labelled = extractLabels(args);
+        final Matcher matcher = TODO_ARGS_FORMAT.matcher(labelled.arguments());
         if (!matcher.matches()) {
-            throw new InvalidCommandException("Invalid todo command. Format: todo DESCRIPTION");
+            throw new InvalidCommandException("Invalid todo command. Format: todo DESCRIPTION [#TAG]... "
+                    + "[/priority high|medium|low]");
         }
 
         try {
             Task todo = new ToDo(matcher.group("description").trim());
+            applyLabels(todo, labelled);
             String response = tasks.addTask(todo);
-            storage.save(tasks.getTasks());
+            saveAll(tasks, storage);
             return response;
         } catch (TaskStorageException e) {
             throw new TringaException("Error saving task: " + e.getMessage());
@@ -280,6 +701,8 @@ public class Parser {
 
     /**
      * Prepares and executes a find task command.
+     * A keyword starting with ~ runs a ranked, typo-tolerant search that returns only
+     * the best matches, e.g. find ~meeting /top 5.
      *
      * @param args The arguments string containing the find keyword
      * @param tasks The TaskList of all current tasks in the list
@@ -291,6 +714,25 @@ public class Parser {
         assert args != null : "Input string cannot be null";
         assert tasks != null : "TaskList cannot be null";
 
+        final Labelled labelled = extractLabels(args);
+        if (labelled.hasLabels()) {
+            if (labelled.arguments().startsWith("~")) {
+                throw new InvalidCommandException("Tags and priorities cannot be used with find ~KEYWORD.");
+            }
+            return tasks.findTasks(labelled.arguments(), labelled.tags(), labelled.priority());
+        }
+
+        final Matcher rankedMatcher = RANKED_FIND_ARGS_FORMAT.matcher(args);
+        if (rankedMatcher.matches()) {
+            String keyword = rankedMatcher.group("keyword").trim();
+            String limit = rankedMatcher.group("limit");
+            if (keyword.isEmpty() || (limit != null && Integer.parseInt(limit) == 0)) {
+                throw new InvalidCommandException("Invalid find command. Usage: find ~KEYWORD [/top COUNT]");
+            }
+            return tasks.findTasksRanked(keyword,
+                    limit == null ? TaskList.DEFAULT_SEARCH_LIMIT : Integer.parseInt(limit));
+        }
+
         final Matcher matcher = FIND_ARGS_FORMAT.matcher(args);
         if (!matcher.matches()) {
             throw new InvalidCommandException("Invalid find command. Usage: find KEYWORD");
@@ -301,6 +743,25 @@ public class Parser {
         }
         return tasks.findTasks(keyword);
     }
+
+    /**
+     * Prepares and executes a filter command, e.g. filter type:D done:false by<2026-12-01.
+     *
+     * @param args The arguments string containing the filter clauses
+     * @param tasks The TaskList of all current tasks in the list
+     * @return A formatted string containing the tasks matching every clause
+     * @throws InvalidCommandException if the filter clauses are invalid
+     */
+    private static String prepareFilter(String args, TaskList tasks) throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+
+        if (args.isEmpty()) {
+            throw new InvalidCommandException("Invalid filter command. Usage: filter CLAUSE...");
+        }
+        return tasks.filterTasks(TaskQuery.compile(args));
+    }
+
     /**
      * Executes the command to list upcoming tasks.
      *
@@ -309,14 +770,312 @@ public class Parser {
      * @return A formatted string containing the list of upcoming tasks
      * @throws InvalidCommandException if the command format is invalid
      */
-    private static String prepareUpcomingTasks(String input, TaskList tasks)
+    private static String prepareUpcomingTasks(String args, TaskList tasks)
             throws TringaException {
-        assert input != null : "Input string cannot be null";
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+
+        final Labelled labelled = extractLabels(args);
+        boolean isTagsOnly = labelled.hasLabels() && labelled.arguments().isEmpty();
+        if (!isTagsOnly && !UPCOMING_TASKS_FORMAT.matcher(labelled.arguments()).matches()) {
+            throw new InvalidCommandException("Invalid command format. Usage: upcoming tasks, "
+                    + "or upcoming [#TAG]... [/priority LEVEL]");
+        }
+        return tasks.listUpcomingTasks(labelled.tags(), labelled.priority());
+    }
+
+    /**
+     * Lists all tasks, or only the tasks with the given tags and priority.
+     *
+     * @param args The tags and priority option, or an empty string
+     * @param tasks The TaskList to list
+     * @return The listed tasks
+     * @throws InvalidCommandException if anything other than tags and a priority is given
+     */
+    private static String prepareList(String args, TaskList tasks) throws InvalidCommandException {
+        final Labelled labelled = extractLabels(args);
+        if (!labelled.arguments().isEmpty()) {
+            throw new InvalidCommandException("Invalid list command. Usage: list [#TAG]... [/priority LEVEL]");
+        }
+        return tasks.listTasks(labelled.tags(), labelled.priority());
+    }
+
+    /**
+     * Prepares and executes an agenda command, listing the deadlines and events of the current
+     * week or month by day, e.g. agenda week or agenda month 2025-05-01.
+     *
+     * @param args The arguments string containing the period and an optional date in it
+     * @param tasks The TaskList of all current tasks in the list
+     * @return A formatted string containing the tasks on each day of the period
+     * @throws InvalidCommandException if the period or date is invalid
+     */
+    private static String prepareAgenda(String args, TaskList tasks) throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+
+        final Matcher matcher = AGENDA_ARGS_FORMAT.matcher(args);
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("Invalid agenda command. Usage: agenda week|month [yyyy-MM-dd]");
+        }
+        AgendaPeriod period = AgendaPeriod.valueOf(matcher.group("period").toUpperCase());
+        LocalDate date = LocalDate.now();
+        if (matcher.group("date") != null) {
+            try {
+                date = LocalDate.parse(matcher.group("date"));
+            } catch (DateTimeParseException e) {
+                throw new InvalidCommandException("Invalid date format. Use: yyyy-MM-dd (e.g., 2025-05-01)");
+            }
+        }
+        return tasks.listAgenda(period.firstDay(date), period.lastDay(date));
+    }
+
+    /**
+     * Prepares and executes a conflicts command, listing every pair of overlapping events.
+     *
+     * @param args The arguments string, which must be empty
+     * @param tasks The TaskList of all current tasks in the list
+     * @return A formatted string containing the overlapping events
+     * @throws InvalidCommandException if any arguments are given
+     */
+    private static String prepareConflicts(String args, TaskList tasks) throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+
+        if (!args.isEmpty()) {
+            throw new InvalidCommandException("Invalid conflicts command. Usage: conflicts");
+        }
+        return tasks.listConflicts();
+    }
+
+    /**
+     * Prepares and executes an undo command, reverting the most recent edit to the task list.
+     *
+     * @param args The arguments string, which must be empty
+     * @param tasks The TaskList to revert the edit on
+     * @param storage The Storage object for saving the changes
+     * @return A response message describing the reverted edit
+     * @throws InvalidCommandException if any arguments are given
+     * @throws TringaException if there is nothing to undo or saving fails
+     */
+    private static String prepareUndo(String args, TaskList tasks, Storage storage)
+            throws TringaException {
+        assert args != null : "Input string cannot be null";
         assert tasks != null : "TaskList cannot be null";
+        assert storage != null : "Storage cannot be null";
 
-        if (!UPCOMING_TASKS_FORMAT.matcher(input.trim()).matches()) {
-            throw new InvalidCommandException("Invalid command format. Usage: upcoming tasks");
+        if (!args.isEmpty()) {
+            throw new InvalidCommandException("Invalid undo command. Usage: undo");
+        }
+        try {
+            String response = tasks.undo();
+            saveAll(tasks, storage);
+            return response;
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error saving changes: " + e.getMessage());
         }
-        return tasks.listUpcomingTasks();
+    }
+
+    /**
+     * Prepares and executes a redo command, re-applying the most recently undone edit.
+     *
+     * @param args The arguments string, which must be empty
+     * @param tasks The TaskList to re-apply the edit on
+     * @param storage The Storage object for saving the changes
+     * @return A response message describing the re-applied edit
+     * @throws InvalidCommandException if any arguments are given
+     * @throws TringaException if there is nothing to redo or saving fails
+     */
+    private static String prepareRedo(String args, TaskList tasks, Storage storage)
+            throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+        assert storage != null : "Storage cannot be null";
+
+        if (!args.isEmpty()) {
+            throw new InvalidCommandException("Invalid redo command. Usage: redo");
+        }
+        try {
+            String response = tasks.redo();
+            saveAll(tasks, storage);
+            return response;
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error saving changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prepares and executes an archive command. Without arguments, all done tasks are moved
+     * to the archive; with "find KEYWORD", the archive is searched instead.
+     *
+     * @param args The arguments string, either empty or "find KEYWORD"
+     * @param tasks The TaskList to move done tasks out of
+     * @param storage The Storage object holding the archive
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if the archive command is invalid
+     * @throws TringaException if reading or writing the archive fails
+     */
+    private static String prepareArchive(String args, TaskList tasks, Storage storage)
+            throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+        assert storage != null : "Storage cannot be null";
+
+        try {
+            if (args.isEmpty()) {
+                List<Task> archived = tasks.archiveDoneTasks(LocalDate.now().plusDays(1), storage);
+                return String.format("Archived %d done tasks.\nNow you have %d tasks in the list.",
+                        archived.size(), tasks.size());
+            }
+            final Matcher matcher = FIND_SELECTION_FORMAT.matcher(args);
+            if (!matcher.matches()) {
+                throw new InvalidCommandException("Invalid archive command. Usage: archive or archive find KEYWORD");
+            }
+            List<Task> matches = storage.findInArchive(matcher.group("keyword"));
+            if (matches.isEmpty()) {
+                return "No matching tasks found in the archive.";
+            }
+            StringBuilder sb = new StringBuilder("Here are the matching tasks in your archive:\n");
+            for (int i = 0; i < matches.size(); i++) {
+                sb.append(i + 1).append(".").append(matches.get(i)).append("\n");
+            }
+            return sb.toString().trim();
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error accessing archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prepares and executes a command that adds every task in a CSV, NDJSON or iCalendar file
+     * to the list. The tasks are added as one edit and saved once, and nothing is added if
+     * any record in the file is invalid.
+     *
+     * @param args The arguments string containing the path of the file
+     * @param tasks The TaskList to add the tasks to
+     * @param storage The Storage object for saving the tasks
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if the path or file type is invalid
+     * @throws TringaException if the file cannot be read or saving fails
+     */
+    private static String prepareImport(String args, TaskList tasks, Storage storage)
+            throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+        assert storage != null : "Storage cannot be null";
+
+        Path path = parseTransferPath(args, "import");
+        try {
+            List<Task> imported = TaskTransfer.importTasks(path);
+            String response = tasks.addTasks(imported);
+            saveAll(tasks, storage);
+            return response;
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error importing tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prepares and executes a command that writes every task in the list to a CSV, NDJSON
+     * or iCalendar file.
+     *
+     * @param args The arguments string containing the path of the file
+     * @param tasks The TaskList to export
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if the path or file type is invalid
+     * @throws TringaException if the file cannot be written
+     */
+    private static String prepareExport(String args, TaskList tasks) throws TringaException {
+        assert args != null : "Input string cannot be null";
+        assert tasks != null : "TaskList cannot be null";
+
+        Path path = parseTransferPath(args, "export");
+        try {
+            TaskTransfer.exportTasks(tasks.getTasks(), path);
+            return String.format("Exported %d tasks to %s.", tasks.size(), path);
+        } catch (TaskStorageException e) {
+            throw new TringaException("Error exporting tasks: " + e.getMessage());
+        }
+    }
+
+    private static Path parseTransferPath(String args, String commandWord) throws InvalidCommandException {
+        if (args.isEmpty()) {
+            throw new InvalidCommandException(String.format("Invalid %s command. Usage: %s FILE.csv|.ndjson|.ics",
+                    commandWord, commandWord));
+        }
+        try {
+            return Paths.get(args);
+        } catch (InvalidPathException e) {
+            throw new InvalidCommandException("Invalid file path: " + args);
+        }
+    }
+
+    /**
+     * Prepares and executes a command that switches to another task list.
+     *
+     * @param args The arguments string containing the name of the list
+     * @param workspace The Workspace holding the user's task lists
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if no list name is given
+     * @throws TaskStorageException if the list cannot be loaded
+     */
+    private static String prepareUse(String args, Workspace workspace)
+            throws TringaException, TaskStorageException {
+        final Matcher matcher = USE_ARGS_FORMAT.matcher(args);
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("Invalid use command. Usage: use NAME");
+        }
+        return workspace.use(matcher.group("name"));
+    }
+
+    /**
+     * Prepares and executes a command that moves the list in use into a database or a text file.
+     *
+     * @param args The arguments string naming the kind of storage
+     * @param workspace The Workspace holding the user's task lists
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if the kind of storage is not given
+     * @throws TaskStorageException if the list cannot be moved
+     */
+    private static String prepareStorage(String args, Workspace workspace)
+            throws TringaException, TaskStorageException {
+        final Matcher matcher = STORAGE_ARGS_FORMAT.matcher(args);
+        if (!matcher.matches()) {
+            throw new InvalidCommandException("Invalid storage command. Usage: storage text|database");
+        }
+        return workspace.changeStorage(matcher.group("kind").equalsIgnoreCase("database"));
+    }
+
+    /**
+     * Prepares and executes a command that syncs the list in use with other devices through a shared folder.
+     *
+     * @param args The arguments string containing the path of the shared folder
+     * @param workspace The Workspace holding the user's task lists
+     * @return A response message indicating the result
+     * @throws InvalidCommandException if the folder is not given or invalid
+     * @throws TaskStorageException if the list cannot be synced
+     */
+    private static String prepareSync(String args, Workspace workspace)
+            throws TringaException, TaskStorageException {
+        if (args.isEmpty()) {
+            throw new InvalidCommandException("Invalid sync command. Usage: sync FOLDER");
+        }
+        try {
+            return workspace.sync(Paths.get(args));
+        } catch (InvalidPathException e) {
+            throw new InvalidCommandException("Invalid folder path: " + args);
+        }
+    }
+
+    /**
+     * Saves the tasks together with their undo/redo history, then moves the tasks that have
+     * been done for longer than {@link #ARCHIVE_AFTER_DAYS} days into the archive. Old tasks
+     * are only archived here, so that loading a list or showing it never rewrites its files.
+     *
+     * @param tasks The TaskList to save
+     * @param storage The Storage object to save to
+     * @throws TaskStorageException if saving or archiving fails
+     */
+    private static void saveAll(TaskList tasks, Storage storage) throws TaskStorageException {
+        tasks.saveTo(storage);
+        tasks.archiveDoneTasks(LocalDate.now().minusDays(ARCHIVE_AFTER_DAYS), storage);
     }
 }
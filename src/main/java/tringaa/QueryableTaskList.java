@@ -0,0 +1,53 @@
+package tringaa;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import tringaa.tasks.Task;
+
+/**
+ * A list of tasks that can select tasks by their done status and date without creating
+ * every task, so that scans over very large lists only create the tasks they return.
+ *
+ * Such a list keeps its tasks in their storage format, so {@link #get(int)} creates a new
+ * task on every call. Changing a task returned by the list does not change the list: every
+ * change must be written back with {@link #set(int, Task)}, and two calls for the same
+ * position never return the same object.
+ */
+public interface QueryableTaskList extends List<Task> {
+
+    /**
+     * Gets a task in its storage format without creating the task, so that the list can be
+     * saved without creating every task in it.
+     *
+     * @param index Zero-based position of the task
+     * @return The stored record of the task, as written by {@link TextStorage#serializeTask(Task)}
+     */
+    String getRecord(int index);
+
+    /**
+     * Selects the tasks that are not done and whose date is on or after the given date,
+     * plus every recurring task that is not done.
+     *
+     * @param today The earliest date to include
+     * @return Zero-based positions of the selected tasks
+     */
+    BitSet selectUpcoming(LocalDate today);
+
+    /**
+     * Selects the tasks that are done.
+     *
+     * @return Zero-based positions of the done tasks
+     */
+    BitSet selectDone();
+
+    /**
+     * Finds a task that is not done and is stored the same as the given copy of it, apart
+     * from the reminder state, which the copy may have changed since it was read.
+     *
+     * @param task A copy of a task read from the list
+     * @return Zero-based position of the task, or -1 if the list does not hold it
+     */
+    int indexOfReminded(Task task);
+}
@@ -1,99 +1,146 @@
 package tringaa;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
-import tringaa.tasks.Deadline;
-import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
 import tringaa.tasks.Task;
 
 /**
  * A utility class that manages automatic reminders for tasks.
- * This class handles scheduling and displaying reminders for Deadline and Event tasks.
- * Reminders are scheduled one day before the task's due date and displayed at 9 AM.
+ * This class handles scheduling and displaying reminders for Deadline, Event and Recurring tasks.
+ * By default a task is reminded one day before it is due, and tasks without a time of day
+ * count as due at 9 AM. A task can set its own reminder offset instead.
+ * For recurring tasks only the next occurrence is scheduled; the reminder for the
+ * following occurrence is scheduled when the current one fires.
+ * Reminders are saved with their tasks and restored when a list is loaded, and reminders
+ * that fell due while the bot was closed are shown once, together in a single alert.
  */
 public class Reminder {
-    /** Timer used to schedule all reminders */
-    private static final Timer timer = new Timer(true);
+    /** Largest number of tasks listed in a single reminder alert */
+    private static final int MAX_LISTED_TASKS = 20;
 
-    /** Formatter for parsing dates stored in tasks */
-    private static final DateTimeFormatter formatter =
-            DateTimeFormatter.ofPattern("MMM dd yyyy");
+    /** Scheduler used for all reminders, which delivers reminders due in the same minute together */
+    private static final ReminderScheduler scheduler = new ReminderScheduler(Reminder::remind);
+
+    /** Called on the JavaFX application thread with the tasks whose reminders were shown */
+    private static Consumer<List<Task>> onShown = tasks -> { };
 
     /**
-     * Schedules a reminder for a task based on its type and due date.
-     * For both Deadline and Event tasks, a reminder is scheduled for 9 AM
-     * on the day before the task is due.
+     * Schedules a reminder for a task based on its due date, time and reminder offset.
+     * Tasks without a date and reminders whose time has passed are ignored.
      *
-     * @param task The task to schedule a reminder for. Must be either a Deadline or Event task.
+     * @param task The task to schedule a reminder for
      */
     public static void scheduleReminder(Task task) {
-        LocalDateTime reminderDateTime = null;
-
-        // Calculate when to show the reminder based on task type
-        if (task instanceof Deadline deadline) {
-            // Parse the deadline date and set reminder for previous day
-            LocalDate deadlineDate = LocalDate.parse(deadline.getDeadline(), formatter);
-            reminderDateTime = LocalDateTime.of(deadlineDate.minusDays(1), LocalTime.of(9, 0));
-        } else if (task instanceof Event event) {
-            // Parse the event start date and set reminder for previous day
-            LocalDate eventDate = LocalDate.parse(event.getStart(), formatter);
-            reminderDateTime = LocalDateTime.of(eventDate.minusDays(1), LocalTime.of(9, 0));
-        }
+        scheduler.schedule(task);
+    }
 
-        // Only schedule if we have a valid future reminder time
-        if (reminderDateTime != null && reminderDateTime.isAfter(LocalDateTime.now())) {
-            scheduleNotification(task, reminderDateTime);
-        }
+    /**
+     * Moves the reminder of a task whose date was changed to the new date.
+     *
+     * @param task The changed task
+     */
+    public static void rescheduleReminder(Task task) {
+        scheduler.reschedule(task);
+    }
+
+    /**
+     * Schedules the reminders of tasks that were loaded again, showing the ones that were
+     * missed while the bot was closed.
+     *
+     * @param tasks Tasks whose reminders have not been shown yet
+     */
+    public static void restoreReminders(List<Task> tasks) {
+        scheduler.restore(tasks);
+    }
+
+    /**
+     * Cancels the reminders of tasks that were replaced, such as the tasks of a list that
+     * was loaded again.
+     *
+     * @param tasks The tasks whose reminders are cancelled, compared as the set compares them
+     */
+    public static void cancelReminders(Set<Task> tasks) {
+        scheduler.cancel(tasks);
+    }
+
+    /**
+     * Cancels the reminders of the tasks that match, such as tasks that were deleted from
+     * a list that only returns copies of its tasks.
+     *
+     * @param isCancelled Decides for each task with a pending reminder whether it is cancelled
+     */
+    public static void cancelReminders(Predicate<Task> isCancelled) {
+        scheduler.cancel(isCancelled);
+    }
+
+    /**
+     * Gets the number of reminders that have not been shown yet.
+     *
+     * @return Number of pending reminders
+     */
+    static int pendingCount() {
+        return scheduler.pendingCount();
     }
 
     /**
-     * Schedules a notification to be shown at the specified time.
-     * Uses JavaFX Platform.runLater to ensure the alert is shown on the UI thread.
+     * Sets the lock held while the tasks with reminders are read or saved, which the reminder
+     * thread takes before it marks tasks as reminded.
      *
-     * @param task The task to show the reminder for
-     * @param reminderTime The time at which to show the reminder
+     * @param lock The lock on the tasks, such as the workspace holding them
      */
-    private static void scheduleNotification(Task task, LocalDateTime reminderTime) {
-        // Calculate delay until reminder time in milliseconds
-        long delay = java.time.Duration.between(
-                LocalDateTime.now(),
-                reminderTime
-        ).toMillis();
-
-        // Schedule the reminder alert
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                // Ensure alert is shown on JavaFX application thread
-                Platform.runLater(() -> showReminderAlert(task));
+    public static void setTaskLock(Object lock) {
+        scheduler.setTaskLock(lock);
+    }
+
+    /**
+     * Sets what is done after reminders are shown, such as saving that they were shown.
+     *
+     * @param listener Called on the JavaFX application thread with the tasks whose reminders were shown
+     */
+    public static void setOnShown(Consumer<List<Task>> listener) {
+        onShown = listener;
+    }
+
+    /**
+     * Shows the reminders that are due and schedules the next occurrence of recurring tasks.
+     */
+    private static void remind(List<Task> tasks) {
+        // Ensure alert is shown on JavaFX application thread
+        Platform.runLater(() -> {
+            showReminderAlert(tasks);
+            onShown.accept(tasks);
+        });
+        for (Task task : tasks) {
+            if (task instanceof Recurring) {
+                scheduleReminder(task);
             }
-        }, delay);
+        }
     }
 
     /**
-     * Displays a JavaFX alert with the reminder information.
-     * The alert includes the task type (Deadline/Event) and description.
+     * Displays a single JavaFX alert listing every task whose reminder is due.
      *
-     * @param task The task to show the reminder for
+     * @param tasks The tasks to show the reminder for
      */
-    private static void showReminderAlert(Task task) {
+    private static void showReminderAlert(List<Task> tasks) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Task Reminder");
-        alert.setHeaderText("Task Due Tomorrow");
+        alert.setHeaderText(tasks.size() == 1 ? "Coming up soon" : tasks.size() + " tasks coming up soon");
 
-        // Customize message based on task type
-        if (task instanceof Deadline) {
-            alert.setContentText("Deadline tomorrow: " + task.getDescription());
-        } else if (task instanceof Event) {
-            alert.setContentText("Event tomorrow: " + task.getDescription());
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(tasks.size(), MAX_LISTED_TASKS); i++) {
+            sb.append(tasks.get(i)).append('\n');
+        }
+        if (tasks.size() > MAX_LISTED_TASKS) {
+            sb.append("...and ").append(tasks.size() - MAX_LISTED_TASKS).append(" more");
         }
+        alert.setContentText(sb.toString().trim());
 
         alert.show();
     }
@@ -0,0 +1,310 @@
+package tringaa;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import tringaa.tasks.EpochMinute;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+
+/**
+ * Fires task reminders at minute resolution. Reminders are kept in buckets by the minute
+ * they are due, and a timer is only armed for the earliest bucket, so any number of reminders
+ * due in the same minute cost a single wake-up and are delivered together in one batch.
+ * The minute a task's reminder is due in and whether it was shown are recorded on the
+ * task, so that they are saved with it and the reminder can be restored after a restart.
+ * The timer only changes tasks while holding the lock their owner saves them under, which
+ * is taken before the lock on the scheduler, as every caller that holds it does.
+ */
+public class ReminderScheduler implements Closeable {
+    /** Minutes before a task is due that it is reminded unless the task sets its own offset */
+    public static final int DEFAULT_REMIND_BEFORE = 24 * 60;
+    /** Time a task without a time of day counts as due at when it is reminded */
+    private static final LocalTime DEFAULT_DUE_TIME = LocalTime.of(9, 0);
+
+    private final TreeMap<Long, List<Task>> buckets = new TreeMap<>();
+    private final Consumer<List<Task>> onDue;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> armed;
+    private long armedMinute = Long.MAX_VALUE;
+    /** Lock held while the timer marks tasks as reminded and hands them on */
+    private volatile Object taskLock = this;
+
+    /**
+     * Creates a scheduler that follows the system clock.
+     *
+     * @param onDue Called on the scheduler thread with the tasks whose reminders are due
+     */
+    public ReminderScheduler(Consumer<List<Task>> onDue) {
+        this(onDue, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a scheduler that follows the given clock.
+     *
+     * @param onDue Called on the scheduler thread with the tasks whose reminders are due
+     * @param clock The clock and time zone used to decide when reminders are due
+     */
+    public ReminderScheduler(Consumer<List<Task>> onDue, Clock clock) {
+        this(onDue, clock, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminders");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Creates a scheduler that follows the given clock and runs its timer on the given executor.
+     *
+     * @param onDue Called on the executor with the tasks whose reminders are due
+     * @param clock The clock and time zone used to decide when reminders are due
+     * @param executor A single-threaded executor that the scheduler shuts down when it is closed
+     */
+    ReminderScheduler(Consumer<List<Task>> onDue, Clock clock, ScheduledExecutorService executor) {
+        this.onDue = onDue;
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the lock that the owner of the tasks holds while it reads or saves them, so that
+     * the timer never changes a task while it is being saved.
+     *
+     * @param lock The lock on the tasks
+     */
+    public void setTaskLock(Object lock) {
+        taskLock = lock;
+    }
+
+    /**
+     * Schedules the reminder of a task, if it has a reminder time that has not passed yet.
+     *
+     * @param task The task to remind about
+     * @return True if a reminder was scheduled
+     */
+    public boolean schedule(Task task) {
+        long minute = reminderMinute(task, now());
+        if (minute == EpochMinute.NONE || minute <= now()) {
+            return false;
+        }
+        schedule(task, minute);
+        return true;
+    }
+
+    /**
+     * Schedules a reminder for a task at the given minute. Reminders for minutes that have
+     * already passed are delivered right away.
+     *
+     * @param task The task to remind about
+     * @param epochMinute The minute to deliver the reminder in
+     */
+    public synchronized void schedule(Task task, long epochMinute) {
+        task.setReminderState(epochMinute, false);
+        buckets.computeIfAbsent(epochMinute, minute -> new ArrayList<>()).add(task);
+        if (epochMinute < armedMinute) {
+            arm();
+        }
+    }
+
+    /**
+     * Moves the reminder of a task whose date was changed in place. The task is taken out of
+     * the bucket of the minute its reminder was due in and scheduled again from its new date,
+     * so it is reminded again even if its old reminder was already shown.
+     *
+     * @param task The changed task
+     * @return True if a reminder was scheduled for the new date
+     */
+    public synchronized boolean reschedule(Task task) {
+        List<Task> bucket = buckets.get(task.getNextReminder());
+        if (bucket != null) {
+            bucket.removeIf(scheduled -> scheduled == task);
+            if (bucket.isEmpty()) {
+                buckets.remove(task.getNextReminder());
+            }
+        }
+        task.setReminderState(EpochMinute.NONE, false);
+        boolean isScheduled = schedule(task);
+        // The timer may have been armed for the bucket the task was taken out of
+        arm();
+        return isScheduled;
+    }
+
+    /**
+     * Schedules the reminders saved with tasks that were loaded again, using the recorded
+     * reminder minute instead of working it out from the task's date. Reminders that fell
+     * due while the bot was closed are delivered right away, all together in one batch.
+     * Tasks saved before reminder state was kept are scheduled from their date, and their
+     * reminder is skipped if its time has passed.
+     *
+     * @param tasks Tasks whose reminders have not been shown yet
+     * @return Number of reminders that were missed and are delivered right away
+     */
+    public synchronized int restore(List<Task> tasks) {
+        long now = now();
+        int missed = 0;
+        // Holding the lock keeps the timer from delivering part of the missed reminders early
+        for (Task task : tasks) {
+            if (task.isDone() || task.isReminderFired()) {
+                continue;
+            }
+            long minute = task.getNextReminder();
+            if (minute == EpochMinute.NONE) {
+                schedule(task);
+                continue;
+            }
+            if (minute <= now) {
+                missed++;
+            }
+            schedule(task, minute);
+        }
+        return missed;
+    }
+
+    /**
+     * Cancels the reminders of the given tasks that have not been delivered yet.
+     *
+     * @param tasks The tasks whose reminders are cancelled, compared as the set compares them
+     * @return Number of reminders cancelled
+     */
+    public int cancel(Set<Task> tasks) {
+        return cancel((Predicate<Task>) tasks::contains);
+    }
+
+    /**
+     * Cancels the reminders that have not been delivered yet of the tasks that match.
+     *
+     * @param isCancelled Decides for each task with a pending reminder whether it is cancelled
+     * @return Number of reminders cancelled
+     */
+    public synchronized int cancel(Predicate<Task> isCancelled) {
+        int cancelled = 0;
+        Iterator<List<Task>> bucketsLeft = buckets.values().iterator();
+        while (bucketsLeft.hasNext()) {
+            List<Task> bucket = bucketsLeft.next();
+            int before = bucket.size();
+            bucket.removeIf(isCancelled);
+            cancelled += before - bucket.size();
+            if (bucket.isEmpty()) {
+                bucketsLeft.remove();
+            }
+        }
+        if (cancelled > 0) {
+            arm();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of reminders that have not been delivered yet.
+     *
+     * @return Number of pending reminders
+     */
+    public synchronized int pendingCount() {
+        int count = 0;
+        for (List<Task> bucket : buckets.values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    /**
+     * Stops delivering reminders.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Works out the minute a task should be reminded in. Tasks are reminded
+     * {@link #DEFAULT_REMIND_BEFORE} minutes before they are due unless they set their own
+     * offset, and tasks without a time of day count as due at 9 AM. For recurring tasks the
+     * next occurrence whose reminder is still after the given time is used.
+     *
+     * @param task The task
+     * @param nowMinute The current time in epoch minutes
+     * @return The minute to remind in, or {@link EpochMinute#NONE} if the task has no date
+     */
+    public static long reminderMinute(Task task, long nowMinute) {
+        long remindBefore = task.getRemindBefore() == Task.DEFAULT_REMINDER
+                ? DEFAULT_REMIND_BEFORE : task.getRemindBefore();
+        if (task instanceof Recurring recurring) {
+            LocalDate earliest = EpochMinute.toDateTime(nowMinute + remindBefore).toLocalDate();
+            LocalDate next = recurring.getNextOccurrence(earliest);
+            if (dueMinute(next) - remindBefore <= nowMinute) {
+                next = recurring.getNextOccurrence(next.plusDays(1));
+            }
+            return dueMinute(next) - remindBefore;
+        }
+        if (task.getDueMinute() != EpochMinute.NONE) {
+            return task.getDueMinute() - remindBefore;
+        }
+        if (task.getDate() != null) {
+            return dueMinute(task.getDate()) - remindBefore;
+        }
+        return EpochMinute.NONE;
+    }
+
+    private static long dueMinute(LocalDate date) {
+        return EpochMinute.of(date.atTime(DEFAULT_DUE_TIME));
+    }
+
+    private long now() {
+        return EpochMinute.at(clock.instant(), clock.getZone());
+    }
+
+    /** Arms the timer for the earliest bucket, replacing any timer armed for a later one */
+    private void arm() {
+        if (armed != null) {
+            armed.cancel(false);
+            armed = null;
+        }
+        armedMinute = Long.MAX_VALUE;
+        if (buckets.isEmpty() || executor.isShutdown()) {
+            return;
+        }
+        armedMinute = buckets.firstKey();
+        long delay = Duration.between(clock.instant(), EpochMinute.toInstant(armedMinute, clock.getZone()))
+                .toMillis();
+        armed = executor.schedule(this::deliverDue, Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private void deliverDue() {
+        // Recurring tasks are scheduled again when they are handed on, so that is done under the lock too
+        synchronized (taskLock) {
+            List<Task> due = new ArrayList<>();
+            synchronized (this) {
+                NavigableMap<Long, List<Task>> dueBuckets = buckets.headMap(now(), true);
+                for (Map.Entry<Long, List<Task>> bucket : dueBuckets.entrySet()) {
+                    for (Task task : bucket.getValue()) {
+                        task.setReminderState(bucket.getKey(), true);
+                    }
+                    due.addAll(bucket.getValue());
+                }
+                dueBuckets.clear();
+                arm();
+            }
+            due.removeIf(Task::isDone);
+            if (!due.isEmpty()) {
+                onDue.accept(due);
+            }
+        }
+    }
+}
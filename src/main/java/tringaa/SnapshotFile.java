@@ -0,0 +1,330 @@
+package tringaa;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compressed copy of a task file, read instead of the task file when it is loaded.
+ * Records are grouped into blocks of about {@link #BLOCK_SIZE} bytes, and each block is
+ * compressed with Deflate on its own and carries a CRC32 of its contents, so a damaged
+ * block is detected and skipped without losing the blocks around it.
+ *
+ * The file starts with a header holding the number of records, followed by the blocks and
+ * a trailer recording the size, modification time and checksum of the task file the
+ * snapshot was written with, plus a checksum of {@link #SAMPLE_PAGES} pages spread over
+ * the task file. A snapshot is only used while the task file still has that size and
+ * modification time and its sampled pages are unchanged, which only reads a small part
+ * of a large task file.
+ */
+final class SnapshotFile {
+    /** Uncompressed size from which a block is written out */
+    static final int BLOCK_SIZE = 64 * 1024;
+    /** Number of pages of the task file, spread evenly over it, whose checksum is kept in the trailer */
+    static final int SAMPLE_PAGES = 16;
+    private static final int MAGIC = 0x54534E50;
+    private static final int SAMPLE_PAGE_SIZE = 4096;
+    private static final byte VERSION = 2;
+    private static final int HEADER_LENGTH = 9;
+    private static final int BLOCK_HEADER_LENGTH = 24;
+    private static final int TRAILER_LENGTH = 40;
+    /** Written in place of the first record of a block to mark the trailer */
+    private static final int TRAILER_MARKER = -1;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * The task file a snapshot was written with.
+     *
+     * @param size Size of the task file in bytes
+     * @param modifiedMillis Modification time of the task file in milliseconds
+     * @param checksum CRC32 checksum of the task file
+     * @param sampleChecksum Checksum of the sampled pages of the task file, see {@link #sampleChecksum(Path)}
+     */
+    record Stamp(long size, long modifiedMillis, long checksum, long sampleChecksum) {
+    }
+
+    /**
+     * The records read from a snapshot.
+     *
+     * @param stamp The task file the snapshot was written with
+     * @param records The records in order, with null in place of the records of damaged blocks
+     * @param damage A description of each damaged block
+     */
+    record Contents(Stamp stamp, String[] records, List<String> damage) {
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, which replaces the snapshot once it is finished.
+     * Closing a writer that was not finished discards the temporary file.
+     */
+    static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temporary;
+        private final DataOutputStream output;
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private byte[] compressed = new byte[BLOCK_SIZE];
+        private int written;
+        private int blockRecords;
+        private boolean isFinished;
+
+        /**
+         * Starts writing a snapshot.
+         *
+         * @param target The snapshot file to replace once finished
+         * @param recordCount The number of records that will be added
+         * @throws IOException if the temporary file cannot be created
+         */
+        Writer(Path target, int recordCount) throws IOException {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeInt(recordCount);
+        }
+
+        /**
+         * Adds the next record, writing out the current block once it is full.
+         *
+         * @param record A record without line breaks
+         * @throws IOException if the block cannot be written
+         */
+        void add(String record) throws IOException {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            if (block.size() > 0 && block.size() + bytes.length + 1 > BLOCK_SIZE) {
+                writeBlock();
+            }
+            block.write(bytes);
+            block.write('\n');
+            blockRecords++;
+        }
+
+        /**
+         * Writes the last block and the trailer, and replaces the snapshot with the new one.
+         *
+         * @param stamp The task file the records were written to
+         * @throws IOException if the snapshot cannot be written
+         */
+        void finish(Stamp stamp) throws IOException {
+            if (block.size() > 0) {
+                writeBlock();
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_LENGTH);
+            trailer.putInt(TRAILER_MARKER).putLong(stamp.size()).putLong(stamp.modifiedMillis())
+                    .putLong(stamp.checksum()).putLong(stamp.sampleChecksum());
+            trailer.putInt(crc(trailer.array(), 0, TRAILER_LENGTH - 4));
+            output.write(trailer.array());
+            output.close();
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            isFinished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!isFinished) {
+                output.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            byte[] raw = block.toByteArray();
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_LENGTH);
+            header.putInt(written).putInt(blockRecords).putInt(raw.length).putInt(length)
+                    .putInt(crc(raw, 0, raw.length));
+            header.putInt(crc(header.array(), 0, BLOCK_HEADER_LENGTH - 4));
+            output.write(header.array());
+            output.write(compressed, 0, length);
+            written += blockRecords;
+            blockRecords = 0;
+            block.reset();
+        }
+    }
+
+    /**
+     * Reads a snapshot, skipping damaged blocks. If a block header is damaged, the blocks
+     * after it cannot be found, so their records are treated as damaged too.
+     *
+     * @param file The snapshot file
+     * @return The records read, or null if the snapshot is not a complete snapshot of this version
+     * @throws IOException if the file cannot be read
+     */
+    static Contents read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < HEADER_LENGTH + TRAILER_LENGTH) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            return null;
+        }
+        int recordCount = buffer.getInt();
+        int trailerStart = bytes.length - TRAILER_LENGTH;
+        ByteBuffer trailer = ByteBuffer.wrap(bytes, trailerStart, TRAILER_LENGTH);
+        if (recordCount < 0 || trailer.getInt() != TRAILER_MARKER
+                || crc(bytes, trailerStart, TRAILER_LENGTH - 4) != ByteBuffer.wrap(bytes).getInt(bytes.length - 4)) {
+            return null;
+        }
+        Stamp stamp = new Stamp(trailer.getLong(), trailer.getLong(), trailer.getLong(), trailer.getLong());
+
+        String[] records = new String[recordCount];
+        List<String> damage = new ArrayList<>();
+        int blockNumber = 0;
+        int nextRecord = 0;
+        Inflater inflater = new Inflater(true);
+        try {
+            while (buffer.position() < trailerStart) {
+                blockNumber++;
+                int start = buffer.position();
+                int headerCrcAt = start + BLOCK_HEADER_LENGTH - 4;
+                if (trailerStart - start < BLOCK_HEADER_LENGTH
+                        || crc(bytes, start, BLOCK_HEADER_LENGTH - 4) != buffer.getInt(headerCrcAt)) {
+                    break;
+                }
+                int firstRecord = buffer.getInt();
+                int blockRecords = buffer.getInt();
+                int rawLength = buffer.getInt();
+                int compressedLength = buffer.getInt();
+                int rawCrc = buffer.getInt();
+                buffer.getInt();
+                if (firstRecord != nextRecord || blockRecords < 0 || firstRecord + blockRecords > recordCount
+                        || compressedLength < 0 || compressedLength > trailerStart - buffer.position()) {
+                    break;
+                }
+                String[] blockLines = inflate(inflater, bytes, buffer.position(), compressedLength, rawLength, rawCrc);
+                if (blockLines == null || blockLines.length != blockRecords) {
+                    damage.add(String.format("Block %d (tasks %d to %d) is damaged", blockNumber, firstRecord + 1,
+                            firstRecord + blockRecords));
+                } else {
+                    System.arraycopy(blockLines, 0, records, firstRecord, blockRecords);
+                }
+                buffer.position(buffer.position() + compressedLength);
+                nextRecord = firstRecord + blockRecords;
+            }
+        } finally {
+            inflater.end();
+        }
+        if (nextRecord < recordCount) {
+            damage.add(String.format("Block %d onwards (tasks %d to %d) cannot be found", blockNumber,
+                    nextRecord + 1, recordCount));
+        }
+        return new Contents(stamp, records, damage);
+    }
+
+    /**
+     * Decompresses a block and splits it into records.
+     *
+     * @return The records, or null if the block does not decompress to the expected contents
+     */
+    private static String[] inflate(Inflater inflater, byte[] bytes, int offset, int length, int rawLength,
+            int rawCrc) {
+        if (rawLength < 0) {
+            return null;
+        }
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(bytes, offset, length);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength) {
+                int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (count == 0) {
+                    // The block ended early or needs input it does not have
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != rawLength || crc(raw, 0, rawLength) != rawCrc) {
+                return null;
+            }
+        } catch (DataFormatException e) {
+            return null;
+        }
+        if (rawLength == 0) {
+            return new String[0];
+        }
+        // Every record ends with a line break, so the last split is dropped
+        return new String(raw, 0, rawLength - 1, StandardCharsets.UTF_8).split("\n", -1);
+    }
+
+    /**
+     * Works out a CRC32 checksum of {@link #SAMPLE_PAGES} pages spread evenly over a file,
+     * including its first and last page, or of the whole file if it is no larger than that.
+     * An edit that keeps the size and modification time of the file is still noticed if it
+     * touches one of the pages, without reading the whole file.
+     *
+     * @param file The file to sample
+     * @return The checksum of the sampled pages
+     * @throws IOException if the file cannot be read
+     */
+    static long sampleChecksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer page = ByteBuffer.allocate(SAMPLE_PAGE_SIZE);
+            if (size <= (long) SAMPLE_PAGES * SAMPLE_PAGE_SIZE) {
+                for (long position = 0; position < size; position += SAMPLE_PAGE_SIZE) {
+                    readPage(channel, position, page);
+                    crc.update(page);
+                }
+            } else {
+                long lastPage = size - SAMPLE_PAGE_SIZE;
+                for (int i = 0; i < SAMPLE_PAGES; i++) {
+                    readPage(channel, lastPage * i / (SAMPLE_PAGES - 1), page);
+                    crc.update(page);
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    /** Reads the page at a position into the buffer, which is left ready to be read */
+    private static void readPage(FileChannel channel, long position, ByteBuffer page) throws IOException {
+        page.clear();
+        while (page.hasRemaining() && channel.read(page, position + page.position()) > 0) {
+            // Keep reading until the page is full or the file ends
+        }
+        page.flip();
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -1,163 +1,115 @@
 package tringaa;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 
 import tringaa.exceptions.TaskStorageException;
-import tringaa.tasks.Deadline;
-import tringaa.tasks.Event;
 import tringaa.tasks.Task;
-import tringaa.tasks.ToDo;
 
 /**
- * Handles loading and saving of tasks to a file.
+ * Handles loading and saving of a task list together with its history, archive and change log.
+ * {@link TextStorage} keeps the tasks in a text file, and {@link DatabaseStorage} keeps them in
+ * an embedded database for lists too large to hold in memory.
  */
-public class Storage {
+public interface Storage {
+
     /**
-     * The file path where tasks are stored, located in the data directory.
+     * A change found in the task file when it is reloaded: a run of records at a position
+     * that were replaced by other records.
+     *
+     * @param position Zero-based position of the first replaced record in the previous file
+     * @param removed Number of records that were removed at the position
+     * @param inserted Tasks that were inserted at the position in their place
      */
-    private static final Path FILE_PATH = Paths.get("data", "tringa.txt");
+    record FileChange(int position, int removed, List<Task> inserted) {
+    }
 
     /**
-     * Loads tasks from the storage file. If the storage directory or file doesn't exist,
-     * they will be created automatically.
+     * Gets the file the tasks are kept in, which is watched for changes made outside the bot.
      *
-     * @return List of Task objects read from the storage file. Returns an empty list if
-     *         the file is empty or newly created.
-     * @throws TaskStorageException if there are any errors during file operations or task
-     *         deserialization.
+     * @return Path of the task file
      */
-    public List<Task> load() throws TaskStorageException {
-        try {
-            // Create data directory if it doesn't exist
-            Files.createDirectories(FILE_PATH.getParent());
-            // If file doesn't exist, create it and return empty list
-            if (!Files.exists(FILE_PATH)) {
-                Files.createFile(FILE_PATH);
-                return new ArrayList<>();
-            }
-            List<Task> tasks = new ArrayList<>();
-            List<String> lines = Files.readAllLines(FILE_PATH);
-
-            for (String line : lines) {
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                tasks.add(deserializeTask(line));
-            }
-            return tasks;
-        } catch (IOException e) {
-            throw new TaskStorageException("Error loading tasks: " + e.getMessage());
-        }
-    }
+    Path getFilePath();
 
+    Path getChangeLogPath();
 
+    /**
+     * Loads the tasks of the list, creating its files if they do not exist yet.
+     *
+     * @return The tasks in list order
+     * @throws TaskStorageException if the tasks cannot be read
+     */
+    List<Task> load() throws TaskStorageException;
 
     /**
-     * Saves the given list of tasks to the storage file.
+     * Gets the problems found by the last load that did not stop it, and forgets them.
      *
-     * @param tasks List of tasks to save
-     * @throws TaskStorageException if there are errors writing to the file
+     * @return Messages describing the problems, empty if there were none
      */
-    public void save(List<Task> tasks) throws TaskStorageException {
-        try {
-            FileWriter writer = new FileWriter(FILE_PATH.toFile());
-            for (Task task : tasks) {
-                writer.write(serializeTask(task) + "\n");
-            }
-            writer.close();
-        } catch (IOException e) {
-            throw new TaskStorageException("Error saving tasks: " + e.getMessage());
-        }
-    }
+    List<String> takeLoadWarnings();
 
     /**
-     * Converts a task to its string representation for storage.
-     * Format: TYPE | IS_DONE | DESCRIPTION [| ADDITIONAL_DATA]
+     * Gets the tasks read by the last load whose reminders have not been shown yet, and forgets them.
      *
-     * @param task Input task taken in to serialise
+     * @return The tasks with pending reminders, in list order
      */
-    private String serializeTask(Task task) {
-        StringBuilder sb = new StringBuilder();
-
-        // Add task type
-        if (task instanceof ToDo) {
-            sb.append("T");
-        } else if (task instanceof Deadline) {
-            sb.append("D");
-        } else if (task instanceof Event) {
-            sb.append("E");
-        }
-
-        // Add done status and description
-        sb.append(" | ").append(task.isDone() ? "1" : "0");
-        sb.append(" | ").append(task.getDescription());
-
-        // Add type-specific data
-        if (task instanceof Deadline deadline) {
-            sb.append(" | ").append(deadline.getDeadline());
-        } else if (task instanceof Event event) {
-            sb.append(" | ").append(event.getStart());
-            sb.append(" | ").append(event.getEnd());
-        }
-
-        return sb.toString();
-    }
+    List<Task> takePendingReminders();
 
     /**
-     * Creates a task from its stored string representation.
+     * Saves the given list of tasks. The list may be the one held by a {@link TaskList}, so it
+     * is only read while saving and never changed or kept.
+     *
+     * @param tasks List of tasks to save
+     * @throws TaskStorageException if the tasks cannot be saved
      */
-    private Task deserializeTask(String line) throws TaskStorageException {
-        String[] parts = line.split(" \\| ");
-        if (parts.length < 3) {
-            throw new TaskStorageException("Invalid task format: " + line);
-        }
+    void save(List<Task> tasks) throws TaskStorageException;
 
-        String type = parts[0];
-        boolean isDone = parts[1].equals("1");
-        String description = parts[2];
+    /**
+     * Checks whether a save found that the tasks had been changed outside the bot,
+     * so that the list has to be loaded again from scratch.
+     *
+     * @return True if the list must be loaded again
+     */
+    boolean hasConflict();
 
-        Task task = createTaskByType(type, description, parts);
+    /**
+     * Reads the changes made to the tasks outside the bot since they were last loaded or saved.
+     *
+     * @return The changes in ascending order of position, empty if nothing changed
+     * @throws TaskStorageException if the tasks cannot be read
+     */
+    List<FileChange> reload() throws TaskStorageException;
 
-        if (isDone) {
-            task.markDone();
-        }
+    /**
+     * Appends tasks to the archive of completed tasks.
+     *
+     * @param tasks Tasks to archive
+     * @throws TaskStorageException if the archive cannot be written
+     */
+    void archive(List<Task> tasks) throws TaskStorageException;
 
-        return task;
-    }
+    /**
+     * Searches the archive for tasks whose description contains the keyword, ignoring case.
+     *
+     * @param keyword The search term to look for in task descriptions
+     * @return List of matching archived tasks
+     * @throws TaskStorageException if the archive cannot be read
+     */
+    List<Task> findInArchive(String keyword) throws TaskStorageException;
 
     /**
-     * Creates the appropriate task type based on the type identifier and data.
+     * Loads the undo/redo history of the list.
+     *
+     * @return The saved history, or an empty history if none has been saved yet
+     * @throws TaskStorageException if the history cannot be read
      */
-    @SuppressWarnings("checkstyle:Indentation")
-    private Task createTaskByType(String type, String description, String[] parts)
-            throws TaskStorageException {
-        DateTimeFormatter inputFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
-
-        return switch (type) {
-            case "T" -> new ToDo(description);
-            case "D" -> {
-                if (parts.length < 4) {
-                    throw new TaskStorageException("Invalid deadline format: " + String.join(" | ", parts));
-                }
-                LocalDate date = LocalDate.parse(parts[3], inputFormatter);
-                yield new Deadline(description, date.toString());
-            }
-            case "E" -> {
-                if (parts.length < 5) {
-                    throw new TaskStorageException("Invalid event format: " + String.join(" | ", parts));
-                }
-                yield new Event(description, parts[3], parts[4]);
-            }
-            default -> throw new TaskStorageException("Unknown task type: " + type);
-        };
-    }
+    History loadHistory() throws TaskStorageException;
+
+    /**
+     * Saves the undo/redo history of the list.
+     *
+     * @param history History to save
+     * @throws TaskStorageException if the history cannot be written
+     */
+    void saveHistory(History history) throws TaskStorageException;
 }
@@ -0,0 +1,66 @@
+package tringaa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+/**
+ * Watches the directories holding the task files and reports every file that is created
+ * or modified in them. The watch runs on a background thread, so the callback should
+ * only record which file changed and leave reloading it to the thread that owns the list.
+ */
+public class StorageWatcher implements Closeable {
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Starts watching the given directories.
+     *
+     * @param directories The directories to watch, which must exist
+     * @param onChange Called with the path of each file that was created or modified
+     * @throws IOException if the directories cannot be watched
+     */
+    public StorageWatcher(Iterable<Path> directories, Consumer<Path> onChange) throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        thread = new Thread(() -> watch(onChange), "storage-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(Consumer<Path> onChange) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path file) {
+                        onChange.accept(directory.resolve(file));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watching stops when the watcher is closed
+        }
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
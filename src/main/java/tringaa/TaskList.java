@@ -1,20 +1,67 @@
 package tringaa;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
 
+import tringaa.changes.ChangeEvent;
+import tringaa.changes.ChangeFeed;
+import tringaa.exceptions.TaskStorageException;
 import tringaa.exceptions.TringaException;
+import tringaa.index.AgendaIndex;
+import tringaa.index.DescriptionSnapshot;
+import tringaa.index.FieldIndex;
+import tringaa.index.IntervalIndex;
+import tringaa.index.LabelIndex;
+import tringaa.index.PrefixIndex;
+import tringaa.index.SearchIndex;
+import tringaa.index.TaskIndex;
+import tringaa.index.TaskQuery;
 import tringaa.tasks.Deadline;
+import tringaa.tasks.EpochMinute;
 import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
 import tringaa.tasks.Task;
 
 /**
  * Manages a list of tasks and operations on them.
  */
 public class TaskList {
+    /** Number of days ahead for which occurrences of recurring tasks are listed as upcoming */
+    public static final int UPCOMING_WINDOW_DAYS = 30;
+    /** Default number of results returned by a ranked search */
+    public static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final DateTimeFormatter AGENDA_DAY_FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd yyyy");
+
     private final List<Task> tasks;
+    private final History history;
+    private final SearchIndex searchIndex;
+    private final FieldIndex fieldIndex;
+    private final AgendaIndex agendaIndex;
+    private final IntervalIndex intervalIndex;
+    private final LabelIndex labelIndex;
+    private final PrefixIndex prefixIndex;
+    private final DescriptionSnapshot descriptionSnapshot;
+    /** Secondary indexes that are notified of every change to the list */
+    private final List<TaskIndex> indexes = new ArrayList<>();
+    /** Feed that every change to the list is published to, or null if changes are not published */
+    private ChangeFeed changeFeed;
+    /** Changes made since the list was last saved, published to the feed once they are in the task file */
+    private final List<UnsavedChange> unsavedChanges = new ArrayList<>();
 
     /**
      * Creates a new TaskList with an existing list of tasks.
@@ -22,14 +69,50 @@ public class TaskList {
      * @param tasks The initial list of tasks
      */
     public TaskList(List<Task> tasks) {
+        this(tasks, new History());
+    }
+
+    /**
+     * Creates a new TaskList with an existing list of tasks and the history of edits made to it.
+     *
+     * @param tasks The initial list of tasks
+     * @param history The edits that can be undone or redone on the list
+     */
+    public TaskList(List<Task> tasks, History history) {
         this.tasks = tasks;
+        this.history = history;
+        this.searchIndex = new SearchIndex(tasks);
+        this.fieldIndex = new FieldIndex(tasks);
+        this.agendaIndex = new AgendaIndex(tasks);
+        this.intervalIndex = new IntervalIndex(tasks);
+        this.labelIndex = new LabelIndex(tasks);
+        this.prefixIndex = new PrefixIndex(tasks);
+        this.descriptionSnapshot = new DescriptionSnapshot(tasks);
+        indexes.add(searchIndex);
+        indexes.add(fieldIndex);
+        indexes.add(agendaIndex);
+        indexes.add(intervalIndex);
+        indexes.add(labelIndex);
+        indexes.add(prefixIndex);
+        indexes.add(descriptionSnapshot);
     }
 
     /**
      * Creates a new empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Publishes every later change to the list to the given feed. A change is published once
+     * the list has been saved with it, and until then it can be discarded again, so the feed
+     * never holds a change that did not reach the task file.
+     *
+     * @param changeFeed The feed to publish changes to, or null to stop publishing
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
     }
 
     /**
@@ -41,6 +124,132 @@ public class TaskList {
         return new ArrayList<>(tasks);
     }
 
+    /**
+     * Checks whether the tasks are kept in a {@link QueryableTaskList}, whose tasks are
+     * copies created on every read rather than objects held by the list.
+     *
+     * @return True if the list is queryable
+     */
+    public boolean isQueryable() {
+        return tasks instanceof QueryableTaskList;
+    }
+
+    /**
+     * Records in the list that the reminders of some tasks were shown, so that saving the
+     * list keeps them from being shown again. A task of an ordinary list is the object its
+     * reminder was scheduled for and already holds the reminder state. A queryable list only
+     * handed out copies of its tasks, so each copy is found by its stored record and written
+     * back. Reminder state is not indexed, so the indexes and the change feed are not notified.
+     *
+     * @param shown The tasks whose reminders were shown, compared by identity
+     * @return True if the list holds any of the tasks and has to be saved
+     */
+    public boolean recordShownReminders(Set<Task> shown) {
+        if (!(tasks instanceof QueryableTaskList queryable)) {
+            for (Task task : tasks) {
+                if (shown.contains(task)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        boolean isChanged = false;
+        for (Task task : shown) {
+            int position = queryable.indexOfReminded(task);
+            if (position >= 0) {
+                tasks.set(position, task);
+                isChanged = true;
+            }
+        }
+        return isChanged;
+    }
+
+    /**
+     * Sets the sync identifier of a task and writes the task back into the list, so that a
+     * queryable list keeps the identifier too. Identifiers are not indexed, so the indexes and
+     * the change feed are not notified, and the change is not recorded in the history.
+     *
+     * @param index Position of the task in the list (0-based)
+     * @param id The identifier shared by all copies of the task
+     */
+    public void setTaskId(int index, String id) {
+        Task task = tasks.get(index);
+        task.setId(id);
+        tasks.set(index, task);
+    }
+
+    /**
+     * Gets the number of tasks in the list.
+     *
+     * @return Number of tasks
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    /**
+     * Saves the tasks and the history of the list. The storage is given the list itself
+     * rather than a copy, so a queryable list is written from its stored records without
+     * creating every task, and a database saves nothing for the list it already holds.
+     *
+     * @param storage The storage to save the list to
+     * @throws TaskStorageException if the list cannot be saved
+     */
+    public void saveTo(Storage storage) throws TaskStorageException {
+        storage.save(tasks);
+        publishSavedChanges();
+        storage.saveHistory(history);
+    }
+
+    /**
+     * Publishes the changes made since the list was last saved, now that the task file holds
+     * them, such as changes that were read from the file itself.
+     */
+    public void publishSavedChanges() {
+        if (changeFeed != null) {
+            for (UnsavedChange change : unsavedChanges) {
+                changeFeed.publish(change.kind(), change.positions(), change.records());
+            }
+        }
+        unsavedChanges.clear();
+    }
+
+    /**
+     * Reverts the changes made since the list was last saved, so that it holds the tasks the
+     * task file held then. This is used when the file was changed outside the bot before the
+     * changes could be saved: the changes are never published, and the changes found in the
+     * file can then be applied with {@link #applyFileChanges(List)}. Only changes made while
+     * the list publishes to a change feed are known, which every list of a workspace does.
+     * The undo/redo history is cleared, since it may refer to the reverted changes.
+     *
+     * @throws TaskStorageException if a reverted task cannot be read back from its storage format
+     */
+    public void discardUnsavedChanges() throws TaskStorageException {
+        if (unsavedChanges.isEmpty()) {
+            return;
+        }
+        // Undone from the last change back, each one in the reverse of the order it was applied in
+        for (int c = unsavedChanges.size() - 1; c >= 0; c--) {
+            UnsavedChange change = unsavedChanges.get(c);
+            for (int i = change.positions().length - 1; i >= 0; i--) {
+                int position = change.positions()[i];
+                switch (change.kind()) {
+                case ADD -> tasks.remove(position);
+                case DELETE -> tasks.add(position, TextStorage.deserializeTask(change.records().get(i)));
+                // MARK, UNMARK and EDIT replace the task
+                default -> tasks.set(position, TextStorage.deserializeTask(change.before().get(i)));
+                }
+            }
+        }
+        unsavedChanges.clear();
+        indexes.forEach(TaskIndex::invalidate);
+        history.clear();
+    }
+
 
     /**
      * Lists all tasks in a formatted string.
@@ -52,11 +261,35 @@ public class TaskList {
             return "No tasks in your list yet!";
         }
 
-        StringBuilder sb = new StringBuilder("Here are the tasks in your list:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(String.format("%d.%s\n", i + 1, tasks.get(i)));
+        List<String> lines = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            lines.add(task.toString());
+        }
+        return renderNumbered("Here are the tasks in your list:\n", lines, ".");
+    }
+
+    /**
+     * Lists the tasks that have all the given tags and the given priority, found by
+     * intersecting the label bitmaps. Tasks keep their numbers in the whole list.
+     *
+     * @param tags The tags the tasks must have, in lower case
+     * @param priority The priority the tasks must have, or null for any priority
+     * @return String containing the numbered matching tasks
+     */
+    public String listTasks(List<String> tags, Task.Priority priority) {
+        BitSet labelled = labelIndex.select(tags, priority);
+        if (labelled == null) {
+            return listTasks();
         }
-        return sb.toString().trim();
+        if (labelled.isEmpty()) {
+            return "No tasks with " + describeLabels(tags, priority) + " in your list!";
+        }
+        StringBuilder sb = new StringBuilder("Here are the tasks with ").append(describeLabels(tags, priority))
+                .append(" in your list:");
+        for (int i = labelled.nextSetBit(0); i >= 0; i = labelled.nextSetBit(i + 1)) {
+            sb.append('\n').append(i + 1).append('.').append(tasks.get(i));
+        }
+        return sb.toString();
     }
 
     /**
@@ -69,10 +302,88 @@ public class TaskList {
     public String markTaskDone(int index) throws TringaException {
         validateIndex(index);
         Task task = tasks.get(index - 1);
-        task.markDone();
+        if (!task.isDone()) {
+            List<String> before = recordsBefore(List.of(task));
+            task.markDone();
+            tasks.set(index - 1, task);
+            notifyUpdated(index - 1, task);
+            publish(ChangeEvent.Kind.MARK, new int[]{index - 1}, List.of(task), before);
+            history.record(new History.Edit(History.Kind.MARK, index - 1, null));
+        }
         return String.format("Nice! I've marked this task as done:\n  %s", task);
     }
 
+    /**
+     * Changes the description, tags or dates of a task in place. The task keeps its position,
+     * done status, priority and identifier, and only the indexes over the details that changed
+     * are updated: the search and prefix indexes for a new description, the label index for
+     * new tags, and the date indexes for new dates.
+     *
+     * @param index One-based index of the task
+     * @param description The new description, or null to keep it
+     * @param tags The new tags in lower case, or null to keep them
+     * @param deadline The new deadline of a deadline in yyyy-MM-dd [HH:mm] format, or null to keep it
+     * @param start The new start of an event, or null to keep it
+     * @param end The new end of an event, or null to keep it
+     * @return The changed task, which is the object held by the list unless the list is queryable
+     * @throws TringaException if index is invalid or the task does not have the dates given
+     * @throws java.time.format.DateTimeParseException if the deadline format is invalid
+     */
+    public Task editTask(int index, String description, List<String> tags, String deadline, String start,
+            String end) throws TringaException {
+        validateIndex(index);
+        int position = index - 1;
+        Task task = tasks.get(position);
+        if (deadline != null && !(task instanceof Deadline)) {
+            throw new TringaException("Only a deadline has a /by date to change.");
+        }
+        if ((start != null || end != null) && !(task instanceof Event)) {
+            throw new TringaException("Only an event has /from and /to dates to change.");
+        }
+        Task before = copyOf(task);
+        // The dates are changed first, since a deadline that cannot be parsed leaves the task as it was
+        if (task instanceof Deadline deadlineTask && deadline != null) {
+            deadlineTask.setDeadline(deadline);
+        }
+        if (task instanceof Event event && (start != null || end != null)) {
+            event.setPeriod(start != null ? start : event.getStart(), end != null ? end : event.getEnd());
+        }
+        if (description != null) {
+            task.setDescription(description);
+        }
+        if (tags != null) {
+            task.setTags(tags);
+        }
+        tasks.set(position, task);
+        if (description != null) {
+            searchIndex.taskReplaced(position, before, task);
+            prefixIndex.taskReplaced(position, before, task);
+        }
+        if (tags != null) {
+            labelIndex.taskReplaced(position, before, task);
+        }
+        if (deadline != null || start != null || end != null) {
+            fieldIndex.taskReplaced(position, before, task);
+            agendaIndex.taskReplaced(position, before, task);
+            intervalIndex.taskReplaced(position, before, task);
+        }
+        publish(ChangeEvent.Kind.EDIT, new int[]{position}, List.of(task), recordsBefore(List.of(before)));
+        history.record(new History.Edit(History.Kind.EDIT, new int[]{position}, List.of(before, copyOf(task))));
+        return task;
+    }
+
+    /**
+     * Gets a task in the list.
+     *
+     * @param index One-based index of the task
+     * @return The task
+     * @throws TringaException if index is invalid
+     */
+    public Task getTask(int index) throws TringaException {
+        validateIndex(index);
+        return tasks.get(index - 1);
+    }
+
     /**
      * Deletes a task from the list.
      *
@@ -83,11 +394,159 @@ public class TaskList {
     public String deleteTask(int index) throws TringaException {
         validateIndex(index);
         Task deletedTask = tasks.remove(index - 1);
+        cancelReminders(List.of(deletedTask));
+        notifyRemoved(index - 1, deletedTask);
+        publish(ChangeEvent.Kind.DELETE, new int[]{index - 1}, List.of(deletedTask));
+        history.record(new History.Edit(History.Kind.DELETE, index - 1, deletedTask));
         return String.format("Noted. I've removed this task:\n  %s\nNow you "
                         + "have %d tasks in the list.",
                 deletedTask, tasks.size());
     }
 
+    /**
+     * Marks several tasks as done in a single pass over the list.
+     *
+     * @param indices One-based indices of the tasks to mark
+     * @return Response message summarising how many tasks were marked
+     * @throws TringaException if any index is invalid
+     */
+    public String markTasksDone(BitSet indices) throws TringaException {
+        validateIndices(indices);
+        int[] marked = new int[indices.cardinality()];
+        List<Task> markedTasks = new ArrayList<>(marked.length);
+        List<String> before = new ArrayList<>(marked.length);
+        int count = 0;
+        for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            Task task = tasks.get(i - 1);
+            if (!task.isDone()) {
+                before.addAll(recordsBefore(List.of(task)));
+                task.markDone();
+                tasks.set(i - 1, task);
+                notifyUpdated(i - 1, task);
+                marked[count++] = i - 1;
+                markedTasks.add(task);
+            }
+        }
+        if (count > 0) {
+            marked = Arrays.copyOf(marked, count);
+            publish(ChangeEvent.Kind.MARK, marked, markedTasks, before);
+            history.record(new History.Edit(History.Kind.MARK, marked, null));
+        }
+        return String.format("Nice! I've marked %d tasks as done (%d were already done).",
+                count, indices.cardinality() - count);
+    }
+
+    /**
+     * Deletes several tasks from the list. The remaining tasks are compacted in a single
+     * pass instead of shifting the list once per deleted task.
+     *
+     * @param indices One-based indices of the tasks to delete
+     * @return Response message summarising how many tasks were deleted
+     * @throws TringaException if any index is invalid
+     */
+    public String deleteTasks(BitSet indices) throws TringaException {
+        validateIndices(indices);
+        int[] positions = indices.stream().map(i -> i - 1).toArray();
+        List<Task> deletedTasks = compact(positions);
+        cancelReminders(deletedTasks);
+        history.record(new History.Edit(History.Kind.DELETE, positions, deletedTasks));
+        return String.format("Noted. I've removed %d tasks.\nNow you have %d tasks in the list.",
+                deletedTasks.size(), tasks.size());
+    }
+
+    /**
+     * Finds the tasks that were marked as done before the given date.
+     *
+     * @return Zero-based positions of the tasks in ascending order
+     */
+    private int[] selectDoneBefore(LocalDate doneBefore) {
+        // Only the done tasks are read, which a queryable list selects without creating every task
+        return selectDone().stream()
+                .map(i -> i - 1)
+                .filter(i -> {
+                    LocalDate doneDate = tasks.get(i).getDoneDate();
+                    return doneDate != null && doneDate.isBefore(doneBefore);
+                })
+                .toArray();
+    }
+
+    /**
+     * Moves the tasks that were marked as done before the given date into the archive of a
+     * storage. The list is saved without them before they are archived, so a list that cannot
+     * be saved leaves the archive as it was. If the archive then cannot be written, the tasks
+     * are put back where they were and the list is saved again, so that a task is never lost
+     * and never kept in both files. Nothing is written if no task is old enough.
+     *
+     * @param doneBefore Tasks marked as done before this date are archived
+     * @param storage The storage holding the list and its archive
+     * @return The archived tasks in list order
+     * @throws TaskStorageException if the list or the archive cannot be written
+     */
+    public List<Task> archiveDoneTasks(LocalDate doneBefore, Storage storage) throws TaskStorageException {
+        int[] positions = selectDoneBefore(doneBefore);
+        if (positions.length == 0) {
+            return new ArrayList<>();
+        }
+        List<Task> archived = compact(positions);
+        history.clear();
+        saveTo(storage);
+        try {
+            storage.archive(archived);
+        } catch (TaskStorageException e) {
+            insert(positions, archived);
+            saveTo(storage);
+            throw e;
+        }
+        cancelReminders(archived);
+        return archived;
+    }
+
+    /**
+     * Selects all tasks that are marked as done.
+     *
+     * @return One-based indices of the done tasks
+     */
+    public BitSet selectDone() {
+        if (tasks instanceof QueryableTaskList queryable) {
+            return toOneBased(queryable.selectDone());
+        }
+        BitSet selected = new BitSet(tasks.size() + 1);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).isDone()) {
+                selected.set(i + 1);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Selects all tasks whose description contains the keyword, ignoring case.
+     *
+     * @param keyword The search term to look for in task descriptions
+     * @return One-based indices of the matching tasks
+     */
+    public BitSet selectMatching(String keyword) {
+        String search = keyword.toLowerCase().trim();
+        if (tasks instanceof DatabaseTaskList database) {
+            return toOneBased(database.selectMatching(search));
+        }
+        BitSet selected = new BitSet(tasks.size() + 1);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getDescription().toLowerCase().contains(search)) {
+                selected.set(i + 1);
+            }
+        }
+        return selected;
+    }
+
+    private static BitSet toOneBased(BitSet positions) {
+        BitSet shifted = new BitSet(positions.length() + 1);
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            shifted.set(i + 1);
+        }
+        return shifted;
+    }
+
     /**
      * Adds a new task to the list.
      *
@@ -100,11 +559,380 @@ public class TaskList {
             throw new TringaException("Cannot add null task");
         }
         tasks.add(task);
+        notifyAdded(tasks.size() - 1, task);
+        publish(ChangeEvent.Kind.ADD, new int[]{tasks.size() - 1}, List.of(task));
+        history.record(new History.Edit(History.Kind.ADD, tasks.size() - 1, task));
         return String.format("Got it. I've added this task:\n  %s\nNow you "
                         + "have %d tasks in the list.",
                 task, tasks.size());
     }
 
+    /**
+     * Adds several tasks to the end of the list as a single edit, so that they are undone
+     * together and published to the change feed as one batch.
+     *
+     * @param added Tasks to add, in order
+     * @return Response message summarising how many tasks were added
+     */
+    public String addTasks(List<Task> added) {
+        int[] positions = IntStream.range(tasks.size(), tasks.size() + added.size()).toArray();
+        tasks.addAll(added);
+        for (int i = 0; i < positions.length; i++) {
+            notifyAdded(positions[i], added.get(i));
+        }
+        publish(ChangeEvent.Kind.ADD, positions, added);
+        if (positions.length > 0) {
+            history.record(new History.Edit(History.Kind.ADD, positions, new ArrayList<>(added)));
+        }
+        return String.format("Got it. I've added %d tasks.\nNow you have %d tasks in the list.",
+                added.size(), tasks.size());
+    }
+
+    /**
+     * Reverts the most recent edit made to the list.
+     *
+     * @return Response message describing the reverted edit
+     * @throws TringaException if there is nothing to undo or the history no longer matches the list
+     */
+    public String undo() throws TringaException {
+        History.Edit edit = history.undo();
+        if (edit == null) {
+            throw new TringaException("Nothing to undo!");
+        }
+        try {
+            return switch (edit.kind()) {
+            case ADD -> "Undone. I've removed again:\n" + describe(removeAll(edit.indices()));
+            case DELETE -> "Undone. I've restored:\n" + describe(insertAll(edit.indices(), edit.tasks()));
+            case MARK -> "Undone. I've marked as not done:\n" + describe(setDone(edit.indices(), false));
+            case EDIT -> "Undone. I've changed back:\n"
+                    + describe(replace(edit.indices()[0], edit.tasks().get(0)));
+            };
+        } catch (TringaException e) {
+            history.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Re-applies the most recently undone edit.
+     *
+     * @return Response message describing the re-applied edit
+     * @throws TringaException if there is nothing to redo or the history no longer matches the list
+     */
+    public String redo() throws TringaException {
+        History.Edit edit = history.redo();
+        if (edit == null) {
+            throw new TringaException("Nothing to redo!");
+        }
+        try {
+            return switch (edit.kind()) {
+            case ADD -> "Redone. I've added again:\n" + describe(insertAll(edit.indices(), edit.tasks()));
+            case DELETE -> "Redone. I've removed again:\n" + describe(removeAll(edit.indices()));
+            case MARK -> "Redone. I've marked as done:\n" + describe(setDone(edit.indices(), true));
+            case EDIT -> "Redone. I've changed again:\n"
+                    + describe(replace(edit.indices()[0], edit.tasks().get(1)));
+            };
+        } catch (TringaException e) {
+            history.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the tasks at the given positions, compacting the remaining tasks in one pass.
+     *
+     * @param positions Zero-based positions in ascending order
+     * @return The removed tasks in the same order as the positions
+     */
+    private List<Task> removeAll(int[] positions) throws TringaException {
+        if (positions.length > 0) {
+            checkHistoryPosition(positions[positions.length - 1], tasks.size() - 1);
+        }
+        return compact(positions);
+    }
+
+    /**
+     * Removes the tasks at the given valid positions by moving every remaining task
+     * forward at most once.
+     */
+    private List<Task> compact(int[] positions) {
+        List<Task> removed;
+        if (tasks instanceof DatabaseTaskList database) {
+            // Rows are deleted one by one, since the rows after them never have to move
+            removed = database.removePositions(positions);
+        } else {
+            removed = new ArrayList<>(positions.length);
+            int write = 0;
+            int next = 0;
+            for (int read = 0; read < tasks.size(); read++) {
+                Task task = tasks.get(read);
+                if (next < positions.length && positions[next] == read) {
+                    removed.add(task);
+                    next++;
+                } else {
+                    tasks.set(write++, task);
+                }
+            }
+            tasks.subList(write, tasks.size()).clear();
+        }
+        if (removed.size() == 1) {
+            notifyRemoved(positions[0], removed.get(0));
+        } else if (!removed.isEmpty()) {
+            indexes.forEach(TaskIndex::invalidate);
+        }
+        if (changeFeed != null && !removed.isEmpty()) {
+            // Published from the back so that each position is still valid when its event is applied
+            int[] reversedPositions = new int[positions.length];
+            List<Task> reversedTasks = new ArrayList<>(removed.size());
+            for (int i = 0; i < positions.length; i++) {
+                reversedPositions[i] = positions[positions.length - 1 - i];
+                reversedTasks.add(removed.get(removed.size() - 1 - i));
+            }
+            publish(ChangeEvent.Kind.DELETE, reversedPositions, reversedTasks);
+        }
+        return removed;
+    }
+
+    /**
+     * Inserts tasks so that they end up at the given positions, shifting the existing tasks
+     * back in one pass. This is the inverse of {@link #removeAll(int[])}.
+     *
+     * @param positions Zero-based positions in ascending order that the tasks should end up at
+     * @param inserted The tasks to insert in the same order as the positions
+     * @return The inserted tasks
+     */
+    private List<Task> insertAll(int[] positions, List<Task> inserted) throws TringaException {
+        if (positions.length > 0) {
+            checkHistoryPosition(positions[positions.length - 1], tasks.size() + positions.length - 1);
+        }
+        return insert(positions, inserted);
+    }
+
+    /**
+     * Inserts tasks so that they end up at the given valid positions, moving every existing
+     * task back at most once.
+     */
+    private List<Task> insert(int[] positions, List<Task> inserted) {
+        if (tasks instanceof DatabaseTaskList database) {
+            database.insertPositions(positions, inserted);
+        } else {
+            int oldSize = tasks.size();
+            int newSize = oldSize + positions.length;
+            // Grow the list first; every slot from the first position onwards is overwritten below
+            tasks.addAll(inserted);
+            int read = oldSize - 1;
+            int next = positions.length - 1;
+            for (int write = newSize - 1; next >= 0; write--) {
+                if (positions[next] == write) {
+                    tasks.set(write, inserted.get(next--));
+                } else {
+                    tasks.set(write, tasks.get(read--));
+                }
+            }
+        }
+        if (inserted.size() == 1) {
+            notifyAdded(positions[0], inserted.get(0));
+        } else if (!inserted.isEmpty()) {
+            indexes.forEach(TaskIndex::invalidate);
+        }
+        publish(ChangeEvent.Kind.ADD, positions, inserted);
+        return inserted;
+    }
+
+    /**
+     * Applies changes made to the task file outside the bot. Tasks replaced one for one are
+     * swapped in place, so the indexes are updated incrementally, and other changes are
+     * applied as a removal followed by an insertion. The undo/redo history is cleared
+     * because the positions it refers to may no longer match the list.
+     *
+     * @param changes The changes found by {@link Storage#reload()}, in ascending order of position
+     */
+    public void applyFileChanges(List<Storage.FileChange> changes) {
+        // Applied from the back so that the positions of earlier changes stay valid
+        for (int c = changes.size() - 1; c >= 0; c--) {
+            Storage.FileChange change = changes.get(c);
+            int position = change.position();
+            if (change.removed() == 1 && change.inserted().size() == 1) {
+                Task newTask = change.inserted().get(0);
+                Task oldTask = tasks.set(position, newTask);
+                for (TaskIndex index : indexes) {
+                    index.taskReplaced(position, oldTask, newTask);
+                }
+                publish(ChangeEvent.Kind.DELETE, new int[]{position}, List.of(oldTask));
+                publish(ChangeEvent.Kind.ADD, new int[]{position}, List.of(newTask));
+            } else {
+                compact(IntStream.range(position, position + change.removed()).toArray());
+                insert(IntStream.range(position, position + change.inserted().size()).toArray(),
+                        change.inserted());
+            }
+        }
+        if (!changes.isEmpty()) {
+            history.clear();
+        }
+    }
+
+    /**
+     * Puts a copy of a task recorded in the history back at a position, so that the recorded
+     * task is not changed by later edits and can be restored again.
+     */
+    private List<Task> replace(int position, Task recorded) throws TringaException {
+        checkHistoryPosition(position, tasks.size() - 1);
+        Task restored = copyOf(recorded);
+        Task replaced = tasks.get(position);
+        moveReminder(replaced, restored);
+        tasks.set(position, restored);
+        for (TaskIndex index : indexes) {
+            index.taskReplaced(position, replaced, restored);
+        }
+        publish(ChangeEvent.Kind.EDIT, new int[]{position}, List.of(restored), recordsBefore(List.of(replaced)));
+        return List.of(restored);
+    }
+
+    /**
+     * Moves the reminder of a task replaced by an undo or redo to the task replacing it. The
+     * reminder is kept as it was if the reminder time did not change, and scheduled again from
+     * the new date otherwise, as after an edit of the date.
+     */
+    private static void moveReminder(Task replaced, Task restored) {
+        Set<Task> cancelled = Collections.newSetFromMap(new IdentityHashMap<>());
+        cancelled.add(replaced);
+        Reminder.cancelReminders(cancelled);
+        // Compared by reminder time, which date-only deadlines and events have as well
+        long now = EpochMinute.at(Instant.now(), ZoneId.systemDefault());
+        if (ReminderScheduler.reminderMinute(restored, now) == ReminderScheduler.reminderMinute(replaced, now)) {
+            restored.setReminderState(replaced.getNextReminder(), replaced.isReminderFired());
+            Reminder.restoreReminders(List.of(restored));
+        } else {
+            Reminder.rescheduleReminder(restored);
+        }
+    }
+
+    /**
+     * Cancels the reminders of tasks removed from the list. The tasks of a queryable list are
+     * copies rather than the objects the reminders were scheduled for, so their reminders are
+     * found by description and stored record instead.
+     */
+    private void cancelReminders(List<Task> removed) {
+        if (!isQueryable()) {
+            Set<Task> cancelled = Collections.newSetFromMap(new IdentityHashMap<>());
+            cancelled.addAll(removed);
+            Reminder.cancelReminders(cancelled);
+            return;
+        }
+        Set<String> descriptions = new HashSet<>();
+        Set<String> records = new HashSet<>();
+        for (Task task : removed) {
+            descriptions.add(task.getDescription());
+            records.add(TextStorage.withoutReminderState(TextStorage.serializeTask(task)));
+        }
+        Reminder.cancelReminders(task -> descriptions.contains(task.getDescription())
+                && records.contains(TextStorage.withoutReminderState(TextStorage.serializeTask(task))));
+    }
+
+    /** Copies a task through its storage format, so that the copy is not affected by changes to the task */
+    private static Task copyOf(Task task) throws TringaException {
+        try {
+            return TextStorage.deserializeTask(TextStorage.serializeTask(task));
+        } catch (TaskStorageException e) {
+            throw new TringaException(e.getMessage());
+        }
+    }
+
+    private List<Task> setDone(int[] positions, boolean isDone) throws TringaException {
+        List<Task> changed = new ArrayList<>(positions.length);
+        List<String> before = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            checkHistoryPosition(position, tasks.size() - 1);
+            Task task = tasks.get(position);
+            before.addAll(recordsBefore(List.of(task)));
+            if (isDone) {
+                task.markDone();
+            } else {
+                task.markUndone();
+            }
+            tasks.set(position, task);
+            notifyUpdated(position, task);
+            changed.add(task);
+        }
+        publish(isDone ? ChangeEvent.Kind.MARK : ChangeEvent.Kind.UNMARK, positions, changed, before);
+        return changed;
+    }
+
+    private void publish(ChangeEvent.Kind kind, int[] positions, List<Task> changed) {
+        publish(kind, positions, changed, null);
+    }
+
+    /**
+     * Keeps changes to be published to the change feed once the list is saved, if there is a
+     * feed. The positions and tasks are published in the order given, which must be the order
+     * the changes were applied in.
+     *
+     * @param before The changed tasks as they were before, for changes that replace tasks
+     */
+    private void publish(ChangeEvent.Kind kind, int[] positions, List<Task> changed, List<String> before) {
+        if (changeFeed == null || positions.length == 0) {
+            return;
+        }
+        List<String> records = new ArrayList<>(changed.size());
+        for (Task task : changed) {
+            records.add(TextStorage.serializeTask(task));
+        }
+        unsavedChanges.add(new UnsavedChange(kind, positions, records, before));
+    }
+
+    /**
+     * Gets the storage format of tasks about to be changed, which is needed to revert the
+     * change until it is saved. Nothing is recorded if changes are not published.
+     */
+    private List<String> recordsBefore(List<Task> changing) {
+        if (changeFeed == null) {
+            return List.of();
+        }
+        List<String> records = new ArrayList<>(changing.size());
+        for (Task task : changing) {
+            records.add(TextStorage.serializeTask(task));
+        }
+        return records;
+    }
+
+    private void notifyAdded(int position, Task task) {
+        for (TaskIndex index : indexes) {
+            index.taskAdded(position, task);
+        }
+    }
+
+    private void notifyRemoved(int position, Task task) {
+        for (TaskIndex index : indexes) {
+            index.taskRemoved(position, task);
+        }
+    }
+
+    private void notifyUpdated(int position, Task task) {
+        for (TaskIndex index : indexes) {
+            index.taskUpdated(position, task);
+        }
+    }
+
+    /**
+     * Describes the tasks affected by an undo or redo, summarising large edits.
+     */
+    private String describe(List<Task> affected) {
+        if (affected.size() > 1) {
+            return "  " + affected.size() + " tasks";
+        }
+        return "  " + affected.get(0);
+    }
+
+    /**
+     * Guards against history that was recorded for a different version of the list,
+     * e.g. when the storage file has been edited by hand.
+     */
+    private void checkHistoryPosition(int position, int maxPosition) throws TringaException {
+        if (position < 0 || position > maxPosition) {
+            throw new TringaException("History no longer matches the task list. History has been cleared.");
+        }
+    }
+
     /**
      * Validates that an index is within the valid range for the task list.
      *
@@ -124,6 +952,20 @@ public class TaskList {
         }
     }
 
+    /**
+     * Validates that every index in a selection is within the valid range for the task list.
+     *
+     * @param indices One-based indices to validate
+     * @throws TringaException if the selection is empty or contains an invalid index
+     */
+    private void validateIndices(BitSet indices) throws TringaException {
+        if (indices.isEmpty()) {
+            throw new TringaException("No tasks matched the selection.");
+        }
+        validateIndex(indices.nextSetBit(0));
+        validateIndex(indices.length() - 1);
+    }
+
     /**
      * Searches for tasks that contain the specified keyword in their description.
      * The search is case-insensitive and ignores leading/trailing whitespace.
@@ -133,27 +975,221 @@ public class TaskList {
      */
 
     public String findTasks(String keyword) {
-        List<Integer> matchingIndices = new ArrayList<>();
-        String search = keyword.toLowerCase().trim();
-        for (int i = 0; i < tasks.size(); i++) {
-            Task task = tasks.get(i);
-            if (task.getDescription().toLowerCase().contains(search)) {
-                matchingIndices.add(i);
+        return findTasks(keyword, List.of(), null);
+    }
+
+    /**
+     * Searches for tasks that contain the keyword in their description and have all the
+     * given tags and the given priority. Only the tasks in the intersection of the label
+     * bitmaps have their descriptions checked.
+     *
+     * @param keyword The search term to look for in task descriptions, or an empty string to match any task
+     * @param tags The tags the tasks must have, in lower case
+     * @param priority The priority the tasks must have, or null for any priority
+     * @return A formatted string containing the list of matching tasks, or a message if no tasks are found
+     */
+    public String findTasks(String keyword, List<String> tags, Task.Priority priority) {
+        BitSet labelled = labelIndex.select(tags, priority);
+        BitSet matching;
+        if (labelled == null) {
+            matching = selectMatching(keyword);
+        } else {
+            String search = keyword.toLowerCase().trim();
+            matching = new BitSet(tasks.size() + 1);
+            for (int i = labelled.nextSetBit(0); i >= 0; i = labelled.nextSetBit(i + 1)) {
+                if (tasks.get(i).getDescription().toLowerCase().contains(search)) {
+                    matching.set(i + 1);
+                }
             }
         }
-        if (matchingIndices.isEmpty()) {
+        if (matching.isEmpty()) {
             return "No matching tasks found in current list.";
         } else {
-            StringBuilder sb = new StringBuilder();
-            sb.append("Here are the matching tasks in your " + "list:\n");
-            int resultNumber = 1;
-            for (int originalIndex : matchingIndices) {
-                Task task = tasks.get(originalIndex);
-                sb.append(String.format("%d.%s\n", resultNumber, task));
-                resultNumber++;
+            List<String> lines = new ArrayList<>(matching.cardinality());
+            for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+                lines.add(tasks.get(i - 1).toString());
+            }
+            return renderNumbered("Here are the matching tasks in your list:\n", lines, ".");
+        }
+    }
+
+    /**
+     * Lists the first few tasks that {@link #findTasks(String)} would list for a keyword, for
+     * showing while the keyword is still being typed.
+     *
+     * @param keyword The search term to look for in task descriptions
+     * @param limit Largest number of tasks to list
+     * @return A formatted string containing the first matching tasks and how many there are in all,
+     *     or a message if no tasks are found
+     */
+    public String previewMatching(String keyword, int limit) {
+        String[] descriptions = snapshotDescriptions();
+        if (descriptions != null) {
+            return renderPreview(descriptions, matchDescriptions(descriptions, keyword, limit));
+        }
+        BitSet matching = selectMatching(keyword);
+        List<String> lines = new ArrayList<>(limit);
+        for (int i = matching.nextSetBit(0); i >= 0 && lines.size() < limit; i = matching.nextSetBit(i + 1)) {
+            lines.add(tasks.get(i - 1).toString());
+        }
+        return renderPreview(matching.cardinality(), lines);
+    }
+
+    /**
+     * The first tasks whose descriptions contain a keyword and how many there are in all.
+     *
+     * @param positions Zero-based positions of the first matching tasks in ascending order
+     * @param count Number of matching tasks
+     */
+    public record PreviewMatches(int[] positions, int count) {
+    }
+
+    /**
+     * Gets a copy of the task descriptions in lower case that does not change with the list,
+     * so that a find can be previewed by {@link #matchDescriptions(String[], String, int)}
+     * without holding the lock on the list. The copy is only taken again after a change.
+     *
+     * @return The descriptions in list order, or null if the list finds tasks in its database instead
+     */
+    public String[] snapshotDescriptions() {
+        return tasks instanceof DatabaseTaskList ? null : descriptionSnapshot.get();
+    }
+
+    /**
+     * Finds the first descriptions containing a keyword, ignoring case, the same way
+     * {@link #findTasks(String)} matches tasks. This only reads the given descriptions, so it
+     * can run while the list is used by other threads.
+     *
+     * @param descriptions Descriptions returned by {@link #snapshotDescriptions()}
+     * @param keyword The search term to look for
+     * @param limit Largest number of positions to return
+     * @return The positions of the first matches and the number of matches
+     */
+    public static PreviewMatches matchDescriptions(String[] descriptions, String keyword, int limit) {
+        String search = keyword.toLowerCase().trim();
+        int[] positions = new int[limit];
+        int count = 0;
+        for (int i = 0; i < descriptions.length; i++) {
+            if (descriptions[i].contains(search)) {
+                if (count < limit) {
+                    positions[count] = i;
+                }
+                count++;
+            }
+        }
+        return new PreviewMatches(Arrays.copyOf(positions, Math.min(count, limit)), count);
+    }
+
+    /**
+     * Lists the tasks matched in a copy of the descriptions, as {@link #previewMatching(String, int)} does.
+     *
+     * @param descriptions Descriptions returned by {@link #snapshotDescriptions()}
+     * @param matches The matches found in them
+     * @return The preview, or null if the list changed since the descriptions were copied
+     */
+    public String renderPreview(String[] descriptions, PreviewMatches matches) {
+        if (!descriptionSnapshot.isCurrent(descriptions)) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>(matches.positions().length);
+        for (int position : matches.positions()) {
+            lines.add(tasks.get(position).toString());
+        }
+        return renderPreview(matches.count(), lines);
+    }
+
+    private static String renderPreview(int count, List<String> lines) {
+        if (count == 0) {
+            return "No matching tasks found in current list.";
+        }
+        String preview = renderNumbered(String.format("%d matching %s:\n", count, count == 1 ? "task" : "tasks"),
+                lines, ".");
+        return count > lines.size() ? preview + "\n..." : preview;
+    }
+
+    /**
+     * Builds the prefix trees used to complete what the user types if a change left them to be
+     * rebuilt, so that working out suggestions never has to build them.
+     */
+    public void prepareSuggestions() {
+        prefixIndex.prepare();
+    }
+
+    /**
+     * Finds the words in the task descriptions that start with a prefix, ignoring case.
+     *
+     * @param prefix The start of the words to find
+     * @param limit Largest number of words to return
+     * @return The words in lower case and alphabetical order
+     */
+    public List<String> completeWord(String prefix, int limit) {
+        return prefixIndex.completeWord(prefix, limit);
+    }
+
+    /**
+     * Finds the task descriptions that start with a prefix, ignoring case.
+     *
+     * @param prefix The start of the descriptions to find
+     * @param limit Largest number of descriptions to return
+     * @return The descriptions in alphabetical order, each once
+     */
+    public List<String> completeDescription(String prefix, int limit) {
+        return prefixIndex.completeDescription(prefix, limit);
+    }
+
+    /**
+     * Searches for the tasks whose descriptions best match the keyword, tolerating typos.
+     * Results are ranked by similarity and only the best few are returned.
+     *
+     * @param keyword The search term to look for in task descriptions
+     * @param limit Maximum number of tasks to return
+     * @return A formatted string containing the best matching tasks, or a message if no tasks are found
+     */
+    public String findTasksRanked(String keyword, int limit) {
+        List<SearchIndex.Match> matches = searchIndex.search(keyword, limit);
+        if (matches.isEmpty()) {
+            return "No matching tasks found in current list.";
+        }
+        List<String> lines = new ArrayList<>(matches.size());
+        for (SearchIndex.Match match : matches) {
+            lines.add(tasks.get(match.position()).toString());
+        }
+        return renderNumbered("Here are the best matching tasks in your list:\n", lines, ".");
+    }
+
+    /**
+     * Lists the tasks matching a filter query. The field indexes are used to narrow down
+     * the tasks to check when the query's type, done or date clauses are selective, and
+     * every task is scanned otherwise.
+     *
+     * @param query The compiled filter query
+     * @return A formatted string containing the matching tasks, preceded by the chosen plan
+     *         if the query asks for it
+     */
+    public String filterTasks(TaskQuery query) {
+        FieldIndex.Selection selection = fieldIndex.select(query);
+        BitSet toCheck = selection.candidates();
+        if (toCheck == null) {
+            toCheck = new BitSet(tasks.size());
+            toCheck.set(0, tasks.size());
+        }
+        String plan = query.isExplain() ? "Plan: " + selection.plan() + "\n" : "";
+
+        BitSet matching = new BitSet(tasks.size() + 1);
+        List<String> lines = new ArrayList<>();
+        for (int i = toCheck.nextSetBit(0); i >= 0; i = toCheck.nextSetBit(i + 1)) {
+            Task task = tasks.get(i);
+            if (query.matches(task)) {
+                matching.set(i + 1);
+                lines.add(task.toString());
             }
-            return sb.toString().trim();
         }
+        if (lines.isEmpty()) {
+            return plan + "No matching tasks found in current list.";
+        }
+        // Tasks keep their numbers in the list, so that they can be marked or deleted by them
+        return renderNumbered(plan + "Here are the matching tasks in your list:\n", matching.stream().toArray(),
+                lines, ".");
     }
 
     /**
@@ -161,56 +1197,150 @@ public class TaskList {
      * Tasks are considered upcoming if they are:
      * - Not marked as done
      * - Due date/event date is in the future
+     * Recurring tasks contribute each of their occurrences within the next
+     * {@link #UPCOMING_WINDOW_DAYS} days.
      *
      * @return A formatted string containing the list of upcoming tasks
      */
     public String listUpcomingTasks() {
-        List<Task> upcomingTasks = getUpcomingTasks();
+        return listUpcomingTasks(List.of(), null);
+    }
+
+    /**
+     * Lists the upcoming tasks that have all the given tags and the given priority.
+     * Only the tasks in the intersection of the label bitmaps are checked.
+     *
+     * @param tags The tags the tasks must have, in lower case
+     * @param priority The priority the tasks must have, or null for any priority
+     * @return A formatted string containing the list of upcoming tasks
+     */
+    public String listUpcomingTasks(List<String> tags, Task.Priority priority) {
+        List<Upcoming> upcomingTasks = getUpcomingTasks(labelIndex.select(tags, priority));
 
         if (upcomingTasks.isEmpty()) {
             return "No upcoming tasks!";
         }
 
         // Sort tasks by date
-        upcomingTasks.sort((t1, t2) -> {
-            LocalDate date1 = getTaskDate(t1);
-            LocalDate date2 = getTaskDate(t2);
-            return date1.compareTo(date2);
-        });
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Here are your upcoming tasks:\n");
-        for (int i = 0; i < upcomingTasks.size(); i++) {
-            Task task = upcomingTasks.get(i);
-            sb.append(i + 1).append(". ").append(task.toString()).append("\n");
+        upcomingTasks.sort(Comparator.comparing(Upcoming::date));
+
+        List<String> lines = new ArrayList<>(upcomingTasks.size());
+        for (Upcoming upcoming : upcomingTasks) {
+            lines.add(upcoming.line());
+        }
+        return renderNumbered("Here are your upcoming tasks:\n", lines, ". ");
+    }
+
+    /**
+     * Gets the deadlines, events and occurrences of recurring tasks on each day between two
+     * dates. Events spanning several days are listed on each of their days.
+     *
+     * @param from The first day, inclusive
+     * @param to The last day, inclusive
+     * @return The numbered task lines on each day that has tasks, in order of day
+     */
+    public NavigableMap<LocalDate, List<String>> getAgenda(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, List<String>> agenda = new TreeMap<>();
+        for (Map.Entry<LocalDate, List<AgendaIndex.Entry>> day : agendaIndex.select(from, to).entrySet()) {
+            List<String> lines = new ArrayList<>(day.getValue().size());
+            for (AgendaIndex.Entry entry : day.getValue()) {
+                Task task = tasks.get(entry.position());
+                String line = entry.start() != null && task instanceof Recurring recurring
+                        ? recurring.describeOccurrence(entry.start())
+                        : task.toString();
+                lines.add((entry.position() + 1) + "." + line);
+            }
+            agenda.put(day.getKey(), lines);
+        }
+        return agenda;
+    }
+
+    /**
+     * Lists the agenda between two dates, grouped by day.
+     *
+     * @param from The first day, inclusive
+     * @param to The last day, inclusive
+     * @return A formatted string containing the tasks on each day
+     */
+    public String listAgenda(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, List<String>> agenda = getAgenda(from, to);
+        String period = from.format(AGENDA_DAY_FORMAT) + " to " + to.format(AGENDA_DAY_FORMAT);
+        if (agenda.isEmpty()) {
+            return "Nothing on your agenda from " + period + "!";
+        }
+        StringBuilder sb = new StringBuilder("Here is your agenda from ").append(period).append(":");
+        for (Map.Entry<LocalDate, List<String>> day : agenda.entrySet()) {
+            sb.append('\n').append(day.getKey().format(AGENDA_DAY_FORMAT));
+            for (String line : day.getValue()) {
+                sb.append("\n  ").append(line);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Describes the events that are not done and overlap the event at an index.
+     *
+     * @param index One-based index of the event
+     * @return A note listing the overlapping events, or an empty string if there are none
+     */
+    public String describeConflicts(int index) {
+        List<Integer> overlapping = intervalIndex.overlapping(index - 1);
+        if (overlapping.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("Heads up! This overlaps with:");
+        for (int position : overlapping) {
+            sb.append("\n  ").append(position + 1).append(".").append(tasks.get(position));
         }
         return sb.toString();
     }
 
     /**
-     * Gets a list of all upcoming tasks that aren't done and are due in the future.
+     * Lists every pair of events that are not done and whose dates overlap.
      *
-     * @return List of upcoming tasks
+     * @return A formatted string containing the overlapping pairs
      */
-    private List<Task> getUpcomingTasks() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    public String listConflicts() {
+        List<IntervalIndex.Overlap> overlaps = intervalIndex.overlaps();
+        if (overlaps.isEmpty()) {
+            return "No overlapping events!";
+        }
+        List<String> lines = new ArrayList<>(overlaps.size());
+        for (IntervalIndex.Overlap overlap : overlaps) {
+            lines.add((overlap.first() + 1) + "." + tasks.get(overlap.first()) + "\n   overlaps "
+                    + (overlap.second() + 1) + "." + tasks.get(overlap.second()));
+        }
+        return renderNumbered("Here are the overlapping events:\n", lines, ") ");
+    }
+
+    /**
+     * Gets all upcoming tasks that aren't done and are due in the future, generating the
+     * occurrences of recurring tasks that fall within the upcoming window.
+     *
+     * @param labelled Positions of the tasks to consider, or null to consider every task
+     * @return List of upcoming tasks and occurrences
+     */
+    private List<Upcoming> getUpcomingTasks(BitSet labelled) {
         LocalDate today = LocalDate.now();
-        List<Task> upcomingTasks = new ArrayList<>();
+        LocalDate windowEnd = today.plusDays(UPCOMING_WINDOW_DAYS);
+        List<Upcoming> upcomingTasks = new ArrayList<>();
 
-        for (Task task : tasks) {
+        for (Task task : candidateUpcomingTasks(today, labelled)) {
             if (task.isDone()) {
                 continue;
             }
 
-            LocalDate taskDate = null;
-            if (task instanceof Deadline deadline) {
-                taskDate = LocalDate.parse(deadline.getDeadline(), formatter);
-            } else if (task instanceof Event event) {
-                taskDate = LocalDate.parse(event.getStart(), formatter);
+            if (task instanceof Recurring recurring) {
+                for (LocalDate date : recurring.getOccurrences(today, windowEnd)) {
+                    upcomingTasks.add(new Upcoming(date, recurring.describeOccurrence(date)));
+                }
+                continue;
             }
 
+            LocalDate taskDate = task.getDate();
             if (taskDate != null && !taskDate.isBefore(today)) {
-                upcomingTasks.add(task);
+                upcomingTasks.add(new Upcoming(taskDate, task.toString()));
             }
         }
 
@@ -218,16 +1348,89 @@ public class TaskList {
     }
 
     /**
-     * Helper method to get the date from a task
+     * Writes numbered lines under a header into a single buffer. The buffer is sized from the
+     * lengths of the lines before anything is copied, so it never has to grow.
+     *
+     * @param header The text before the first line, including its line break
+     * @param lines The lines to number, starting from 1
+     * @param separator The text between each number and its line
+     * @return The numbered list
      */
-    private LocalDate getTaskDate(Task task) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
-        if (task instanceof Deadline deadline) {
-            return LocalDate.parse(deadline.getDeadline(), formatter);
-        } else if (task instanceof Event event) {
-            return LocalDate.parse(event.getStart(), formatter);
+    private static String renderNumbered(String header, List<String> lines, String separator) {
+        return renderNumbered(header, null, lines, separator);
+    }
+
+    /**
+     * Writes lines under a header with the given numbers into a single buffer, sized like
+     * {@link #renderNumbered(String, List, String)}.
+     *
+     * @param numbers The number of each line in ascending order, or null to number them from 1
+     */
+    private static String renderNumbered(String header, int[] numbers, List<String> lines, String separator) {
+        int largest = numbers == null || numbers.length == 0 ? lines.size() : numbers[numbers.length - 1];
+        int numberWidth = String.valueOf(largest).length();
+        int capacity = header.length() + lines.size() * (numberWidth + separator.length() + 1);
+        for (String line : lines) {
+            capacity += line.length();
+        }
+        StringBuilder sb = new StringBuilder(capacity);
+        sb.append(header);
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append(numbers == null ? i + 1 : numbers[i]).append(separator).append(lines.get(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the tasks that may be upcoming out of the given positions. A queryable list narrows
+     * them down using its columns, so only the tasks that are shown need to be created.
+     */
+    private List<Task> candidateUpcomingTasks(LocalDate today, BitSet labelled) {
+        BitSet positions;
+        if (tasks instanceof QueryableTaskList queryable) {
+            positions = queryable.selectUpcoming(today);
+            if (labelled != null) {
+                positions.and(labelled);
+            }
+        } else if (labelled != null) {
+            positions = labelled;
+        } else {
+            return tasks;
+        }
+        List<Task> candidates = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            candidates.add(tasks.get(i));
         }
-        return null;
+        return candidates;
     }
 
+    private static String describeLabels(List<String> tags, Task.Priority priority) {
+        List<String> labels = new ArrayList<>();
+        for (String tag : tags) {
+            labels.add("#" + tag);
+        }
+        if (priority != null) {
+            labels.add(priority.name().toLowerCase() + " priority");
+        }
+        return String.join(" and ", labels);
+    }
+
+    /**
+     * An upcoming task or occurrence of a recurring task.
+     */
+    private record Upcoming(LocalDate date, String line) {
+    }
+
+    /**
+     * A change made to the list that has not been saved yet.
+     *
+     * @param records The changed tasks in storage format, as published
+     * @param before The tasks the change replaced in storage format, or null if it replaced none
+     */
+    private record UnsavedChange(ChangeEvent.Kind kind, int[] positions, List<String> records,
+            List<String> before) {
+    }
 }
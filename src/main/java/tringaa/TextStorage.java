@@ -0,0 +1,949 @@
+package tringaa;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.EpochMinute;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+/**
+ * Stores a task list in a plain text file with one record per line, which can be edited
+ * by hand while the bot is running.
+ */
+public class TextStorage implements Storage {
+    /** The directory and base file name of the default task list */
+    private static final Path DEFAULT_DIRECTORY = Paths.get("data");
+    private static final String DEFAULT_NAME = "tringa";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    /** Number of tasks from which a compressed snapshot of the task file is kept for loading */
+    private static final int SNAPSHOT_MIN_TASKS = 2000;
+    /** The reminder state in a stored task, which changes while the task is scheduled */
+    private static final Pattern REMINDER_STATE = Pattern.compile(" \\| next=-?\\d+( \\| fired=1)?");
+
+    /**
+     * The file path where tasks are stored.
+     */
+    private final Path filePath;
+
+    /**
+     * The file path where the undo/redo history of the task list is stored.
+     */
+    private final Path historyPath;
+
+    /**
+     * The file path of the compressed, append-only archive of completed tasks.
+     */
+    private final Path archivePath;
+
+    /**
+     * The file path of the append-only log of changes made to the task list.
+     */
+    private final Path changeLogPath;
+
+    /**
+     * The file path of the compressed snapshot of the task file, read instead of it when loading.
+     */
+    private final Path snapshotPath;
+
+    /** Hash of each record in the task file as it was last loaded or saved */
+    private long[] knownHashes = new long[0];
+    /** CRC32 checksum, size and modification time of the task file as it was last loaded or saved */
+    private long knownChecksum;
+    private long knownSize;
+    private FileTime knownModified;
+    /** Whether a save found that the task file had been changed outside the bot */
+    private boolean hasConflict;
+    /** Whether the snapshot may not match the task file as it was last loaded or saved */
+    private boolean isSnapshotStale;
+    /** Tasks read by the last load whose reminders have not been shown yet */
+    private List<Task> pendingReminders = new ArrayList<>();
+    /** Problems found by the last load that did not stop it, such as damaged snapshot blocks */
+    private List<String> loadWarnings = new ArrayList<>();
+
+    /**
+     * Creates a storage for the default task list in the data directory.
+     */
+    public TextStorage() {
+        this(DEFAULT_DIRECTORY, DEFAULT_NAME);
+    }
+
+    /**
+     * Creates a storage for a task list whose files are named after the list.
+     * The tasks, history, archive and change log are kept in NAME.txt, NAME.history,
+     * NAME.archive.gz and NAME.changes.ndjson, and large lists also keep a compressed
+     * snapshot of NAME.txt in NAME.snapshot.
+     *
+     * @param directory The directory holding the list's files
+     * @param name The base name of the list's files
+     */
+    public TextStorage(Path directory, String name) {
+        this.filePath = directory.resolve(name + ".txt");
+        this.historyPath = directory.resolve(name + ".history");
+        this.archivePath = directory.resolve(name + ".archive.gz");
+        this.changeLogPath = directory.resolve(name + ".changes.ndjson");
+        this.snapshotPath = directory.resolve(name + ".snapshot");
+    }
+
+    @Override
+    public Path getChangeLogPath() {
+        return changeLogPath;
+    }
+
+    @Override
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Loads tasks from the storage file. If the storage directory or file doesn't exist,
+     * they will be created automatically. If a compressed snapshot of the file is still up
+     * to date, the snapshot is read instead, which reads far fewer bytes. Damaged blocks
+     * of the snapshot are reported through {@link #takeLoadWarnings()}, and their tasks are
+     * read from the task file instead.
+     *
+     * @return List of Task objects read from the storage file. Returns an empty list if
+     *         the file is empty or newly created.
+     * @throws TaskStorageException if there are any errors during file operations or task
+     *         deserialization.
+     */
+    @Override
+    public List<Task> load() throws TaskStorageException {
+        try {
+            // Create data directory if it doesn't exist
+            Files.createDirectories(filePath.getParent());
+            // If file doesn't exist, create it and return empty list
+            if (!Files.exists(filePath)) {
+                Files.createFile(filePath);
+                rememberFile(new long[0], 0);
+                return new ArrayList<>();
+            }
+            loadWarnings = new ArrayList<>();
+            List<String> lines;
+            long checksum;
+            SnapshotFile.Contents snapshot = readCurrentSnapshot();
+            isSnapshotStale = snapshot == null || !snapshot.damage().isEmpty();
+            if (!isSnapshotStale) {
+                lines = Arrays.asList(snapshot.records());
+                checksum = snapshot.stamp().checksum();
+            } else {
+                byte[] bytes = Files.readAllBytes(filePath);
+                lines = records(bytes);
+                checksum = checksum(bytes);
+                if (snapshot != null) {
+                    lines = recoverDamagedBlocks(snapshot, lines);
+                }
+            }
+            List<Task> tasks = new ArrayList<>(lines.size());
+            pendingReminders = new ArrayList<>();
+            Set<String> unreadable = new HashSet<>();
+            for (String line : lines) {
+                Task task;
+                try {
+                    task = deserializeTask(line);
+                } catch (TaskStorageException e) {
+                    loadWarnings.add(e.getMessage() + " in " + filePath.getFileName() + ", so the task was skipped.");
+                    unreadable.add(line);
+                    continue;
+                }
+                tasks.add(task);
+                if (hasPendingReminder(task)) {
+                    pendingReminders.add(task);
+                }
+            }
+            if (!unreadable.isEmpty()) {
+                // The positions of the remembered records have to match the tasks in the list
+                lines = new ArrayList<>(lines);
+                lines.removeAll(unreadable);
+            }
+            rememberFile(hashes(lines), checksum);
+            return tasks;
+        } catch (IOException e) {
+            throw new TaskStorageException("Error loading tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the problems found by the last load that did not stop it. They are only returned once.
+     *
+     * @return Descriptions of the problems, empty if there were none
+     */
+    @Override
+    public List<String> takeLoadWarnings() {
+        List<String> warnings = loadWarnings;
+        loadWarnings = new ArrayList<>();
+        return warnings;
+    }
+
+    /**
+     * Reads the snapshot if it was written with the task file as it is now, which is checked
+     * from the size and modification time of the task file and from the checksum of a few
+     * pages of it, without reading the whole file.
+     *
+     * @return The snapshot, or null if there is no usable snapshot
+     */
+    private SnapshotFile.Contents readCurrentSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return null;
+        }
+        SnapshotFile.Contents snapshot = SnapshotFile.read(snapshotPath);
+        if (snapshot == null) {
+            loadWarnings.add("The snapshot " + snapshotPath.getFileName() + " could not be read, so "
+                    + filePath.getFileName() + " was loaded instead.");
+            return null;
+        }
+        SnapshotFile.Stamp stamp = snapshot.stamp();
+        if (stamp.size() != Files.size(filePath)
+                || stamp.modifiedMillis() != Files.getLastModifiedTime(filePath).toMillis()
+                || stamp.sampleChecksum() != SnapshotFile.sampleChecksum(filePath)) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reports the damaged blocks of a snapshot and takes their records from the task file.
+     * If the task file no longer has the same records, the damaged blocks are skipped instead.
+     *
+     * @param snapshot The snapshot with damaged blocks
+     * @param fileRecords The records of the task file
+     * @return The records to load
+     */
+    private List<String> recoverDamagedBlocks(SnapshotFile.Contents snapshot, List<String> fileRecords) {
+        String[] records = snapshot.records();
+        if (fileRecords.size() == records.length) {
+            for (String damage : snapshot.damage()) {
+                loadWarnings.add(damage + " in " + snapshotPath.getFileName() + ", so its tasks were read from "
+                        + filePath.getFileName() + ".");
+            }
+            return fileRecords;
+        }
+        List<String> intact = new ArrayList<>(records.length);
+        for (String record : records) {
+            if (record != null) {
+                intact.add(record);
+            }
+        }
+        for (String damage : snapshot.damage()) {
+            loadWarnings.add(damage + " in " + snapshotPath.getFileName() + ", so its tasks were skipped.");
+        }
+        return intact;
+    }
+
+    /**
+     * Gets the tasks read by the last load whose reminders have not been shown yet, so that
+     * reminders can be restored without going through the whole list again. The tasks are
+     * only returned once.
+     *
+     * @return The tasks with pending reminders, in list order
+     */
+    @Override
+    public List<Task> takePendingReminders() {
+        List<Task> pending = pendingReminders;
+        pendingReminders = new ArrayList<>();
+        return pending;
+    }
+
+    /**
+     * Removes the reminder state from a stored task, so that a copy of a task whose reminder
+     * was scheduled or shown since it was stored can still be matched with it.
+     *
+     * @param record A task in its storage format
+     * @return The record without the next reminder and whether it was shown
+     */
+    static String withoutReminderState(String record) {
+        return REMINDER_STATE.matcher(record).replaceFirst("");
+    }
+
+    /**
+     * Checks whether a task has a reminder that has not been shown yet. Dated tasks saved
+     * before reminder state was kept count as pending too.
+     */
+    static boolean hasPendingReminder(Task task) {
+        if (task.isDone() || task.isReminderFired()) {
+            return false;
+        }
+        return task.getNextReminder() != EpochMinute.NONE || task.getDate() != null;
+    }
+
+    /**
+     * Saves the given list of tasks to the storage file. The file is only written if it has
+     * not been changed outside the bot since it was last loaded or saved, so that such
+     * changes are never silently overwritten.
+     *
+     * @param tasks List of tasks to save
+     * @throws TaskStorageException if there are errors writing to the file, or if the file
+     *         was changed outside the bot
+     */
+    @Override
+    public void save(List<Task> tasks) throws TaskStorageException {
+        try {
+            if (isChangedOnDisk()) {
+                hasConflict = true;
+                throw new TaskStorageException("The task file was changed outside Tringa, so this change "
+                        + "was not saved. The file will be loaded again with the next command.");
+            }
+            // Records of a queryable list are written as they are stored, without creating the tasks
+            QueryableTaskList stored = tasks instanceof QueryableTaskList queryable ? queryable : null;
+            long[] hashes = new long[tasks.size()];
+            CheckedOutputStream output = new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(filePath)), new CRC32());
+            try (Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < tasks.size(); i++) {
+                    String record = stored != null ? stored.getRecord(i) : serializeTask(tasks.get(i));
+                    hashes[i] = hash(record);
+                    writer.write(record);
+                    writer.write('\n');
+                }
+            }
+            rememberFile(hashes, output.getChecksum().getValue());
+            isSnapshotStale = true;
+        } catch (IOException e) {
+            throw new TaskStorageException("Error saving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Brings the compressed snapshot of the task file up to date for the next load. A list
+     * of at least {@link #SNAPSHOT_MIN_TASKS} tasks gets a snapshot of the task file as it
+     * is now, and a smaller list has its snapshot deleted. Snapshots are written when a list
+     * is left or the bot exits rather than with every save, so that a save only writes the
+     * task file, and nothing is written if the snapshot is already up to date.
+     *
+     * @throws TaskStorageException if the task file cannot be read or the snapshot cannot be written
+     */
+    public void writeSnapshot() throws TaskStorageException {
+        if (!isSnapshotStale) {
+            return;
+        }
+        try {
+            if (!Files.exists(filePath)) {
+                Files.deleteIfExists(snapshotPath);
+                isSnapshotStale = false;
+                return;
+            }
+            FileTime modified = Files.getLastModifiedTime(filePath);
+            byte[] bytes = Files.readAllBytes(filePath);
+            List<String> lines = records(bytes);
+            if (lines.size() < SNAPSHOT_MIN_TASKS) {
+                Files.deleteIfExists(snapshotPath);
+            } else {
+                try (SnapshotFile.Writer snapshot = new SnapshotFile.Writer(snapshotPath, lines.size())) {
+                    for (String line : lines) {
+                        snapshot.add(line);
+                    }
+                    snapshot.finish(new SnapshotFile.Stamp(bytes.length, modified.toMillis(), checksum(bytes),
+                            SnapshotFile.sampleChecksum(filePath)));
+                }
+            }
+            isSnapshotStale = false;
+        } catch (IOException e) {
+            throw new TaskStorageException("Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the task file and its snapshot once the tasks are kept elsewhere.
+     *
+     * @throws TaskStorageException if the files cannot be deleted
+     */
+    public void deleteTaskFile() throws TaskStorageException {
+        try {
+            Files.deleteIfExists(filePath);
+            Files.deleteIfExists(snapshotPath);
+        } catch (IOException e) {
+            throw new TaskStorageException("Error deleting task file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a save found that the task file had been changed outside the bot.
+     * The tasks in memory then no longer match any known version of the file, so the
+     * list has to be loaded again from scratch.
+     *
+     * @return True if the list must be loaded again
+     */
+    @Override
+    public boolean hasConflict() {
+        return hasConflict;
+    }
+
+    /**
+     * Reloads the task file after it was changed outside the bot, returning only what changed
+     * since it was last loaded or saved. Records are compared by hash, and only the records
+     * that changed are converted into tasks, so the work done besides reading the file grows
+     * with the size of the change rather than with the size of the list.
+     *
+     * @return The changes in ascending order of position, empty if the file is unchanged
+     * @throws TaskStorageException if the file cannot be read or contains invalid records
+     */
+    @Override
+    public List<FileChange> reload() throws TaskStorageException {
+        try {
+            if (!isChangedOnDisk()) {
+                return List.of();
+            }
+            byte[] bytes = Files.exists(filePath) ? Files.readAllBytes(filePath) : new byte[0];
+            List<String> lines = records(bytes);
+            long[] newHashes = hashes(lines);
+            List<FileChange> changes = diff(knownHashes, newHashes, lines);
+            rememberFile(newHashes, checksum(bytes));
+            isSnapshotStale |= !changes.isEmpty();
+            return changes;
+        } catch (IOException e) {
+            throw new TaskStorageException("Error reloading tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the records that differ between two versions of the file. The unchanged records
+     * at the start and end are skipped. If the same number of records lies in between, each
+     * one is compared with its counterpart so that edits to separate lines stay separate
+     * changes; otherwise the records in between are replaced as one run.
+     */
+    private static List<FileChange> diff(long[] oldHashes, long[] newHashes, List<String> lines)
+            throws TaskStorageException {
+        int prefix = 0;
+        while (prefix < oldHashes.length && prefix < newHashes.length && oldHashes[prefix] == newHashes[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldHashes.length - prefix && suffix < newHashes.length - prefix
+                && oldHashes[oldHashes.length - 1 - suffix] == newHashes[newHashes.length - 1 - suffix]) {
+            suffix++;
+        }
+        int oldEnd = oldHashes.length - suffix;
+        int newEnd = newHashes.length - suffix;
+
+        List<FileChange> changes = new ArrayList<>();
+        if (oldEnd - prefix == newEnd - prefix) {
+            for (int i = prefix; i < oldEnd; i++) {
+                if (oldHashes[i] != newHashes[i]) {
+                    changes.add(new FileChange(i, 1, List.of(deserializeTask(lines.get(i)))));
+                }
+            }
+        } else {
+            List<Task> inserted = new ArrayList<>(newEnd - prefix);
+            for (int i = prefix; i < newEnd; i++) {
+                inserted.add(deserializeTask(lines.get(i)));
+            }
+            changes.add(new FileChange(prefix, oldEnd - prefix, inserted));
+        }
+        return changes;
+    }
+
+    /**
+     * Checks whether the task file differs from the version last loaded or saved. The size
+     * and modification time are compared first, and the checksum only when they differ,
+     * so a file that was merely touched is not treated as changed.
+     */
+    private boolean isChangedOnDisk() throws IOException {
+        if (knownModified == null) {
+            // Neither loaded nor saved yet, so there is no earlier version to compare with
+            return false;
+        }
+        if (!Files.exists(filePath)) {
+            return knownSize > 0;
+        }
+        long size = Files.size(filePath);
+        FileTime modified = Files.getLastModifiedTime(filePath);
+        if (size == knownSize && modified.equals(knownModified)) {
+            return false;
+        }
+        if (checksum(Files.readAllBytes(filePath)) != knownChecksum) {
+            return true;
+        }
+        knownSize = size;
+        knownModified = modified;
+        return false;
+    }
+
+    private void rememberFile(long[] hashes, long checksum) throws IOException {
+        knownHashes = hashes;
+        knownChecksum = checksum;
+        boolean exists = Files.exists(filePath);
+        knownSize = exists ? Files.size(filePath) : 0;
+        knownModified = exists ? Files.getLastModifiedTime(filePath) : FileTime.fromMillis(0);
+        hasConflict = false;
+    }
+
+    /** Splits the file into its non-blank lines, each of which holds one task record */
+    private static List<String> records(byte[] bytes) {
+        List<String> records = new ArrayList<>();
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.trim().isEmpty()) {
+                records.add(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+            }
+        }
+        return records;
+    }
+
+    private static long[] hashes(List<String> records) {
+        long[] hashes = new long[records.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(records.get(i));
+        }
+        return hashes;
+    }
+
+    /** Computes a 64-bit FNV-1a hash of a record, wide enough that distinct records practically never collide */
+    private static long hash(String record) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < record.length(); i++) {
+            hash ^= record.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Appends tasks to the archive file. Each call writes a new gzip member to the end of
+     * the file, so existing archived tasks never have to be read or rewritten.
+     *
+     * @param tasks Tasks to archive
+     * @throws TaskStorageException if there are errors writing to the archive
+     */
+    @Override
+    public void archive(List<Task> tasks) throws TaskStorageException {
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(
+                new FileOutputStream(archivePath.toFile(), true)), StandardCharsets.UTF_8)) {
+            for (Task task : tasks) {
+                writer.write(serializeTask(task) + "\n");
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error archiving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the archive for tasks whose description contains the keyword, ignoring case.
+     * The archive is streamed line by line and only matching tasks are deserialised,
+     * so archived tasks are never loaded into memory as a whole.
+     *
+     * @param keyword The search term to look for in task descriptions
+     * @return List of matching archived tasks
+     * @throws TaskStorageException if there are errors reading the archive
+     */
+    @Override
+    public List<Task> findInArchive(String keyword) throws TaskStorageException {
+        List<Task> matches = new ArrayList<>();
+        if (!Files.exists(archivePath)) {
+            return matches;
+        }
+        String search = keyword.toLowerCase().trim();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                Files.newInputStream(archivePath)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" \\| ", 4);
+                if (parts.length >= 3 && parts[2].toLowerCase().contains(search)) {
+                    matches.add(deserializeTask(line));
+                }
+            }
+            return matches;
+        } catch (IOException e) {
+            throw new TaskStorageException("Error reading archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the undo/redo history from the history file.
+     * Returns an empty history if no history has been saved yet.
+     *
+     * @return History read from the history file
+     * @throws TaskStorageException if the history file cannot be read or is malformed
+     */
+    @Override
+    public History loadHistory() throws TaskStorageException {
+        History history = new History();
+        if (!Files.exists(historyPath)) {
+            return history;
+        }
+        try {
+            List<String> lines = Files.readAllLines(historyPath);
+            if (lines.isEmpty()) {
+                return history;
+            }
+            int cursor = Integer.parseInt(lines.get(0).trim());
+            Iterator<String> records = lines.subList(1, lines.size()).iterator();
+            while (records.hasNext()) {
+                String line = records.next();
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                history.record(deserializeEdit(line, records));
+            }
+            history.setCursor(Math.min(cursor, history.getEdits().size()));
+            return history;
+        } catch (IOException e) {
+            throw new TaskStorageException("Error loading history: " + e.getMessage());
+        } catch (NumberFormatException e) {
+            throw new TaskStorageException("Invalid history format: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the undo/redo history to the history file.
+     * The first line holds the number of edits that can be undone, followed by one edit per line.
+     *
+     * @param history History to save
+     * @throws TaskStorageException if there are errors writing to the file
+     */
+    @Override
+    public void saveHistory(History history) throws TaskStorageException {
+        try {
+            FileWriter writer = new FileWriter(historyPath.toFile());
+            writer.write(history.getCursor() + "\n");
+            for (History.Edit edit : history.getEdits()) {
+                writer.write(serializeEdit(edit) + "\n");
+            }
+            writer.close();
+        } catch (IOException e) {
+            throw new TaskStorageException("Error saving history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts an edit to its string representation for storage.
+     * Format: KIND | INDICES [| SERIALISED_TASK]
+     * Edits keeping several tasks, such as an EDIT with the task before and after the change,
+     * store each task on its own line after the edit.
+     * Indices are stored as comma-separated ranges, e.g. 0-4,7.
+     */
+    private String serializeEdit(History.Edit edit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(edit.kind()).append(" | ").append(serializeIndices(edit.indices()));
+        List<Task> tasks = edit.tasks();
+        if (tasks != null && tasks.size() == 1) {
+            sb.append(" | ").append(serializeTask(tasks.get(0)));
+        } else if (tasks != null) {
+            for (Task task : tasks) {
+                sb.append("\n").append(serializeTask(task));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates an edit from its stored string representation, reading the tasks of
+     * multi-task edits from the following records.
+     */
+    private History.Edit deserializeEdit(String line, Iterator<String> records) throws TaskStorageException {
+        String[] parts = line.split(" \\| ", 3);
+        if (parts.length < 2) {
+            throw new TaskStorageException("Invalid history format: " + line);
+        }
+        try {
+            History.Kind kind = History.Kind.valueOf(parts[0]);
+            int[] indices = deserializeIndices(parts[1]);
+            List<Task> tasks = null;
+            if (parts.length == 3) {
+                tasks = List.of(deserializeTask(parts[2]));
+            } else if (kind != History.Kind.MARK) {
+                // An EDIT keeps the task from before and after the change for each position
+                int count = kind == History.Kind.EDIT ? 2 * indices.length : indices.length;
+                tasks = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    if (!records.hasNext()) {
+                        throw new TaskStorageException("Incomplete history record: " + line);
+                    }
+                    tasks.add(deserializeTask(records.next()));
+                }
+            }
+            return new History.Edit(kind, indices, tasks);
+        } catch (IllegalArgumentException e) {
+            throw new TaskStorageException("Invalid history format: " + line);
+        }
+    }
+
+    /**
+     * Converts ascending indices to comma-separated ranges, so that bulk edits stay compact.
+     */
+    private String serializeIndices(int[] indices) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < indices.length) {
+            int j = i;
+            while (j + 1 < indices.length && indices[j + 1] == indices[j] + 1) {
+                j++;
+            }
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(indices[i]);
+            if (j > i) {
+                sb.append("-").append(indices[j]);
+            }
+            i = j + 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Expands comma-separated ranges back into ascending indices.
+     */
+    private int[] deserializeIndices(String ranges) {
+        IntStream.Builder indices = IntStream.builder();
+        for (String range : ranges.split(",")) {
+            String[] bounds = range.split("-");
+            int first = Integer.parseInt(bounds[0].trim());
+            int last = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : first;
+            for (int index = first; index <= last; index++) {
+                indices.add(index);
+            }
+        }
+        return indices.build().toArray();
+    }
+
+    /**
+     * Converts a task to its string representation for storage.
+     * Format: TYPE | IS_DONE | DESCRIPTION [| ADDITIONAL_DATA] [| KEY=VALUE]...
+     * Recurring tasks store FREQUENCY | FIRST_DATE | FIRST_END_DATE as additional data.
+     * Optional attributes come after the type-specific data, e.g. done=2025-02-01
+     * for the date a task was marked as done, at=14:30 for the time of a deadline and
+     * remind=15 for the minutes before the task is due that it is reminded. The reminder
+     * state is kept as next=MINUTE for the epoch minute the reminder is due in and fired=1
+     * once it has been shown. A priority is kept as priority=high and tags as tags=q4,work,
+     * and a synced task keeps the identifier it shares with other devices as id=ID.
+     * Older versions skip attributes they do not know, so files with times can still be
+     * read by them.
+     *
+     * @param task Input task taken in to serialise
+     */
+    public static String serializeTask(Task task) {
+        StringBuilder sb = new StringBuilder();
+
+        // Add task type
+        if (task instanceof ToDo) {
+            sb.append("T");
+        } else if (task instanceof Deadline) {
+            sb.append("D");
+        } else if (task instanceof Event) {
+            sb.append("E");
+        } else if (task instanceof Recurring) {
+            sb.append("R");
+        }
+
+        // Add done status and description
+        sb.append(" | ").append(task.isDone() ? "1" : "0");
+        sb.append(" | ").append(task.getDescription());
+
+        // Add type-specific data
+        if (task instanceof Deadline deadline) {
+            sb.append(" | ").append(deadline.getDate().format(DATE_FORMAT));
+        } else if (task instanceof Event event) {
+            sb.append(" | ").append(event.getStart());
+            sb.append(" | ").append(event.getEnd());
+        } else if (task instanceof Recurring recurring) {
+            sb.append(" | ").append(recurring.getFrequency());
+            sb.append(" | ").append(recurring.getFirstDate());
+            sb.append(" | ").append(recurring.getFirstEndDate());
+        }
+
+        // Add optional attributes
+        if (task.getDoneDate() != null) {
+            sb.append(" | done=").append(task.getDoneDate());
+        }
+        if (task instanceof Deadline deadline && deadline.hasTime()) {
+            sb.append(" | at=").append(deadline.getTime());
+        }
+        if (task.getRemindBefore() != Task.DEFAULT_REMINDER) {
+            sb.append(" | remind=").append(task.getRemindBefore());
+        }
+        if (task.getPriority() != null) {
+            sb.append(" | priority=").append(task.getPriority().name().toLowerCase());
+        }
+        if (!task.getTags().isEmpty()) {
+            sb.append(" | tags=").append(String.join(",", task.getTags()));
+        }
+        if (task.getNextReminder() != EpochMinute.NONE) {
+            sb.append(" | next=").append(task.getNextReminder());
+            if (task.isReminderFired()) {
+                sb.append(" | fired=1");
+            }
+        }
+        if (task.getId() != null) {
+            sb.append(" | id=").append(task.getId());
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Creates a task from its stored string representation.
+     */
+    public static Task deserializeTask(String line) throws TaskStorageException {
+        String[] parts = line.split(" \\| ");
+        if (parts.length < 3) {
+            throw new TaskStorageException("Invalid task format: " + line);
+        }
+
+        String type = parts[0];
+        boolean isDone = parts[1].equals("1");
+        String description = parts[2];
+
+        LocalDate doneDate = null;
+        String time = null;
+        int remindBefore = Task.DEFAULT_REMINDER;
+        long nextReminder = EpochMinute.NONE;
+        boolean isReminderFired = false;
+        Task.Priority priority = null;
+        List<String> tags = List.of();
+        String id = null;
+        for (int i = fieldCount(type); i < parts.length; i++) {
+            String[] attribute = parts[i].split("=", 2);
+            if (attribute.length < 2) {
+                continue;
+            }
+            switch (attribute[0]) {
+                case "done" -> doneDate = parseDoneDate(attribute[1], line);
+                case "at" -> time = attribute[1];
+                case "remind" -> remindBefore = parseRemindBefore(attribute[1], line);
+                case "next" -> nextReminder = parseNextReminder(attribute[1], line);
+                case "fired" -> isReminderFired = attribute[1].equals("1");
+                case "priority" -> priority = parsePriority(attribute[1], line);
+                case "tags" -> tags = List.of(attribute[1].split(","));
+                case "id" -> id = attribute[1];
+                default -> {
+                    // Attributes written by newer versions are skipped
+                }
+            }
+        }
+
+        Task task = createTaskByType(type, description, parts, time);
+        task.setRemindBefore(remindBefore);
+        task.setReminderState(nextReminder, isReminderFired);
+        task.setPriority(priority);
+        task.setTags(tags);
+        task.setId(id);
+
+        if (isDone) {
+            // Tasks saved before done dates were recorded count as done from now on
+            task.markDone(doneDate != null ? doneDate : LocalDate.now());
+        }
+
+        return task;
+    }
+
+    /**
+     * Gets the number of fixed fields stored for a task type, before any optional attributes.
+     */
+    private static int fieldCount(String type) {
+        return switch (type) {
+            case "D" -> 4;
+            case "E" -> 5;
+            case "R" -> 6;
+            default -> 3;
+        };
+    }
+
+    /** Parses the number of minutes before a task that its reminder is shown */
+    private static int parseRemindBefore(String minutes, String line) throws TaskStorageException {
+        try {
+            return Integer.parseInt(minutes);
+        } catch (NumberFormatException e) {
+            throw new TaskStorageException("Invalid reminder: " + line);
+        }
+    }
+
+    private static Task.Priority parsePriority(String priority, String line) throws TaskStorageException {
+        try {
+            return Task.Priority.valueOf(priority.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new TaskStorageException("Invalid priority: " + line);
+        }
+    }
+
+    private static LocalDate parseDoneDate(String date, String line) throws TaskStorageException {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeException e) {
+            throw new TaskStorageException("Invalid done date: " + line);
+        }
+    }
+
+    private static long parseNextReminder(String epochMinute, String line) throws TaskStorageException {
+        try {
+            return Long.parseLong(epochMinute);
+        } catch (NumberFormatException e) {
+            throw new TaskStorageException("Invalid reminder: " + line);
+        }
+    }
+
+    /**
+     * Creates the appropriate task type based on the type identifier and data.
+     */
+    private static Task createTaskByType(String type, String description, String[] parts, String time)
+            throws TaskStorageException {
+        DateTimeFormatter inputFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+        return switch (type) {
+            case "T" -> new ToDo(description);
+            case "D" -> {
+                if (parts.length < 4) {
+                    throw new TaskStorageException("Invalid deadline format: " + String.join(" | ", parts));
+                }
+                try {
+                    LocalDate date = LocalDate.parse(parts[3], inputFormatter);
+                    yield new Deadline(description, time == null ? date.toString() : date + "T" + time);
+                } catch (DateTimeException e) {
+                    throw new TaskStorageException("Invalid deadline format: " + String.join(" | ", parts));
+                }
+            }
+            case "E" -> {
+                if (parts.length < 5) {
+                    throw new TaskStorageException("Invalid event format: " + String.join(" | ", parts));
+                }
+                yield new Event(description, parts[3], parts[4]);
+            }
+            case "R" -> {
+                if (parts.length < 6) {
+                    throw new TaskStorageException("Invalid recurring format: " + String.join(" | ", parts));
+                }
+                try {
+                    yield new Recurring(description, Recurring.Frequency.valueOf(parts[3]),
+                            LocalDate.parse(parts[4]), LocalDate.parse(parts[5]));
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    throw new TaskStorageException("Invalid recurring format: " + String.join(" | ", parts));
+                }
+            }
+            default -> throw new TaskStorageException("Unknown task type: " + type);
+        };
+    }
+}
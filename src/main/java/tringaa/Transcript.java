@@ -0,0 +1,349 @@
+package tringaa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import tringaa.transfer.Json;
+
+/**
+ * Keeps the messages of a chat session with a fixed number of them in memory. Every message
+ * is appended to a session log as it is added, one JSON object per line, so messages that
+ * leave the window in memory can be read back from the log when the user scrolls to them.
+ * The window only remembers where its first and last messages are in the log, so a session
+ * left running for weeks uses the same memory as a short one.
+ *
+ * Log line format: {"from":"user","text":"list"}
+ */
+public class Transcript implements Closeable {
+    /** Default number of messages kept in memory */
+    public static final int DEFAULT_CAPACITY = 200;
+    /** Default number of session logs kept, counting the one of the session being started */
+    public static final int DEFAULT_KEPT_SESSIONS = 20;
+    private static final DateTimeFormatter SESSION_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    /** Number of bytes read at a time while looking for the start or end of a line */
+    private static final int SCAN_BLOCK_SIZE = 8192;
+
+    /**
+     * Who sent a message.
+     */
+    public enum Speaker {
+        USER, TRINGA
+    }
+
+    /**
+     * A message in the chat.
+     *
+     * @param speaker Who sent the message
+     * @param text The text of the message
+     */
+    public record Entry(Speaker speaker, String text) {
+    }
+
+    /**
+     * A message in the window together with where its line is in the log.
+     *
+     * @param start Offset of the first byte of the line
+     * @param end Offset just after the line break ending the line
+     */
+    private record Line(long start, long end, Entry entry) {
+    }
+
+    private final Path logPath;
+    private final FileChannel log;
+    private final int capacity;
+    /** The messages in memory, which are always consecutive lines of the log */
+    private final ArrayDeque<Line> window = new ArrayDeque<>();
+    private long logSize;
+
+    /**
+     * Creates a transcript that writes its messages to the given log, replacing any
+     * messages already in the log.
+     *
+     * @param logPath The session log
+     * @param capacity Maximum number of messages kept in memory
+     * @throws IOException if the log cannot be created
+     */
+    public Transcript(Path logPath, int capacity) throws IOException {
+        assert capacity > 0 : "Transcript capacity must be positive";
+        this.logPath = logPath;
+        this.capacity = capacity;
+        if (logPath.getParent() != null) {
+            Files.createDirectories(logPath.getParent());
+        }
+        this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Starts the transcript of a new session, logged to a file in the given directory named
+     * after the time the session started. The logs of the oldest sessions are deleted first,
+     * so that the directory holds the given number of logs at most.
+     *
+     * @param directory The directory holding the session logs
+     * @param capacity Maximum number of messages kept in memory
+     * @param keptSessions Number of session logs to keep, including the one of the new session
+     * @return The transcript of the new session
+     * @throws IOException if the log cannot be created
+     */
+    public static Transcript startSession(Path directory, int capacity, int keptSessions) throws IOException {
+        assert keptSessions > 0 : "At least the log of the new session must be kept";
+        deleteOldSessions(directory, keptSessions - 1);
+        String name = "session-" + LocalDateTime.now().format(SESSION_NAME_FORMAT) + ".ndjson";
+        return new Transcript(directory.resolve(name), capacity);
+    }
+
+    /**
+     * Deletes the logs of all but the latest sessions in a directory. The names of the logs
+     * start with the time the session started, so they sort from the oldest to the latest.
+     */
+    private static void deleteOldSessions(Path directory, int kept) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> logs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "session-*.ndjson")) {
+            files.forEach(logs::add);
+        }
+        logs.sort(Comparator.comparing(session -> session.getFileName().toString()));
+        for (Path session : logs.subList(0, Math.max(0, logs.size() - kept))) {
+            try {
+                Files.deleteIfExists(session);
+            } catch (IOException e) {
+                // A log that cannot be deleted, such as one still open elsewhere, is tried again next time
+            }
+        }
+    }
+
+    public Path getLogPath() {
+        return logPath;
+    }
+
+    /**
+     * Adds a message after the latest one. If the window was moved back to earlier messages,
+     * it returns to the latest messages first. The oldest messages in memory are dropped
+     * once there are more than the capacity; they stay in the log.
+     *
+     * @param entry The message to add
+     * @throws IOException if the message cannot be written to the log
+     */
+    public void add(Entry entry) throws IOException {
+        if (!isAtLatest()) {
+            returnToLatest();
+        }
+        byte[] bytes = encode(entry);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            log.write(buffer, logSize + buffer.position());
+        }
+        window.addLast(new Line(logSize, logSize + bytes.length, entry));
+        logSize += bytes.length;
+        while (window.size() > capacity) {
+            window.removeFirst();
+        }
+    }
+
+    /**
+     * Gets the messages in memory, oldest first.
+     *
+     * @return A copy of the messages in the window
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>(window.size());
+        for (Line line : window) {
+            entries.add(line.entry());
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the number of messages in memory.
+     *
+     * @return Number of messages in the window
+     */
+    public int size() {
+        return window.size();
+    }
+
+    /**
+     * Checks whether there are messages before the first one in memory.
+     *
+     * @return True if earlier messages can be read from the log
+     */
+    public boolean hasEarlier() {
+        return !window.isEmpty() && window.getFirst().start() > 0;
+    }
+
+    /**
+     * Checks whether the window holds the latest message.
+     *
+     * @return True if no later messages are in the log
+     */
+    public boolean isAtLatest() {
+        return window.isEmpty() ? logSize == 0 : window.getLast().end() == logSize;
+    }
+
+    /**
+     * Moves the window back to earlier messages, reading them from the log. The same number of
+     * the latest messages in the window are dropped if it would hold more than the capacity.
+     *
+     * @param count Number of earlier messages to read
+     * @return The messages read, oldest first
+     * @throws IOException if the log cannot be read
+     */
+    public List<Entry> pageBack(int count) throws IOException {
+        List<Entry> read = new ArrayList<>();
+        if (!hasEarlier()) {
+            return read;
+        }
+        List<Line> lines = readBefore(window.getFirst().start(), Math.min(count, capacity));
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            window.addFirst(lines.get(i));
+        }
+        while (window.size() > capacity) {
+            window.removeLast();
+        }
+        for (Line line : lines) {
+            read.add(line.entry());
+        }
+        return read;
+    }
+
+    /**
+     * Moves the window forward to later messages after it was moved back, reading them from
+     * the log. The same number of the earliest messages in the window are dropped if it would
+     * hold more than the capacity.
+     *
+     * @param count Number of later messages to read
+     * @return The messages read, oldest first
+     * @throws IOException if the log cannot be read
+     */
+    public List<Entry> pageForward(int count) throws IOException {
+        List<Entry> read = new ArrayList<>();
+        long position = window.isEmpty() ? 0 : window.getLast().end();
+        while (read.size() < Math.min(count, capacity) && position < logSize) {
+            Line line = readLine(position, lineEndAfter(position));
+            window.addLast(line);
+            read.add(line.entry());
+            position = line.end();
+        }
+        while (window.size() > capacity) {
+            window.removeFirst();
+        }
+        return read;
+    }
+
+    /**
+     * Moves the window back to the latest messages, reading them from the end of the log.
+     *
+     * @throws IOException if the log cannot be read
+     */
+    public void returnToLatest() throws IOException {
+        window.clear();
+        window.addAll(readBefore(logSize, capacity));
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Reads the lines that end at or before an offset, stopping once enough have been read.
+     *
+     * @param end Offset just after the line break of the last line to read
+     * @param count Largest number of lines to read
+     * @return The lines read, in the order they are in the log
+     */
+    private List<Line> readBefore(long end, int count) throws IOException {
+        ArrayDeque<Line> lines = new ArrayDeque<>();
+        long lineEnd = end;
+        while (lines.size() < count && lineEnd > 0) {
+            long lineStart = lineStartBefore(lineEnd);
+            lines.addFirst(readLine(lineStart, lineEnd));
+            lineEnd = lineStart;
+        }
+        return new ArrayList<>(lines);
+    }
+
+    /** Finds the start of the line whose line break ends just before the given offset */
+    private long lineStartBefore(long lineEnd) throws IOException {
+        // The last byte before the end is the line break of the line itself
+        long scanEnd = lineEnd - 1;
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+        while (scanEnd > 0) {
+            long scanStart = Math.max(0, scanEnd - SCAN_BLOCK_SIZE);
+            block.clear().limit((int) (scanEnd - scanStart));
+            readFully(block, scanStart);
+            for (int i = block.limit() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return scanStart + i + 1;
+                }
+            }
+            scanEnd = scanStart;
+        }
+        return 0;
+    }
+
+    /** Finds the offset just after the line break of the line starting at the given offset */
+    private long lineEndAfter(long lineStart) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+        for (long scanStart = lineStart; scanStart < logSize; scanStart += SCAN_BLOCK_SIZE) {
+            block.clear().limit((int) Math.min(SCAN_BLOCK_SIZE, logSize - scanStart));
+            readFully(block, scanStart);
+            for (int i = 0; i < block.limit(); i++) {
+                if (block.get(i) == '\n') {
+                    return scanStart + i + 1;
+                }
+            }
+        }
+        throw new IOException("Session log ends in the middle of a message: " + logPath);
+    }
+
+    private Line readLine(long start, long end) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+        readFully(bytes, start);
+        String text = new String(bytes.array(), 0, bytes.limit() - 1, StandardCharsets.UTF_8);
+        return new Line(start, end, decode(text));
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Session log is shorter than expected: " + logPath);
+            }
+        }
+        buffer.flip();
+    }
+
+    private static byte[] encode(Entry entry) {
+        StringBuilder sb = new StringBuilder(entry.text().length() + 32);
+        sb.append("{\"from\":");
+        Json.appendQuoted(entry.speaker().name().toLowerCase(), sb);
+        sb.append(",\"text\":");
+        Json.appendQuoted(entry.text(), sb);
+        return sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Entry decode(String line) throws IOException {
+        try {
+            Map<String, String> fields = Json.parseObject(line);
+            return new Entry(Speaker.valueOf(fields.get("from").toUpperCase()), fields.get("text"));
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid message in session log " + logPath + ": " + line);
+        }
+    }
+}
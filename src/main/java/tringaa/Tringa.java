@@ -1,17 +1,28 @@
 package tringaa;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.NavigableMap;
 
 import tringaa.exceptions.TaskStorageException;
 import tringaa.exceptions.TringaException;
-import tringaa.tasks.Task;
+import tringaa.exceptions.UncheckedTaskStorageException;
 
 /**
  * Main class for the Tringa chatbot.
+ * Suggestions are worked out off the GUI thread while commands are run on it, so every method
+ * used by the GUI holds the lock on the workspace while it uses it, as saving the lists of
+ * shown reminders does.
  */
 public class Tringa {
-    private TaskList tasks;
-    private final Storage storage;
+    /** Largest number of completions suggested for an input */
+    private static final int SUGGESTION_LIMIT = 5;
+    /** Largest number of tasks previewed while a find is typed */
+    private static final int PREVIEW_LIMIT = 5;
+
+    private final Workspace workspace;
     private final Ui ui;
 
     /**
@@ -19,13 +30,18 @@ public class Tringa {
      */
     public Tringa() {
         ui = new Ui();
-        storage = new Storage();
+        workspace = new Workspace(ui);
+        workspace.enableReminders();
         try {
-            List<Task> loadedTasks = storage.load();
-            tasks = new TaskList(loadedTasks);
+            workspace.getTasks();
+            prepareSuggestions();
         } catch (TaskStorageException e) {
             ui.showLoadingError();
-            tasks = new TaskList();
+        }
+        try {
+            workspace.startWatching();
+        } catch (IOException e) {
+            ui.showError("Changes made to the task files outside Tringa will not be loaded: " + e.getMessage());
         }
     }
 
@@ -42,13 +58,14 @@ public class Tringa {
 
                 // Check for exit command
                 if (command.equals("bye")) {
+                    workspace.writeSnapshots();
                     getResponse("Bye. Hope to see you again soon!");
                     isRunning = false;
                     continue;
                 }
 
                 // Process the command
-                String response = Parser.executeCommand(command, tasks, storage);
+                String response = Parser.executeCommand(command, workspace);
                 getResponse(response);
 
             } catch (TringaException e) {
@@ -70,14 +87,101 @@ public class Tringa {
      * Generates a response for the user's chat message.
      */
     public String getResponse(String input) {
+        synchronized (workspace) {
+            try {
+                if (input.equals("bye")) {
+                    workspace.writeSnapshots();
+                    return "Bye. Hope to see you again soon!";
+                }
+                String response = Parser.executeCommand(input, workspace);
+                return response;
+            } catch (TringaException e) {
+                return e.getMessage();
+            } finally {
+                prepareSuggestions();
+            }
+        }
+    }
+
+    /**
+     * Builds the prefix trees of the list in use if the last command left them to be rebuilt,
+     * so that working out suggestions never builds them while holding the lock on the workspace.
+     */
+    private void prepareSuggestions() {
+        TaskList tasks = workspace.getLoadedTasks();
+        if (tasks == null) {
+            return;
+        }
         try {
-            if (input.equals("bye")) {
-                return "Bye. Hope to see you again soon!";
+            tasks.prepareSuggestions();
+        } catch (UncheckedTaskStorageException e) {
+            // Nothing is suggested until the list can be read again
+        }
+    }
+
+    /**
+     * Gets the deadlines and events on each day between two dates in the list in use.
+     *
+     * @param from The first day, inclusive
+     * @param to The last day, inclusive
+     * @return The task lines on each day, or an empty agenda if the list cannot be loaded
+     */
+    public NavigableMap<LocalDate, List<String>> getAgenda(LocalDate from, LocalDate to) {
+        synchronized (workspace) {
+            try {
+                return workspace.getTasks().getAgenda(from, to);
+            } catch (TaskStorageException | UncheckedTaskStorageException e) {
+                return Collections.emptyNavigableMap();
+            }
+        }
+    }
+
+    /**
+     * Suggests how to complete what the user is typing, and previews the tasks a find would list.
+     * The list in use is taken as it is in memory, so typing never loads or reloads a list.
+     * A find is matched against a copy of the descriptions without holding the lock on the
+     * workspace, so commands are not kept waiting while a long list is searched; the copy is
+     * only taken again after the list changed.
+     *
+     * @param input What the user has typed so far
+     * @return The suggestions, or none if the list is not loaded
+     */
+    public Autocomplete.Suggestions getSuggestions(String input) {
+        String keyword = Autocomplete.previewKeyword(input);
+        TaskList tasks;
+        Autocomplete.Suggestions completions;
+        String[] descriptions;
+        synchronized (workspace) {
+            tasks = workspace.getLoadedTasks();
+            if (tasks == null) {
+                return Autocomplete.Suggestions.NONE;
+            }
+            try {
+                completions = Autocomplete.complete(input, tasks, SUGGESTION_LIMIT);
+                if (keyword == null) {
+                    return completions;
+                }
+                descriptions = tasks.snapshotDescriptions();
+                if (descriptions == null) {
+                    return new Autocomplete.Suggestions(completions.completions(),
+                            tasks.previewMatching(keyword, PREVIEW_LIMIT));
+                }
+            } catch (UncheckedTaskStorageException e) {
+                return Autocomplete.Suggestions.NONE;
+            }
+        }
+        // Going through every description is the slow part, so commands are not kept waiting for it
+        TaskList.PreviewMatches matches = TaskList.matchDescriptions(descriptions, keyword, PREVIEW_LIMIT);
+        synchronized (workspace) {
+            String preview = null;
+            try {
+                if (workspace.getLoadedTasks() == tasks) {
+                    preview = tasks.renderPreview(descriptions, matches);
+                }
+            } catch (UncheckedTaskStorageException e) {
+                // The preview is left out, as it is when the list changed in the meantime
             }
-            String response = Parser.executeCommand(input, tasks, storage);
-            return response;
-        } catch (TringaException e) {
-            return e.getMessage();
+            return new Autocomplete.Suggestions(completions.completions(), preview);
         }
     }
 
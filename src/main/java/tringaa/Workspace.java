@@ -0,0 +1,534 @@
+package tringaa;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import tringaa.changes.ChangeFeed;
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.UncheckedTaskStorageException;
+import tringaa.sync.SyncFolder;
+import tringaa.sync.SyncReplica;
+import tringaa.tasks.Task;
+
+/**
+ * Holds the named task lists of the user and tracks which one is in use.
+ * The main list keeps the original data/tringa.txt files, and every other list has
+ * its own files under data/lists. A list is only read from disk the first time it is
+ * used. Lists that have not been used for a while are unloaded again, least recently
+ * used first, once too many are loaded or the heap is getting full. Every command
+ * saves its list, so an unloaded list can always be read back from disk.
+ * The change feed of a list stays open when the list is unloaded, so subscribers keep
+ * receiving its changes once it is loaded again.
+ *
+ * Once watching is started, task files edited outside the bot are noticed and the changes
+ * are applied to the loaded list before the next command runs on it.
+ *
+ * Once reminders are enabled, the reminders saved with a list are restored each time it
+ * is loaded, and a list is saved again whenever one of its reminders has been shown. The
+ * reminders of a list are cancelled when it is unloaded or loaded again, and scheduled
+ * again whenever tasks in the list are replaced by changes from outside the bot.
+ *
+ * A workspace is not thread-safe. Code using it from several threads holds the lock on the
+ * workspace while it does, which saving the lists of shown reminders on the GUI thread does too,
+ * and so does the reminder thread while it marks the tasks of a list as reminded.
+ */
+public class Workspace {
+    /** Name of the list that uses the original storage files */
+    public static final String MAIN_LIST = "main";
+    /** Number of tasks from which a list is kept in a compact columnar layout */
+    private static final int COLUMNAR_THRESHOLD = 100_000;
+    /** Maximum number of lists kept in memory at once */
+    private static final int MAX_LOADED_LISTS = 8;
+    /** Fraction of the maximum heap above which idle lists are unloaded */
+    private static final double MEMORY_PRESSURE_RATIO = 0.75;
+    private static final Pattern LIST_NAME_FORMAT = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final String LIST_FILE_SUFFIX = ".txt";
+
+    private final Path dataDirectory;
+    private final Path listsDirectory;
+    private final Ui ui;
+    /** Loaded lists in order of use, least recently used first */
+    private final LinkedHashMap<String, LoadedList> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, ChangeFeed> changeFeeds = new HashMap<>();
+    /** Task files reported as changed by the watcher that have not been checked yet */
+    private final Set<Path> changedFiles = ConcurrentHashMap.newKeySet();
+    /**
+     * Tasks of each list whose reminders may still be scheduled, compared by identity. They
+     * are cancelled when the list is loaded again or its tasks are replaced, so that the
+     * scheduler never holds a task that is no longer in the list.
+     */
+    private final Map<String, Set<Task>> remindedTasks = new HashMap<>();
+    private StorageWatcher watcher;
+    private boolean isRemindingEnabled;
+    private String currentName = MAIN_LIST;
+
+    /**
+     * A task list in memory together with the storage it is saved to.
+     */
+    private record LoadedList(TaskList tasks, Storage storage) {
+    }
+
+    /**
+     * Creates a workspace over the data directory. No list is loaded until it is used.
+     *
+     * @param ui The Ui used to report problems while loading a list
+     */
+    public Workspace(Ui ui) {
+        this(Paths.get("data"), ui);
+    }
+
+    /**
+     * Creates a workspace over the given data directory. No list is loaded until it is used.
+     *
+     * @param dataDirectory The directory holding the task files
+     * @param ui The Ui used to report problems while loading a list
+     */
+    public Workspace(Path dataDirectory, Ui ui) {
+        this.dataDirectory = dataDirectory;
+        this.listsDirectory = dataDirectory.resolve("lists");
+        this.ui = ui;
+    }
+
+    /**
+     * Gets the tasks of the list in use, loading the list if needed.
+     *
+     * @return The current TaskList
+     * @throws TaskStorageException if the list cannot be loaded
+     */
+    public TaskList getTasks() throws TaskStorageException {
+        return current().tasks();
+    }
+
+    /**
+     * Gets the storage of the list in use, loading the list if needed.
+     *
+     * @return The Storage of the current list
+     * @throws TaskStorageException if the list cannot be loaded
+     */
+    public Storage getStorage() throws TaskStorageException {
+        return current().storage();
+    }
+
+    /**
+     * Gets the tasks of the list in use as they are in memory, without loading the list or
+     * applying changes made to its file outside the bot, which the next command does anyway.
+     *
+     * @return The current TaskList, or null if it is not loaded
+     */
+    public TaskList getLoadedTasks() {
+        LoadedList list = loaded.get(currentName);
+        return list == null ? null : list.tasks();
+    }
+
+    public String getCurrentName() {
+        return currentName;
+    }
+
+    /**
+     * Switches to the list with the given name, creating it if it does not exist yet.
+     *
+     * @param name The name of the list to use
+     * @return A message confirming the switch
+     * @throws InvalidCommandException if the name is invalid
+     * @throws TaskStorageException if the list cannot be loaded
+     */
+    public String use(String name) throws InvalidCommandException, TaskStorageException {
+        if (!LIST_NAME_FORMAT.matcher(name).matches()) {
+            throw new InvalidCommandException("""
+                    Invalid list name.
+                    Format: use NAME
+                    Names may contain letters, digits, - and _ (up to 32 characters).
+                    """);
+        }
+        load(name);
+        if (!name.equals(currentName)) {
+            writeSnapshot(loaded.get(currentName));
+        }
+        currentName = name;
+        LoadedList list = current();
+        unloadIdleLists();
+        return String.format("Now using the list \"%s\" with %d tasks.", name, list.tasks().size());
+    }
+
+    /**
+     * Moves the list in use into a database or back into a text file. The tasks are copied
+     * over, the old copy is deleted, and the list is loaded again from its new storage.
+     *
+     * @param isDatabase True to keep the list in a database, false to keep it in a text file
+     * @return A message confirming the move
+     * @throws TaskStorageException if the tasks cannot be copied
+     */
+    public String changeStorage(boolean isDatabase) throws TaskStorageException {
+        LoadedList list = current();
+        String kind = isDatabase ? "a database" : "a text file";
+        if (list.storage() instanceof DatabaseStorage == isDatabase) {
+            return String.format("The list \"%s\" is already kept in %s.", currentName, kind);
+        }
+        Path directory = directoryOf(currentName);
+        String fileName = fileNameOf(currentName);
+        if (isDatabase) {
+            DatabaseStorage database = new DatabaseStorage(directory, fileName);
+            list.tasks().saveTo(database);
+            database.close();
+            new TextStorage(directory, fileName).deleteTaskFile();
+        } else {
+            DatabaseStorage database = (DatabaseStorage) list.storage();
+            list.tasks().saveTo(new TextStorage(directory, fileName));
+            database.delete();
+        }
+        rememberRemindedTasks(currentName, list);
+        loaded.remove(currentName);
+        int count = load(currentName).tasks().size();
+        return String.format("The list \"%s\" with %d tasks is now kept in %s.", currentName, count, kind);
+    }
+
+    /**
+     * Syncs the list in use with its copies on other devices through a shared folder. New tasks
+     * are saved with their identifiers before any change is sent, and the list is saved before
+     * the sync state, so an interrupted sync is simply repeated next time.
+     *
+     * @param folder The folder shared by the devices
+     * @return A message summarising the changes exchanged
+     * @throws TaskStorageException if the list, its sync state or the folder cannot be read or written
+     */
+    public String sync(Path folder) throws TaskStorageException {
+        LoadedList list = current();
+        SyncReplica replica = new SyncReplica(
+                directoryOf(currentName).resolve(fileNameOf(currentName) + ".sync"), Clock.systemUTC());
+        rememberRemindedTasks(currentName, list);
+        if (replica.recordChanges(list.tasks())) {
+            list.tasks().saveTo(list.storage());
+        }
+        SyncReplica.Result result = replica.sync(list.tasks(), new SyncFolder(folder, currentName));
+        restoreRemindersOf(currentName, list);
+        list.tasks().saveTo(list.storage());
+        replica.save();
+        return String.format("Synced the list \"%s\": sent %d changes and received %d, updating %d tasks.",
+                currentName, result.sent(), result.received(), result.applied());
+    }
+
+    /**
+     * Lists the names of all task lists, marking the list in use and the lists in memory.
+     *
+     * @return A formatted string containing the names of the lists
+     * @throws TaskStorageException if the lists directory cannot be read
+     */
+    public String listLists() throws TaskStorageException {
+        // Read the sizes by iterating, since looking lists up would count as using them
+        Map<String, Integer> loadedSizes = new HashMap<>();
+        for (Map.Entry<String, LoadedList> entry : loaded.entrySet()) {
+            loadedSizes.put(entry.getKey(), entry.getValue().tasks().size());
+        }
+        StringBuilder sb = new StringBuilder("Here are your lists:\n");
+        for (String name : getListNames()) {
+            sb.append(name.equals(currentName) ? "* " : "  ").append(name);
+            if (loadedSizes.containsKey(name)) {
+                sb.append(" (loaded, ").append(loadedSizes.get(name)).append(" tasks)");
+            }
+            sb.append("\n");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Starts watching the task files for changes made outside the bot.
+     *
+     * @throws IOException if the data directories cannot be watched
+     */
+    public void startWatching() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Files.createDirectories(listsDirectory);
+        watcher = new StorageWatcher(List.of(dataDirectory, listsDirectory),
+                file -> changedFiles.add(file.toAbsolutePath().normalize()));
+    }
+
+    /**
+     * Restores the reminders saved with each list from now on, including missed ones,
+     * and saves a list whenever one of its reminders has been shown. Reminders of lists
+     * loaded before this are not restored.
+     */
+    public void enableReminders() {
+        isRemindingEnabled = true;
+        Reminder.setTaskLock(this);
+        Reminder.setOnShown(this::saveShownReminders);
+    }
+
+    /**
+     * Gets the feed of changes made to a list, opening its change log if needed.
+     * The list itself does not have to be loaded.
+     *
+     * @param name The name of the list
+     * @return The change feed of the list
+     * @throws TaskStorageException if the change log cannot be opened
+     */
+    public ChangeFeed getChangeFeed(String name) throws TaskStorageException {
+        ChangeFeed changeFeed = changeFeeds.get(name);
+        if (changeFeed == null) {
+            changeFeed = new ChangeFeed(storageFor(name).getChangeLogPath());
+            changeFeed.setOnFailure(ui::showError);
+            changeFeeds.put(name, changeFeed);
+        }
+        return changeFeed;
+    }
+
+    /**
+     * Checks whether a list is currently held in memory.
+     *
+     * @param name The name of the list
+     * @return True if the list is loaded
+     */
+    public boolean isLoaded(String name) {
+        return loaded.containsKey(name);
+    }
+
+    /**
+     * Gets the list in use, first bringing it up to date with changes made to its file
+     * outside the bot. If a save found such changes after the list had already been changed
+     * in memory, the change that could not be saved is discarded first. The changes found
+     * in the file are published to the change feed of the list like any other change.
+     */
+    private LoadedList current() throws TaskStorageException {
+        LoadedList list = load(currentName);
+        Storage storage = list.storage();
+        boolean isChanged = changedFiles.remove(storage.getFilePath().toAbsolutePath().normalize());
+        boolean isConflict = storage.hasConflict();
+        if (isConflict || isChanged) {
+            List<Storage.FileChange> changes = storage.reload();
+            if (isConflict || !changes.isEmpty()) {
+                rememberRemindedTasks(currentName, list);
+                // The changes in the file were made to the list as it was last saved
+                list.tasks().discardUnsavedChanges();
+                list.tasks().applyFileChanges(changes);
+                list.tasks().publishSavedChanges();
+                restoreRemindersOf(currentName, list);
+                storage.saveHistory(list.tasks().getHistory());
+            }
+        }
+        return list;
+    }
+
+    private LoadedList load(String name) throws TaskStorageException {
+        LoadedList list = loaded.get(name);
+        if (list != null) {
+            return list;
+        }
+        Storage storage = storageFor(name);
+        List<Task> loadedTasks = storage.load();
+        for (String warning : storage.takeLoadWarnings()) {
+            ui.showError(warning);
+        }
+        if (loadedTasks.size() >= COLUMNAR_THRESHOLD && !(loadedTasks instanceof DatabaseTaskList)) {
+            loadedTasks = new ColumnarTaskList(loadedTasks);
+        }
+        list = new LoadedList(new TaskList(loadedTasks, loadHistory(storage)), storage);
+        list.tasks().setChangeFeed(getChangeFeed(name));
+        loaded.put(name, list);
+        if (isRemindingEnabled) {
+            restoreReminders(name, storage.takePendingReminders());
+        }
+        return list;
+    }
+
+    /**
+     * Schedules the reminders of the tasks of a list, first cancelling the reminders of the
+     * tasks that an earlier copy of the list held, so that no reminder is scheduled twice.
+     */
+    private void restoreReminders(String name, List<Task> pending) {
+        cancelRememberedReminders(name);
+        Set<Task> reminded = Collections.newSetFromMap(new IdentityHashMap<>());
+        reminded.addAll(pending);
+        remindedTasks.put(name, reminded);
+        Reminder.restoreReminders(pending);
+    }
+
+    /**
+     * Schedules the reminders of a list again after some of its tasks were replaced. Tasks
+     * in a queryable list are copies that are not held by the list, so their reminders are
+     * left as they are.
+     */
+    private void restoreRemindersOf(String name, LoadedList list) {
+        if (!isRemindingEnabled || list.tasks().isQueryable()) {
+            return;
+        }
+        List<Task> pending = new ArrayList<>();
+        for (Task task : list.tasks().getTasks()) {
+            if (TextStorage.hasPendingReminder(task)) {
+                pending.add(task);
+            }
+        }
+        restoreReminders(name, pending);
+    }
+
+    /**
+     * Cancels the reminders of a list that is unloaded. Like the reminders of a list that
+     * was never loaded, they are restored, missed ones included, once it is loaded again,
+     * so that a shown reminder is always saved with the list its task is in.
+     */
+    private void cancelReminders(String name, LoadedList list) {
+        rememberRemindedTasks(name, list);
+        cancelRememberedReminders(name);
+    }
+
+    private void cancelRememberedReminders(String name) {
+        Set<Task> reminded = remindedTasks.remove(name);
+        if (reminded != null) {
+            Reminder.cancelReminders(reminded);
+        }
+    }
+
+    /**
+     * Records every task a list holds before the list is unloaded or its tasks are replaced,
+     * since any of them may have had a reminder scheduled since the list was loaded.
+     */
+    private void rememberRemindedTasks(String name, LoadedList list) {
+        if (!isRemindingEnabled || list.tasks().isQueryable()) {
+            return;
+        }
+        remindedTasks.computeIfAbsent(name, key -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                .addAll(list.tasks().getTasks());
+    }
+
+    /**
+     * Saves the loaded lists holding any of the given tasks, so that the reminders shown
+     * are not shown again after a restart. This runs on the GUI thread, so it takes the lock
+     * on the workspace like every other use of it from the GUI.
+     */
+    private synchronized void saveShownReminders(List<Task> shown) {
+        Set<Task> remaining = Collections.newSetFromMap(new IdentityHashMap<>());
+        remaining.addAll(shown);
+        for (LoadedList list : loaded.values()) {
+            TaskList tasks = list.tasks();
+            try {
+                if (tasks.recordShownReminders(remaining)) {
+                    tasks.saveTo(list.storage());
+                }
+            } catch (TaskStorageException | UncheckedTaskStorageException e) {
+                ui.showError(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the storage of a list, which is its database if it has one and its text file otherwise.
+     */
+    private Storage storageFor(String name) {
+        Path directory = directoryOf(name);
+        String fileName = fileNameOf(name);
+        if (DatabaseStorage.exists(directory, fileName)) {
+            return new DatabaseStorage(directory, fileName);
+        }
+        return new TextStorage(directory, fileName);
+    }
+
+    private Path directoryOf(String name) {
+        return name.equals(MAIN_LIST) ? dataDirectory : listsDirectory;
+    }
+
+    private static String fileNameOf(String name) {
+        return name.equals(MAIN_LIST) ? "tringa" : name;
+    }
+
+    /**
+     * Brings the snapshots of the loaded lists up to date, so that large lists load quickly
+     * next time. Called when the bot exits, since snapshots are not written with every save.
+     */
+    public void writeSnapshots() {
+        for (LoadedList list : loaded.values()) {
+            writeSnapshot(list);
+        }
+    }
+
+    private void writeSnapshot(LoadedList list) {
+        if (list != null && list.storage() instanceof TextStorage text) {
+            try {
+                text.writeSnapshot();
+            } catch (TaskStorageException e) {
+                ui.showError(e.getMessage());
+            }
+        }
+    }
+
+    private void close(LoadedList list) {
+        writeSnapshot(list);
+        if (list.storage() instanceof DatabaseStorage database) {
+            try {
+                database.close();
+            } catch (TaskStorageException e) {
+                ui.showError(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads the undo/redo history, falling back to an empty history so that
+     * a damaged history file never prevents the tasks themselves from loading.
+     */
+    private History loadHistory(Storage storage) {
+        try {
+            return storage.loadHistory();
+        } catch (TaskStorageException e) {
+            ui.showError(e.getMessage());
+            return new History();
+        }
+    }
+
+    /**
+     * Unloads the least recently used lists other than the current one while too many
+     * lists are loaded or the heap is more than {@link #MEMORY_PRESSURE_RATIO} full.
+     */
+    private void unloadIdleLists() {
+        Iterator<Map.Entry<String, LoadedList>> leastRecent = loaded.entrySet().iterator();
+        while (leastRecent.hasNext() && (loaded.size() > MAX_LOADED_LISTS || isMemoryTight())) {
+            Map.Entry<String, LoadedList> entry = leastRecent.next();
+            if (!entry.getKey().equals(currentName)) {
+                cancelReminders(entry.getKey(), entry.getValue());
+                close(entry.getValue());
+                leastRecent.remove();
+            }
+        }
+    }
+
+    private static boolean isMemoryTight() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * MEMORY_PRESSURE_RATIO;
+    }
+
+    private TreeSet<String> getListNames() throws TaskStorageException {
+        TreeSet<String> names = new TreeSet<>(loaded.keySet());
+        names.add(MAIN_LIST);
+        if (!Files.isDirectory(listsDirectory)) {
+            return names;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(listsDirectory,
+                "*{" + LIST_FILE_SUFFIX + "," + DatabaseStorage.FILE_SUFFIX + "}")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String suffix = fileName.endsWith(LIST_FILE_SUFFIX) ? LIST_FILE_SUFFIX : DatabaseStorage.FILE_SUFFIX;
+                names.add(fileName.substring(0, fileName.length() - suffix.length()));
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error reading lists: " + e.getMessage());
+        }
+        return names;
+    }
+}
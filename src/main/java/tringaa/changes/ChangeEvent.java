@@ -0,0 +1,64 @@
+package tringaa.changes;
+
+import java.time.Instant;
+import java.util.Map;
+
+import tringaa.transfer.Json;
+
+/**
+ * A single change made to a task list, as published by a ChangeFeed.
+ * Applying the events of a list in sequence order to an empty list, or to the list as it
+ * was before the first event, reproduces the list.
+ *
+ * @param sequence Position of the event in the feed, starting from 1
+ * @param time When the change was made
+ * @param kind The kind of change
+ * @param position Zero-based position the task was added at, removed from or changed at; an EDIT
+ *         event replaces the task at the position
+ * @param task The task in its storage format, after the change
+ */
+public record ChangeEvent(long sequence, Instant time, Kind kind, int position, String task) {
+    /**
+     * The kinds of changes that can be made to a task list.
+     */
+    public enum Kind {
+        ADD, DELETE, MARK, UNMARK, EDIT
+    }
+
+    /**
+     * Converts the event to a single line of JSON for the change log.
+     * Format: {"seq":1,"time":"...","kind":"ADD","position":0,"task":"T | 0 | read book"}
+     *
+     * @return The event as a JSON object on one line
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(task.length() + 96);
+        sb.append("{\"seq\":").append(sequence)
+                .append(",\"time\":\"").append(time)
+                .append("\",\"kind\":\"").append(kind)
+                .append("\",\"position\":").append(position)
+                .append(",\"task\":");
+        Json.appendQuoted(task, sb);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Reads an event from a line of the change log.
+     *
+     * @param line A line written by {@link #toJson()}
+     * @return The event, or null if the line is not a complete event
+     */
+    public static ChangeEvent fromJson(String line) {
+        try {
+            Map<String, String> fields = Json.parseObject(line);
+            if (!fields.containsKey("task")) {
+                return null;
+            }
+            return new ChangeEvent(Long.parseLong(fields.get("seq")), Instant.parse(fields.get("time")),
+                    Kind.valueOf(fields.get("kind")), Integer.parseInt(fields.get("position")), fields.get("task"));
+        } catch (RuntimeException e) {
+            // A line cut short by a crash, or not written by this class
+            return null;
+        }
+    }
+}
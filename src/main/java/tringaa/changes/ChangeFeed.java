@@ -0,0 +1,384 @@
+package tringaa.changes;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import tringaa.exceptions.TaskStorageException;
+
+/**
+ * Publishes the changes made to a task list as an ordered stream of events.
+ * Every event gets the next sequence number and is appended to a change log with one
+ * JSON object per line, so tools outside the bot can follow the log as well.
+ *
+ * Subscribers only receive as many events as they request. Rather than buffering events
+ * for slow subscribers, each subscription keeps the sequence number it has reached and
+ * reads on from the most recent events kept in memory, or from the log once it has fallen
+ * further behind, where it also keeps the place it has read up to. A subscriber can
+ * therefore also resume from a sequence number it saved before a restart.
+ */
+public class ChangeFeed implements Flow.Publisher<ChangeEvent>, Closeable {
+    /** Number of most recent events kept in memory for subscribers that are keeping up */
+    private static final int RECENT_CAPACITY = 1024;
+    /** Maximum number of events delivered to a subscriber before other work gets a turn */
+    private static final int DELIVERY_BATCH = 256;
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path logPath;
+    private final Executor executor;
+    private final ArrayDeque<ChangeEvent> recent = new ArrayDeque<>();
+    private final List<LogSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private Writer writer;
+    private long lastSequence;
+    /** The error that stopped the feed, or null while the change log can be written */
+    private IOException failure;
+    private Consumer<String> onFailure;
+
+    /**
+     * Opens the change feed stored in the given log, delivering events on a shared background thread.
+     *
+     * @param logPath The change log file, created if it does not exist
+     * @throws TaskStorageException if the change log cannot be opened
+     */
+    public ChangeFeed(Path logPath) throws TaskStorageException {
+        this(logPath, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Opens the change feed stored in the given log. Numbering continues after the last
+     * event in the log.
+     *
+     * @param logPath The change log file, created if it does not exist
+     * @param executor The executor that delivers events to subscribers
+     * @throws TaskStorageException if the change log cannot be opened
+     */
+    public ChangeFeed(Path logPath, Executor executor) throws TaskStorageException {
+        this.logPath = logPath;
+        this.executor = executor;
+        try {
+            Files.createDirectories(logPath.toAbsolutePath().getParent());
+            this.lastSequence = readLastSequence(logPath);
+            this.writer = Files.newBufferedWriter(logPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new TaskStorageException("Error opening change log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes changes of the same kind, one event per task, in the given order.
+     * The log is written and flushed once for the whole batch.
+     *
+     * If the log cannot be written, the batch is not numbered or delivered and the feed stops:
+     * later changes are not published, every subscription ends with the error, and the
+     * failure is reported once, so the log never has a gap that its readers cannot see.
+     *
+     * @param kind The kind of change
+     * @param positions Zero-based positions of the changed tasks, in the order they were applied
+     * @param records The changed tasks in their storage format, in the same order as the positions
+     */
+    public synchronized void publish(ChangeEvent.Kind kind, int[] positions, List<String> records) {
+        assert positions.length == records.size() : "Each position needs a task";
+        if (failure != null) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<ChangeEvent> events = new ArrayList<>(positions.length);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < positions.length; i++) {
+            ChangeEvent event = new ChangeEvent(lastSequence + i + 1, now, kind, positions[i], records.get(i));
+            events.add(event);
+            lines.append(event.toJson()).append('\n');
+        }
+        try {
+            writer.write(lines.toString());
+            writer.flush();
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        lastSequence += events.size();
+        for (ChangeEvent event : events) {
+            if (recent.size() == RECENT_CAPACITY) {
+                recent.removeFirst();
+            }
+            recent.addLast(event);
+        }
+        subscriptions.forEach(LogSubscription::signal);
+    }
+
+    /**
+     * Reports the failure to write the change log to the given handler from now on.
+     *
+     * @param onFailure Receives a message describing the failure
+     */
+    public synchronized void setOnFailure(Consumer<String> onFailure) {
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Checks whether the feed stopped because its change log could not be written.
+     *
+     * @return True if changes are no longer published
+     */
+    public synchronized boolean isBroken() {
+        return failure != null;
+    }
+
+    /**
+     * Subscribes to the events published from now on.
+     *
+     * @param subscriber The subscriber to deliver events to
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber) {
+        subscribe(subscriber, getLastSequence());
+    }
+
+    /**
+     * Subscribes to the events after the given sequence number, replaying the change log
+     * before continuing with new events. Passing 0 replays the whole log.
+     *
+     * @param subscriber The subscriber to deliver events to
+     * @param afterSequence The sequence number of the last event the subscriber has seen
+     */
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber, long afterSequence) {
+        LogSubscription subscription = new LogSubscription(subscriber, afterSequence);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Closes the change log and completes every subscription.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // Nothing more can be written either way
+        }
+        for (LogSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /** Stops the feed after the change log could not be written */
+    private void fail(IOException e) {
+        failure = e;
+        try {
+            writer.close();
+        } catch (IOException closeError) {
+            // The log is already unusable
+        }
+        for (LogSubscription subscription : subscriptions) {
+            subscription.fail(e);
+        }
+        if (onFailure != null) {
+            onFailure.accept("The change log could not be written, so changes are no longer published: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the events after the last one delivered to a subscription, from memory if they
+     * are still there and from the change log otherwise.
+     */
+    private List<ChangeEvent> read(LogSubscription subscription, int limit) throws IOException {
+        long afterSequence = subscription.delivered;
+        synchronized (this) {
+            if (afterSequence >= lastSequence) {
+                return List.of();
+            }
+            if (!recent.isEmpty() && recent.peekFirst().sequence() <= afterSequence + 1) {
+                List<ChangeEvent> events = new ArrayList<>(Math.min(limit, RECENT_CAPACITY));
+                for (ChangeEvent event : recent) {
+                    if (event.sequence() > afterSequence && events.size() < limit) {
+                        events.add(event);
+                    }
+                }
+                return events;
+            }
+        }
+        return readLog(subscription, afterSequence, limit);
+    }
+
+    /**
+     * Reads events after the given sequence number from the change log. Reading starts where
+     * the subscription stopped reading the log before, as long as no event it wants comes
+     * before that place, so a subscriber catching up reads the log only once. A line that is
+     * not complete yet is left to be read again.
+     */
+    private List<ChangeEvent> readLog(LogSubscription subscription, long afterSequence, int limit)
+            throws IOException {
+        long offset = subscription.logSequence <= afterSequence ? subscription.logOffset : 0;
+        List<ChangeEvent> events = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            InputStream input = new BufferedInputStream(Channels.newInputStream(channel.position(offset)));
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int next;
+            while (events.size() < limit && (next = input.read()) != -1) {
+                if (next != '\n') {
+                    line.write(next);
+                    continue;
+                }
+                offset += line.size() + 1;
+                ChangeEvent event = ChangeEvent.fromJson(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+                subscription.logOffset = offset;
+                if (event != null) {
+                    subscription.logSequence = event.sequence();
+                    if (event.sequence() > afterSequence) {
+                        events.add(event);
+                    }
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Finds the sequence number of the last complete event in the log by reading backwards
+     * from the end of the file, so opening a long log does not read all of it.
+     */
+    private static long readLastSequence(Path logPath) throws IOException {
+        if (!Files.exists(logPath)) {
+            return 0;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(logPath.toFile(), "r")) {
+            long end = file.length();
+            int chunk = 4096;
+            while (end > 0) {
+                long start = Math.max(0, end - chunk);
+                byte[] bytes = new byte[(int) (end - start)];
+                file.seek(start);
+                file.readFully(bytes);
+                String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n");
+                // The first line may be cut off unless the chunk starts at the beginning of the file
+                for (int i = lines.length - 1; i >= (start == 0 ? 0 : 1); i--) {
+                    ChangeEvent event = ChangeEvent.fromJson(lines[i]);
+                    if (event != null) {
+                        return event.sequence();
+                    }
+                }
+                if (start == 0) {
+                    return 0;
+                }
+                chunk *= 2;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * A subscription that delivers events in order as long as the subscriber has demand.
+     */
+    private class LogSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean isScheduled = new AtomicBoolean();
+        private volatile boolean isDone;
+        /** Sequence number of the last event delivered, only used on the delivery thread */
+        private long delivered;
+        /** Byte offset of the line after the last one read from the log, only used on the delivery thread */
+        private long logOffset;
+        /** Sequence number of the last event before {@link #logOffset} in the log */
+        private long logSequence;
+
+        LogSubscription(Flow.Subscriber<? super ChangeEvent> subscriber, long afterSequence) {
+            this.subscriber = subscriber;
+            this.delivered = afterSequence;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested events must be positive"));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            isDone = true;
+            subscriptions.remove(this);
+        }
+
+        void complete() {
+            if (!isDone) {
+                cancel();
+                executor.execute(subscriber::onComplete);
+            }
+        }
+
+        void fail(IOException e) {
+            if (!isDone) {
+                cancel();
+                executor.execute(() -> subscriber.onError(e));
+            }
+        }
+
+        /** Schedules a delivery run unless one is already scheduled */
+        void signal() {
+            if (!isDone && demand.get() > 0 && isScheduled.compareAndSet(false, true)) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            try {
+                List<ChangeEvent> events = read(this, (int) Math.min(demand.get(), DELIVERY_BATCH));
+                for (ChangeEvent event : events) {
+                    if (isDone) {
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    delivered = event.sequence();
+                    subscriber.onNext(event);
+                }
+            } catch (IOException e) {
+                cancel();
+                subscriber.onError(e);
+                return;
+            } finally {
+                isScheduled.set(false);
+            }
+            if (delivered < getLastSequence()) {
+                signal();
+            }
+        }
+    }
+}
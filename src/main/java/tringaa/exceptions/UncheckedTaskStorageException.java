@@ -0,0 +1,17 @@
+package tringaa.exceptions;
+
+/**
+ * Wraps a task storage error raised where a checked exception cannot be thrown, such as in
+ * the methods of a list that keeps its tasks on disk. It is unwrapped again where the
+ * commands on the list are run.
+ */
+public class UncheckedTaskStorageException extends RuntimeException {
+    public UncheckedTaskStorageException(TaskStorageException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized TaskStorageException getCause() {
+        return (TaskStorageException) super.getCause();
+    }
+}
@@ -0,0 +1,161 @@
+package tringaa.index;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+
+/**
+ * Buckets the dated tasks in a list by day, so that the agenda for a week or a month only
+ * visits the tasks on those days. A deadline is kept on its date and an event on every day
+ * from its start to its end. Recurring tasks and events longer than
+ * {@link #MAX_BUCKETED_DAYS} days are kept aside and expanded when an agenda is built.
+ */
+public class AgendaIndex extends PositionalIndex {
+    /** Longest event, in days, that is bucketed on every day it spans */
+    private static final int MAX_BUCKETED_DAYS = 366;
+
+    private final TreeMap<LocalDate, BitSet> days = new TreeMap<>();
+    private final BitSet longEvents = new BitSet();
+    private final BitSet recurringTasks = new BitSet();
+
+    /**
+     * A task on a day of the agenda.
+     *
+     * @param position Zero-based position of the task in the list
+     * @param start The start date of the occurrence for recurring tasks, or null for other tasks
+     */
+    public record Entry(int position, LocalDate start) {
+    }
+
+    /**
+     * Creates an agenda index over the given list.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    public AgendaIndex(List<Task> tasks) {
+        super(tasks);
+    }
+
+    /**
+     * Gets the tasks on each day between two dates. Days without tasks are left out.
+     *
+     * @param from The first day, inclusive
+     * @param to The last day, inclusive
+     * @return The tasks on each day in list order, by day
+     */
+    public TreeMap<LocalDate, List<Entry>> select(LocalDate from, LocalDate to) {
+        ensureFresh();
+        TreeMap<LocalDate, List<Entry>> agenda = new TreeMap<>();
+        for (Map.Entry<LocalDate, BitSet> day : days.subMap(from, true, to, true).entrySet()) {
+            BitSet positions = day.getValue();
+            List<Entry> entries = new ArrayList<>(positions.cardinality());
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                entries.add(new Entry(i, null));
+            }
+            agenda.put(day.getKey(), entries);
+        }
+        boolean hasExtraEntries = false;
+        for (int i = longEvents.nextSetBit(0); i >= 0; i = longEvents.nextSetBit(i + 1)) {
+            Event event = (Event) tasks.get(i);
+            hasExtraEntries |= addDays(agenda, new Entry(i, null), event.getDate(), event.getEndDate(), from, to);
+        }
+        for (int i = recurringTasks.nextSetBit(0); i >= 0; i = recurringTasks.nextSetBit(i + 1)) {
+            Recurring recurring = (Recurring) tasks.get(i);
+            long span = ChronoUnit.DAYS.between(recurring.getFirstDate(), recurring.getFirstEndDate());
+            for (LocalDate start : recurring.getOccurrences(from.minusDays(span), to)) {
+                hasExtraEntries |= addDays(agenda, new Entry(i, start), start, start.plusDays(span), from, to);
+            }
+        }
+        if (hasExtraEntries) {
+            for (List<Entry> entries : agenda.values()) {
+                entries.sort(Comparator.comparingInt(Entry::position));
+            }
+        }
+        return agenda;
+    }
+
+    @Override
+    protected void add(int position, Task task) {
+        if (task instanceof Recurring) {
+            recurringTasks.set(position);
+            return;
+        }
+        LocalDate start = task.getDate();
+        if (start == null || !(task instanceof Deadline || task instanceof Event)) {
+            return;
+        }
+        LocalDate end = lastDay(task);
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_BUCKETED_DAYS) {
+            longEvents.set(position);
+            return;
+        }
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            days.computeIfAbsent(day, d -> new BitSet()).set(position);
+        }
+    }
+
+    @Override
+    protected void remove(int position, Task task) {
+        recurringTasks.clear(position);
+        longEvents.clear(position);
+        LocalDate start = task.getDate();
+        if (start == null || task instanceof Recurring) {
+            return;
+        }
+        LocalDate end = lastDay(task);
+        for (LocalDate day = start; !day.isAfter(end) && !days.isEmpty(); day = day.plusDays(1)) {
+            BitSet positions = days.get(day);
+            if (positions != null) {
+                positions.clear(position);
+                if (positions.isEmpty()) {
+                    days.remove(day);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void update(int position, Task task) {
+        // Changes made in place only affect the done status, which does not move a task to another day
+    }
+
+    @Override
+    protected void clear() {
+        days.clear();
+        longEvents.clear();
+        recurringTasks.clear();
+    }
+
+    /** Gets the last day of a dated task, which is its start unless it is an event ending later */
+    private static LocalDate lastDay(Task task) {
+        if (task instanceof Event event && event.getEndDate() != null && event.getEndDate().isAfter(event.getDate())) {
+            return event.getEndDate();
+        }
+        return task.getDate();
+    }
+
+    /**
+     * Adds an entry to every day from start to end that lies between from and to.
+     *
+     * @return True if the entry was added to at least one day
+     */
+    private static boolean addDays(TreeMap<LocalDate, List<Entry>> agenda, Entry entry, LocalDate start,
+            LocalDate end, LocalDate from, LocalDate to) {
+        LocalDate first = start.isBefore(from) ? from : start;
+        LocalDate last = end.isAfter(to) ? to : end;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            agenda.computeIfAbsent(day, d -> new ArrayList<>()).add(entry);
+        }
+        return !first.isAfter(last);
+    }
+}
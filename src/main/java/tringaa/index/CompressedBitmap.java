@@ -0,0 +1,284 @@
+package tringaa.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A compressed set of task positions in the style of a Roaring bitmap. Positions are split
+ * into chunks of 65536 by their upper 16 bits, and each chunk is kept as a sorted array of
+ * its lower 16 bits while it has at most {@link #ARRAY_LIMIT} positions, or as a plain
+ * bitmap once it has more. A tag used by a handful of tasks in a large list therefore takes
+ * a few bytes instead of a bit for every task, and intersections only visit the chunks that
+ * both sets have.
+ */
+public class CompressedBitmap {
+    /** Largest number of positions a chunk keeps in a sorted array before it becomes a bitmap */
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    /** Upper 16 bits of the positions in each chunk, in ascending order */
+    private char[] keys = new char[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int chunkCount;
+
+    /**
+     * The positions sharing the same upper 16 bits, kept either as a sorted array or a bitmap.
+     */
+    private static final class Chunk {
+        /** Sorted lower 16 bits of the positions, or null if the chunk is a bitmap */
+        private char[] values;
+        /** Bitmap of the lower 16 bits of the positions, or null if the chunk is an array */
+        private long[] words;
+        private int cardinality;
+
+        Chunk() {
+            values = new char[4];
+        }
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        void add(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0) {
+                    words[low >>> 6] |= bit;
+                    cardinality++;
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toBitmap();
+                add(low);
+                return;
+            }
+            int insertion = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, values.length * 2));
+            }
+            System.arraycopy(values, insertion, values, insertion + 1, cardinality - insertion);
+            values[insertion] = low;
+            cardinality++;
+        }
+
+        void remove(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) != 0) {
+                    words[low >>> 6] &= ~bit;
+                    cardinality--;
+                    if (cardinality <= ARRAY_LIMIT / 2) {
+                        toArray();
+                    }
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+        }
+
+        private void toBitmap() {
+            words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                    values[count++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                }
+            }
+            words = null;
+        }
+
+        /** Intersects two chunks, returning null if they have no position in common */
+        static Chunk and(Chunk first, Chunk second) {
+            Chunk result = new Chunk();
+            if (first.words != null && second.words != null) {
+                long[] words = new long[BITMAP_WORDS];
+                int cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] = first.words[i] & second.words[i];
+                    cardinality += Long.bitCount(words[i]);
+                }
+                result.words = words;
+                result.values = null;
+                result.cardinality = cardinality;
+                if (cardinality <= ARRAY_LIMIT) {
+                    result.toArray();
+                }
+            } else if (first.words != null || second.words != null) {
+                // Checking each value of the array against the bitmap
+                Chunk array = first.words == null ? first : second;
+                Chunk bitmap = array == first ? second : first;
+                result.values = new char[Math.max(4, array.cardinality)];
+                for (int i = 0; i < array.cardinality; i++) {
+                    if (bitmap.contains(array.values[i])) {
+                        result.values[result.cardinality++] = array.values[i];
+                    }
+                }
+            } else {
+                result.values = new char[Math.max(4, Math.min(first.cardinality, second.cardinality))];
+                int i = 0;
+                int j = 0;
+                while (i < first.cardinality && j < second.cardinality) {
+                    if (first.values[i] < second.values[j]) {
+                        i++;
+                    } else if (first.values[i] > second.values[j]) {
+                        j++;
+                    } else {
+                        result.values[result.cardinality++] = first.values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return result.cardinality == 0 ? null : result;
+        }
+    }
+
+    /**
+     * Adds a position to the set.
+     *
+     * @param position A position that is zero or more
+     */
+    public void add(int position) {
+        char high = (char) (position >>> 16);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, high, new Chunk());
+        }
+        chunks[index].add((char) position);
+    }
+
+    /**
+     * Removes a position from the set.
+     *
+     * @param position A position that is zero or more
+     */
+    public void remove(int position) {
+        int index = indexOf((char) (position >>> 16));
+        if (index < 0) {
+            return;
+        }
+        chunks[index].remove((char) position);
+        if (chunks[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+            System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+            chunks[--chunkCount] = null;
+        }
+    }
+
+    /**
+     * Checks whether a position is in the set.
+     *
+     * @param position A position that is zero or more
+     * @return True if the position is in the set
+     */
+    public boolean contains(int position) {
+        int index = indexOf((char) (position >>> 16));
+        return index >= 0 && chunks[index].contains((char) position);
+    }
+
+    /**
+     * Gets the number of positions in the set.
+     *
+     * @return Number of positions
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    /**
+     * Intersects this set with another, visiting only the chunks both sets have.
+     *
+     * @param other The other set
+     * @return A new set of the positions in both sets
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Chunk chunk = Chunk.and(chunks[i], other.chunks[j]);
+                if (chunk != null) {
+                    result.insertChunk(result.chunkCount, keys[i], chunk);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the set into a BitSet.
+     *
+     * @return A BitSet of the positions in the set
+     */
+    public BitSet toBitSet() {
+        BitSet bitSet = new BitSet();
+        for (int i = 0; i < chunkCount; i++) {
+            int base = keys[i] << 16;
+            Chunk chunk = chunks[i];
+            if (chunk.words != null) {
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    for (long bits = chunk.words[word]; bits != 0; bits &= bits - 1) {
+                        bitSet.set(base + (word << 6) + Long.numberOfTrailingZeros(bits));
+                    }
+                }
+            } else {
+                for (int k = 0; k < chunk.cardinality; k++) {
+                    bitSet.set(base + chunk.values[k]);
+                }
+            }
+        }
+        return bitSet;
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, chunkCount, high);
+    }
+
+    private void insertChunk(int index, char high, Chunk chunk) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        keys[index] = high;
+        chunks[index] = chunk;
+        chunkCount++;
+    }
+}
@@ -0,0 +1,77 @@
+package tringaa.index;
+
+import java.util.List;
+
+import tringaa.tasks.Task;
+
+/**
+ * A copy of the task descriptions in lower case that never changes once it is taken, so that
+ * it can be searched by another thread without holding the lock on the list. The copy is
+ * dropped whenever a description may have changed and taken again the next time it is asked for.
+ */
+public class DescriptionSnapshot implements TaskIndex {
+    private final List<Task> tasks;
+    /** The descriptions as of the last change, or null if they have to be copied again */
+    private String[] descriptions;
+
+    /**
+     * Creates a snapshot of the given list. The descriptions are copied the first time they are used.
+     *
+     * @param tasks The live list of tasks to copy
+     */
+    public DescriptionSnapshot(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Gets the descriptions of the tasks in list order, copying them if the list changed since
+     * they were last copied. Like every other use of the list, this needs the lock on the list.
+     *
+     * @return The descriptions in lower case, which must not be modified
+     */
+    public String[] get() {
+        if (descriptions == null) {
+            String[] copy = new String[tasks.size()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = tasks.get(i).getDescription().toLowerCase();
+            }
+            descriptions = copy;
+        }
+        return descriptions;
+    }
+
+    /**
+     * Checks whether descriptions taken earlier still match the list.
+     *
+     * @param snapshot Descriptions returned by {@link #get()}
+     * @return True if no description changed since they were taken
+     */
+    public boolean isCurrent(String[] snapshot) {
+        return descriptions == snapshot;
+    }
+
+    @Override
+    public void taskAdded(int position, Task task) {
+        descriptions = null;
+    }
+
+    @Override
+    public void taskRemoved(int position, Task task) {
+        descriptions = null;
+    }
+
+    @Override
+    public void taskUpdated(int position, Task task) {
+        // Marking a task does not change its description
+    }
+
+    @Override
+    public void taskReplaced(int position, Task oldTask, Task newTask) {
+        descriptions = null;
+    }
+
+    @Override
+    public void invalidate() {
+        descriptions = null;
+    }
+}
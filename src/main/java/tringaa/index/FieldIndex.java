@@ -0,0 +1,156 @@
+package tringaa.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import tringaa.tasks.Task;
+
+/**
+ * Per-field indexes over the tasks in a list: a bitmap of positions for each task type,
+ * a bitmap of done tasks, and the positions of the tasks on each date.
+ * Used to narrow down the tasks a {@link TaskQuery} has to check when its type, done
+ * or date clauses are selective enough.
+ */
+public class FieldIndex extends PositionalIndex {
+    /** Largest fraction of the list an index may select before a full scan is preferred */
+    private static final double MAX_SELECTIVITY = 0.25;
+
+    private final Map<Character, BitSet> typeBitmaps = new HashMap<>();
+    private final BitSet doneBitmap = new BitSet();
+    private final TreeMap<LocalDate, BitSet> dateIndex = new TreeMap<>();
+
+    /**
+     * The tasks a query has to check.
+     *
+     * @param candidates Positions of the tasks to check, or null if every task has to be scanned
+     * @param plan Human-readable description of how the candidates were chosen
+     */
+    public record Selection(BitSet candidates, String plan) {
+    }
+
+    /**
+     * Creates a field index over the given list.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    public FieldIndex(List<Task> tasks) {
+        super(tasks);
+    }
+
+    /**
+     * Chooses the tasks that a query has to check. The size of each indexed clause is
+     * estimated first; if even the most selective one covers a large part of the list,
+     * a full scan is chosen instead of building the candidate set.
+     *
+     * @param query The compiled query
+     * @return The candidate tasks and a description of the plan
+     */
+    public Selection select(TaskQuery query) {
+        ensureFresh();
+        int size = indexedCount();
+        List<String> fields = new ArrayList<>();
+        List<BitSet> bitmaps = new ArrayList<>();
+        int smallest = size;
+
+        if (query.getType() != null) {
+            BitSet typeBitmap = typeBitmaps.getOrDefault(query.getType(), new BitSet());
+            fields.add("type");
+            bitmaps.add(typeBitmap);
+            smallest = Math.min(smallest, typeBitmap.cardinality());
+        }
+        if (query.getDone() != null) {
+            BitSet statusBitmap = doneBitmap;
+            if (!query.getDone()) {
+                statusBitmap = (BitSet) doneBitmap.clone();
+                statusBitmap.flip(0, size);
+            }
+            fields.add("done");
+            bitmaps.add(statusBitmap);
+            smallest = Math.min(smallest, statusBitmap.cardinality());
+        }
+        Collection<BitSet> dateBitmaps = null;
+        if (query.getFromDate() != null) {
+            dateBitmaps = datesBetween(query.getFromDate(), query.getToDate()).values();
+            int dateCount = dateBitmaps.stream().mapToInt(BitSet::cardinality).sum();
+            fields.add("date");
+            smallest = Math.min(smallest, dateCount);
+        }
+
+        if (fields.isEmpty()) {
+            return new Selection(null, String.format("full scan of %d tasks (no indexed clause)", size));
+        }
+        if (smallest > size * MAX_SELECTIVITY) {
+            return new Selection(null, String.format("full scan of %d tasks (indexes on %s are not "
+                    + "selective: at least %d tasks)", size, String.join(", ", fields), smallest));
+        }
+
+        BitSet candidates = null;
+        if (dateBitmaps != null) {
+            candidates = new BitSet(size);
+            for (BitSet dateBitmap : dateBitmaps) {
+                candidates.or(dateBitmap);
+            }
+        }
+        for (BitSet bitmap : bitmaps) {
+            if (candidates == null) {
+                candidates = (BitSet) bitmap.clone();
+            } else {
+                candidates.and(bitmap);
+            }
+        }
+        return new Selection(candidates, String.format("index lookup on %s (%d of %d tasks)",
+                String.join(", ", fields), candidates.cardinality(), size));
+    }
+
+    private NavigableMap<LocalDate, BitSet> datesBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new TreeMap<>();
+        }
+        return dateIndex.subMap(from, true, to, true);
+    }
+
+    @Override
+    protected void add(int position, Task task) {
+        typeBitmaps.computeIfAbsent(TaskQuery.typeOf(task), type -> new BitSet()).set(position);
+        doneBitmap.set(position, task.isDone());
+        LocalDate date = task.getDate();
+        if (date != null) {
+            dateIndex.computeIfAbsent(date, key -> new BitSet()).set(position);
+        }
+    }
+
+    @Override
+    protected void remove(int position, Task task) {
+        BitSet typeBitmap = typeBitmaps.get(TaskQuery.typeOf(task));
+        if (typeBitmap != null) {
+            typeBitmap.clear(position);
+        }
+        doneBitmap.clear(position);
+        LocalDate date = task.getDate();
+        if (date != null && dateIndex.containsKey(date)) {
+            dateIndex.get(date).clear(position);
+            if (dateIndex.get(date).isEmpty()) {
+                dateIndex.remove(date);
+            }
+        }
+    }
+
+    @Override
+    protected void update(int position, Task task) {
+        doneBitmap.set(position, task.isDone());
+    }
+
+    @Override
+    protected void clear() {
+        typeBitmaps.clear();
+        doneBitmap.clear();
+        dateIndex.clear();
+    }
+}
@@ -0,0 +1,257 @@
+package tringaa.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import tringaa.tasks.Event;
+import tringaa.tasks.Task;
+
+/**
+ * An interval tree over the date ranges of the events in a list that are not done, used to
+ * find events that overlap. The tree is a treap ordered by start date, where every node
+ * also keeps the latest end date in its subtree, so whole subtrees that end before a range
+ * or start after it are skipped. Finding the events overlapping a range takes O(log n + k)
+ * for k results. Events whose start is not a date are not indexed.
+ */
+public class IntervalIndex extends PositionalIndex {
+    private final Random random = new Random();
+    /** Positions of the events currently in the tree */
+    private final BitSet indexed = new BitSet();
+    private Node root;
+
+    /**
+     * Two events whose date ranges overlap.
+     *
+     * @param first Zero-based position of the event that starts first
+     * @param second Zero-based position of the other event
+     */
+    public record Overlap(int first, int second) {
+    }
+
+    private static final class Node {
+        private final int start;
+        private final int end;
+        private final int position;
+        private final int priority;
+        private int maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(int start, int end, int position, int priority) {
+            this.start = start;
+            this.end = end;
+            this.position = position;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        /** Orders nodes by start date, and events starting on the same day by position */
+        int compareTo(int otherStart, int otherPosition) {
+            return start != otherStart ? Integer.compare(start, otherStart) : Integer.compare(position, otherPosition);
+        }
+    }
+
+    /**
+     * Creates an interval index over the given list.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    public IntervalIndex(List<Task> tasks) {
+        super(tasks);
+    }
+
+    /**
+     * Finds the events that are not done and overlap a date range.
+     *
+     * @param from The first day of the range
+     * @param to The last day of the range
+     * @return Positions of the overlapping events, in order of start date
+     */
+    public List<Integer> overlapping(LocalDate from, LocalDate to) {
+        ensureFresh();
+        List<Node> found = new ArrayList<>();
+        collect(root, (int) from.toEpochDay(), (int) to.toEpochDay(), found);
+        return positionsOf(found, -1);
+    }
+
+    /**
+     * Finds the events that are not done and overlap the event at a position, other than itself.
+     *
+     * @param position Zero-based position of the event
+     * @return Positions of the overlapping events, in order of start date
+     */
+    public List<Integer> overlapping(int position) {
+        ensureFresh();
+        int[] range = rangeOf(tasks.get(position));
+        if (range == null) {
+            return new ArrayList<>();
+        }
+        List<Node> found = new ArrayList<>();
+        collect(root, range[0], range[1], found);
+        return positionsOf(found, position);
+    }
+
+    /**
+     * Finds every pair of events that are not done and overlap, each pair once.
+     *
+     * @return The overlapping pairs, in order of the start date of the first event
+     */
+    public List<Overlap> overlaps() {
+        ensureFresh();
+        List<Overlap> overlaps = new ArrayList<>();
+        List<Node> inOrder = new ArrayList<>(indexed.cardinality());
+        addInOrder(root, inOrder);
+        List<Node> found = new ArrayList<>();
+        for (Node node : inOrder) {
+            found.clear();
+            collect(root, node.start, node.end, found);
+            for (Node other : found) {
+                // Pair each event only with the events ordered after it
+                if (other.compareTo(node.start, node.position) > 0) {
+                    overlaps.add(new Overlap(node.position, other.position));
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    @Override
+    protected void add(int position, Task task) {
+        int[] range = task.isDone() ? null : rangeOf(task);
+        if (range == null) {
+            return;
+        }
+        Node node = new Node(range[0], range[1], position, random.nextInt());
+        Node[] parts = split(root, range[0], position);
+        root = merge(merge(parts[0], node), parts[1]);
+        indexed.set(position);
+    }
+
+    @Override
+    protected void remove(int position, Task task) {
+        if (!indexed.get(position)) {
+            return;
+        }
+        int[] range = rangeOf(task);
+        Node[] lower = split(root, range[0], position);
+        Node[] upper = split(lower[1], range[0], position + 1);
+        root = merge(lower[0], upper[1]);
+        indexed.clear(position);
+    }
+
+    @Override
+    protected void update(int position, Task task) {
+        // Marking an event as done or not done takes it out of or puts it back into the tree
+        if (task.isDone()) {
+            remove(position, task);
+        } else if (!indexed.get(position)) {
+            add(position, task);
+        }
+    }
+
+    @Override
+    protected void clear() {
+        root = null;
+        indexed.clear();
+    }
+
+    /**
+     * Gets the range of days an event covers as epoch days.
+     *
+     * @return The first and last day, or null if the task is not an event with a date
+     */
+    private static int[] rangeOf(Task task) {
+        if (!(task instanceof Event event) || event.getDate() == null) {
+            return null;
+        }
+        int start = (int) event.getDate().toEpochDay();
+        LocalDate endDate = event.getEndDate();
+        int end = endDate == null ? start : Math.max(start, (int) endDate.toEpochDay());
+        return new int[]{start, end};
+    }
+
+    /** Adds the events in a subtree that overlap the range, in order */
+    private static void collect(Node node, int from, int to, List<Node> found) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collect(node.left, from, to, found);
+        if (node.start > to) {
+            // Every event in the right subtree starts even later
+            return;
+        }
+        if (node.end >= from) {
+            found.add(node);
+        }
+        collect(node.right, from, to, found);
+    }
+
+    private static List<Integer> positionsOf(List<Node> nodes, int excludedPosition) {
+        List<Integer> positions = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (node.position != excludedPosition) {
+                positions.add(node.position);
+            }
+        }
+        return positions;
+    }
+
+    private static void addInOrder(Node node, List<Node> nodes) {
+        if (node != null) {
+            addInOrder(node.left, nodes);
+            nodes.add(node);
+            addInOrder(node.right, nodes);
+        }
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before the given start and position and the rest.
+     */
+    private static Node[] split(Node node, int start, int position) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.compareTo(start, position) < 0) {
+            Node[] parts = split(node.right, start, position);
+            node.right = parts[0];
+            refreshMaxEnd(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, position);
+        node.left = parts[1];
+        refreshMaxEnd(node);
+        return new Node[]{parts[0], node};
+    }
+
+    /** Joins two subtrees where every node in the first is ordered before every node in the second */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            refreshMaxEnd(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        refreshMaxEnd(second);
+        return second;
+    }
+
+    private static void refreshMaxEnd(Node node) {
+        int maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -0,0 +1,96 @@
+package tringaa.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tringaa.tasks.Task;
+
+/**
+ * Compressed bitmaps of the tasks with each tag and each priority in a list, so that the
+ * tasks carrying a combination of tags and a priority are found by intersecting bitmaps,
+ * smallest first, instead of checking every task.
+ */
+public class LabelIndex extends PositionalIndex {
+    private final Map<String, CompressedBitmap> tagBitmaps = new HashMap<>();
+    private final Map<Task.Priority, CompressedBitmap> priorityBitmaps = new EnumMap<>(Task.Priority.class);
+
+    /**
+     * Creates a label index over the given list.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    public LabelIndex(List<Task> tasks) {
+        super(tasks);
+    }
+
+    /**
+     * Finds the tasks that have all the given tags and the given priority.
+     *
+     * @param tags The tags the tasks must have, in lower case
+     * @param priority The priority the tasks must have, or null for any priority
+     * @return Positions of the matching tasks, or null if there are no tags and no priority to match
+     */
+    public BitSet select(List<String> tags, Task.Priority priority) {
+        if (tags.isEmpty() && priority == null) {
+            // Nothing to match, so the list does not have to be indexed
+            return null;
+        }
+        ensureFresh();
+        List<CompressedBitmap> bitmaps = new ArrayList<>(tags.size() + 1);
+        for (String tag : tags) {
+            bitmaps.add(tagBitmaps.getOrDefault(tag, new CompressedBitmap()));
+        }
+        if (priority != null) {
+            bitmaps.add(priorityBitmaps.getOrDefault(priority, new CompressedBitmap()));
+        }
+        // Starting from the smallest bitmap keeps every intermediate result small
+        bitmaps.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+        CompressedBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = result.and(bitmaps.get(i));
+        }
+        return result.toBitSet();
+    }
+
+    @Override
+    protected void add(int position, Task task) {
+        for (String tag : task.getTags()) {
+            tagBitmaps.computeIfAbsent(tag, t -> new CompressedBitmap()).add(position);
+        }
+        if (task.getPriority() != null) {
+            priorityBitmaps.computeIfAbsent(task.getPriority(), p -> new CompressedBitmap()).add(position);
+        }
+    }
+
+    @Override
+    protected void remove(int position, Task task) {
+        for (String tag : task.getTags()) {
+            CompressedBitmap bitmap = tagBitmaps.get(tag);
+            if (bitmap != null) {
+                bitmap.remove(position);
+                if (bitmap.isEmpty()) {
+                    tagBitmaps.remove(tag);
+                }
+            }
+        }
+        if (task.getPriority() != null && priorityBitmaps.containsKey(task.getPriority())) {
+            priorityBitmaps.get(task.getPriority()).remove(position);
+        }
+    }
+
+    @Override
+    protected void update(int position, Task task) {
+        // Changes made in place only affect the done status, which is not indexed here
+    }
+
+    @Override
+    protected void clear() {
+        tagBitmaps.clear();
+        priorityBitmaps.clear();
+    }
+}
@@ -0,0 +1,161 @@
+package tringaa.index;
+
+import java.util.BitSet;
+import java.util.List;
+
+import tringaa.tasks.Task;
+
+/**
+ * Base class for indexes keyed by task position. Appending, removing the last task and
+ * updating or replacing a task in place are applied incrementally. Inserting or removing a
+ * task anywhere else shifts the positions of later tasks, which an index applies in place if
+ * it overrides {@link #insertAt(int, Task)} and {@link #removeAt(int, Task)}. Otherwise the
+ * index is marked as stale instead and rebuilt from the list the next time it is queried.
+ */
+public abstract class PositionalIndex implements TaskIndex {
+    /** The list being indexed, read when the index is rebuilt */
+    protected final List<Task> tasks;
+    private int indexedCount;
+    private boolean isStale = true;
+
+    /**
+     * Creates an index over the given list. The index is built on first use.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    protected PositionalIndex(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public void taskAdded(int position, Task task) {
+        if (!isStale && position == indexedCount) {
+            add(position, task);
+            indexedCount++;
+        } else if (!isStale && position < indexedCount && insertAt(position, task)) {
+            indexedCount++;
+        } else {
+            isStale = true;
+        }
+    }
+
+    @Override
+    public void taskRemoved(int position, Task task) {
+        if (!isStale && position == indexedCount - 1) {
+            remove(position, task);
+            indexedCount--;
+        } else if (!isStale && position < indexedCount - 1 && removeAt(position, task)) {
+            indexedCount--;
+        } else {
+            isStale = true;
+        }
+    }
+
+    @Override
+    public void taskUpdated(int position, Task task) {
+        if (!isStale) {
+            update(position, task);
+        }
+    }
+
+    @Override
+    public void taskReplaced(int position, Task oldTask, Task newTask) {
+        if (!isStale && position < indexedCount) {
+            remove(position, oldTask);
+            add(position, newTask);
+        } else {
+            isStale = true;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        isStale = true;
+    }
+
+    /**
+     * Rebuilds the index if it is stale. Must be called before every query.
+     */
+    protected void ensureFresh() {
+        if (!isStale) {
+            return;
+        }
+        clear();
+        for (int i = 0; i < tasks.size(); i++) {
+            add(i, tasks.get(i));
+        }
+        indexedCount = tasks.size();
+        isStale = false;
+    }
+
+    /**
+     * Gets the number of tasks currently covered by the index.
+     *
+     * @return Number of indexed tasks
+     */
+    protected int indexedCount() {
+        return indexedCount;
+    }
+
+    /**
+     * Adds the task at the given position, which is either one past the last indexed task
+     * or a position that was just emptied by {@link #remove(int, Task)} for a replacement.
+     */
+    protected abstract void add(int position, Task task);
+
+    /**
+     * Removes the task at the given position, which is either the last indexed task
+     * or a task that is about to be replaced.
+     */
+    protected abstract void remove(int position, Task task);
+
+    /**
+     * Inserts a task at a position before the last indexed task, moving the tasks from that
+     * position on back by one. By default nothing is moved and the index is rebuilt instead.
+     *
+     * @return True if the task was inserted, false if the index has to be rebuilt
+     */
+    protected boolean insertAt(int position, Task task) {
+        return false;
+    }
+
+    /**
+     * Removes the task at a position before the last indexed task, moving the tasks after it
+     * forward by one. By default nothing is moved and the index is rebuilt instead.
+     *
+     * @return True if the task was removed, false if the index has to be rebuilt
+     */
+    protected boolean removeAt(int position, Task task) {
+        return false;
+    }
+
+    /** Re-indexes the task at the given position after it was changed in place. */
+    protected abstract void update(int position, Task task);
+
+    /** Removes every task from the index. */
+    protected abstract void clear();
+
+    /**
+     * Opens a gap at a position of a bit set in place, moving each set bit from that position
+     * on up by one, highest first. The cost grows with the number of bits moved, so a bit set
+     * with no bits from the position on is left untouched.
+     */
+    protected static void insertBit(BitSet bits, int position) {
+        for (int i = bits.length() - 1; i >= position; i = bits.previousSetBit(i - 1)) {
+            bits.clear(i);
+            bits.set(i + 1);
+        }
+    }
+
+    /**
+     * Closes the gap at a position of a bit set in place, dropping its bit and moving each
+     * later set bit down by one, lowest first, like {@link #insertBit(BitSet, int)}.
+     */
+    protected static void removeBit(BitSet bits, int position) {
+        bits.clear(position);
+        for (int i = bits.nextSetBit(position + 1); i >= 0; i = bits.nextSetBit(i + 1)) {
+            bits.clear(i);
+            bits.set(i - 1);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package tringaa.index;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import tringaa.tasks.Task;
+
+/**
+ * Prefix trees of the words in the task descriptions and of the whole descriptions, so that
+ * what the user is typing can be completed from the tasks already in a list. Neither tree
+ * refers to positions in the list, so every change is applied as it happens, even when it
+ * moves other tasks; only a bulk change leaves the trees to be rebuilt when they are next used.
+ */
+public class PrefixIndex implements TaskIndex {
+    /** Separates the words of a description, the same way the search index does */
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<Task> tasks;
+    private final PrefixTrie words = new PrefixTrie();
+    private final PrefixTrie descriptions = new PrefixTrie();
+    /** Whether the trees have to be rebuilt before they are used, which is also the case before the first use */
+    private boolean isStale = true;
+
+    /**
+     * Creates a prefix index over the given list. The trees are built the first time they are used.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    public PrefixIndex(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Finds the words in the descriptions that start with a prefix, ignoring case.
+     *
+     * @param prefix The start of the words to find
+     * @param limit Largest number of words to return
+     * @return The words in lower case and alphabetical order, each once
+     */
+    public List<String> completeWord(String prefix, int limit) {
+        ensureFresh();
+        return words.complete(prefix, limit);
+    }
+
+    /**
+     * Finds the descriptions that start with a prefix, ignoring case.
+     *
+     * @param prefix The start of the descriptions to find
+     * @param limit Largest number of descriptions to return
+     * @return The descriptions in alphabetical order, each once
+     */
+    public List<String> completeDescription(String prefix, int limit) {
+        ensureFresh();
+        return descriptions.complete(prefix, limit);
+    }
+
+    @Override
+    public void taskAdded(int position, Task task) {
+        if (!isStale) {
+            add(task);
+        }
+    }
+
+    @Override
+    public void taskRemoved(int position, Task task) {
+        if (!isStale) {
+            remove(task);
+        }
+    }
+
+    @Override
+    public void taskUpdated(int position, Task task) {
+        // Marking a task does not change its description
+    }
+
+    @Override
+    public void taskReplaced(int position, Task oldTask, Task newTask) {
+        if (!isStale) {
+            remove(oldTask);
+            add(newTask);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        isStale = true;
+    }
+
+    /**
+     * Builds the trees now if they have to be rebuilt, so that the next completion does not have to.
+     */
+    public void prepare() {
+        ensureFresh();
+    }
+
+    private void ensureFresh() {
+        if (!isStale) {
+            return;
+        }
+        words.clear();
+        descriptions.clear();
+        for (Task task : tasks) {
+            add(task);
+        }
+        isStale = false;
+    }
+
+    private void add(Task task) {
+        descriptions.add(task.getDescription());
+        for (String word : splitWords(task.getDescription())) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+    }
+
+    private void remove(Task task) {
+        descriptions.remove(task.getDescription());
+        for (String word : splitWords(task.getDescription())) {
+            if (!word.isEmpty()) {
+                words.remove(word);
+            }
+        }
+    }
+
+    private static String[] splitWords(String description) {
+        return WORD_SEPARATOR.split(description.toLowerCase());
+    }
+}
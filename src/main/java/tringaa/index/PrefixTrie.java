@@ -0,0 +1,245 @@
+package tringaa.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A radix tree of strings, compared without case. Each edge holds a run of characters, so a
+ * chain of nodes with one child each is kept as a single node. Every string is counted, so the
+ * same string can be added for several tasks and is only removed with the last of them.
+ *
+ * Completing a prefix walks down the characters of the prefix and then visits the strings
+ * below it in order until enough are found. Every node passed on the way either ends a string
+ * or branches, so the cost depends on the length of the prefix and the number of completions
+ * asked for, not on the number of strings in the tree.
+ */
+class PrefixTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        /** The characters on the edge into this node, in lower case */
+        private String label;
+        /** Children in order of the first character of their labels */
+        private Node[] children = NO_CHILDREN;
+        /** Number of times the string ending at this node has been added */
+        private int count;
+        /** The string ending at this node as it was first added, or null if no string ends here */
+        private String value;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Node root = new Node("");
+    private int size;
+
+    /**
+     * Gets the number of different strings in the tree.
+     *
+     * @return Number of strings, ignoring case and repeats
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds a string to the tree, or counts it again if it is already there.
+     *
+     * @param value The string to add
+     */
+    void add(String value) {
+        String key = value.toLowerCase();
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            int slot = findChild(node, key.charAt(depth));
+            if (slot < 0) {
+                Node leaf = new Node(key.substring(depth));
+                leaf.count = 1;
+                leaf.value = value;
+                insertChild(node, -slot - 1, leaf);
+                size++;
+                return;
+            }
+            Node child = node.children[slot];
+            int common = commonLength(child.label, key, depth);
+            if (common < child.label.length()) {
+                split(child, common);
+            }
+            node = child;
+            depth += common;
+        }
+        if (node.count++ == 0) {
+            node.value = value;
+            size++;
+        }
+    }
+
+    /**
+     * Removes one count of a string from the tree. The string is gone once it has been removed
+     * as many times as it was added, and the nodes it no longer needs are removed or merged.
+     *
+     * @param value The string to remove
+     * @return True if the string was in the tree
+     */
+    boolean remove(String value) {
+        String key = value.toLowerCase();
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            int slot = findChild(node, key.charAt(depth));
+            if (slot < 0 || !key.startsWith(node.children[slot].label, depth)) {
+                return false;
+            }
+            path.add(node);
+            node = node.children[slot];
+            depth += node.label.length();
+        }
+        if (node.count == 0) {
+            return false;
+        }
+        if (--node.count > 0) {
+            return true;
+        }
+        node.value = null;
+        size--;
+        for (int i = path.size() - 1; i >= 0 && node.count == 0; i--) {
+            Node parent = path.get(i);
+            if (node.children.length == 0) {
+                removeChild(parent, node);
+                node = parent;
+            } else {
+                if (node.children.length == 1) {
+                    mergeWithChild(node);
+                }
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the strings that start with a prefix, ignoring case.
+     *
+     * @param prefix The start of the strings to find
+     * @param limit Largest number of strings to return
+     * @return The strings as they were first added, in alphabetical order of their lower case forms
+     */
+    List<String> complete(String prefix, int limit) {
+        List<String> values = new ArrayList<>(Math.min(Math.max(limit, 0), 16));
+        if (limit <= 0) {
+            return values;
+        }
+        String key = prefix.toLowerCase();
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            int slot = findChild(node, key.charAt(depth));
+            if (slot < 0) {
+                return values;
+            }
+            Node child = node.children[slot];
+            int common = commonLength(child.label, key, depth);
+            if (common < child.label.length() && depth + common < key.length()) {
+                // The prefix leaves the edge part way along it
+                return values;
+            }
+            node = child;
+            depth += common;
+        }
+        // A node comes before its children, and children are in order, so strings come out sorted
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty() && values.size() < limit) {
+            Node next = pending.pop();
+            if (next.count > 0) {
+                values.add(next.value);
+            }
+            for (int i = next.children.length - 1; i >= 0; i--) {
+                pending.push(next.children[i]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Removes every string from the tree.
+     */
+    void clear() {
+        root.children = NO_CHILDREN;
+        root.count = 0;
+        root.value = null;
+        size = 0;
+    }
+
+    /** Splits a node so that it keeps the first characters of its label and a new child takes the rest */
+    private static void split(Node node, int length) {
+        Node rest = new Node(node.label.substring(length));
+        rest.children = node.children;
+        rest.count = node.count;
+        rest.value = node.value;
+        node.label = node.label.substring(0, length);
+        node.children = new Node[]{rest};
+        node.count = 0;
+        node.value = null;
+    }
+
+    /** Joins a node that ends no string with its only child */
+    private static void mergeWithChild(Node node) {
+        Node child = node.children[0];
+        node.label = node.label + child.label;
+        node.children = child.children;
+        node.count = child.count;
+        node.value = child.value;
+    }
+
+    private static int commonLength(String label, String key, int from) {
+        int length = 0;
+        while (length < label.length() && from + length < key.length()
+                && label.charAt(length) == key.charAt(from + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Finds the child whose label starts with a character.
+     *
+     * @return Slot of the child, or -(insertion slot + 1) if there is none
+     */
+    private static int findChild(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char c = node.children[middle].label.charAt(0);
+            if (c < first) {
+                low = middle + 1;
+            } else if (c > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void insertChild(Node node, int slot, Node child) {
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, slot);
+        children[slot] = child;
+        System.arraycopy(node.children, slot, children, slot + 1, node.children.length - slot);
+        node.children = children;
+    }
+
+    private static void removeChild(Node node, Node child) {
+        int slot = findChild(node, child.label.charAt(0));
+        Node[] children = new Node[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, slot);
+        System.arraycopy(node.children, slot + 1, children, slot, children.length - slot);
+        node.children = children;
+    }
+}
@@ -0,0 +1,184 @@
+package tringaa.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import tringaa.tasks.Task;
+
+/**
+ * A trigram index over task descriptions that supports ranked, typo-tolerant search.
+ * Each word of a description is split into overlapping three-letter grams, and a query
+ * matches a task when enough of the query's grams also appear in the task's description.
+ * Only the best matches are kept in a bounded heap, so ranking costs depend on the
+ * number of results asked for rather than on the number of matching tasks.
+ * Inserting or deleting a task in the middle of the list moves the later bits of the
+ * posting bit sets that have any in place, so only the inserted or deleted description is
+ * split into trigrams and no bit set is copied.
+ */
+public class SearchIndex extends PositionalIndex {
+    /** Minimum fraction of the query's trigrams that a description must contain to match */
+    private static final double MIN_COVERAGE = 0.5;
+    /** Weight of the similarity score used to prefer descriptions close in length to the query */
+    private static final double SIMILARITY_WEIGHT = 0.25;
+
+    /** Positions of the tasks containing each trigram */
+    private final Map<String, BitSet> postings = new HashMap<>();
+    /** Number of distinct trigrams in the description at each position */
+    private int[] trigramCounts = new int[16];
+
+    /**
+     * A task that matched a search, together with its score.
+     *
+     * @param position Zero-based position of the task in the list
+     * @param score Higher scores are better matches
+     */
+    public record Match(int position, double score) {
+    }
+
+    /**
+     * Creates a search index over the given list.
+     *
+     * @param tasks The live list of tasks to index
+     */
+    public SearchIndex(List<Task> tasks) {
+        super(tasks);
+    }
+
+    /**
+     * Finds the tasks that best match the query, best match first.
+     * Tasks are ranked by the fraction of the query's trigrams their description contains,
+     * with ties going to descriptions that are closer in length to the query.
+     *
+     * @param query The search term
+     * @param limit Maximum number of matches to return
+     * @return The best matches, ordered from best to worst
+     */
+    public List<Match> search(String query, int limit) {
+        assert limit > 0 : "Search limit must be positive";
+        ensureFresh();
+        Set<String> queryTrigrams = trigrams(query);
+        List<BitSet> queryPostings = new ArrayList<>();
+        BitSet candidates = new BitSet();
+        for (String trigram : queryTrigrams) {
+            BitSet positions = postings.get(trigram);
+            if (positions != null) {
+                queryPostings.add(positions);
+                candidates.or(positions);
+            }
+        }
+
+        Comparator<Match> worstFirst = Comparator.comparingDouble(Match::score)
+                .thenComparing(Match::position, Comparator.reverseOrder());
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, worstFirst);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            int shared = 0;
+            for (BitSet positions : queryPostings) {
+                if (positions.get(i)) {
+                    shared++;
+                }
+            }
+            double coverage = (double) shared / queryTrigrams.size();
+            if (coverage < MIN_COVERAGE) {
+                continue;
+            }
+            double similarity = 2.0 * shared / (queryTrigrams.size() + trigramCounts[i]);
+            best.offer(new Match(i, coverage + SIMILARITY_WEIGHT * similarity));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(worstFirst.reversed());
+        return matches;
+    }
+
+    @Override
+    protected void add(int position, Task task) {
+        Set<String> trigrams = trigrams(task.getDescription());
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new BitSet()).set(position);
+        }
+        if (position >= trigramCounts.length) {
+            trigramCounts = Arrays.copyOf(trigramCounts, Math.max(position + 1, trigramCounts.length * 2));
+        }
+        trigramCounts[position] = trigrams.size();
+    }
+
+    @Override
+    protected void remove(int position, Task task) {
+        for (String trigram : trigrams(task.getDescription())) {
+            BitSet positions = postings.get(trigram);
+            if (positions != null) {
+                positions.clear(position);
+                if (positions.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        trigramCounts[position] = 0;
+    }
+
+    @Override
+    protected boolean insertAt(int position, Task task) {
+        for (BitSet positions : postings.values()) {
+            insertBit(positions, position);
+        }
+        int count = indexedCount();
+        if (count >= trigramCounts.length) {
+            trigramCounts = Arrays.copyOf(trigramCounts, trigramCounts.length * 2);
+        }
+        System.arraycopy(trigramCounts, position, trigramCounts, position + 1, count - position);
+        add(position, task);
+        return true;
+    }
+
+    @Override
+    protected boolean removeAt(int position, Task task) {
+        remove(position, task);
+        for (BitSet positions : postings.values()) {
+            removeBit(positions, position);
+        }
+        int count = indexedCount();
+        System.arraycopy(trigramCounts, position + 1, trigramCounts, position, count - position - 1);
+        trigramCounts[count - 1] = 0;
+        return true;
+    }
+
+    @Override
+    protected void update(int position, Task task) {
+        // Only the done status changes in place, which does not affect the description
+    }
+
+    @Override
+    protected void clear() {
+        postings.clear();
+        Arrays.fill(trigramCounts, 0);
+    }
+
+    /**
+     * Splits text into the distinct trigrams of its words. Words are padded so that
+     * short words and word boundaries also produce trigrams.
+     */
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
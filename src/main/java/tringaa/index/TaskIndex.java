@@ -0,0 +1,49 @@
+package tringaa.index;
+
+import tringaa.tasks.Task;
+
+/**
+ * A secondary index over the tasks in a TaskList that is kept in sync as the list changes.
+ * Tasks are identified by their zero-based position in the list.
+ */
+public interface TaskIndex {
+    /**
+     * Called after a task has been inserted into the list.
+     *
+     * @param position Position the task was inserted at
+     * @param task The inserted task
+     */
+    void taskAdded(int position, Task task);
+
+    /**
+     * Called after a task has been removed from the list.
+     *
+     * @param position Position the task was removed from
+     * @param task The removed task
+     */
+    void taskRemoved(int position, Task task);
+
+    /**
+     * Called after a task in the list has been changed in place, e.g. marked as done.
+     *
+     * @param position Position of the changed task
+     * @param task The changed task
+     */
+    void taskUpdated(int position, Task task);
+
+    /**
+     * Called after the task at a position has been replaced by a different task,
+     * e.g. when the task file was edited outside the bot.
+     *
+     * @param position Position of the replaced task
+     * @param oldTask The task that was replaced
+     * @param newTask The task now at the position
+     */
+    void taskReplaced(int position, Task oldTask, Task newTask);
+
+    /**
+     * Called after many tasks have moved at once, e.g. after a bulk delete or an undo,
+     * when rebuilding the index is cheaper than applying each change.
+     */
+    void invalidate();
+}
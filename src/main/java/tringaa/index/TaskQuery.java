@@ -0,0 +1,189 @@
+package tringaa.index;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+/**
+ * A compiled filter over tasks, e.g. "type:D done:false by<2026-12-01 text:report".
+ * The query is parsed once into a pipeline of predicates that every clause must pass.
+ * The type, done and date clauses are also exposed so that a FieldIndex can use them
+ * to narrow down the tasks before the predicates are applied.
+ *
+ * Supported clauses:
+ * type:T|D|E|R, done:true|false, by&lt;DATE, by&lt;=DATE, by&gt;DATE, by&gt;=DATE, by:DATE,
+ * text:WORD and the flag explain.
+ */
+public class TaskQuery {
+    /** Pattern to match a single clause: field, operator and value */
+    private static final Pattern CLAUSE_FORMAT =
+            Pattern.compile("(?<field>type|done|by|text)(?<operator><=|>=|<|>|:|=)(?<value>\\S+)",
+                    Pattern.CASE_INSENSITIVE);
+    private static final String USAGE = """
+            Invalid filter command.
+            Format: filter [type:T|D|E|R] [done:true|false] [by<DATE] [by>DATE] [text:WORD] [explain]
+            Date format: yyyy-MM-dd (e.g., 2023-02-22)
+            """;
+
+    private Character type;
+    private Boolean isDone;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private boolean isExplain;
+    private final List<Predicate<Task>> predicates = new ArrayList<>();
+
+    private TaskQuery() {
+    }
+
+    /**
+     * Compiles a filter query.
+     *
+     * @param query The query, made up of whitespace-separated clauses
+     * @return The compiled query
+     * @throws InvalidCommandException if a clause is not recognised or has an invalid value
+     */
+    public static TaskQuery compile(String query) throws InvalidCommandException {
+        TaskQuery compiled = new TaskQuery();
+        for (String clause : query.trim().split("\\s+")) {
+            if (clause.isEmpty()) {
+                continue;
+            }
+            if (clause.equalsIgnoreCase("explain")) {
+                compiled.isExplain = true;
+                continue;
+            }
+            Matcher matcher = CLAUSE_FORMAT.matcher(clause);
+            if (!matcher.matches()) {
+                throw new InvalidCommandException(USAGE);
+            }
+            compiled.addClause(matcher.group("field").toLowerCase(), matcher.group("operator"),
+                    matcher.group("value"));
+        }
+        return compiled;
+    }
+
+    private void addClause(String field, String operator, String value) throws InvalidCommandException {
+        boolean isEquality = operator.equals(":") || operator.equals("=");
+        if (!field.equals("by") && !isEquality) {
+            throw new InvalidCommandException(USAGE);
+        }
+        switch (field) {
+        case "type" -> {
+            char typeCode = Character.toUpperCase(value.charAt(0));
+            if (value.length() != 1 || "TDER".indexOf(typeCode) < 0) {
+                throw new InvalidCommandException(USAGE);
+            }
+            type = typeCode;
+            predicates.add(task -> typeOf(task) == typeCode);
+        }
+        case "done" -> {
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new InvalidCommandException(USAGE);
+            }
+            boolean wantDone = Boolean.parseBoolean(value);
+            isDone = wantDone;
+            predicates.add(task -> task.isDone() == wantDone);
+        }
+        case "by" -> addDateClause(operator, value);
+        case "text" -> {
+            String search = value.toLowerCase();
+            predicates.add(task -> task.getDescription().toLowerCase().contains(search));
+        }
+        default -> throw new InvalidCommandException(USAGE);
+        }
+    }
+
+    private void addDateClause(String operator, String value) throws InvalidCommandException {
+        LocalDate date;
+        try {
+            date = LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCommandException(USAGE);
+        }
+        LocalDate from = switch (operator) {
+        case ">" -> date.plusDays(1);
+        case ">=", ":", "=" -> date;
+        default -> LocalDate.MIN;
+        };
+        LocalDate to = switch (operator) {
+        case "<" -> date.minusDays(1);
+        case "<=", ":", "=" -> date;
+        default -> LocalDate.MAX;
+        };
+        fromDate = fromDate == null || from.isAfter(fromDate) ? from : fromDate;
+        toDate = toDate == null || to.isBefore(toDate) ? to : toDate;
+        predicates.add(task -> {
+            LocalDate taskDate = task.getDate();
+            return taskDate != null && !taskDate.isBefore(from) && !taskDate.isAfter(to);
+        });
+    }
+
+    /**
+     * Checks whether a task passes every clause of the query.
+     *
+     * @param task The task to check
+     * @return True if the task matches the query
+     */
+    public boolean matches(Task task) {
+        for (Predicate<Task> predicate : predicates) {
+            if (!predicate.test(task)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the type code of a task as used in queries and storage.
+     *
+     * @param task The task to get the type code of
+     * @return T, D, E or R, or ? for an unknown type
+     */
+    public static char typeOf(Task task) {
+        if (task instanceof ToDo) {
+            return 'T';
+        } else if (task instanceof Deadline) {
+            return 'D';
+        } else if (task instanceof Event) {
+            return 'E';
+        } else if (task instanceof Recurring) {
+            return 'R';
+        }
+        return '?';
+    }
+
+    /** Gets the required task type, or null if any type matches. */
+    public Character getType() {
+        return type;
+    }
+
+    /** Gets the required done status, or null if any status matches. */
+    public Boolean getDone() {
+        return isDone;
+    }
+
+    /** Gets the earliest matching date, or null if the query has no date clause. */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /** Gets the latest matching date, or null if the query has no date clause. */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public boolean isExplain() {
+        return isExplain;
+    }
+}
@@ -0,0 +1,39 @@
+package tringaa.sync;
+
+import java.util.List;
+
+/**
+ * The changes one device made between two of its syncs, sent to the other devices.
+ *
+ * @param replica Identifier of the device that made the changes
+ * @param to Hybrid logical time of the device when it sent the changes, at least the time of every change
+ * @param changes The changes, each stamped with the time it was made at
+ */
+public record Delta(String replica, long to, List<Change> changes) {
+
+    /**
+     * A change to one part of a task. Each part is kept by every device together with the
+     * stamp of the change that set it, and a change only replaces a part with an earlier stamp.
+     *
+     * @param kind Which part of the task changed
+     * @param id Identifier of the task
+     * @param time Hybrid logical time the change was made at
+     * @param value The task in its storage format for {@link Kind#CONTENT}, the date the task was
+     *         done or "-" for {@link Kind#DONE}, and "-" for {@link Kind#DELETE}
+     */
+    public record Change(Kind kind, String id, long time, String value) {
+    }
+
+    /**
+     * The parts of a task that are changed separately, so that marking a task on one device
+     * and editing it on another both take effect.
+     */
+    public enum Kind {
+        /** Everything except whether the task is done */
+        CONTENT,
+        /** Whether and when the task was done */
+        DONE,
+        /** The task was deleted, which wins over every other change to it */
+        DELETE
+    }
+}
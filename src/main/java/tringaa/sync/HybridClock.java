@@ -0,0 +1,51 @@
+package tringaa.sync;
+
+import java.time.Clock;
+
+/**
+ * A hybrid logical clock. Times hold the wall-clock milliseconds in their upper 48 bits
+ * and a counter in their lower 16 bits, so they stay close to real time while never going
+ * backwards, even when the wall clock does or when a device with a clock running ahead
+ * has been heard from.
+ */
+public class HybridClock {
+    private static final int COUNTER_BITS = 16;
+
+    private final Clock clock;
+    private long last;
+
+    /**
+     * Creates a clock that continues after the given time.
+     *
+     * @param clock The wall clock
+     * @param last The last time given out or seen, or 0 for a new clock
+     */
+    public HybridClock(Clock clock, long last) {
+        this.clock = clock;
+        this.last = last;
+    }
+
+    /**
+     * Gets a time for a change made now, later than every time given out or seen so far.
+     *
+     * @return The new time
+     */
+    public long tick() {
+        last = Math.max(clock.millis() << COUNTER_BITS, last + 1);
+        return last;
+    }
+
+    /**
+     * Takes note of a time received from another device, so that later changes made here
+     * are ordered after it.
+     *
+     * @param remote A time given out by another clock
+     */
+    public void observe(long remote) {
+        last = Math.max(last, remote);
+    }
+
+    public long getLast() {
+        return last;
+    }
+}
@@ -0,0 +1,54 @@
+package tringaa.sync;
+
+/**
+ * The hybrid logical time a change was made at, together with the device that made it.
+ * Stamps are totally ordered by time and then by device, so every device picks the same
+ * winner when two changes to the same part of a task compete.
+ *
+ * @param time Hybrid logical time from a {@link HybridClock}
+ * @param replica Identifier of the device that made the change
+ */
+public record Stamp(long time, String replica) implements Comparable<Stamp> {
+
+    @Override
+    public int compareTo(Stamp other) {
+        int byTime = Long.compare(time, other.time);
+        return byTime != 0 ? byTime : replica.compareTo(other.replica);
+    }
+
+    /**
+     * Checks whether this stamp wins over another.
+     *
+     * @param other The competing stamp, or null if there is none
+     * @return True if this stamp is later
+     */
+    public boolean isAfter(Stamp other) {
+        return other == null || compareTo(other) > 0;
+    }
+
+    /**
+     * Converts the stamp to the form kept in sync files.
+     * Format: TIME@REPLICA, with the time in hexadecimal
+     *
+     * @return The stamp as text
+     */
+    @Override
+    public String toString() {
+        return Long.toHexString(time) + "@" + replica;
+    }
+
+    /**
+     * Reads a stamp written by {@link #toString()}.
+     *
+     * @param text The stamp as text
+     * @return The stamp
+     * @throws IllegalArgumentException if the text is not a stamp
+     */
+    public static Stamp parse(String text) {
+        int separator = text.indexOf('@');
+        if (separator <= 0 || separator == text.length() - 1) {
+            throw new IllegalArgumentException("Invalid stamp: " + text);
+        }
+        return new Stamp(Long.parseUnsignedLong(text.substring(0, separator), 16), text.substring(separator + 1));
+    }
+}
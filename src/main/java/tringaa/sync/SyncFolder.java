@@ -0,0 +1,114 @@
+package tringaa.sync;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import tringaa.exceptions.TaskStorageException;
+
+/**
+ * Carries deltas through a folder shared by the devices, such as a synced cloud folder or
+ * a USB drive. Each delta is written once as its own file named after the device and time
+ * that sent it, so devices never write to the same file and a device only reads the files
+ * it has not seen yet. The deltas of each list are kept in a subfolder named after the list,
+ * so several lists can be synced through the same folder.
+ *
+ * A delta file holds one change per line.
+ * Format: KIND ID TIME VALUE, with the time in hexadecimal
+ */
+public class SyncFolder implements SyncTransport {
+    private static final String SUFFIX = ".delta";
+
+    private final Path folder;
+
+    /**
+     * Creates a transport for a list over the given folder. The subfolder of the list is created
+     * when the first delta is sent.
+     *
+     * @param folder The shared folder
+     * @param list The name of the list, the same on every device
+     */
+    public SyncFolder(Path folder, String list) {
+        this.folder = folder.resolve(list);
+    }
+
+    @Override
+    public void publish(Delta delta) throws TaskStorageException {
+        Path target = folder.resolve(String.format("%s-%016x%s", delta.replica(), delta.to(), SUFFIX));
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(folder);
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (Delta.Change change : delta.changes()) {
+                    writer.write(change.kind() + " " + change.id() + " " + Long.toHexString(change.time()) + " "
+                            + change.value() + "\n");
+                }
+            }
+            // Other devices may read the folder at any time, so the file only appears once it is complete
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error writing to sync folder: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Delta> fetch(String replica, Map<String, Long> seen) throws TaskStorageException {
+        List<Delta> deltas = new ArrayList<>();
+        if (!Files.isDirectory(folder)) {
+            return deltas;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int separator = name.lastIndexOf('-');
+                if (separator <= 0) {
+                    continue;
+                }
+                String sender = name.substring(0, separator);
+                long to;
+                try {
+                    to = Long.parseUnsignedLong(name.substring(separator + 1, name.length() - SUFFIX.length()), 16);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (!sender.equals(replica) && to > seen.getOrDefault(sender, 0L)) {
+                    deltas.add(new Delta(sender, to, readChanges(file)));
+                }
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error reading sync folder: " + e.getMessage());
+        }
+        deltas.sort(Comparator.comparing(Delta::replica).thenComparingLong(Delta::to));
+        return deltas;
+    }
+
+    private static List<Delta.Change> readChanges(Path file) throws IOException, TaskStorageException {
+        List<Delta.Change> changes = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.split(" ", 4);
+            try {
+                changes.add(new Delta.Change(Delta.Kind.valueOf(parts[0]), parts[1],
+                        Long.parseUnsignedLong(parts[2], 16), parts[3]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new TaskStorageException("Invalid change in " + file.getFileName() + ": " + line);
+            }
+        }
+        return changes;
+    }
+}
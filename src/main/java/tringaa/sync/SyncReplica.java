@@ -0,0 +1,438 @@
+package tringaa.sync;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tringaa.Storage;
+import tringaa.TaskList;
+import tringaa.TextStorage;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.EpochMinute;
+import tringaa.tasks.Task;
+
+/**
+ * Keeps a task list on this device in sync with its copies on other devices.
+ *
+ * Every task gets an identifier shared by all its copies. The content of a task and whether it
+ * is done are tracked separately, each with the {@link Stamp} of the change that last set it, and
+ * deleted tasks leave a tombstone behind. A change only replaces a part with an earlier stamp
+ * and a delete wins over every other change, so all devices end up with the same tasks whatever
+ * order they receive the changes in.
+ *
+ * Changes made to the list between syncs are found by comparing each task with the state saved
+ * at the last sync. Only the changes made on this device since its last sync are sent, and only
+ * the deltas of other devices newer than the version vector of this device are received, so the
+ * data exchanged grows with the number of changes rather than with the size of the list.
+ */
+public class SyncReplica {
+    private static final String NOT_DONE = "-";
+
+    private final Path statePath;
+    private final Clock wallClock;
+    private String replica;
+    private HybridClock clock;
+    /** Time of the last delta sent from this device */
+    private long published;
+    /** Time of the latest delta received from each other device */
+    private final Map<String, Long> seen = new HashMap<>();
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Map<String, Stamp> tombstones = new HashMap<>();
+    /** Whether the list has never been synced, in which case existing tasks are matched by content */
+    private boolean isFirstSync;
+
+    /**
+     * The parts of a task as of the last sync, with the stamps of the changes that set them.
+     */
+    private static final class Entry {
+        /** Stamp of the content, or null if only a change to the done part was received so far */
+        private Stamp contentStamp;
+        /** The content in storage format, only kept until it has been applied to the list */
+        private String content;
+        private long contentHash;
+        private Stamp doneStamp;
+        private String done = NOT_DONE;
+    }
+
+    /**
+     * The outcome of a sync.
+     *
+     * @param sent Number of changes sent to other devices
+     * @param received Number of changes received from other devices
+     * @param applied Number of tasks added, changed or removed in the list
+     */
+    public record Result(int sent, int received, int applied) {
+    }
+
+    /**
+     * Creates a replica whose sync state is kept in the given file.
+     *
+     * @param statePath The file holding the sync state of the list, created at the first sync
+     * @param wallClock The clock changes are timed with
+     */
+    public SyncReplica(Path statePath, Clock wallClock) {
+        this.statePath = statePath;
+        this.wallClock = wallClock;
+    }
+
+    /**
+     * Records the changes made to the list since the last sync, giving new tasks their
+     * identifiers. If any task got one, the list should be saved before {@link #sync}, so that
+     * the identifiers sent to other devices are also the ones kept in the list.
+     *
+     * @param tasks The list to sync
+     * @return True if any task got a new identifier
+     * @throws TaskStorageException if the sync state cannot be read
+     */
+    public boolean recordChanges(TaskList tasks) throws TaskStorageException {
+        loadState();
+        return recordLocalChanges(tasks, tasks.getTasks());
+    }
+
+    /**
+     * Syncs the list: sends the changes found by {@link #recordChanges(TaskList)}, and applies the
+     * changes received from other devices. Tasks changed by other devices are replaced in place,
+     * new tasks are added at the end of the list, and deleted tasks are removed. The new sync
+     * state is kept until {@link #save()} is called, which should only happen once the list
+     * itself has been saved.
+     *
+     * @param tasks The list to sync
+     * @param transport Carries the changes between the devices
+     * @return How many changes were exchanged and applied
+     * @throws TaskStorageException if the transport cannot be read or written
+     */
+    public Result sync(TaskList tasks, SyncTransport transport) throws TaskStorageException {
+        if (clock == null) {
+            throw new IllegalStateException("Changes must be recorded before syncing");
+        }
+        Delta outgoing = collectOwnChanges(tasks.getTasks());
+        if (!outgoing.changes().isEmpty()) {
+            transport.publish(outgoing);
+        }
+        published = outgoing.to();
+
+        int received = 0;
+        Set<String> changed = new HashSet<>();
+        for (Delta delta : transport.fetch(replica, seen)) {
+            for (Delta.Change change : delta.changes()) {
+                clock.observe(change.time());
+                if (merge(change, new Stamp(change.time(), delta.replica()))) {
+                    changed.add(change.id());
+                }
+                received++;
+            }
+            clock.observe(delta.to());
+            seen.merge(delta.replica(), delta.to(), Math::max);
+        }
+        int applied = apply(tasks, changed);
+        return new Result(outgoing.changes().size(), received, applied);
+    }
+
+    /**
+     * Compares every task with the state saved at the last sync and stamps the parts that
+     * changed since. Tasks without an identifier are new and get one, and tasks that are no
+     * longer in the list were deleted. New identifiers are set on the tasks read into the given
+     * list and written back into the task list itself.
+     *
+     * @return True if any task got a new identifier
+     */
+    private boolean recordLocalChanges(TaskList tasks, List<Task> list) {
+        boolean hasNewIds = false;
+        Set<String> present = new HashSet<>();
+        Map<String, Integer> contentCounts = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Task task = list.get(i);
+            String content = contentOf(task);
+            String id = task.getId();
+            if (id == null || !present.add(id) || tombstones.containsKey(id)) {
+                id = newId(content, contentCounts);
+                present.add(id);
+                task.setId(id);
+                tasks.setTaskId(i, id);
+                hasNewIds = true;
+            }
+            String done = doneOf(task);
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(id, entry);
+            }
+            long hash = hash(content);
+            if (entry.contentStamp == null || entry.contentHash != hash) {
+                entry.contentStamp = new Stamp(clock.tick(), replica);
+                entry.contentHash = hash;
+            }
+            if (entry.doneStamp == null || !entry.done.equals(done)) {
+                entry.doneStamp = new Stamp(clock.tick(), replica);
+                entry.done = done;
+            }
+        }
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (!present.contains(entry.getKey()) && entry.getValue().contentStamp != null) {
+                deleted.add(entry.getKey());
+            }
+        }
+        for (String id : deleted) {
+            entries.remove(id);
+            tombstones.put(id, new Stamp(clock.tick(), replica));
+        }
+        return hasNewIds;
+    }
+
+    /**
+     * Gets an identifier for a task that has none. On the first sync the identifier is derived
+     * from the content, so that devices already holding copies of the same file match their
+     * identical tasks instead of ending up with each task twice.
+     */
+    private String newId(String content, Map<String, Integer> contentCounts) {
+        String id;
+        if (isFirstSync) {
+            int occurrence = contentCounts.merge(content, 1, Integer::sum);
+            id = "c" + Long.toHexString(hash(content)) + (occurrence > 1 ? "." + occurrence : "");
+        } else {
+            id = Long.toHexString(clock.tick()) + "." + replica;
+        }
+        return entries.containsKey(id) || tombstones.containsKey(id) ? newId(content, contentCounts) : id;
+    }
+
+    /**
+     * Collects the parts stamped by this device since its last sync, reading the content of each
+     * changed task from the list.
+     */
+    private Delta collectOwnChanges(List<Task> list) {
+        List<Delta.Change> changes = new ArrayList<>();
+        for (Task task : list) {
+            Entry entry = entries.get(task.getId());
+            if (isOwnUnsent(entry.contentStamp)) {
+                changes.add(new Delta.Change(Delta.Kind.CONTENT, task.getId(), entry.contentStamp.time(),
+                        contentOf(task)));
+            }
+            if (isOwnUnsent(entry.doneStamp)) {
+                changes.add(new Delta.Change(Delta.Kind.DONE, task.getId(), entry.doneStamp.time(), entry.done));
+            }
+        }
+        for (Map.Entry<String, Stamp> tombstone : tombstones.entrySet()) {
+            if (isOwnUnsent(tombstone.getValue())) {
+                changes.add(new Delta.Change(Delta.Kind.DELETE, tombstone.getKey(), tombstone.getValue().time(),
+                        NOT_DONE));
+            }
+        }
+        return new Delta(replica, changes.isEmpty() ? published : clock.tick(), changes);
+    }
+
+    private boolean isOwnUnsent(Stamp stamp) {
+        return stamp != null && stamp.replica().equals(replica) && stamp.time() > published;
+    }
+
+    /**
+     * Merges a change received from another device into the state.
+     *
+     * @return True if the change won, so the task in the list has to be updated
+     */
+    private boolean merge(Delta.Change change, Stamp stamp) {
+        String id = change.id();
+        Stamp tombstone = tombstones.get(id);
+        if (change.kind() == Delta.Kind.DELETE) {
+            if (stamp.isAfter(tombstone)) {
+                tombstones.put(id, stamp);
+            }
+            return entries.remove(id) != null;
+        }
+        if (tombstone != null) {
+            return false;
+        }
+        Entry entry = entries.computeIfAbsent(id, key -> new Entry());
+        if (change.kind() == Delta.Kind.CONTENT && stamp.isAfter(entry.contentStamp)) {
+            entry.contentStamp = stamp;
+            entry.content = change.value();
+            entry.contentHash = hash(change.value());
+            return true;
+        }
+        if (change.kind() == Delta.Kind.DONE && stamp.isAfter(entry.doneStamp)) {
+            entry.doneStamp = stamp;
+            entry.done = change.value();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies the tasks changed by other devices to the list as one set of changes in
+     * ascending order of position.
+     *
+     * @return Number of tasks added, changed or removed
+     */
+    private int apply(TaskList tasks, Set<String> changed) throws TaskStorageException {
+        List<Task> list = tasks.getTasks();
+        List<Storage.FileChange> changes = new ArrayList<>();
+        Set<String> present = new HashSet<>();
+        for (int i = 0; i < list.size() && !changed.isEmpty(); i++) {
+            String id = list.get(i).getId();
+            present.add(id);
+            if (!changed.contains(id)) {
+                continue;
+            }
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                changes.add(new Storage.FileChange(i, 1, List.of()));
+            } else {
+                String content = entry.content != null ? entry.content : contentOf(list.get(i));
+                changes.add(new Storage.FileChange(i, 1, List.of(createTask(id, content, entry))));
+            }
+        }
+        List<Map.Entry<String, Entry>> added = new ArrayList<>();
+        for (String id : changed) {
+            Entry entry = entries.get(id);
+            if (!present.contains(id) && entry != null && entry.content != null) {
+                added.add(Map.entry(id, entry));
+            }
+        }
+        // Tasks from other devices are added in the order they were created in
+        added.sort(Comparator.comparing(entry -> entry.getValue().contentStamp));
+        List<Task> addedTasks = new ArrayList<>(added.size());
+        for (Map.Entry<String, Entry> entry : added) {
+            addedTasks.add(createTask(entry.getKey(), entry.getValue().content, entry.getValue()));
+        }
+        if (!addedTasks.isEmpty()) {
+            changes.add(new Storage.FileChange(list.size(), 0, addedTasks));
+        }
+        tasks.applyFileChanges(changes);
+        for (Entry entry : entries.values()) {
+            entry.content = null;
+        }
+        return changes.size() - (addedTasks.isEmpty() ? 0 : 1) + addedTasks.size();
+    }
+
+    private static Task createTask(String id, String content, Entry entry) throws TaskStorageException {
+        Task task = TextStorage.deserializeTask(content);
+        task.setId(id);
+        if (!entry.done.equals(NOT_DONE)) {
+            task.markDone(LocalDate.parse(entry.done));
+        }
+        entry.contentHash = hash(contentOf(task));
+        return task;
+    }
+
+    /**
+     * Gets everything about a task that is synced except whether it is done. Reminder state
+     * is left out too, since each device shows its own reminders.
+     */
+    private static String contentOf(Task task) {
+        Task copy;
+        try {
+            copy = TextStorage.deserializeTask(TextStorage.serializeTask(task));
+        } catch (TaskStorageException e) {
+            throw new IllegalStateException("Task cannot be copied: " + task, e);
+        }
+        copy.markUndone();
+        copy.setReminderState(EpochMinute.NONE, false);
+        copy.setId(null);
+        return TextStorage.serializeTask(copy);
+    }
+
+    private static String doneOf(Task task) {
+        return task.isDone() ? String.valueOf(task.getDoneDate()) : NOT_DONE;
+    }
+
+    private static long hash(String record) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < record.length(); i++) {
+            hash ^= record.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Reads the sync state saved by the last sync, or starts a new one with a random device
+     * identifier if the list has never been synced.
+     * Format: one line per setting, task part or tombstone, e.g.
+     * task ID CONTENT_STAMP CONTENT_HASH DONE_STAMP DONE
+     */
+    private void loadState() throws TaskStorageException {
+        entries.clear();
+        tombstones.clear();
+        seen.clear();
+        published = 0;
+        isFirstSync = !Files.exists(statePath);
+        if (isFirstSync) {
+            replica = Long.toHexString(new SecureRandom().nextLong() & Long.MAX_VALUE);
+            clock = new HybridClock(wallClock, 0);
+            return;
+        }
+        long last = 0;
+        try {
+            for (String line : Files.readAllLines(statePath, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ");
+                switch (parts[0]) {
+                case "replica" -> replica = parts[1];
+                case "clock" -> last = Long.parseUnsignedLong(parts[1], 16);
+                case "published" -> published = Long.parseUnsignedLong(parts[1], 16);
+                case "seen" -> seen.put(parts[1], Long.parseUnsignedLong(parts[2], 16));
+                case "task" -> {
+                    Entry entry = new Entry();
+                    entry.contentStamp = parts[2].equals(NOT_DONE) ? null : Stamp.parse(parts[2]);
+                    entry.contentHash = Long.parseUnsignedLong(parts[3], 16);
+                    entry.doneStamp = parts[4].equals(NOT_DONE) ? null : Stamp.parse(parts[4]);
+                    entry.done = parts[5];
+                    entries.put(parts[1], entry);
+                }
+                case "deleted" -> tombstones.put(parts[1], Stamp.parse(parts[2]));
+                default -> {
+                    // Settings written by newer versions are skipped
+                }
+                }
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error loading sync state: " + e.getMessage());
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new TaskStorageException("Invalid sync state: " + e.getMessage());
+        }
+        if (replica == null) {
+            throw new TaskStorageException("Invalid sync state: no device identifier");
+        }
+        clock = new HybridClock(wallClock, last);
+    }
+
+    /**
+     * Saves the sync state reached by the last sync.
+     *
+     * @throws TaskStorageException if the sync state cannot be written
+     */
+    public void save() throws TaskStorageException {
+        try (Writer writer = Files.newBufferedWriter(statePath, StandardCharsets.UTF_8)) {
+            writer.write("replica " + replica + "\n");
+            writer.write("clock " + Long.toHexString(clock.getLast()) + "\n");
+            writer.write("published " + Long.toHexString(published) + "\n");
+            for (Map.Entry<String, Long> entry : seen.entrySet()) {
+                writer.write("seen " + entry.getKey() + " " + Long.toHexString(entry.getValue()) + "\n");
+            }
+            for (Map.Entry<String, Entry> task : entries.entrySet()) {
+                Entry entry = task.getValue();
+                writer.write("task " + task.getKey() + " "
+                        + (entry.contentStamp == null ? NOT_DONE : entry.contentStamp) + " "
+                        + Long.toHexString(entry.contentHash) + " "
+                        + (entry.doneStamp == null ? NOT_DONE : entry.doneStamp) + " " + entry.done + "\n");
+            }
+            for (Map.Entry<String, Stamp> tombstone : tombstones.entrySet()) {
+                writer.write("deleted " + tombstone.getKey() + " " + tombstone.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error saving sync state: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package tringaa.sync;
+
+import java.util.List;
+import java.util.Map;
+
+import tringaa.exceptions.TaskStorageException;
+
+/**
+ * Carries deltas between the devices syncing a task list.
+ */
+public interface SyncTransport {
+
+    /**
+     * Sends the changes made on this device since its last sync to the other devices.
+     *
+     * @param delta The changes to send
+     * @throws TaskStorageException if the changes cannot be sent
+     */
+    void publish(Delta delta) throws TaskStorageException;
+
+    /**
+     * Receives the deltas of other devices that have not been seen yet.
+     *
+     * @param replica Identifier of this device, whose own deltas are skipped
+     * @param seen The latest delta time seen from each other device, which is its version vector entry
+     * @return The unseen deltas, in the order each device sent them
+     * @throws TaskStorageException if the deltas cannot be received
+     */
+    List<Delta> fetch(String replica, Map<String, Long> seen) throws TaskStorageException;
+}
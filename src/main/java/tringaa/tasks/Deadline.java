@@ -1,6 +1,7 @@
 package tringaa.tasks;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -9,22 +10,46 @@ import java.time.format.DateTimeFormatter;
  * It extends the basic Task class and adds deadline functionality.
  */
 public class Deadline extends Task {
-    protected boolean isDone;
-    private final LocalDate deadlineDate;
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    /** Length of a deadline given as a date only, in yyyy-MM-dd format */
+    private static final int DATE_LENGTH = 10;
+
+    private LocalDate deadlineDate;
+    /** The time of the deadline in epoch minutes, or {@link EpochMinute#NONE} for a date only */
+    private long dueMinute;
 
     /**
      * Creates a new Deadline task with the given description and deadline.
-     * The deadline can be specified either as a date only or as a date with time.
-     * Accepted formats are parsed through the Parser.parseDeadline method.
+     * The deadline can be specified either as a date only (yyyy-MM-dd) or as a date with
+     * time (yyyy-MM-dd HH:mm or yyyy-MM-ddTHH:mm).
      *
      * @param description The task description
      * @param deadline The deadline string to parse
-     * @throws IllegalArgumentException if the deadline format is invalid
+     * @throws java.time.format.DateTimeParseException if the deadline format is invalid
      */
     public Deadline(String description, String deadline) {
         super(description);
-        this.isDone = false;
-        this.deadlineDate = LocalDate.parse(deadline);
+        setDeadline(deadline);
+    }
+
+    /**
+     * Moves the deadline to another date, with or without a time of day.
+     *
+     * @param deadline The deadline in yyyy-MM-dd, yyyy-MM-dd HH:mm or yyyy-MM-ddTHH:mm format
+     * @throws java.time.format.DateTimeParseException if the deadline format is invalid
+     */
+    public void setDeadline(String deadline) {
+        String trimmed = deadline.trim();
+        if (trimmed.length() > DATE_LENGTH) {
+            LocalDateTime dateTime = LocalDateTime.parse(trimmed.replaceFirst("[T\\s]+", "T"));
+            this.deadlineDate = dateTime.toLocalDate();
+            this.dueMinute = EpochMinute.of(dateTime);
+        } else {
+            this.deadlineDate = LocalDate.parse(trimmed);
+            this.dueMinute = EpochMinute.NONE;
+        }
+        clearRendered();
     }
 
     /**
@@ -35,21 +60,47 @@ public class Deadline extends Task {
      * @return The formatted deadline string in either "MMM dd yyyy" or "MMM dd yyyy, HH:mm" format
      */
     public String getDeadline() {
-        if (deadlineDate != null) {
-            return deadlineDate.format(DateTimeFormatter.ofPattern("MMM dd yyyy"));
-        }
-        return "EMPTY DEADLINE";
+        String date = deadlineDate.format(DISPLAY_FORMAT);
+        return hasTime() ? date + ", " + getTime() : date;
+    }
+
+    /**
+     * Checks whether the deadline includes a time of day.
+     *
+     * @return True if the deadline has a time
+     */
+    public boolean hasTime() {
+        return dueMinute != EpochMinute.NONE;
+    }
+
+    /**
+     * Gets the time of day of the deadline.
+     *
+     * @return The time in HH:mm format, or null if the deadline is a date only
+     */
+    public String getTime() {
+        return hasTime() ? EpochMinute.toDateTime(dueMinute).format(TIME_FORMAT) : null;
+    }
+
+    @Override
+    public LocalDate getDate() {
+        return deadlineDate;
+    }
+
+    @Override
+    public long getDueMinute() {
+        return dueMinute;
     }
 
     /**
-     * Returns a string representation of the deadline task.
+     * Renders the deadline task.
      * Format: [D][X] description (by: deadline)
      * The X mark appears if the task is done.
      *
      * @return The formatted string representation of the deadline task
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + getDeadline() + ")";
+    protected String render() {
+        return "[D]" + super.render() + " (by: " + getDeadline() + ")";
     }
 }
@@ -0,0 +1,50 @@
+package tringaa.tasks;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of task descriptions that makes tasks with the same description share a single
+ * String. Lists often repeat descriptions such as "standup" or "weekly report" many times,
+ * and every task loaded from storage or parsed from a command would otherwise keep its own
+ * copy. Descriptions are held weakly, so a description is dropped from the pool once no
+ * task uses it.
+ *
+ * Mostly-ASCII descriptions are already stored one byte per character by the JVM's compact
+ * strings, so sharing the String is what removes the remaining per-copy cost.
+ */
+public final class DescriptionPool {
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<>();
+
+    private DescriptionPool() {
+    }
+
+    /**
+     * Gets the pooled copy of a description, adding it to the pool if it is not there yet.
+     *
+     * @param description The description to look up
+     * @return A String equal to the description that is shared with other tasks
+     */
+    public static synchronized String intern(String description) {
+        if (description == null) {
+            return null;
+        }
+        WeakReference<String> reference = POOL.get(description);
+        String pooled = reference == null ? null : reference.get();
+        if (pooled == null) {
+            pooled = description;
+            POOL.put(pooled, new WeakReference<>(pooled));
+        }
+        return pooled;
+    }
+
+    /**
+     * Gets the number of distinct descriptions currently in the pool.
+     *
+     * @return Number of pooled descriptions
+     */
+    public static synchronized int size() {
+        return POOL.size();
+    }
+}
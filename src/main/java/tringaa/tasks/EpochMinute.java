@@ -0,0 +1,62 @@
+package tringaa.tasks;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Converts between local date-times and epoch minutes, the number of minutes since
+ * 1970-01-01 00:00 on the wall clock. Times of day are kept in this form, so a task only
+ * needs a single long for them. Epoch minutes are independent of the time zone until they
+ * are turned into an instant to schedule something.
+ */
+public final class EpochMinute {
+    /** Marks a task without a time of day */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private EpochMinute() {
+    }
+
+    /**
+     * Converts a local date-time to epoch minutes, dropping seconds.
+     *
+     * @param dateTime The date-time to convert
+     * @return Minutes since 1970-01-01 00:00
+     */
+    public static long of(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts epoch minutes back to a local date-time.
+     *
+     * @param epochMinute Minutes since 1970-01-01 00:00
+     * @return The local date-time
+     */
+    public static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts epoch minutes to the instant they refer to in the given time zone.
+     *
+     * @param epochMinute Minutes since 1970-01-01 00:00 on the wall clock
+     * @param zone The time zone of the wall clock
+     * @return The instant
+     */
+    public static Instant toInstant(long epochMinute, ZoneId zone) {
+        return toDateTime(epochMinute).atZone(zone).toInstant();
+    }
+
+    /**
+     * Gets the epoch minute the wall clock shows at an instant.
+     *
+     * @param instant The instant
+     * @param zone The time zone of the wall clock
+     * @return Minutes since 1970-01-01 00:00 on the wall clock
+     */
+    public static long at(Instant instant, ZoneId zone) {
+        return of(LocalDateTime.ofInstant(instant, zone));
+    }
+}
@@ -1,13 +1,26 @@
 package tringaa.tasks;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents an Event task with a start and end time.
  * This class extends the base Task class to include temporal information.
  */
 public class Event extends Task {
-    protected boolean isDone;
-    private final String start;
-    private final String end;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, HH:mm");
+
+    private String start;
+    private String end;
+    /** The start date, or null if the start is not a date in MMM dd yyyy format */
+    private LocalDate startDate;
+    /** The end date, or null if the end is not a date in MMM dd yyyy format */
+    private LocalDate endDate;
+    /** The start time in epoch minutes, or {@link EpochMinute#NONE} if the start has no time */
+    private long startMinute;
 
     /**
      * Constructs a new Event with the specified description and time frame.
@@ -18,9 +31,51 @@ public class Event extends Task {
      */
     public Event(String description, String start, String end) {
         super(description);
+        setPeriod(start, end);
+    }
+
+    /**
+     * Moves the event to another start and end.
+     *
+     * @param start The new starting time/date of the event
+     * @param end The new ending time/date of the event
+     */
+    public void setPeriod(String start, String end) {
         this.start = start;
         this.end = end;
-        this.isDone = false;
+        this.startDate = parseDate(start);
+        this.endDate = parseDate(end);
+        LocalDateTime startDateTime = parseDateTime(start);
+        this.startMinute = startDateTime == null ? EpochMinute.NONE : EpochMinute.of(startDateTime);
+        clearRendered();
+    }
+
+    /** Parses a date in MMM dd yyyy format, with or without a time after it */
+    private static LocalDate parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        LocalDateTime dateTime = parseDateTime(date);
+        if (dateTime != null) {
+            return dateTime.toLocalDate();
+        }
+        try {
+            return LocalDate.parse(date, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Parses a date and time in MMM dd yyyy, HH:mm format */
+    private static LocalDateTime parseDateTime(String dateTime) {
+        if (dateTime == null || dateTime.indexOf(':') < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dateTime, DATE_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
     /**
@@ -41,14 +96,33 @@ public class Event extends Task {
         return this.end;
     }
 
+    @Override
+    public LocalDate getDate() {
+        return startDate;
+    }
+
+    @Override
+    public long getDueMinute() {
+        return startMinute;
+    }
+
+    /**
+     * Gets the end date of the event.
+     *
+     * @return The end date, or null if the end is not a date
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
     /**
-     * Returns a string representation of the Event.
+     * Renders the Event.
      * Prefixes the output with [E] to indicate this is an Event type task.
      *
      * @return A formatted string containing the event details
      */
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (from: " + start + " to: " + end + ")";
+    protected String render() {
+        return "[E]" + super.render() + " (from: " + start + " to: " + end + ")";
     }
 }
@@ -0,0 +1,164 @@
+package tringaa.tasks;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a task that repeats every week or every month.
+ * Only the rule is stored: the first occurrence and how often it repeats. Individual
+ * occurrences are generated on demand for a given time window, so a recurring task
+ * takes the same space no matter how many times it repeats.
+ * A recurring task either falls on a single day, like a deadline, or spans several
+ * days, like an event.
+ */
+public class Recurring extends Task {
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    /**
+     * How often a recurring task repeats.
+     */
+    public enum Frequency {
+        WEEKLY, MONTHLY
+    }
+
+    private final Frequency frequency;
+    private final LocalDate firstDate;
+    /** Number of extra days each occurrence spans after its start date */
+    private final long spanDays;
+
+    /**
+     * Creates a recurring task whose occurrences each fall on a single day.
+     *
+     * @param description The task description
+     * @param frequency How often the task repeats
+     * @param firstDate The date of the first occurrence
+     */
+    public Recurring(String description, Frequency frequency, LocalDate firstDate) {
+        this(description, frequency, firstDate, firstDate);
+    }
+
+    /**
+     * Creates a recurring task whose occurrences each span from a start date to an end date.
+     *
+     * @param description The task description
+     * @param frequency How often the task repeats
+     * @param firstDate The start date of the first occurrence
+     * @param firstEndDate The end date of the first occurrence
+     * @throws IllegalArgumentException if the end date is before the start date
+     */
+    public Recurring(String description, Frequency frequency, LocalDate firstDate, LocalDate firstEndDate) {
+        super(description);
+        if (firstEndDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        this.frequency = frequency;
+        this.firstDate = firstDate;
+        this.spanDays = ChronoUnit.DAYS.between(firstDate, firstEndDate);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    /**
+     * Gets the end date of the first occurrence.
+     *
+     * @return The end date, which is the same as the first date for single-day tasks
+     */
+    public LocalDate getFirstEndDate() {
+        return firstDate.plusDays(spanDays);
+    }
+
+    /**
+     * Gets the date of the first occurrence. Later occurrences are available through
+     * {@link #getOccurrences(LocalDate, LocalDate)}.
+     *
+     * @return The date of the first occurrence
+     */
+    @Override
+    public LocalDate getDate() {
+        return firstDate;
+    }
+
+    /**
+     * Generates the start dates of the occurrences that start within a time window.
+     * The first occurrence in the window is computed directly, so the cost depends only
+     * on the number of occurrences inside the window.
+     *
+     * @param from The first date of the window
+     * @param to The last date of the window
+     * @return The start dates of the occurrences in the window, in order
+     */
+    public List<LocalDate> getOccurrences(LocalDate from, LocalDate to) {
+        List<LocalDate> occurrences = new ArrayList<>();
+        long n = firstOccurrenceOnOrAfter(from);
+        for (LocalDate date = occurrence(n); !date.isAfter(to); date = occurrence(++n)) {
+            occurrences.add(date);
+        }
+        return occurrences;
+    }
+
+    /**
+     * Gets the start date of the first occurrence on or after the given date.
+     *
+     * @param date The earliest date to consider
+     * @return The start date of the next occurrence
+     */
+    public LocalDate getNextOccurrence(LocalDate date) {
+        return occurrence(firstOccurrenceOnOrAfter(date));
+    }
+
+    /**
+     * Describes a single occurrence of the task.
+     * Format: [R][X] description (on: date) or [R][X] description (from: start to: end)
+     *
+     * @param start The start date of the occurrence
+     * @return The formatted string representation of the occurrence
+     */
+    public String describeOccurrence(LocalDate start) {
+        String when = spanDays == 0
+                ? "(on: " + start.format(DISPLAY_FORMAT) + ")"
+                : "(from: " + start.format(DISPLAY_FORMAT) + " to: "
+                        + start.plusDays(spanDays).format(DISPLAY_FORMAT) + ")";
+        return "[R]" + super.render() + " " + when;
+    }
+
+    private LocalDate occurrence(long n) {
+        return frequency == Frequency.WEEKLY ? firstDate.plusWeeks(n) : firstDate.plusMonths(n);
+    }
+
+    private long firstOccurrenceOnOrAfter(LocalDate date) {
+        if (!date.isAfter(firstDate)) {
+            return 0;
+        }
+        long n = frequency == Frequency.WEEKLY
+                ? ChronoUnit.WEEKS.between(firstDate, date)
+                : ChronoUnit.MONTHS.between(firstDate, date);
+        while (occurrence(n).isBefore(date)) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Renders the recurring task.
+     * Format: [R][X] description (every week from: date [to: date])
+     *
+     * @return The formatted string representation of the recurring task
+     */
+    @Override
+    protected String render() {
+        String every = frequency == Frequency.WEEKLY ? "week" : "month";
+        String range = spanDays == 0
+                ? firstDate.format(DISPLAY_FORMAT)
+                : firstDate.format(DISPLAY_FORMAT) + " to: " + getFirstEndDate().format(DISPLAY_FORMAT);
+        return "[R]" + super.render() + " (every " + every + " from: " + range + ")";
+    }
+}
@@ -1,26 +1,66 @@
 package tringaa.tasks;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 /**
  * Abstract base class for all tasks in the task management system.
  * This class provides the core functionality that all tasks share,
  * such as description, completion status, and basic task operations.
  */
 public abstract class Task {
+    /** Marks a task that is reminded the default time before it is due */
+    public static final int DEFAULT_REMINDER = -1;
+
+    /**
+     * How important a task is.
+     */
+    public enum Priority {
+        HIGH, MEDIUM, LOW
+    }
+
     /** The description of the task */
     protected String description;
 
     /** The completion status of the task */
     protected boolean isDone;
 
+    /** The date the task was marked as done, or null if it is not done */
+    protected LocalDate doneDate;
+
+    /** The rendered line of the task, cached until the task is marked or unmarked */
+    private String rendered;
+
+    /** Minutes before the task is due that its reminder is shown, or {@link #DEFAULT_REMINDER} */
+    private int remindBefore = DEFAULT_REMINDER;
+
+    /** Minute the reminder of the task is due in, or {@link EpochMinute#NONE} if none was scheduled */
+    private long nextReminder = EpochMinute.NONE;
+
+    /** Whether the reminder due in {@link #nextReminder} has been shown */
+    private boolean isReminderFired;
+
+    /** The priority of the task, or null if it has none */
+    private Priority priority;
+
+    /** The tags of the task in lower case, without the leading # */
+    private List<String> tags = List.of();
+
+    /** The identifier shared by the copies of the task on synced devices, or null if it was never synced */
+    private String id;
+
     /**
      * Constructs a new Task with the given description.
-     * The task is initially marked as not done.
+     * The task is initially marked as not done. The description is shared through the
+     * {@link DescriptionPool} with other tasks that have the same description.
      *
      * @param description The description of the task
      */
     public Task(String description) {
         this.isDone = false;
-        this.description = description;
+        this.description = DescriptionPool.intern(description);
     }
 
     public String getStatusIcon() {
@@ -28,13 +68,88 @@ public abstract class Task {
     }
 
     public void markDone() {
+        markDone(LocalDate.now());
+    }
+
+    /**
+     * Marks the task as done on the given date. Used when restoring tasks from storage.
+     *
+     * @param doneDate The date the task was marked as done
+     */
+    public void markDone(LocalDate doneDate) {
         this.isDone = true;
+        this.doneDate = doneDate;
+        this.rendered = null;
+    }
+
+    /**
+     * Marks the task as not done. Used when a mark command is undone.
+     */
+    public void markUndone() {
+        this.isDone = false;
+        this.doneDate = null;
+        this.rendered = null;
     }
 
     public boolean isDone() {
         return this.isDone;
     }
 
+    public LocalDate getDoneDate() {
+        return this.doneDate;
+    }
+
+    /**
+     * Gets the date the task is due or starts on, used for sorting and filtering by date.
+     *
+     * @return The date of the task, or null if the task has no date
+     */
+    public LocalDate getDate() {
+        return null;
+    }
+
+    /**
+     * Gets the time the task is due or starts at, for tasks with a time of day.
+     *
+     * @return The time in epoch minutes, or {@link EpochMinute#NONE} if the task has no time
+     */
+    public long getDueMinute() {
+        return EpochMinute.NONE;
+    }
+
+    public int getRemindBefore() {
+        return remindBefore;
+    }
+
+    /**
+     * Sets how long before the task is due its reminder is shown.
+     *
+     * @param minutes Minutes before the task is due, or {@link #DEFAULT_REMINDER}
+     */
+    public void setRemindBefore(int minutes) {
+        this.remindBefore = minutes;
+    }
+
+    public long getNextReminder() {
+        return nextReminder;
+    }
+
+    public boolean isReminderFired() {
+        return isReminderFired;
+    }
+
+    /**
+     * Records when the reminder of the task is due and whether it has been shown, so that
+     * reminders survive a restart and missed ones can be shown once.
+     *
+     * @param epochMinute Minute the reminder is due in, or {@link EpochMinute#NONE}
+     * @param isFired Whether the reminder has been shown
+     */
+    public void setReminderState(long epochMinute, boolean isFired) {
+        this.nextReminder = epochMinute;
+        this.isReminderFired = isFired;
+    }
+
     /**
      * Gets the raw description of the task without any formatting or status indicators.
      * This method is primarily used for storage and data manipulation purposes.
@@ -45,8 +160,99 @@ public abstract class Task {
         return this.description;
     }
 
+    /**
+     * Changes the description of the task, sharing it through the {@link DescriptionPool}.
+     *
+     * @param description The new description
+     */
+    public void setDescription(String description) {
+        this.description = DescriptionPool.intern(description);
+        this.rendered = null;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the task.
+     *
+     * @param priority The priority, or null to clear it
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+        this.rendered = null;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Sets the tags of the task. Tags are kept in lower case and each tag only once.
+     *
+     * @param tags The tags without the leading #
+     */
+    public void setTags(Collection<String> tags) {
+        LinkedHashSet<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            normalized.add(tag.toLowerCase());
+        }
+        this.tags = List.copyOf(normalized);
+        this.rendered = null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the identifier that matches the task with its copies on other devices.
+     *
+     * @param id The identifier, or null if the task is not synced
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the line shown for the task in lists, followed by its priority and tags.
+     * The line is rendered once and reused until the task is changed, so listing many
+     * tasks does not format them again.
+     *
+     * @return The rendered line of the task
+     */
     @Override
-    public String toString() {
+    public final String toString() {
+        if (rendered == null) {
+            StringBuilder sb = new StringBuilder(render());
+            if (priority != null) {
+                sb.append(" (priority: ").append(priority.name().toLowerCase()).append(")");
+            }
+            for (String tag : tags) {
+                sb.append(" #").append(tag);
+            }
+            rendered = sb.toString();
+        }
+        return rendered;
+    }
+
+    /**
+     * Forgets the rendered line after a subclass changed a detail it shows, so that the
+     * line is rendered again the next time the task is shown.
+     */
+    protected void clearRendered() {
+        this.rendered = null;
+    }
+
+    /**
+     * Renders the status and description of the task. Subclasses add their type and
+     * details around this.
+     * Format: [X] description
+     *
+     * @return The rendered line of the task
+     */
+    protected String render() {
         return "[" + getStatusIcon() + "] " + description;
     }
 
@@ -0,0 +1,127 @@
+package tringaa.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.index.TaskQuery;
+import tringaa.tasks.Task;
+
+/**
+ * Reads and writes tasks as comma-separated values with the columns
+ * type,done,description,date,end,every. Fields containing commas, quotes or line breaks
+ * are quoted as described in RFC 4180.
+ */
+public class CsvCodec implements TaskCodec {
+    private static final String HEADER = "type,done,description,date,end,every";
+    private static final int COLUMN_COUNT = 6;
+
+    @Override
+    public Task read(BufferedReader reader) throws IOException, TaskStorageException {
+        List<String> fields;
+        do {
+            fields = readRecord(reader);
+            if (fields == null) {
+                return null;
+            }
+        } while ((fields.size() == 1 && fields.get(0).isBlank()) || fields.get(0).equalsIgnoreCase("type"));
+        while (fields.size() < COLUMN_COUNT) {
+            fields.add("");
+        }
+        return Records.createTask(fields.get(0).trim().toUpperCase(), Boolean.parseBoolean(fields.get(1).trim()),
+                fields.get(2), fields.get(3).trim(), fields.get(4).trim(), fields.get(5).trim());
+    }
+
+    @Override
+    public void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(Task task, Writer writer) throws IOException {
+        writer.write(TaskQuery.typeOf(task));
+        writer.write(task.isDone() ? ",true," : ",false,");
+        writeField(task.getDescription(), writer);
+        writer.write(',');
+        writer.write(Records.date(task));
+        writer.write(',');
+        writeField(Records.end(task), writer);
+        writer.write(',');
+        writer.write(Records.every(task));
+        writer.write('\n');
+    }
+
+    @Override
+    public void writeFooter(Writer writer) {
+    }
+
+    private static void writeField(String field, Writer writer) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length() && !needsQuotes; i++) {
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Reads the fields of the next record, which spans several lines if a quoted field
+     * contains line breaks.
+     *
+     * @return The fields, or null at the end of the input
+     */
+    private static List<String> readRecord(BufferedReader reader) throws IOException, TaskStorageException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!isQuoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new TaskStorageException("Unterminated quoted field");
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (isQuoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,300 @@
+package tringaa.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+
+/**
+ * Reads and writes tasks as an iCalendar file (RFC 5545). Todos and deadlines become
+ * VTODO components, with the deadline as DUE, while events and recurring tasks become
+ * VEVENT components, with an RRULE for recurring tasks. Dates are written as all-day
+ * values and times of day as floating local date-times. Event times that are not dates
+ * are kept in X-TRINGA-FROM and X-TRINGA-TO.
+ */
+public class IcsCodec implements TaskCodec {
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter ICS_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    /** Maximum length of a content line in octets, after which it is folded */
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final String timestamp = ZonedDateTime.now(ZoneOffset.UTC).format(ICS_TIMESTAMP);
+    private long written;
+
+    @Override
+    public Task read(BufferedReader reader) throws IOException, TaskStorageException {
+        String component = null;
+        Map<String, String> properties = new HashMap<>();
+        Map<String, String> parameters = new HashMap<>();
+        String line;
+        while ((line = readUnfolded(reader)) != null) {
+            if (component == null) {
+                if (line.equalsIgnoreCase("BEGIN:VTODO") || line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                    component = line.substring("BEGIN:".length()).toUpperCase();
+                }
+                continue;
+            }
+            if (line.equalsIgnoreCase("END:" + component)) {
+                return createTask(component, properties, parameters);
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String nameAndParameters = line.substring(0, colon);
+            int semicolon = nameAndParameters.indexOf(';');
+            String name = (semicolon < 0 ? nameAndParameters : nameAndParameters.substring(0, semicolon))
+                    .toUpperCase();
+            properties.put(name, line.substring(colon + 1));
+            parameters.put(name, semicolon < 0 ? "" : nameAndParameters.substring(semicolon + 1).toUpperCase());
+        }
+        if (component != null) {
+            throw new TaskStorageException("Unterminated " + component);
+        }
+        return null;
+    }
+
+    @Override
+    public void writeHeader(Writer writer) throws IOException {
+        writeLine("BEGIN:VCALENDAR", writer);
+        writeLine("VERSION:2.0", writer);
+        writeLine("PRODID:-//Tringa//Tringa Task List//EN", writer);
+    }
+
+    @Override
+    public void write(Task task, Writer writer) throws IOException {
+        boolean isEvent = task instanceof Event || task instanceof Recurring;
+        String component = isEvent ? "VEVENT" : "VTODO";
+        writeLine("BEGIN:" + component, writer);
+        writeLine("UID:" + timestamp + "-" + (++written) + "@tringa", writer);
+        writeLine("DTSTAMP:" + timestamp, writer);
+        writeLine("SUMMARY:" + escapeText(task.getDescription()), writer);
+        if (task instanceof Deadline deadline) {
+            if (deadline.hasTime()) {
+                writeLine("DUE:" + LocalDateTime.parse(Records.date(task)).format(ICS_DATE_TIME), writer);
+            } else {
+                writeLine("DUE;VALUE=DATE:" + deadline.getDate().format(ICS_DATE), writer);
+            }
+        } else if (task instanceof Event event) {
+            if (!writeEventDates(Records.date(task), Records.end(task), writer)) {
+                writeLine("X-TRINGA-FROM:" + escapeText(event.getStart()), writer);
+                writeLine("X-TRINGA-TO:" + escapeText(event.getEnd()), writer);
+            }
+        } else if (task instanceof Recurring recurring) {
+            writeEventDates(Records.date(task), Records.end(task), writer);
+            writeLine("RRULE:FREQ=" + recurring.getFrequency().name(), writer);
+        }
+        if (task.isDone()) {
+            writeLine(isEvent ? "X-TRINGA-DONE:TRUE" : "STATUS:COMPLETED", writer);
+        }
+        writeLine("END:" + component, writer);
+    }
+
+    @Override
+    public void writeFooter(Writer writer) throws IOException {
+        writeLine("END:VCALENDAR", writer);
+    }
+
+    private static Task createTask(String component, Map<String, String> properties,
+            Map<String, String> parameters) throws TaskStorageException {
+        String description = unescapeText(properties.get("SUMMARY"));
+        boolean isDone = "COMPLETED".equalsIgnoreCase(properties.get("STATUS"))
+                || "TRUE".equalsIgnoreCase(properties.get("X-TRINGA-DONE"));
+        String rule = properties.getOrDefault("RRULE", "").toUpperCase();
+        String every = rule.contains("FREQ=WEEKLY") ? "week" : rule.contains("FREQ=MONTHLY") ? "month" : null;
+
+        if (component.equals("VTODO")) {
+            String due = properties.get("DUE");
+            if (due == null) {
+                return Records.createTask("T", isDone, description, null, null, null);
+            }
+            if (every != null) {
+                return Records.createTask("R", isDone, description, parseDate(due), null, every);
+            }
+            return Records.createTask("D", isDone, description, parseDateTime(due, parameters.get("DUE")), null,
+                    null);
+        }
+        String start = properties.get("DTSTART");
+        if (start == null) {
+            throw new TaskStorageException("Missing DTSTART in VEVENT");
+        }
+        String startDate = parseDate(start);
+        String endDate = startDate;
+        if (properties.containsKey("DTEND")) {
+            endDate = parseDate(properties.get("DTEND"));
+            // The end of an all-day event is exclusive
+            if (parameters.get("DTEND").contains("VALUE=DATE") && !endDate.equals(startDate)) {
+                endDate = LocalDate.parse(endDate).minusDays(1).toString();
+            }
+        }
+        if (every != null) {
+            return Records.createTask("R", isDone, description, startDate, endDate, every);
+        }
+        if (properties.containsKey("X-TRINGA-FROM") && properties.containsKey("X-TRINGA-TO")) {
+            startDate = unescapeText(properties.get("X-TRINGA-FROM"));
+            endDate = unescapeText(properties.get("X-TRINGA-TO"));
+        } else if (properties.containsKey("DTEND")) {
+            String startTime = parseDateTime(start, parameters.get("DTSTART"));
+            String endTime = parseDateTime(properties.get("DTEND"), parameters.get("DTEND"));
+            if (startTime.indexOf('T') >= 0 && endTime.indexOf('T') >= 0) {
+                startDate = startTime;
+                endDate = endTime;
+            }
+        }
+        return Records.createTask("E", isDone, description, startDate, endDate, null);
+    }
+
+    /**
+     * Writes the start and end of an event as all-day dates, or as date-times if both have a time of day.
+     *
+     * @return False if the start or end is not a date, in which case today is written as a placeholder start
+     */
+    private static boolean writeEventDates(String start, String end, Writer writer) throws IOException {
+        if (start.indexOf('T') >= 0 && end.indexOf('T') >= 0) {
+            try {
+                LocalDateTime startTime = LocalDateTime.parse(start);
+                LocalDateTime endTime = LocalDateTime.parse(end);
+                writeLine("DTSTART:" + startTime.format(ICS_DATE_TIME), writer);
+                writeLine("DTEND:" + endTime.format(ICS_DATE_TIME), writer);
+                return true;
+            } catch (DateTimeParseException e) {
+                // Falls through to the placeholder below
+            }
+        }
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(start);
+            endDate = LocalDate.parse(end);
+        } catch (DateTimeParseException e) {
+            writeLine("DTSTART;VALUE=DATE:" + LocalDate.now().format(ICS_DATE), writer);
+            return false;
+        }
+        writeLine("DTSTART;VALUE=DATE:" + startDate.format(ICS_DATE), writer);
+        // The end of an all-day event is exclusive
+        writeLine("DTEND;VALUE=DATE:" + endDate.plusDays(1).format(ICS_DATE), writer);
+        return true;
+    }
+
+    /**
+     * Converts a DATE or DATE-TIME value to an ISO date-time to the minute, or an ISO date for DATE values.
+     * UTC times are converted to the local time zone.
+     */
+    private static String parseDateTime(String value, String parameters) throws TaskStorageException {
+        if (parameters.contains("VALUE=DATE") && !parameters.contains("VALUE=DATE-TIME") || value.length() < 15) {
+            return parseDate(value);
+        }
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(value.substring(0, 15), ICS_DATE_TIME);
+            if (value.endsWith("Z")) {
+                dateTime = dateTime.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault())
+                        .toLocalDateTime();
+            }
+            return dateTime.withSecond(0).toString();
+        } catch (DateTimeParseException e) {
+            throw new TaskStorageException("Invalid date: " + value);
+        }
+    }
+
+    /** Converts a DATE or DATE-TIME value to an ISO date, ignoring any time of day */
+    private static String parseDate(String value) throws TaskStorageException {
+        if (value.length() < 8) {
+            throw new TaskStorageException("Invalid date: " + value);
+        }
+        try {
+            return LocalDate.parse(value.substring(0, 8), ICS_DATE).toString();
+        } catch (DateTimeParseException e) {
+            throw new TaskStorageException("Invalid date: " + value);
+        }
+    }
+
+    /**
+     * Reads a content line, joining the lines it was folded over.
+     */
+    private static String readUnfolded(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        StringBuilder unfolded = null;
+        while (true) {
+            // Leaves room for the line feed of a CRLF line ending that the reader skips first
+            reader.mark(2);
+            int next = reader.read();
+            if (next != ' ' && next != '\t') {
+                if (next != -1) {
+                    reader.reset();
+                }
+                break;
+            }
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            String continuation = reader.readLine();
+            unfolded.append(continuation == null ? "" : continuation);
+        }
+        return unfolded == null ? line : unfolded.toString();
+    }
+
+    /**
+     * Writes a content line ending in CRLF, folding it so that no line is longer than
+     * {@link #MAX_LINE_OCTETS} octets in UTF-8.
+     */
+    private static void writeLine(String line, Writer writer) throws IOException {
+        int octets = 0;
+        int start = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int width = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+            if (Character.isLowSurrogate(c)) {
+                continue;
+            }
+            if (octets + width > MAX_LINE_OCTETS) {
+                writer.write(line, start, i - start);
+                writer.write("\r\n ");
+                start = i;
+                // The leading space of the continuation line counts towards its length
+                octets = 1;
+            }
+            octets += width;
+        }
+        writer.write(line, start, line.length() - start);
+        writer.write("\r\n");
+    }
+
+    private static String escapeText(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    private static String unescapeText(String text) {
+        if (text == null || text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                sb.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
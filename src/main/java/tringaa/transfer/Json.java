@@ -0,0 +1,169 @@
+package tringaa.transfer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the flat objects used by the NDJSON formats: objects whose
+ * values are strings, numbers, booleans or null, each on a single line.
+ */
+public final class Json {
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a quoted JSON string.
+     *
+     * @param value The string to append
+     * @param sb The buffer to append to
+     */
+    public static void appendQuoted(String value, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> sb.append("\\\"");
+            case '\\' -> sb.append("\\\\");
+            case '\n' -> sb.append("\\n");
+            case '\r' -> sb.append("\\r");
+            case '\t' -> sb.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Parses a flat JSON object. Strings are unescaped, and other values are kept as their
+     * literal text, e.g. true or 42. Null values are left out.
+     *
+     * @param text The object, e.g. {"type":"T","done":false}
+     * @return The values of the object by key
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String text) {
+        Map<String, String> values = new HashMap<>();
+        Cursor cursor = new Cursor(text);
+        cursor.expect('{');
+        if (cursor.peek() == '}') {
+            cursor.next();
+            cursor.expectEnd();
+            return values;
+        }
+        do {
+            String key = cursor.readString();
+            cursor.expect(':');
+            String value = cursor.peek() == '"' ? cursor.readString() : cursor.readLiteral();
+            if (value != null) {
+                values.put(key, value);
+            }
+        } while (cursor.accept(','));
+        cursor.expect('}');
+        cursor.expectEnd();
+        return values;
+    }
+
+    /**
+     * Reads through the text of a JSON object, skipping whitespace between tokens.
+     */
+    private static class Cursor {
+        private final String text;
+        private int position;
+
+        Cursor(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return text.charAt(position);
+        }
+
+        char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        void expect(char expected) {
+            if (next() != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at " + (position - 1));
+            }
+        }
+
+        boolean accept(char expected) {
+            if (peek() == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw new IllegalArgumentException("Unexpected text after JSON object");
+            }
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated JSON string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                }
+                default -> sb.append(escaped);
+                }
+            }
+        }
+
+        /** Reads a number, boolean or null, returning null for null */
+        String readLiteral() {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length() && ",}] \t".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Missing JSON value at " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package tringaa.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.index.TaskQuery;
+import tringaa.tasks.Task;
+
+/**
+ * Reads and writes tasks as newline-delimited JSON, one object per line, e.g.
+ * {"type":"D","done":false,"description":"submit report","date":"2026-11-02"}.
+ * Events and recurring tasks also have "end", and recurring tasks have "every".
+ */
+public class NdjsonCodec implements TaskCodec {
+
+    @Override
+    public Task read(BufferedReader reader) throws IOException, TaskStorageException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        Map<String, String> fields;
+        try {
+            fields = Json.parseObject(line);
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new TaskStorageException("Invalid JSON: " + e.getMessage());
+        }
+        return Records.createTask(fields.getOrDefault("type", "").toUpperCase(),
+                Boolean.parseBoolean(fields.get("done")), fields.get("description"), fields.get("date"),
+                fields.get("end"), fields.get("every"));
+    }
+
+    @Override
+    public void writeHeader(Writer writer) {
+    }
+
+    @Override
+    public void write(Task task, Writer writer) throws IOException {
+        StringBuilder sb = new StringBuilder(task.getDescription().length() + 96);
+        sb.append("{\"type\":\"").append(TaskQuery.typeOf(task))
+                .append("\",\"done\":").append(task.isDone())
+                .append(",\"description\":");
+        Json.appendQuoted(task.getDescription(), sb);
+        appendIfPresent("date", Records.date(task), sb);
+        appendIfPresent("end", Records.end(task), sb);
+        appendIfPresent("every", Records.every(task), sb);
+        writer.write(sb.append("}\n").toString());
+    }
+
+    @Override
+    public void writeFooter(Writer writer) {
+    }
+
+    private static void appendIfPresent(String key, String value, StringBuilder sb) {
+        if (!value.isEmpty()) {
+            sb.append(",\"").append(key).append("\":");
+            Json.appendQuoted(value, sb);
+        }
+    }
+}
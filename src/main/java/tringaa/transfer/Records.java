@@ -0,0 +1,148 @@
+package tringaa.transfer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+/**
+ * Maps the fields shared by every import format to and from tasks.
+ * All formats use ISO dates (yyyy-MM-dd), or ISO date-times (yyyy-MM-ddTHH:mm) for tasks
+ * with a time of day; event dates are converted to and from the MMM dd yyyy form that
+ * events are kept in.
+ */
+final class Records {
+    private static final DateTimeFormatter EVENT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter EVENT_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, HH:mm");
+
+    private Records() {
+    }
+
+    /**
+     * Creates a task from its fields.
+     *
+     * @param type T, D, E or R
+     * @param isDone Whether the task is done
+     * @param description The task description
+     * @param date The deadline, start date or first date, or null for todos
+     * @param end The end date of an event or recurring task, or null
+     * @param every week or month for recurring tasks, or null
+     * @return The task
+     * @throws TaskStorageException if a field is missing or invalid for the type
+     */
+    static Task createTask(String type, boolean isDone, String description, String date, String end,
+            String every) throws TaskStorageException {
+        if (description == null || description.isBlank()) {
+            throw new TaskStorageException("Missing description");
+        }
+        try {
+            Task task = switch (type) {
+            case "T" -> new ToDo(description);
+            case "D" -> new Deadline(description, require(date, "date"));
+            case "E" -> new Event(description, toEventDate(require(date, "date")),
+                    toEventDate(require(end, "end")));
+            case "R" -> new Recurring(description, parseFrequency(require(every, "every")),
+                    LocalDate.parse(require(date, "date")),
+                    end == null || end.isEmpty() ? LocalDate.parse(date) : LocalDate.parse(end));
+            default -> throw new TaskStorageException("Unknown task type: " + type);
+            };
+            if (isDone) {
+                task.markDone();
+            }
+            return task;
+        } catch (DateTimeParseException e) {
+            throw new TaskStorageException("Invalid date: " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            throw new TaskStorageException(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the date of a deadline, the start of an event or the first date of a recurring task.
+     *
+     * @return The date or date-time in ISO form, or an empty string for todos
+     */
+    static String date(Task task) {
+        if (task instanceof Deadline deadline) {
+            return deadline.hasTime() ? deadline.getDate() + "T" + deadline.getTime() : deadline.getDate().toString();
+        } else if (task instanceof Event event) {
+            return toIsoDate(event.getStart());
+        } else if (task instanceof Recurring recurring) {
+            return recurring.getFirstDate().toString();
+        }
+        return "";
+    }
+
+    /**
+     * Gets the end date of an event or of the first occurrence of a recurring task.
+     *
+     * @return The date or date-time in ISO form, or an empty string for other tasks
+     */
+    static String end(Task task) {
+        if (task instanceof Event event) {
+            return toIsoDate(event.getEnd());
+        } else if (task instanceof Recurring recurring) {
+            return recurring.getFirstEndDate().toString();
+        }
+        return "";
+    }
+
+    /**
+     * Gets how often a recurring task repeats.
+     *
+     * @return week or month for recurring tasks, or an empty string for other tasks
+     */
+    static String every(Task task) {
+        if (task instanceof Recurring recurring) {
+            return recurring.getFrequency() == Recurring.Frequency.WEEKLY ? "week" : "month";
+        }
+        return "";
+    }
+
+    private static Recurring.Frequency parseFrequency(String every) throws TaskStorageException {
+        if (every.equalsIgnoreCase("week")) {
+            return Recurring.Frequency.WEEKLY;
+        } else if (every.equalsIgnoreCase("month")) {
+            return Recurring.Frequency.MONTHLY;
+        }
+        throw new TaskStorageException("Invalid repeat interval: " + every);
+    }
+
+    private static String require(String value, String field) throws TaskStorageException {
+        if (value == null || value.isEmpty()) {
+            throw new TaskStorageException("Missing " + field);
+        }
+        return value;
+    }
+
+    /** Converts an ISO date or date-time to the form events are kept in, keeping other text as it is */
+    private static String toEventDate(String date) {
+        try {
+            if (date.indexOf('T') >= 0) {
+                return LocalDateTime.parse(date).format(EVENT_TIME_FORMAT);
+            }
+            return LocalDate.parse(date).format(EVENT_FORMAT);
+        } catch (DateTimeParseException e) {
+            return date;
+        }
+    }
+
+    /** Converts an event date to ISO form, keeping text that is not a date as it is */
+    private static String toIsoDate(String eventDate) {
+        try {
+            if (eventDate.indexOf(':') >= 0) {
+                return LocalDateTime.parse(eventDate, EVENT_TIME_FORMAT).toString();
+            }
+            return LocalDate.parse(eventDate, EVENT_FORMAT).toString();
+        } catch (DateTimeParseException e) {
+            return eventDate;
+        }
+    }
+}
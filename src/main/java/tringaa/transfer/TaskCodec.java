@@ -0,0 +1,50 @@
+package tringaa.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.Task;
+
+/**
+ * Converts tasks to and from a file format used for importing and exporting.
+ * Codecs read and write one task at a time, so files of any size pass through
+ * a fixed amount of memory.
+ */
+public interface TaskCodec {
+    /**
+     * Reads the next task from the input.
+     *
+     * @param reader The input, positioned at the next record
+     * @return The next task, or null at the end of the input
+     * @throws IOException if the input cannot be read
+     * @throws TaskStorageException if the record is not a valid task
+     */
+    Task read(BufferedReader reader) throws IOException, TaskStorageException;
+
+    /**
+     * Writes what comes before the first task, such as a header row.
+     *
+     * @param writer The output
+     * @throws IOException if the output cannot be written
+     */
+    void writeHeader(Writer writer) throws IOException;
+
+    /**
+     * Writes a single task.
+     *
+     * @param task The task to write
+     * @param writer The output
+     * @throws IOException if the output cannot be written
+     */
+    void write(Task task, Writer writer) throws IOException;
+
+    /**
+     * Writes what comes after the last task.
+     *
+     * @param writer The output
+     * @throws IOException if the output cannot be written
+     */
+    void writeFooter(Writer writer) throws IOException;
+}
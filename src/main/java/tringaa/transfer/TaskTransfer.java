@@ -0,0 +1,106 @@
+package tringaa.transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.Task;
+
+/**
+ * Imports and exports tasks, choosing the file format from the file extension:
+ * .csv for comma-separated values, .ndjson, .jsonl or .json for one JSON object per line
+ * and .ics for iCalendar. Files are streamed through fixed-size buffers one record at a time.
+ */
+public final class TaskTransfer {
+    /** Size of the read and write buffers in characters */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Gets the codec for the format of a file.
+     *
+     * @param path The file to import or export
+     * @return A new codec for the format of the file
+     * @throws InvalidCommandException if the file extension is not supported
+     */
+    public static TaskCodec codecFor(Path path) throws InvalidCommandException {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString().toLowerCase(Locale.ROOT);
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return switch (extension) {
+        case "csv" -> new CsvCodec();
+        case "ndjson", "jsonl", "json" -> new NdjsonCodec();
+        case "ics" -> new IcsCodec();
+        default -> throw new InvalidCommandException(
+                "Unsupported file type. Use a .csv, .ndjson, .jsonl, .json or .ics file.");
+        };
+    }
+
+    /**
+     * Reads every task in a file. Nothing is returned unless the whole file is valid,
+     * so a failed import never leaves part of a file behind.
+     *
+     * @param path The file to read
+     * @return The tasks in the file, in order
+     * @throws InvalidCommandException if the file extension is not supported
+     * @throws TaskStorageException if the file cannot be read or contains an invalid record
+     */
+    public static List<Task> importTasks(Path path) throws InvalidCommandException, TaskStorageException {
+        TaskCodec codec = codecFor(path);
+        List<Task> imported = new ArrayList<>();
+        try (LineNumberReader reader = new LineNumberReader(Files.newBufferedReader(path, StandardCharsets.UTF_8),
+                BUFFER_SIZE)) {
+            try {
+                Task task;
+                while ((task = codec.read(reader)) != null) {
+                    imported.add(task);
+                }
+            } catch (TaskStorageException e) {
+                // Drop the prefix of the original message so that it is not repeated
+                String reason = e.getMessage().substring(e.getMessage().indexOf(": ") + 2);
+                throw new TaskStorageException("Line " + reader.getLineNumber() + ": " + reason);
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error reading " + path + ": " + e.getMessage());
+        }
+        return imported;
+    }
+
+    /**
+     * Writes tasks to a file, replacing the file if it exists.
+     *
+     * @param tasks The tasks to write, in order
+     * @param path The file to write
+     * @throws InvalidCommandException if the file extension is not supported
+     * @throws TaskStorageException if the file cannot be written
+     */
+    public static void exportTasks(List<Task> tasks, Path path) throws InvalidCommandException, TaskStorageException {
+        TaskCodec codec = codecFor(path);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8),
+                    BUFFER_SIZE)) {
+                codec.writeHeader(writer);
+                for (Task task : tasks) {
+                    codec.write(task, writer);
+                }
+                codec.writeFooter(writer);
+            }
+        } catch (IOException e) {
+            throw new TaskStorageException("Error writing " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package tringaa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+/**
+ * Measures how long it takes to build the prefix index over 100,000 tasks, and how long each
+ * suggestion takes afterwards, against the 16 ms a frame lasts at 60 frames per second.
+ */
+public class AutocompleteBenchmark {
+    private static final int TASK_COUNT = 100_000;
+    private static final int QUERY_COUNT = 10_000;
+    private static final String[] WORDS = {"submit", "review", "report", "read", "return", "call", "plan", "pay",
+        "book", "team", "weekly", "standup", "rent", "flight", "notes"};
+    /** Inputs that are only completed */
+    private static final String[] INPUTS = {"de", "todo sub", "todo review rep", "deadline team w"};
+    /** Inputs that are completed and have their find previewed, which checks every description */
+    private static final String[] FIND_INPUTS = {"find r", "find team st", "find pa"};
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        List<Task> tasks = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(new ToDo(WORDS[i % WORDS.length] + " " + WORDS[i / WORDS.length % WORDS.length] + " " + i));
+        }
+        TaskList list = new TaskList(tasks);
+
+        long build = time(() -> list.completeWord("", 1));
+        long completions = time(() -> {
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                Autocomplete.suggest(INPUTS[i % INPUTS.length], list, 5, 5);
+            }
+        });
+        long previews = time(() -> {
+            for (String input : FIND_INPUTS) {
+                Autocomplete.suggest(input, list, 5, 5);
+            }
+        });
+
+        System.out.printf("Build: %d ms for %d tasks%n", build / 1_000_000, TASK_COUNT);
+        System.out.printf("Completion: %.1f us per input%n", completions / 1000.0 / QUERY_COUNT);
+        System.out.printf("Completion and find preview: %.1f ms per input%n", previews / 1e6 / FIND_INPUTS.length);
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+}
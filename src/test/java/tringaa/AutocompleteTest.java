@@ -0,0 +1,73 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class AutocompleteTest {
+
+    @Test
+    void testCommandWordsAndDescriptionsAreCompleted() {
+        // Arrange
+        TaskList tasks = list("submit report", "Submit timesheet", "gym");
+
+        // Act
+        Autocomplete.Suggestions command = Autocomplete.suggest("de", tasks, 5, 5);
+        Autocomplete.Suggestions description = Autocomplete.suggest("todo sub", tasks, 5, 5);
+        Autocomplete.Suggestions dates = Autocomplete.suggest("deadline submit /by", tasks, 5, 5);
+
+        // Assert
+        assertEquals(List.of("deadline ", "delete "), command.completions());
+        assertEquals(List.of("todo submit report", "todo Submit timesheet"), description.completions());
+        assertEquals(List.of(), dates.completions());
+        assertNull(description.preview());
+    }
+
+    @Test
+    void testFindCompletesTheLastWordAndPreviewsMatches() {
+        // Arrange
+        TaskList tasks = list("pay rent", "review report", "book flight", "return book");
+
+        // Act
+        Autocomplete.Suggestions suggestions = Autocomplete.suggest("find re", tasks, 5, 1);
+        Autocomplete.Suggestions secondWord = Autocomplete.suggest("find book f", tasks, 5, 1);
+
+        // Assert
+        assertEquals(List.of("find rent", "find report", "find return", "find review"), suggestions.completions());
+        assertEquals(List.of("find book flight"), secondWord.completions());
+        assertEquals("3 matching tasks:\n1.[T][ ] pay rent\n...", suggestions.preview());
+        assertNull(Autocomplete.suggest("find ~re", tasks, 5, 1).preview(), "Ranked finds are only run when sent");
+    }
+
+    @Test
+    void testSuggestionsFollowChangesToTheList() throws TringaException {
+        // Arrange
+        TaskList tasks = list("plan trip", "pack bags", "print tickets");
+        Autocomplete.suggest("find p", tasks, 5, 5);
+
+        // Act
+        tasks.deleteTask(1);
+        tasks.editTask(2, "post tickets", null, null, null, null);
+        tasks.addTask(new ToDo("pay deposit"));
+
+        // Assert
+        assertEquals(List.of("find pack", "find pay", "find post"),
+                Autocomplete.suggest("find p", tasks, 5, 5).completions());
+    }
+
+    private static TaskList list(String... descriptions) {
+        List<Task> tasks = new ArrayList<>();
+        for (String description : descriptions) {
+            tasks.add(new ToDo(description));
+        }
+        return new TaskList(tasks);
+    }
+}
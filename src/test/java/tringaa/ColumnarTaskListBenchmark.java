@@ -0,0 +1,109 @@
+package tringaa;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.index.TaskQuery;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+/**
+ * Compares the heap used and the time taken to scan for upcoming and done tasks
+ * between an ArrayList of tasks and a ColumnarTaskList, at one million tasks. The heap is
+ * measured for the list alone and again with the search, prefix, label and field indexes
+ * of a TaskList built over it, as they are once the list has been searched and filtered.
+ * Run with a fixed heap, e.g. java -Xmx2g, for comparable numbers.
+ */
+public class ColumnarTaskListBenchmark {
+    private static final int TASK_COUNT = 1_000_000;
+    private static final String[] DESCRIPTIONS = {"standup", "weekly report", "review PR", "gym", "pay rent"};
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args Unused
+     */
+    public static void main(String[] args) throws InvalidCommandException {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+
+        long baseline = usedHeap();
+        ArrayList<Task> objects = createTasks(today);
+        long objectHeap = usedHeap() - baseline;
+        long objectScan = time(() -> countUpcomingObjects(objects, today));
+        TaskList objectTasks = new TaskList(objects);
+        buildIndexes(objectTasks);
+        long objectIndexedHeap = usedHeap() - baseline;
+
+        ColumnarTaskList columnar = new ColumnarTaskList(objects);
+        objectTasks = null;
+        objects.clear();
+        objects.trimToSize();
+        long columnarHeap = usedHeap() - baseline;
+        long columnarScan = time(() -> columnar.selectUpcoming(today).cardinality());
+        TaskList columnarTasks = new TaskList(columnar);
+        buildIndexes(columnarTasks);
+        long columnarIndexedHeap = usedHeap() - baseline;
+
+        System.out.printf("ArrayList: %d bytes/task, %d bytes/task with indexes, upcoming scan %d ms%n",
+                objectHeap / TASK_COUNT, objectIndexedHeap / TASK_COUNT, objectScan / 1_000_000);
+        System.out.printf("Columnar:  %d bytes/task, %d bytes/task with indexes, upcoming scan %d ms%n",
+                columnarHeap / TASK_COUNT, columnarIndexedHeap / TASK_COUNT, columnarScan / 1_000_000);
+    }
+
+    /** Builds the indexes of a list by running a query that needs each of them */
+    private static void buildIndexes(TaskList tasks) throws InvalidCommandException {
+        tasks.findTasksRanked("report", TaskList.DEFAULT_SEARCH_LIMIT);
+        tasks.completeWord("re", 5);
+        tasks.listTasks(List.of("work"), null);
+        tasks.filterTasks(TaskQuery.compile("type:D done:false"));
+    }
+
+    private static ArrayList<Task> createTasks(LocalDate today) {
+        ArrayList<Task> tasks = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String description = DESCRIPTIONS[i % DESCRIPTIONS.length] + " " + (i % 1000);
+            Task task = i % 2 == 0
+                    ? new ToDo(description)
+                    : new Deadline(description, today.plusDays(i % 365 - 180).toString());
+            if (i % 3 == 0) {
+                task.markDone(today);
+            }
+            if (i % 4 == 0) {
+                task.setTags(List.of("work"));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static int countUpcomingObjects(List<Task> tasks, LocalDate today) {
+        int count = 0;
+        for (Task task : tasks) {
+            LocalDate date = task.getDate();
+            if (!task.isDone() && date != null && !date.isBefore(today)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long time(Runnable scan) {
+        scan.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            scan.run();
+        }
+        return (System.nanoTime() - start) / 10;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
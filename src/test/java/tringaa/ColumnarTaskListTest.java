@@ -0,0 +1,138 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class ColumnarTaskListTest {
+
+    @Test
+    void testTasksRoundTrip() {
+        // Arrange
+        Deadline deadline = new Deadline("submit report", "2026-11-02");
+        deadline.markDone(LocalDate.of(2026, 10, 1));
+
+        // Act
+        ColumnarTaskList tasks = new ColumnarTaskList(List.of(new ToDo("read book"), deadline));
+
+        // Assert
+        assertEquals(2, tasks.size());
+        assertEquals("[T][ ] read book", tasks.get(0).toString());
+        assertEquals(deadline.toString(), tasks.get(1).toString());
+        assertEquals(LocalDate.of(2026, 10, 1), tasks.get(1).getDoneDate());
+    }
+
+    @Test
+    void testInsertAndRemoveShiftDoneStatus() {
+        // Arrange
+        ColumnarTaskList tasks = new ColumnarTaskList();
+        Task done = new ToDo("done task");
+        done.markDone();
+        tasks.add(new ToDo("first"));
+        tasks.add(done);
+
+        // Act & Assert
+        tasks.add(0, new ToDo("inserted"));
+        assertTrue(tasks.isDone(2), "Done status should move with the task on insert");
+        tasks.remove(1);
+        assertTrue(tasks.isDone(1), "Done status should move with the task on remove");
+        assertFalse(tasks.isDone(0));
+    }
+
+    @Test
+    void testSetWritesBackChanges() {
+        // Arrange
+        ColumnarTaskList tasks = new ColumnarTaskList(List.of(new ToDo("read book")));
+        Task task = tasks.get(0);
+
+        // Act
+        task.markDone();
+        tasks.set(0, task);
+
+        // Assert
+        assertTrue(tasks.get(0).isDone());
+        assertEquals(1, tasks.selectDone().cardinality());
+    }
+
+    @Test
+    void testSelectUpcomingUsesDateColumn() {
+        // Arrange
+        ColumnarTaskList tasks = new ColumnarTaskList(List.of(
+                new Deadline("past", "2026-01-01"),
+                new ToDo("no date"),
+                new Deadline("future", "2026-12-01")));
+
+        // Act
+        BitSet upcoming = tasks.selectUpcoming(LocalDate.of(2026, 6, 1));
+
+        // Assert
+        assertEquals(1, upcoming.cardinality());
+        assertTrue(upcoming.get(2));
+    }
+
+    @Test
+    void testRecordsAreKeptWhileAnyTaskSharesThem() {
+        // Arrange
+        ColumnarTaskList tasks = new ColumnarTaskList();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new ToDo("standup"));
+        }
+        tasks.add(new ToDo("pay rent"));
+
+        // Act
+        tasks.remove(100);
+        for (int i = 99; i > 0; i--) {
+            tasks.set(i, i % 2 == 0 ? new ToDo("pay rent") : new ToDo("gym " + i));
+        }
+        tasks.subList(1, 99).clear();
+
+        // Assert
+        assertEquals(List.of("standup", "gym 99"), tasks.stream().map(Task::getDescription).toList());
+    }
+
+    @Test
+    void testManyEditsKeepRecordsIntact() {
+        // Arrange
+        ColumnarTaskList tasks = new ColumnarTaskList();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new ToDo("task " + (i % 10)));
+        }
+
+        // Act
+        tasks.subList(0, 900).clear();
+        for (int i = 0; i < 100; i++) {
+            tasks.set(i, new ToDo("renamed " + i));
+        }
+
+        // Assert
+        assertEquals(100, tasks.size());
+        assertEquals("renamed 42", tasks.get(42).getDescription());
+    }
+
+    @Test
+    void testTaskListMarksAndUndoesThroughColumnarList() throws TringaException {
+        // Arrange
+        ColumnarTaskList columnar = new ColumnarTaskList(List.of(new ToDo("read book"), new ToDo("buy book")));
+        TaskList tasks = new TaskList(columnar);
+
+        // Act & Assert
+        tasks.markTaskDone(2);
+        assertTrue(columnar.isDone(1), "Marking should be written back to the columnar list");
+        tasks.deleteTask(1);
+        tasks.undo();
+        tasks.undo();
+        assertEquals(2, columnar.size());
+        assertEquals(0, tasks.selectDone().cardinality());
+    }
+}
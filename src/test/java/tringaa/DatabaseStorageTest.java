@@ -0,0 +1,140 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class DatabaseStorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testChangesAreKeptWithoutSaving() throws TaskStorageException {
+        // Arrange
+        DatabaseStorage storage = new DatabaseStorage(tempDir, "tringa");
+        List<Task> tasks = storage.load();
+        tasks.addAll(List.of(new ToDo("a"), new ToDo("b"), new ToDo("c")));
+
+        // Act
+        Task task = tasks.get(1);
+        task.markDone();
+        tasks.set(1, task);
+        tasks.remove(0);
+        tasks.add(1, new ToDo("between"));
+        tasks.add(0, new ToDo("first"));
+        storage.close();
+        List<Task> reloaded = new DatabaseStorage(tempDir, "tringa").load();
+
+        // Assert
+        List<String> descriptions = new ArrayList<>();
+        for (Task reloadedTask : reloaded) {
+            descriptions.add(reloadedTask.getDescription());
+        }
+        assertEquals(List.of("first", "b", "between", "c"), descriptions);
+        assertTrue(reloaded.get(1).isDone());
+        assertTrue(DatabaseStorage.exists(tempDir, "tringa"));
+    }
+
+    @Test
+    void testDatabaseErrorsAreReportedAsCommandErrors() throws TringaException, TaskStorageException {
+        // Arrange
+        DatabaseStorage storage = new DatabaseStorage(tempDir, "tringa");
+        TaskList tasks = new TaskList(storage.load());
+        Parser.executeCommand("todo read book", tasks, storage);
+        storage.close();
+
+        // Act
+        TringaException e = assertThrows(TringaException.class, () ->
+                Parser.executeCommand("todo return book", tasks, storage));
+
+        // Assert
+        assertTrue(e.getMessage().contains("Database error"), e.getMessage());
+    }
+
+    @Test
+    void testCommandsSaveWithoutRewritingTheTable() throws TringaException, TaskStorageException {
+        // Arrange
+        List<Boolean> savedOwnList = new ArrayList<>();
+        DatabaseStorage storage = new DatabaseStorage(tempDir, "tringa") {
+            @Override
+            public void save(List<Task> tasks) throws TaskStorageException {
+                savedOwnList.add(tasks == load());
+                super.save(tasks);
+            }
+        };
+        TaskList tasks = new TaskList(storage.load());
+
+        // Act
+        Parser.executeCommand("todo read book", tasks, storage);
+        Parser.executeCommand("todo return book", tasks, storage);
+        Parser.executeCommand("mark 1", tasks, storage);
+        Parser.executeCommand("delete 2", tasks, storage);
+        storage.close();
+        List<Task> reloaded = new DatabaseStorage(tempDir, "tringa").load();
+
+        // Assert
+        assertEquals(List.of(true, true, true, true), savedOwnList,
+                "Every command should hand over the stored list, which is already saved");
+        assertEquals(1, reloaded.size());
+        assertTrue(reloaded.get(0).isDone());
+    }
+
+    @Test
+    void testQueriesSelectPositions() throws TaskStorageException {
+        // Arrange
+        DatabaseStorage storage = new DatabaseStorage(tempDir, "tringa");
+        storage.save(List.of(
+                new Deadline("past report", "2026-01-01"),
+                new ToDo("write 100%_done"),
+                new Deadline("future report", "2026-12-01")));
+        DatabaseTaskList tasks = (DatabaseTaskList) storage.load();
+
+        // Act
+        BitSet upcoming = tasks.selectUpcoming(LocalDate.of(2026, 6, 1));
+        BitSet reports = tasks.selectMatching("report");
+        BitSet escaped = tasks.selectMatching("%_");
+
+        // Assert
+        assertEquals(1, upcoming.cardinality());
+        assertTrue(upcoming.get(2));
+        assertEquals(2, reports.cardinality());
+        assertTrue(reports.get(0) && reports.get(2));
+        assertEquals(1, escaped.cardinality(), "Wildcards in the search term should match literally");
+        storage.close();
+    }
+
+    @Test
+    void testInsertingIntoTheSameGapRenumbers() throws TaskStorageException {
+        // Arrange
+        DatabaseStorage storage = new DatabaseStorage(tempDir, "tringa");
+        List<Task> tasks = storage.load();
+        tasks.addAll(List.of(new ToDo("start"), new ToDo("end")));
+
+        // Act
+        for (int i = 0; i < 40; i++) {
+            tasks.add(1, new ToDo("inserted " + i));
+        }
+
+        // Assert
+        assertEquals(42, tasks.size());
+        assertEquals("inserted 39", tasks.get(1).getDescription());
+        assertEquals("inserted 0", tasks.get(40).getDescription());
+        assertEquals("end", tasks.get(41).getDescription());
+        storage.close();
+    }
+}
@@ -3,11 +3,13 @@ package tringaa;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 
 import org.junit.jupiter.api.Test;
 
 import tringaa.tasks.Deadline;
+import tringaa.tasks.EpochMinute;
 
 class DeadlineTest {
     private Deadline deadline;
@@ -53,4 +55,33 @@ class DeadlineTest {
         // Assert
         assertEquals(expected, result, "Future dates should be formatted correctly");
     }
+
+    @Test
+    void testToStringUpdatesAfterMarkDone() {
+        // Arrange
+        deadline = new Deadline("Submit assignment", "2024-01-31");
+        String before = deadline.toString();
+
+        // Act
+        deadline.markDone();
+
+        // Assert
+        assertEquals("[D][ ] Submit assignment (by: Jan 31 2024)", before);
+        assertEquals("[D][X] Submit assignment (by: Jan 31 2024)", deadline.toString(),
+                "The cached line should be rendered again after marking");
+    }
+
+    @Test
+    void testConstructorWithTimeOfDay() {
+        // Arrange
+        deadline = new Deadline("Submit report", "2026-11-02 14:30");
+
+        // Act
+        String result = deadline.getDeadline();
+
+        // Assert
+        assertEquals("Nov 02 2026, 14:30", result, "A time should be shown after the date");
+        assertEquals("14:30", deadline.getTime());
+        assertEquals(EpochMinute.of(LocalDateTime.of(2026, 11, 2, 14, 30)), deadline.getDueMinute());
+    }
 }
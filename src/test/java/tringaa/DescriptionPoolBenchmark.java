@@ -0,0 +1,64 @@
+package tringaa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tringaa.tasks.DescriptionPool;
+
+/**
+ * Compares the heap retained by task descriptions with and without the DescriptionPool,
+ * on 500k descriptions shaped like a real list: a few hundred recurring descriptions
+ * such as "standup" make up most tasks, and the rest are unique.
+ * Run with a fixed heap, e.g. java -Xmx2g, for comparable numbers.
+ */
+public class DescriptionPoolBenchmark {
+    private static final int TASK_COUNT = 500_000;
+    private static final String[] COMMON = {"standup", "weekly report", "review PR", "gym", "pay rent",
+        "call mum", "team sync", "water plants", "backup laptop", "read book"};
+    /** One in this many descriptions is unique */
+    private static final int UNIQUE_EVERY = 10;
+
+    /**
+     * Runs the benchmark and prints the results.
+     *
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        long baseline = usedHeap();
+        List<String> copies = readDescriptions(false);
+        long copiesHeap = usedHeap() - baseline;
+        copies.clear();
+        copies = null;
+
+        baseline = usedHeap();
+        List<String> pooled = readDescriptions(true);
+        long pooledHeap = usedHeap() - baseline;
+
+        System.out.printf("Separate copies: %d bytes/task%n", copiesHeap / TASK_COUNT);
+        System.out.printf("Pooled:          %d bytes/task (%d tasks, %d distinct descriptions)%n",
+                pooledHeap / TASK_COUNT, pooled.size(), DescriptionPool.size());
+    }
+
+    /**
+     * Creates descriptions the way Storage.load does, as new Strings split out of each line.
+     */
+    private static List<String> readDescriptions(boolean isPooled) {
+        List<String> descriptions = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String line = i % UNIQUE_EVERY == 0
+                    ? "T | 0 | note " + i
+                    : "T | 0 | " + COMMON[i % COMMON.length] + " " + (i % 30);
+            String description = line.split(" \\| ")[2];
+            descriptions.add(isPooled ? DescriptionPool.intern(description) : description);
+        }
+        return descriptions;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
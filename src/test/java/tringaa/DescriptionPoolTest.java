@@ -0,0 +1,41 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.DescriptionPool;
+import tringaa.tasks.ToDo;
+
+class DescriptionPoolTest {
+
+    @Test
+    void testTasksWithSameDescriptionShareString() {
+        // Arrange
+        String first = new String("weekly report");
+        String second = new String("weekly report");
+
+        // Act
+        ToDo firstTask = new ToDo(first);
+        ToDo secondTask = new ToDo(second);
+
+        // Assert
+        assertSame(firstTask.getDescription(), secondTask.getDescription(),
+                "Equal descriptions should be stored once");
+    }
+
+    @Test
+    void testLoadedTasksSharePooledDescription() throws TaskStorageException {
+        // Arrange
+        ToDo created = new ToDo("standup");
+
+        // Act
+        String loaded = TextStorage.deserializeTask("T | 0 | standup").getDescription();
+
+        // Assert
+        assertSame(created.getDescription(), loaded);
+        assertEquals("standup", DescriptionPool.intern(new String("standup")));
+    }
+}
@@ -0,0 +1,94 @@
+package tringaa;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntFunction;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+/**
+ * Compares the time taken to create the dialog box of a message by loading the FXML layout
+ * dialog boxes used to be loaded from against building it in code with the shared pictures.
+ * Needs a JavaFX toolkit. {@code gradlew dialogBoxBenchmark} runs it without a display on the
+ * Monocle glass platform, with -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw.
+ */
+public class DialogBoxBenchmark {
+    private static final int MESSAGE_COUNT = 5_000;
+    /** The layout dialog boxes were loaded from for every message */
+    private static final String FXML_LAYOUT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <?import javafx.geometry.Insets?>
+            <?import javafx.scene.control.Label?>
+            <?import javafx.scene.image.ImageView?>
+            <?import javafx.scene.layout.HBox?>
+            <fx:root alignment="TOP_RIGHT" maxHeight="1.7976931348623157E308"
+                     maxWidth="1.7976931348623157E308" prefWidth="400.0" type="javafx.scene.layout.HBox"
+                     xmlns="http://javafx.com/javafx/17" xmlns:fx="http://javafx.com/fxml/1">
+                <children>
+                    <Label fx:id="dialog" text="Label" wrapText="true" minHeight="-Infinity"/>
+                    <ImageView fx:id="displayPicture" fitHeight="99.0" fitWidth="99.0" pickOnBounds="true"
+                               preserveRatio="true"/>
+                </children>
+                <padding>
+                    <Insets bottom="15.0" left="5.0" right="5.0" top="15.0"/>
+                </padding>
+            </fx:root>
+            """;
+
+    /**
+     * Runs the benchmark on the JavaFX application thread and prints the results.
+     *
+     * @param args Unused
+     * @throws InterruptedException if interrupted while waiting for the benchmark to finish
+     */
+    public static void main(String[] args) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        Platform.startup(() -> {
+            Image picture = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/cinna.png"));
+            long loaded = time(i -> loadFromFxml("message " + i, picture));
+            long built = time(i -> DialogBox.getUserDialog("message " + i));
+            System.out.printf("FXML layout: %d us/message%n", loaded / 1000);
+            System.out.printf("Built:       %d us/message%n", built / 1000);
+            finished.countDown();
+        });
+        finished.await();
+        Platform.exit();
+    }
+
+    private static HBox loadFromFxml(String text, Image picture) {
+        try {
+            HBox root = new HBox();
+            FXMLLoader loader = new FXMLLoader();
+            loader.setRoot(root);
+            loader.load(new ByteArrayInputStream(FXML_LAYOUT.getBytes(StandardCharsets.UTF_8)));
+            Label dialog = (Label) loader.getNamespace().get("dialog");
+            dialog.setText(text);
+            ImageView displayPicture = (ImageView) loader.getNamespace().get("displayPicture");
+            displayPicture.setImage(picture);
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Gets the average time taken to create a dialog box, after a warm-up run */
+    private static long time(IntFunction<Node> create) {
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            create.apply(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            create.apply(i);
+        }
+        return (System.nanoTime() - start) / MESSAGE_COUNT;
+    }
+}
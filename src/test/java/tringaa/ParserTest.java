@@ -0,0 +1,126 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Task;
+
+class ParserTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskList tasks;
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() throws TaskStorageException {
+        storage = new TextStorage(tempDir, "tringa");
+        tasks = new TaskList(storage.load());
+    }
+
+    @Test
+    void testTagsAndPriorityAreTakenOutOfTodo() throws TringaException, TaskStorageException {
+        // Act
+        Parser.executeCommand("todo write report #Q4 #work /priority high", tasks, storage);
+
+        // Assert
+        Task task = tasks.getTasks().get(0);
+        assertEquals("write report", task.getDescription());
+        assertEquals(List.of("q4", "work"), task.getTags());
+        assertEquals(Task.Priority.HIGH, task.getPriority());
+        assertEquals(task.toString(), new TextStorage(tempDir, "tringa").load().get(0).toString(),
+                "The labels should be saved with the task");
+    }
+
+    @Test
+    void testTagsAreTakenOutOfDatedTasks() throws TringaException {
+        // Act
+        Parser.executeCommand("deadline submit essay #school /by 2030-11-02", tasks, storage);
+        Parser.executeCommand("event workshop #work /from 2030-11-02 /to 2030-11-03 /priority low", tasks, storage);
+        Parser.executeCommand("recur team meeting #work /every week /by 2030-11-04", tasks, storage);
+
+        // Assert
+        assertEquals("submit essay", tasks.getTasks().get(0).getDescription());
+        assertEquals(LocalDate.of(2030, 11, 2), tasks.getTasks().get(0).getDate());
+        assertEquals(List.of("school"), tasks.getTasks().get(0).getTags());
+        assertEquals("workshop", tasks.getTasks().get(1).getDescription());
+        assertEquals(Task.Priority.LOW, tasks.getTasks().get(1).getPriority());
+        assertEquals("team meeting", tasks.getTasks().get(2).getDescription());
+        assertEquals(List.of("work"), tasks.getTasks().get(2).getTags());
+    }
+
+    @Test
+    void testEveryHashWordIsTakenAsATag() throws TringaException {
+        // Act
+        Parser.executeCommand("todo fix issue #42", tasks, storage);
+        Parser.executeCommand("todo reply to mail#1", tasks, storage);
+
+        // Assert
+        assertEquals("fix issue", tasks.getTasks().get(0).getDescription());
+        assertEquals(List.of("42"), tasks.getTasks().get(0).getTags());
+        assertEquals("reply to mail#1", tasks.getTasks().get(1).getDescription(),
+                "A # inside a word does not start a tag");
+        assertTrue(tasks.getTasks().get(1).getTags().isEmpty());
+    }
+
+    @Test
+    void testFindAndListOnlyShowTasksWithEveryLabel() throws TringaException {
+        // Arrange
+        Parser.executeCommand("todo write report #q4 /priority high", tasks, storage);
+        Parser.executeCommand("todo read report #q4", tasks, storage);
+        Parser.executeCommand("todo write essay", tasks, storage);
+
+        // Act
+        String found = Parser.executeCommand("find report #q4 /priority high", tasks, storage);
+        String listed = Parser.executeCommand("list #q4", tasks, storage);
+
+        // Assert
+        assertTrue(found.contains("write report"), found);
+        assertFalse(found.contains("read report"), found);
+        assertTrue(listed.contains("write report") && listed.contains("read report"), listed);
+        assertFalse(listed.contains("write essay"), listed);
+    }
+
+    @Test
+    void testInvalidPriorityIsRejected() {
+        // Act & Assert
+        assertThrows(InvalidCommandException.class, () ->
+                Parser.executeCommand("todo write report /priority urgent", tasks, storage));
+        assertThrows(InvalidCommandException.class, () ->
+                Parser.executeCommand("find report /priority", tasks, storage));
+        assertEquals(0, tasks.size());
+    }
+
+    @Test
+    void testEditTakesTagsOutOfTheNewDescription() throws TringaException {
+        // Arrange
+        Parser.executeCommand("todo write report #q4 /priority high", tasks, storage);
+
+        // Act
+        Parser.executeCommand("edit 1 /desc write summary #q1", tasks, storage);
+        String listed = Parser.executeCommand("list #q1", tasks, storage);
+        Parser.executeCommand("edit 1 /desc #done-soon", tasks, storage);
+
+        // Assert
+        assertTrue(listed.contains("write summary"), "The label index should see the new tag");
+        Task task = tasks.getTask(1);
+        assertEquals("write summary", task.getDescription(), "A description of only tags keeps the old one");
+        assertEquals(List.of("done-soon"), task.getTags());
+        assertEquals(Task.Priority.HIGH, task.getPriority());
+        Parser.executeCommand("undo", tasks, storage);
+        assertEquals(List.of("q1"), tasks.getTask(1).getTags());
+    }
+}
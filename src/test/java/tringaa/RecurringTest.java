@@ -0,0 +1,51 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Recurring;
+
+class RecurringTest {
+
+    @Test
+    void testWeeklyOccurrencesWithinWindow() {
+        // Arrange
+        Recurring recurring = new Recurring("standup", Recurring.Frequency.WEEKLY, LocalDate.of(2024, 1, 1));
+
+        // Act
+        List<LocalDate> result = recurring.getOccurrences(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 20));
+
+        // Assert
+        assertEquals(List.of(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 11), LocalDate.of(2024, 3, 18)),
+                result, "Only occurrences inside the window should be generated");
+    }
+
+    @Test
+    void testMonthlyOccurrencesClampToEndOfMonth() {
+        // Arrange
+        Recurring recurring = new Recurring("rent", Recurring.Frequency.MONTHLY, LocalDate.of(2024, 1, 31));
+
+        // Act
+        List<LocalDate> result = recurring.getOccurrences(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31));
+
+        // Assert
+        assertEquals(List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31)), result,
+                "Monthly occurrences should keep the original day where the month allows it");
+    }
+
+    @Test
+    void testNoOccurrencesBeforeFirstDate() {
+        // Arrange
+        Recurring recurring = new Recurring("standup", Recurring.Frequency.WEEKLY, LocalDate.of(2024, 6, 1));
+
+        // Act
+        LocalDate result = recurring.getNextOccurrence(LocalDate.of(2024, 1, 1));
+
+        // Assert
+        assertEquals(LocalDate.of(2024, 6, 1), result, "First occurrence should be the first date");
+    }
+}
@@ -0,0 +1,204 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Deadline;
+import tringaa.tasks.EpochMinute;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class ReminderSchedulerTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-11-02T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void testRemindersDueInTheSameMinuteAreDeliveredTogether() throws InterruptedException {
+        // Arrange
+        List<List<Task>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1000);
+        // The timer thread waits at the gate, so the whole burst is scheduled before it can fire
+        CountDownLatch gate = new CountDownLatch(1);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        executor.execute(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long minute = EpochMinute.at(CLOCK.instant(), CLOCK.getZone());
+        try (ReminderScheduler scheduler = new ReminderScheduler(tasks -> {
+            batches.add(tasks);
+            tasks.forEach(task -> delivered.countDown());
+        }, CLOCK, executor)) {
+            // Act
+            for (int i = 0; i < 1000; i++) {
+                scheduler.schedule(new ToDo("task " + i), minute);
+            }
+            gate.countDown();
+
+            // Assert
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(1, batches.size(), "A burst in one minute should be a single delivery");
+            assertEquals(1000, batches.get(0).size());
+            assertEquals(0, scheduler.pendingCount());
+        }
+    }
+
+    @Test
+    void testReminderMinuteUsesTaskOffset() {
+        // Arrange
+        Deadline deadline = new Deadline("report", "2026-11-02 14:30");
+        Deadline dateOnly = new Deadline("essay", "2026-11-04");
+        long now = EpochMinute.at(CLOCK.instant(), CLOCK.getZone());
+
+        // Act
+        deadline.setRemindBefore(15);
+
+        // Assert
+        assertEquals(EpochMinute.of(LocalDateTime.of(2026, 11, 2, 14, 15)),
+                ReminderScheduler.reminderMinute(deadline, now));
+        assertEquals(EpochMinute.of(LocalDateTime.of(2026, 11, 3, 9, 0)),
+                ReminderScheduler.reminderMinute(dateOnly, now),
+                "A date without a time should be reminded at 9 AM the day before");
+        assertEquals(EpochMinute.NONE, ReminderScheduler.reminderMinute(new ToDo("read"), now));
+    }
+
+    @Test
+    void testPassedRemindersAreNotScheduled() {
+        // Arrange
+        Deadline deadline = new Deadline("report", "2026-11-02 12:30");
+        deadline.setRemindBefore(60);
+
+        try (ReminderScheduler scheduler = new ReminderScheduler(tasks -> { }, CLOCK)) {
+            // Act
+            boolean scheduled = scheduler.schedule(deadline);
+
+            // Assert
+            assertFalse(scheduled);
+            assertEquals(0, scheduler.pendingCount());
+        }
+    }
+
+    @Test
+    void testRescheduledTaskMovesToItsNewMinute() {
+        // Arrange
+        Deadline deadline = new Deadline("report", "2026-11-05 10:00");
+        deadline.setRemindBefore(60);
+        long now = EpochMinute.at(CLOCK.instant(), CLOCK.getZone());
+
+        try (ReminderScheduler scheduler = new ReminderScheduler(tasks -> { }, CLOCK)) {
+            scheduler.schedule(deadline);
+
+            // Act
+            deadline.setDeadline("2026-11-09 10:00");
+            boolean scheduled = scheduler.reschedule(deadline);
+
+            // Assert
+            assertTrue(scheduled);
+            assertEquals(1, scheduler.pendingCount(), "The reminder at the old minute should be dropped");
+            assertEquals(ReminderScheduler.reminderMinute(deadline, now), deadline.getNextReminder());
+        }
+    }
+
+    @Test
+    void testCancelledRemindersAreDroppedByIdentity() {
+        // Arrange
+        Deadline replaced = new Deadline("report", "2026-11-05 10:00");
+        Deadline copy = new Deadline("report", "2026-11-05 10:00");
+        Deadline other = new Deadline("essay", "2026-11-09 10:00");
+        Set<Task> cancelled = Collections.newSetFromMap(new IdentityHashMap<>());
+        cancelled.add(replaced);
+
+        try (ReminderScheduler scheduler = new ReminderScheduler(tasks -> { }, CLOCK)) {
+            scheduler.schedule(replaced);
+            scheduler.schedule(copy);
+            scheduler.schedule(other);
+
+            // Act
+            int count = scheduler.cancel(cancelled);
+
+            // Assert
+            assertEquals(1, count, "An equal task that was not cancelled should stay scheduled");
+            assertEquals(2, scheduler.pendingCount());
+        }
+    }
+
+    @Test
+    void testMissedRemindersAreRestoredAsOneBatch() throws InterruptedException {
+        // Arrange
+        List<List<Task>> batches = new ArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        long now = EpochMinute.at(Instant.now(), ZoneOffset.UTC);
+        Task missed = new ToDo("missed");
+        missed.setReminderState(now - 60, false);
+        Task alsoMissed = new ToDo("also missed");
+        alsoMissed.setReminderState(now - 5, false);
+        Task shown = new ToDo("shown");
+        shown.setReminderState(now - 30, true);
+        Task later = new ToDo("later");
+        later.setReminderState(now + 60, false);
+
+        try (ReminderScheduler scheduler = new ReminderScheduler(tasks -> {
+            batches.add(tasks);
+            delivered.countDown();
+        }, Clock.systemUTC())) {
+            // Act
+            int missedCount = scheduler.restore(List.of(missed, shown, later, alsoMissed));
+
+            // Assert
+            assertEquals(2, missedCount);
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(missed, alsoMissed)), batches,
+                    "Missed reminders should be shown once, together");
+            assertTrue(missed.isReminderFired());
+            assertEquals(1, scheduler.pendingCount(), "The later reminder should still be scheduled");
+            assertFalse(later.isReminderFired());
+        }
+    }
+
+    @Test
+    void testTasksAreOnlyMarkedAsRemindedUnderTheTaskLock() throws InterruptedException {
+        // Arrange
+        Object lock = new Object();
+        CountDownLatch delivered = new CountDownLatch(1);
+        Task task = new ToDo("report");
+        long minute = EpochMinute.at(CLOCK.instant(), CLOCK.getZone());
+        boolean isFiredWhileLocked;
+
+        try (ReminderScheduler scheduler = new ReminderScheduler(tasks -> delivered.countDown(), CLOCK)) {
+            scheduler.setTaskLock(lock);
+
+            // Act
+            synchronized (lock) {
+                scheduler.schedule(task, minute);
+                // Give the timer time to fire, which it can only do once the lock is released
+                Thread.sleep(200);
+                isFiredWhileLocked = task.isReminderFired();
+            }
+
+            // Assert
+            assertFalse(isFiredWhileLocked, "The timer should wait for the lock on the tasks");
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertTrue(task.isReminderFired());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class StorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReloadReturnsOnlyChangedRecords() throws TaskStorageException, IOException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        storage.save(List.of(new ToDo("a"), new ToDo("b"), new ToDo("c"), new ToDo("d")));
+        Path file = tempDir.resolve("tringa.txt");
+        Files.writeString(file, "T | 0 | a\nT | 0 | b edited\nT | 0 | c\nT | 0 | d\nT | 0 | e\n",
+                StandardCharsets.UTF_8);
+
+        // Act
+        List<Storage.FileChange> changes = storage.reload();
+
+        // Assert
+        assertEquals(1, changes.size(), "Unchanged records at the start and end should be skipped");
+        assertEquals(1, changes.get(0).position());
+        assertEquals(3, changes.get(0).removed());
+        assertEquals(4, changes.get(0).inserted().size());
+        assertTrue(storage.reload().isEmpty(), "A second reload should find nothing new");
+    }
+
+    @Test
+    void testSaveRefusesToOverwriteExternalChanges() throws TaskStorageException, IOException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        storage.save(List.of(new ToDo("a")));
+        Files.writeString(tempDir.resolve("tringa.txt"), "T | 0 | edited by hand\n", StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertThrows(TaskStorageException.class, () -> storage.save(List.of(new ToDo("a"), new ToDo("b"))));
+        assertTrue(storage.hasConflict());
+        assertEquals("T | 0 | edited by hand\n", Files.readString(tempDir.resolve("tringa.txt")));
+    }
+
+    @Test
+    void testFileChangesAreAppliedToTaskList() throws TaskStorageException, IOException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        storage.save(List.of(new ToDo("read book"), new ToDo("return book")));
+        TaskList tasks = new TaskList(new ArrayList<>(storage.load()));
+        tasks.findTasksRanked("book", 5);
+        Files.writeString(tempDir.resolve("tringa.txt"), "T | 0 | read book\nT | 0 | buy pen\n",
+                StandardCharsets.UTF_8);
+
+        // Act
+        tasks.applyFileChanges(storage.reload());
+
+        // Assert
+        assertEquals("buy pen", tasks.getTasks().get(1).getDescription());
+        assertTrue(tasks.findTasksRanked("pen", 5).contains("buy pen"), "The search index should see the new task");
+    }
+
+    @Test
+    void testDoneDateIsSaved() throws TaskStorageException {
+        // Arrange
+        Task task = new ToDo("pay rent");
+        task.markDone(LocalDate.of(2026, 10, 1));
+
+        // Act
+        String record = TextStorage.serializeTask(task);
+        Task loaded = TextStorage.deserializeTask(record);
+
+        // Assert
+        assertEquals("T | 1 | pay rent | done=2026-10-01", record);
+        assertEquals(LocalDate.of(2026, 10, 1), loaded.getDoneDate());
+        assertTrue(TextStorage.deserializeTask("T | 1 | pay rent").getDoneDate() != null,
+                "Tasks saved before done dates were kept should count as done from now on");
+    }
+
+    @Test
+    void testArchiveMovesOnlyOldDoneTasks() throws TaskStorageException, TringaException, IOException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        TaskList tasks = new TaskList(new ArrayList<>(storage.load()));
+        tasks.addTask(done("old", 2026, 9, 1));
+        tasks.addTask(new ToDo("open"));
+        tasks.addTask(done("recent", 2026, 10, 15));
+
+        // Act
+        List<Task> archived = tasks.archiveDoneTasks(LocalDate.of(2026, 10, 10), storage);
+        List<Task> nothing = tasks.archiveDoneTasks(LocalDate.of(2026, 10, 10), storage);
+
+        // Assert
+        assertEquals(List.of("old"), archived.stream().map(Task::getDescription).toList());
+        assertTrue(nothing.isEmpty());
+        assertEquals(List.of("T | 0 | open", "T | 1 | recent | done=2026-10-15"),
+                Files.readAllLines(tempDir.resolve("tringa.txt")));
+        assertEquals("old", storage.findInArchive("").get(0).getDescription());
+        assertEquals(1, storage.findInArchive("").size(), "Archiving nothing should not write to the archive");
+    }
+
+    @Test
+    void testNothingIsArchivedWhenTheListCannotBeSaved()
+            throws TaskStorageException, TringaException, IOException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        TaskList tasks = new TaskList(new ArrayList<>(storage.load()));
+        tasks.addTask(done("old", 2026, 9, 1));
+        storage.save(tasks.getTasks());
+        Files.writeString(tempDir.resolve("tringa.txt"), "T | 0 | edited by hand\n", StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertThrows(TaskStorageException.class, () -> tasks.archiveDoneTasks(LocalDate.of(2026, 10, 10), storage));
+        assertFalse(Files.exists(tempDir.resolve("tringa.archive.gz")),
+                "The archive should only be written once the list without the tasks is saved");
+    }
+
+    @Test
+    void testTimesAndReminderOffsetsAreSaved() throws TaskStorageException, IOException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        Deadline deadline = new Deadline("report", "2026-11-02 14:30");
+        deadline.setRemindBefore(15);
+
+        // Act
+        storage.save(List.of(deadline, new Deadline("essay", "2026-11-03")));
+        List<Task> loaded = new TextStorage(tempDir, "tringa").load();
+
+        // Assert
+        assertEquals("D | 0 | report | Nov 02 2026 | at=14:30 | remind=15",
+                Files.readAllLines(tempDir.resolve("tringa.txt")).get(0),
+                "The time and offset should be kept as attributes that older versions skip");
+        assertEquals(deadline.toString(), loaded.get(0).toString());
+        assertEquals(15, loaded.get(0).getRemindBefore());
+        assertEquals(Task.DEFAULT_REMINDER, loaded.get(1).getRemindBefore());
+    }
+
+    @Test
+    void testReminderStateIsSavedAndPendingRemindersAreCollected() throws TaskStorageException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        Deadline pending = new Deadline("report", "2026-11-02 14:30");
+        pending.setReminderState(29_000_000L, false);
+        Deadline shown = new Deadline("essay", "2026-11-03");
+        shown.setReminderState(29_000_100L, true);
+
+        // Act
+        storage.save(List.of(pending, shown, new ToDo("read")));
+        Storage reloaded = new TextStorage(tempDir, "tringa");
+        List<Task> loaded = reloaded.load();
+        List<Task> pendingReminders = reloaded.takePendingReminders();
+
+        // Assert
+        assertEquals(29_000_000L, loaded.get(0).getNextReminder());
+        assertTrue(loaded.get(1).isReminderFired());
+        assertEquals(List.of(loaded.get(0)), pendingReminders, "Only reminders not shown yet should be pending");
+        assertTrue(reloaded.takePendingReminders().isEmpty(), "Pending reminders should only be returned once");
+    }
+
+    @Test
+    void testEditIsSavedInHistoryWithBothVersions() throws TaskStorageException, TringaException {
+        // Arrange
+        Storage storage = new TextStorage(tempDir, "tringa");
+        TaskList tasks = new TaskList(new ArrayList<>(storage.load()), storage.loadHistory());
+        tasks.addTask(new Deadline("report", "2026-11-02"));
+        tasks.editTask(1, "final report", null, "2026-11-09", null, null);
+
+        // Act
+        storage.save(tasks.getTasks());
+        storage.saveHistory(tasks.getHistory());
+        Storage reloaded = new TextStorage(tempDir, "tringa");
+        TaskList reloadedTasks = new TaskList(new ArrayList<>(reloaded.load()), reloaded.loadHistory());
+        reloadedTasks.undo();
+
+        // Assert
+        assertEquals("[D][ ] report (by: Nov 02 2026)", reloadedTasks.getTasks().get(0).toString());
+    }
+
+    @Test
+    void testDamagedSnapshotBlockIsReportedAndReadFromTaskFile() throws TaskStorageException, IOException {
+        // Arrange
+        TextStorage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new ToDo("prepare the slides for the weekly meeting " + i));
+        }
+        storage.save(tasks);
+        storage.writeSnapshot();
+        Path snapshot = tempDir.resolve("tringa.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(snapshot, bytes);
+
+        // Act
+        Storage reloaded = new TextStorage(tempDir, "tringa");
+        List<Task> loaded = reloaded.load();
+        List<String> warnings = reloaded.takeLoadWarnings();
+
+        // Assert
+        assertTrue(bytes.length < Files.size(tempDir.resolve("tringa.txt")) / 4,
+                "The snapshot should be much smaller than the task file");
+        assertEquals(5000, loaded.size());
+        assertEquals(tasks.get(4999).toString(), loaded.get(4999).toString());
+        assertEquals(1, warnings.size(), "Only the damaged block should be reported");
+        assertTrue(warnings.get(0).contains("damaged"));
+    }
+
+    @Test
+    void testTasksWithInvalidDatesAreSkippedAndReported() throws TaskStorageException, IOException {
+        // Arrange
+        Files.writeString(tempDir.resolve("tringa.txt"), "T | 1 | a | done=yesterday\n"
+                + "D | 0 | b | Feb 2026\nT | 0 | c\nR | 0 | d | WEEKLY | 2026-13-01 | 2026-13-02\n",
+                StandardCharsets.UTF_8);
+        TextStorage storage = new TextStorage(tempDir, "tringa");
+
+        // Act
+        List<Task> loaded = storage.load();
+        List<String> warnings = storage.takeLoadWarnings();
+
+        // Assert
+        assertEquals(1, loaded.size());
+        assertEquals("[T][ ] c", loaded.get(0).toString());
+        assertEquals(3, warnings.size(), "Each unreadable task should be reported");
+        assertTrue(storage.reload().isEmpty(), "The skipped tasks should not show up as changes");
+    }
+
+    @Test
+    void testSnapshotIsWrittenLazilyAndCheckedAgainstTheTaskFile() throws TaskStorageException, IOException {
+        // Arrange
+        TextStorage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tasks.add(new ToDo("prepare the slides for the weekly meeting " + i));
+        }
+        Path file = tempDir.resolve("tringa.txt");
+        Path snapshot = tempDir.resolve("tringa.snapshot");
+
+        // Act & Assert
+        storage.save(tasks);
+        assertFalse(Files.exists(snapshot), "A save should only write the task file");
+        storage.writeSnapshot();
+        assertTrue(Files.exists(snapshot));
+        Files.delete(snapshot);
+        storage.writeSnapshot();
+        assertFalse(Files.exists(snapshot), "An up to date snapshot should not be written again");
+
+        storage.save(tasks);
+        storage.writeSnapshot();
+        // An edit that keeps the size and modification time of the task file
+        FileTime modified = Files.getLastModifiedTime(file);
+        String text = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, text.replaceFirst("meeting 0\n", "meeting X\n"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, modified);
+        List<Task> loaded = new TextStorage(tempDir, "tringa").load();
+        assertEquals("prepare the slides for the weekly meeting X", loaded.get(0).getDescription(),
+                "The edited task file should be read instead of the snapshot");
+    }
+
+    @Test
+    void testColumnarListIsSavedFromItsRecords() throws TaskStorageException {
+        // Arrange
+        int[] reads = new int[1];
+        ColumnarTaskList columnar = new ColumnarTaskList(List.of(new ToDo("read book"),
+                new Deadline("submit report", "2026-11-02"))) {
+            @Override
+            public Task get(int index) {
+                reads[0]++;
+                return super.get(index);
+            }
+        };
+        TaskList tasks = new TaskList(columnar);
+        Storage storage = new TextStorage(tempDir, "tringa");
+        storage.load();
+
+        // Act
+        tasks.saveTo(storage);
+
+        // Assert
+        assertEquals(0, reads[0], "Saving should write the stored records without creating tasks");
+        List<Task> loaded = new TextStorage(tempDir, "tringa").load();
+        assertEquals("[D][ ] submit report (by: Nov 02 2026)", loaded.get(1).toString());
+    }
+
+    private static Task done(String description, int year, int month, int day) {
+        Task task = new ToDo(description);
+        task.markDone(LocalDate.of(year, month, day));
+        return task;
+    }
+}
@@ -0,0 +1,265 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class TaskListTest {
+
+    @Test
+    void testUndoDeleteRestoresTaskAtSamePosition() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+        tasks.addTask(new ToDo("return book"));
+        tasks.addTask(new ToDo("buy book"));
+        tasks.deleteTask(2);
+
+        // Act
+        tasks.undo();
+
+        // Assert
+        assertEquals(3, tasks.getTasks().size());
+        assertEquals("return book", tasks.getTasks().get(1).getDescription(),
+                "Deleted task should be restored at its original position");
+    }
+
+    @Test
+    void testUndoAndRedoMark() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+        tasks.markTaskDone(1);
+
+        // Act & Assert
+        tasks.undo();
+        assertFalse(tasks.getTasks().get(0).isDone(), "Undo should unmark the task");
+        tasks.redo();
+        assertTrue(tasks.getTasks().get(0).isDone(), "Redo should mark the task again");
+    }
+
+    @Test
+    void testNewEditDiscardsRedo() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+        tasks.undo();
+        tasks.addTask(new ToDo("return book"));
+
+        // Act & Assert
+        assertThrows(TringaException.class, tasks::redo,
+                "Redo should not be possible after a new edit");
+    }
+
+    @Test
+    void testHistoryDropsOldestEditWhenFull() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList(new ArrayList<>(), new History(2));
+        tasks.addTask(new ToDo("one"));
+        tasks.addTask(new ToDo("two"));
+        tasks.addTask(new ToDo("three"));
+
+        // Act
+        tasks.undo();
+        tasks.undo();
+
+        // Assert
+        assertThrows(TringaException.class, tasks::undo,
+                "Only the most recent edits should be kept");
+        assertEquals(1, tasks.getTasks().size());
+    }
+
+    @Test
+    void testBulkDeleteAndUndoKeepsOrder() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        for (String description : new String[]{"a", "b", "c", "d", "e"}) {
+            tasks.addTask(new ToDo(description));
+        }
+        BitSet selected = new BitSet();
+        selected.set(2, 5);
+
+        // Act
+        tasks.deleteTasks(selected);
+
+        // Assert
+        assertEquals(2, tasks.size());
+        assertEquals("e", tasks.getTasks().get(1).getDescription());
+
+        // Act
+        tasks.undo();
+
+        // Assert
+        assertEquals(5, tasks.size());
+        assertEquals("c", tasks.getTasks().get(2).getDescription(),
+                "Undo should restore every deleted task at its original position");
+    }
+
+    @Test
+    void testEditChangesTaskInPlaceAndUpdatesIndexes() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+        Deadline deadline = new Deadline("sumbit report", "2026-11-02");
+        deadline.setId("r1");
+        tasks.addTask(deadline);
+        tasks.markTaskDone(2);
+        LocalDate newDate = LocalDate.of(2026, 11, 20);
+
+        // Act
+        tasks.editTask(2, "submit report", null, "2026-11-20 17:00", null, null);
+
+        // Assert
+        Task edited = tasks.getTasks().get(1);
+        assertSame(deadline, edited, "The task should be changed in place");
+        assertEquals("r1", edited.getId());
+        assertTrue(edited.isDone(), "Editing should keep the done status");
+        assertTrue(tasks.findTasksRanked("submit", 5).contains("submit report"));
+        assertTrue(tasks.listAgenda(newDate, newDate).contains("submit report"));
+        assertFalse(tasks.listAgenda(LocalDate.of(2026, 11, 2), LocalDate.of(2026, 11, 2))
+                .contains("report"), "The task should no longer be on its old date");
+    }
+
+    @Test
+    void testUndoAndRedoEdit() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Event("workshop", "May 03 2025", "May 09 2025"));
+        tasks.editTask(1, "coding workshop", null, null, null, "May 10 2025");
+
+        // Act & Assert
+        tasks.undo();
+        assertEquals("[E][ ] workshop (from: May 03 2025 to: May 09 2025)", tasks.getTasks().get(0).toString());
+        tasks.redo();
+        assertEquals("[E][ ] coding workshop (from: May 03 2025 to: May 10 2025)",
+                tasks.getTasks().get(0).toString());
+    }
+
+    @Test
+    void testUndoingADateEditMovesTheReminderBack() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Deadline("file taxes", "2099-11-02 17:00"));
+        Task edited = tasks.editTask(1, null, null, "2099-11-20 17:00", null, null);
+        Reminder.rescheduleReminder(edited);
+        long now = System.currentTimeMillis() / 60_000;
+
+        // Act
+        tasks.undo();
+
+        // Assert
+        Task restored = tasks.getTask(1);
+        assertEquals(ReminderScheduler.reminderMinute(restored, now), restored.getNextReminder(),
+                "The restored task should be reminded of from its old date");
+        assertTrue(restored.getNextReminder() < ReminderScheduler.reminderMinute(edited, now));
+        Reminder.cancelReminders(Set.of(restored));
+    }
+
+    @Test
+    void testUndoingADateOnlyEditMovesTheReminderBack() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Deadline("file taxes", "2099-11-02"));
+        Task edited = tasks.editTask(1, null, null, "2099-11-20", null, null);
+        Reminder.rescheduleReminder(edited);
+        long now = System.currentTimeMillis() / 60_000;
+
+        // Act
+        tasks.undo();
+
+        // Assert
+        Task restored = tasks.getTask(1);
+        assertEquals(ReminderScheduler.reminderMinute(restored, now), restored.getNextReminder(),
+                "A deadline without a time should be reminded of from its old date too");
+        Reminder.cancelReminders(Set.of(restored));
+    }
+
+    @Test
+    void testDeletedTasksAreNotReminded() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        Task task = new Deadline("file taxes", "2099-11-02");
+        tasks.addTask(task);
+        tasks.addTask(new ToDo("read book"));
+        int pendingBefore = Reminder.pendingCount();
+        Reminder.scheduleReminder(task);
+
+        // Act
+        tasks.deleteTask(1);
+
+        // Assert
+        assertEquals(pendingBefore, Reminder.pendingCount(), "The reminder of a deleted task should be cancelled");
+    }
+
+    @Test
+    void testColumnarListCancelsAndRecordsRemindersOfItsCopies() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList(new ColumnarTaskList(List.of(new Deadline("file taxes", "2099-11-02"),
+                new Deadline("pay rent", "2099-11-03"))));
+        int pendingBefore = Reminder.pendingCount();
+        Reminder.scheduleReminder(tasks.getTasks().get(0));
+        Task shown = tasks.getTasks().get(1);
+        shown.setReminderState(ReminderScheduler.reminderMinute(shown, 0), true);
+
+        // Act
+        tasks.deleteTask(1);
+        boolean isRecorded = tasks.recordShownReminders(Set.of(shown));
+
+        // Assert
+        assertEquals(pendingBefore, Reminder.pendingCount(), "The reminder of the deleted copy should be cancelled");
+        assertTrue(isRecorded);
+        assertTrue(tasks.getTasks().get(0).isReminderFired(), "The shown reminder should be written into the list");
+    }
+
+    @Test
+    void testEditRejectsDatesTheTaskDoesNotHave() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+
+        // Act & Assert
+        assertThrows(TringaException.class, () -> tasks.editTask(1, "read books", null, "2026-11-20", null, null));
+        assertEquals("read book", tasks.getTasks().get(0).getDescription(),
+                "A rejected edit should leave the task unchanged");
+    }
+
+    @Test
+    void testFindPreviewFromCopiedDescriptionsIsDroppedAfterAChange() throws TringaException {
+        // Arrange
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("Read book"));
+        tasks.addTask(new ToDo("buy pen"));
+        tasks.addTask(new ToDo("return book"));
+        String[] descriptions = tasks.snapshotDescriptions();
+        TaskList.PreviewMatches matches = TaskList.matchDescriptions(descriptions, "BOOK", 1);
+        String preview = tasks.renderPreview(descriptions, matches);
+
+        // Act
+        tasks.addTask(new ToDo("book club"));
+
+        // Assert
+        assertEquals(2, matches.count());
+        assertEquals("2 matching tasks:\n1.[T][ ] Read book\n...", preview);
+        assertNull(tasks.renderPreview(descriptions, matches), "A stale copy should not be previewed");
+        assertNotSame(descriptions, tasks.snapshotDescriptions(),
+                "A change should make the list copy its descriptions again");
+    }
+}
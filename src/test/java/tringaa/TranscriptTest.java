@@ -0,0 +1,104 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TranscriptTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOldMessagesLeaveMemoryButStayInLog() throws IOException {
+        // Arrange
+        try (Transcript transcript = new Transcript(tempDir.resolve("session.ndjson"), 10)) {
+            // Act
+            for (int i = 0; i < 50; i++) {
+                transcript.add(new Transcript.Entry(Transcript.Speaker.USER, "message " + i));
+            }
+
+            // Assert
+            assertEquals(10, transcript.size());
+            assertEquals("message 40", transcript.getEntries().get(0).text());
+            assertTrue(transcript.hasEarlier());
+            assertEquals(50, Files.readAllLines(transcript.getLogPath()).size());
+        }
+    }
+
+    @Test
+    void testPagingBackReadsEarlierMessagesInOrder() throws IOException {
+        // Arrange
+        try (Transcript transcript = new Transcript(tempDir.resolve("session.ndjson"), 4)) {
+            for (int i = 0; i < 10; i++) {
+                transcript.add(new Transcript.Entry(Transcript.Speaker.TRINGA, "line " + i + "\nsecond line"));
+            }
+
+            // Act
+            List<Transcript.Entry> earlier = transcript.pageBack(3);
+
+            // Assert
+            assertEquals("line 3\nsecond line", earlier.get(0).text());
+            assertEquals(Transcript.Speaker.TRINGA, earlier.get(0).speaker());
+            assertEquals(4, transcript.size(), "Paging back should not grow the window past its capacity");
+            assertEquals("line 6\nsecond line", transcript.getEntries().get(3).text());
+            assertFalse(transcript.isAtLatest());
+
+            // Act
+            transcript.pageBack(10);
+
+            // Assert
+            assertEquals("line 0\nsecond line", transcript.getEntries().get(0).text());
+            assertFalse(transcript.hasEarlier());
+        }
+    }
+
+    @Test
+    void testAddingAfterPagingBackReturnsToLatest() throws IOException {
+        // Arrange
+        try (Transcript transcript = new Transcript(tempDir.resolve("session.ndjson"), 3)) {
+            for (int i = 0; i < 6; i++) {
+                transcript.add(new Transcript.Entry(Transcript.Speaker.USER, "message " + i));
+            }
+            transcript.pageBack(3);
+
+            // Act
+            List<Transcript.Entry> later = transcript.pageForward(2);
+            transcript.add(new Transcript.Entry(Transcript.Speaker.USER, "message 6"));
+
+            // Assert
+            assertEquals("message 3", later.get(0).text());
+            assertEquals(List.of("message 4", "message 5", "message 6"),
+                    transcript.getEntries().stream().map(Transcript.Entry::text).toList());
+            assertTrue(transcript.isAtLatest());
+        }
+    }
+
+    @Test
+    void testOnlyTheLatestSessionLogsAreKept() throws IOException {
+        // Arrange
+        Path sessions = tempDir.resolve("sessions");
+        Files.createDirectories(sessions);
+        for (String name : List.of("session-20261001-090000.ndjson", "session-20261002-090000.ndjson",
+                "session-20261003-090000.ndjson", "notes.txt")) {
+            Files.writeString(sessions.resolve(name), "");
+        }
+
+        // Act
+        try (Transcript transcript = Transcript.startSession(sessions, 10, 3)) {
+            // Assert
+            assertFalse(Files.exists(sessions.resolve("session-20261001-090000.ndjson")));
+            assertTrue(Files.exists(sessions.resolve("session-20261002-090000.ndjson")));
+            assertTrue(Files.exists(sessions.resolve("session-20261003-090000.ndjson")));
+            assertTrue(Files.exists(sessions.resolve("notes.txt")), "Other files should be left alone");
+            assertTrue(Files.exists(transcript.getLogPath()));
+        }
+    }
+}
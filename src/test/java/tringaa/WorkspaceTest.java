@@ -0,0 +1,192 @@
+package tringaa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.changes.ChangeEvent;
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Task;
+
+class WorkspaceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testListsAreLoadedOnlyWhenUsed() throws TringaException, TaskStorageException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+
+        // Act
+        Parser.executeCommand("todo read book", workspace);
+        Parser.executeCommand("use work", workspace);
+
+        // Assert
+        assertTrue(workspace.isLoaded("work"));
+        assertTrue(Files.exists(tempDir.resolve("lists").resolve("work.txt")));
+        assertEquals(0, workspace.getTasks().size(), "A new list should start empty");
+    }
+
+    @Test
+    void testEachListKeepsItsOwnTasks() throws TringaException, TaskStorageException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+        Parser.executeCommand("use work", workspace);
+        Parser.executeCommand("todo write report", workspace);
+
+        // Act
+        Workspace reopened = new Workspace(tempDir, new Ui());
+        Parser.executeCommand("use work", reopened);
+
+        // Assert
+        assertFalse(reopened.isLoaded(Workspace.MAIN_LIST), "The main list should not be loaded");
+        assertEquals("write report", reopened.getTasks().getTasks().get(0).getDescription());
+    }
+
+    @Test
+    void testLoadedTasksAreTakenWithoutLoadingTheList() throws TringaException, TaskStorageException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+
+        // Act
+        TaskList beforeLoading = workspace.getLoadedTasks();
+        boolean isLoadedByTaking = workspace.isLoaded(Workspace.MAIN_LIST);
+        Parser.executeCommand("todo read book", workspace);
+
+        // Assert
+        assertNull(beforeLoading);
+        assertFalse(isLoadedByTaking, "Taking the tasks in memory should not load the list");
+        assertSame(workspace.getTasks(), workspace.getLoadedTasks());
+    }
+
+    @Test
+    void testCommandIsAppliedAgainAfterTheFileWasChangedOutside()
+            throws TringaException, TaskStorageException, IOException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+        Parser.executeCommand("todo read book", workspace);
+        Files.writeString(tempDir.resolve("tringa.txt"), "T | 0 | edited by hand\n", StandardCharsets.UTF_8);
+
+        // Act
+        String response = Parser.executeCommand("todo buy pen", workspace);
+
+        // Assert
+        assertTrue(response.contains("changed outside Tringa"), response);
+        TaskList tasks = workspace.getTasks();
+        assertEquals(2, tasks.size());
+        assertEquals("edited by hand", tasks.getTasks().get(0).getDescription());
+        assertEquals("buy pen", tasks.getTasks().get(1).getDescription());
+        assertEquals(2, Files.readAllLines(tempDir.resolve("tringa.txt")).size(), "The retried change should be saved");
+    }
+
+    @Test
+    void testCommandByNumberIsNotAppliedAgainAfterTheFileWasChangedOutside()
+            throws TringaException, TaskStorageException, IOException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+        Parser.executeCommand("todo read book", workspace);
+        Parser.executeCommand("todo buy pen", workspace);
+        String edited = "T | 0 | edited by hand\nT | 0 | read book\nT | 0 | buy pen\n";
+        Files.writeString(tempDir.resolve("tringa.txt"), edited, StandardCharsets.UTF_8);
+
+        // Act
+        TringaException e = assertThrows(TringaException.class, () -> Parser.executeCommand("delete 2", workspace));
+
+        // Assert
+        assertTrue(e.getMessage().contains("not applied"), e.getMessage());
+        assertEquals(List.of("edited by hand", "read book", "buy pen"),
+                workspace.getTasks().getTasks().stream().map(Task::getDescription).toList());
+        assertEquals(edited, Files.readString(tempDir.resolve("tringa.txt")), "The file should be left as edited");
+    }
+
+    @Test
+    void testChangeFeedFollowsTheFileAfterItWasChangedOutside()
+            throws TringaException, TaskStorageException, IOException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+        Parser.executeCommand("todo read book", workspace);
+        Parser.executeCommand("todo buy pen", workspace);
+        Files.writeString(tempDir.resolve("tringa.txt"), "T | 0 | buy pen\nT | 0 | edited by hand\n",
+                StandardCharsets.UTF_8);
+        assertThrows(TringaException.class, () -> Parser.executeCommand("mark 1", workspace));
+        Parser.executeCommand("todo call mum", workspace);
+
+        // Act
+        List<String> replayed = new ArrayList<>();
+        for (String line : Files.readAllLines(tempDir.resolve("tringa.changes.ndjson"))) {
+            ChangeEvent event = ChangeEvent.fromJson(line);
+            switch (event.kind()) {
+            case ADD -> replayed.add(event.position(), event.task());
+            case DELETE -> replayed.remove(event.position());
+            default -> replayed.set(event.position(), event.task());
+            }
+        }
+
+        // Assert
+        assertEquals(Files.readAllLines(tempDir.resolve("tringa.txt")), replayed,
+                "Replaying the feed should give the task file");
+    }
+
+    @Test
+    void testLeastRecentlyUsedListsAreUnloaded() throws TringaException, TaskStorageException {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            workspace.use("list" + i);
+        }
+
+        // Assert
+        assertFalse(workspace.isLoaded("list0"), "The least recently used list should be unloaded");
+        assertTrue(workspace.isLoaded("list9"));
+    }
+
+    @Test
+    void testTasksDoneLongAgoAreArchivedWhenTheListIsSaved() throws Exception {
+        // Arrange
+        String oldDone = LocalDate.now().minusDays(30).toString();
+        String recentDone = LocalDate.now().minusDays(1).toString();
+        List<String> records = List.of("T | 1 | old | done=" + oldDone, "T | 0 | open",
+                "T | 1 | recent | done=" + recentDone);
+        Files.write(tempDir.resolve("tringa.txt"), records, StandardCharsets.UTF_8);
+        Workspace workspace = new Workspace(tempDir, new Ui());
+        Parser.executeCommand("list", workspace);
+        List<String> afterList = Files.readAllLines(tempDir.resolve("tringa.txt"));
+
+        // Act
+        Parser.executeCommand("todo read book", workspace);
+
+        // Assert
+        assertEquals(records, afterList, "Loading and showing the list should not rewrite it");
+        assertEquals(3, workspace.getTasks().size());
+        assertEquals(List.of("T | 0 | open", "T | 1 | recent | done=" + recentDone, "T | 0 | read book"),
+                Files.readAllLines(tempDir.resolve("tringa.txt")), "The list should be saved without the old task");
+        assertEquals("old", workspace.getStorage().findInArchive("old").get(0).getDescription());
+    }
+
+    @Test
+    void testInvalidListNameIsRejected() {
+        // Arrange
+        Workspace workspace = new Workspace(tempDir, new Ui());
+
+        // Act & Assert
+        assertThrows(InvalidCommandException.class, () -> workspace.use("../escape"));
+    }
+}
@@ -0,0 +1,232 @@
+package tringaa.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.TaskList;
+import tringaa.TextStorage;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class ChangeFeedTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Collects the events it receives, requesting a fixed number up front.
+     */
+    private static class Collector implements Flow.Subscriber<ChangeEvent> {
+        private final List<ChangeEvent> events = new ArrayList<>();
+        private final long initialRequest;
+        private Flow.Subscription subscription;
+
+        Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(ChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    @Test
+    void testMutationsArePublishedInOrder() throws TringaException, TaskStorageException {
+        // Arrange
+        ChangeFeed feed = new ChangeFeed(tempDir.resolve("tringa.changes.ndjson"), Runnable::run);
+        TextStorage storage = new TextStorage(tempDir, "tringa.txt");
+        TaskList tasks = new TaskList();
+        tasks.setChangeFeed(feed);
+        Collector collector = new Collector(Long.MAX_VALUE);
+        feed.subscribe(collector);
+
+        // Act
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        tasks.addTask(new ToDo("c"));
+        tasks.markTaskDone(2);
+        BitSet selection = new BitSet();
+        selection.set(1);
+        selection.set(3);
+        tasks.deleteTasks(selection);
+        tasks.saveTo(storage);
+
+        // Assert
+        List<ChangeEvent> events = collector.events;
+        assertEquals(6, events.size());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), events.stream().map(ChangeEvent::sequence).toList());
+        assertEquals(ChangeEvent.Kind.MARK, events.get(3).kind());
+        assertEquals(1, events.get(3).position());
+        assertEquals(2, events.get(4).position(), "Deletes should be published from the back");
+        assertEquals(0, events.get(5).position());
+    }
+
+    @Test
+    void testSubscriberOnlyReceivesRequestedEvents() throws TringaException, TaskStorageException {
+        // Arrange
+        ChangeFeed feed = new ChangeFeed(tempDir.resolve("tringa.changes.ndjson"), Runnable::run);
+        TaskList tasks = new TaskList();
+        tasks.setChangeFeed(feed);
+        Collector collector = new Collector(1);
+        feed.subscribe(collector);
+
+        // Act & Assert
+        tasks.addTask(new ToDo("a"));
+        tasks.addTask(new ToDo("b"));
+        tasks.saveTo(new TextStorage(tempDir, "tringa.txt"));
+        assertEquals(1, collector.events.size(), "Only the requested event should be delivered");
+        collector.subscription.request(5);
+        assertEquals(2, collector.events.size());
+    }
+
+    @Test
+    void testChangesArePublishedOnceSaved() throws TringaException, TaskStorageException {
+        // Arrange
+        ChangeFeed feed = new ChangeFeed(tempDir.resolve("tringa.changes.ndjson"), Runnable::run);
+        TaskList tasks = new TaskList();
+        tasks.setChangeFeed(feed);
+        Collector collector = new Collector(Long.MAX_VALUE);
+        feed.subscribe(collector);
+
+        // Act
+        tasks.addTask(new ToDo("read book"));
+        tasks.markTaskDone(1);
+        int publishedBeforeSaving = collector.events.size();
+        tasks.saveTo(new TextStorage(tempDir, "tringa.txt"));
+
+        // Assert
+        assertEquals(0, publishedBeforeSaving, "Changes that were not saved should not be published");
+        assertEquals(List.of(ChangeEvent.Kind.ADD, ChangeEvent.Kind.MARK),
+                collector.events.stream().map(ChangeEvent::kind).toList());
+    }
+
+    @Test
+    void testDiscardedChangesAreRevertedAndNeverPublished() throws TringaException, TaskStorageException {
+        // Arrange
+        ChangeFeed feed = new ChangeFeed(tempDir.resolve("tringa.changes.ndjson"), Runnable::run);
+        TaskList tasks = new TaskList();
+        tasks.setChangeFeed(feed);
+        tasks.addTask(new ToDo("read book"));
+        tasks.addTask(new ToDo("return book"));
+        tasks.saveTo(new TextStorage(tempDir, "tringa.txt"));
+        Collector collector = new Collector(Long.MAX_VALUE);
+        feed.subscribe(collector, feed.getLastSequence());
+
+        // Act
+        tasks.markTaskDone(2);
+        tasks.editTask(1, "read paper", null, null, null, null);
+        tasks.deleteTask(2);
+        tasks.addTask(new ToDo("buy book"));
+        tasks.discardUnsavedChanges();
+        tasks.publishSavedChanges();
+
+        // Assert
+        assertEquals(List.of("read book", "return book"),
+                tasks.getTasks().stream().map(Task::getDescription).toList());
+        assertTrue(tasks.getTasks().stream().noneMatch(Task::isDone));
+        assertTrue(collector.events.isEmpty(), "Discarded changes should never be published");
+    }
+
+    @Test
+    void testResumeAfterRestart() throws TringaException, TaskStorageException {
+        // Arrange
+        Path log = tempDir.resolve("tringa.changes.ndjson");
+        ChangeFeed feed = new ChangeFeed(log, Runnable::run);
+        TextStorage storage = new TextStorage(tempDir, "tringa.txt");
+        TaskList tasks = new TaskList();
+        tasks.setChangeFeed(feed);
+        tasks.addTask(new ToDo("read \"book\""));
+        tasks.addTask(new ToDo("return book"));
+        tasks.markTaskDone(1);
+        tasks.saveTo(storage);
+        feed.close();
+
+        // Act
+        ChangeFeed reopened = new ChangeFeed(log, Runnable::run);
+        Collector collector = new Collector(Long.MAX_VALUE);
+        reopened.subscribe(collector, 1);
+        tasks.setChangeFeed(reopened);
+        tasks.addTask(new ToDo("buy book"));
+        tasks.saveTo(storage);
+
+        // Assert
+        assertEquals(List.of(2L, 3L, 4L), collector.events.stream().map(ChangeEvent::sequence).toList(),
+                "Resuming should replay the log and continue the numbering");
+        assertEquals("T | 1 | read \"book\"", collector.events.get(1).task().replaceAll(" \\| done=.*", ""));
+    }
+
+    @Test
+    void testLaggingSubscriberReadsTheWholeLogInOrder() throws TaskStorageException {
+        // Arrange
+        ChangeFeed feed = new ChangeFeed(tempDir.resolve("tringa.changes.ndjson"), Runnable::run);
+        for (int i = 0; i < 3000; i++) {
+            feed.publish(ChangeEvent.Kind.ADD, new int[]{i}, List.of("T | 0 | task " + i));
+        }
+        Collector collector = new Collector(1000);
+
+        // Act
+        feed.subscribe(collector, 0);
+        collector.subscription.request(Long.MAX_VALUE);
+
+        // Assert
+        assertEquals(3000, collector.events.size());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(i + 1, collector.events.get(i).sequence());
+            assertEquals("T | 0 | task " + i, collector.events.get(i).task());
+        }
+    }
+
+    @Test
+    void testFeedStopsWithoutGapsWhenTheLogCannotBeWritten() throws TringaException, TaskStorageException {
+        // Arrange
+        Path log = tempDir.resolve("tringa.changes.ndjson");
+        ChangeFeed feed = new ChangeFeed(log, Runnable::run);
+        List<String> failures = new ArrayList<>();
+        feed.setOnFailure(failures::add);
+        TextStorage storage = new TextStorage(tempDir, "tringa.txt");
+        TaskList tasks = new TaskList();
+        tasks.setChangeFeed(feed);
+        tasks.addTask(new ToDo("read book"));
+        tasks.saveTo(storage);
+        // Closing the log makes every later write fail
+        feed.close();
+
+        // Act
+        tasks.addTask(new ToDo("return book"));
+        tasks.saveTo(storage);
+        tasks.addTask(new ToDo("buy book"));
+        tasks.saveTo(storage);
+
+        // Assert
+        assertTrue(feed.isBroken());
+        assertEquals(1, failures.size(), "The failure should be reported once");
+        assertEquals(1, feed.getLastSequence(), "Events that were not written should not be numbered");
+        assertEquals(1, new ChangeFeed(log, Runnable::run).getLastSequence());
+    }
+}
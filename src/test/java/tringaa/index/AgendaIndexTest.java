@@ -0,0 +1,59 @@
+package tringaa.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class AgendaIndexTest {
+
+    @Test
+    void testEventsAreListedOnEveryDayTheySpan() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>(List.of(new ToDo("read"),
+                new Event("camp", "May 30 2025", "Jun 02 2025"),
+                new Deadline("essay", "2025-06-01")));
+        AgendaIndex index = new AgendaIndex(tasks);
+
+        // Act
+        TreeMap<LocalDate, List<AgendaIndex.Entry>> agenda =
+                index.select(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+
+        // Assert
+        assertEquals(List.of(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 2)), new ArrayList<>(agenda.keySet()));
+        assertEquals(2, agenda.get(LocalDate.of(2025, 6, 1)).size());
+        assertEquals(1, agenda.get(LocalDate.of(2025, 6, 2)).get(0).position());
+    }
+
+    @Test
+    void testRecurringOccurrencesAndAppendedTasksAreIncluded() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>(List.of(
+                new Recurring("standup", Recurring.Frequency.WEEKLY, LocalDate.of(2025, 5, 5))));
+        AgendaIndex index = new AgendaIndex(tasks);
+        index.select(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 31));
+        Task deadline = new Deadline("report", "2025-05-13");
+        tasks.add(deadline);
+        index.taskAdded(1, deadline);
+
+        // Act
+        TreeMap<LocalDate, List<AgendaIndex.Entry>> agenda =
+                index.select(LocalDate.of(2025, 5, 12), LocalDate.of(2025, 5, 18));
+
+        // Assert
+        assertEquals(LocalDate.of(2025, 5, 12), agenda.get(LocalDate.of(2025, 5, 12)).get(0).start());
+        assertTrue(agenda.containsKey(LocalDate.of(2025, 5, 13)), "Appended deadline should be indexed");
+        assertEquals(2, agenda.size());
+    }
+}
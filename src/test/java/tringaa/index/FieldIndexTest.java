@@ -0,0 +1,128 @@
+package tringaa.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.TaskList;
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class FieldIndexTest {
+    private static final LocalDate START = LocalDate.of(2026, 11, 1);
+
+    @Test
+    void testSelectiveClausesUseTheIndex() throws InvalidCommandException {
+        // Arrange
+        FieldIndex index = new FieldIndex(tasks(100, new Random(30)));
+
+        // Act
+        FieldIndex.Selection selection = index.select(TaskQuery.compile("type:D by<2026-11-03"));
+
+        // Assert
+        assertNotNull(selection.candidates());
+        assertTrue(selection.plan().startsWith("index lookup on type, date"), selection.plan());
+    }
+
+    @Test
+    void testUnselectiveOrMissingClausesFallBackToAScan() throws InvalidCommandException {
+        // Arrange
+        FieldIndex index = new FieldIndex(tasks(100, new Random(30)));
+
+        // Act
+        FieldIndex.Selection notDone = index.select(TaskQuery.compile("done:false"));
+        FieldIndex.Selection textOnly = index.select(TaskQuery.compile("text:report"));
+
+        // Assert
+        assertNull(notDone.candidates());
+        assertTrue(notDone.plan().contains("indexes on done are not selective"), notDone.plan());
+        assertNull(textOnly.candidates());
+        assertEquals("full scan of 100 tasks (no indexed clause)", textOnly.plan());
+    }
+
+    @Test
+    void testCombinedClausesMatchTheSameTasksAsAScan() throws InvalidCommandException {
+        // Arrange
+        List<Task> tasks = tasks(500, new Random(31));
+        FieldIndex index = new FieldIndex(tasks);
+        List<String> queries = List.of("type:D done:true", "type:E by>=2026-11-10 by<=2026-11-12",
+                "done:false by:2026-11-05 text:report", "type:T text:gym", "by>2026-11-25 type:d");
+
+        for (String text : queries) {
+            TaskQuery query = TaskQuery.compile(text);
+
+            // Act
+            FieldIndex.Selection selection = index.select(query);
+            BitSet matched = new BitSet();
+            BitSet toCheck = selection.candidates();
+            for (int i = 0; i < tasks.size(); i++) {
+                if ((toCheck == null || toCheck.get(i)) && query.matches(tasks.get(i))) {
+                    matched.set(i);
+                }
+            }
+
+            // Assert
+            BitSet expected = new BitSet();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (query.matches(tasks.get(i))) {
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, matched, text);
+        }
+    }
+
+    @Test
+    void testExplainShowsThePlanBeforeTheMatches() throws InvalidCommandException {
+        // Arrange
+        TaskList list = new TaskList(tasks(100, new Random(32)));
+
+        // Act
+        String explained = list.filterTasks(TaskQuery.compile("type:E by:2026-11-02 explain"));
+
+        // Assert
+        assertTrue(explained.startsWith("Plan: index lookup on type, date"), explained);
+    }
+
+    @Test
+    void testInvalidClausesAreRejected() {
+        // Act & Assert
+        assertThrows(InvalidCommandException.class, () -> TaskQuery.compile("type:X"));
+        assertThrows(InvalidCommandException.class, () -> TaskQuery.compile("done:maybe"));
+        assertThrows(InvalidCommandException.class, () -> TaskQuery.compile("by<tomorrow"));
+        assertThrows(InvalidCommandException.class, () -> TaskQuery.compile("text<report"));
+    }
+
+    /** Creates mostly open to-dos with a few deadlines and events spread over November 2026 */
+    private static List<Task> tasks(int count, Random random) {
+        List<Task> tasks = new ArrayList<>();
+        String[] words = {"report", "gym", "call", "review"};
+        for (int i = 0; i < count; i++) {
+            String description = words[random.nextInt(words.length)] + " " + i;
+            LocalDate date = START.plusDays(random.nextInt(30));
+            Task task = switch (i % 10) {
+            case 0 -> new Deadline(description, date.toString());
+            case 1 -> new Event(description, date.toString(), date.plusDays(1).toString());
+            default -> new ToDo(description);
+            };
+            if (random.nextInt(10) == 0) {
+                task.markDone(START);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
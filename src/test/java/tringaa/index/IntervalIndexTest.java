@@ -0,0 +1,77 @@
+package tringaa.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Event;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class IntervalIndexTest {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    private static Event event(LocalDate start, LocalDate end) {
+        return new Event("event", start.format(DATE_FORMAT), end.format(DATE_FORMAT));
+    }
+
+    @Test
+    void testOverlapsMatchPairwiseScan() {
+        // Arrange
+        Random random = new Random(42);
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<Task> tasks = new ArrayList<>();
+        IntervalIndex index = new IntervalIndex(tasks);
+        index.overlaps();
+        for (int i = 0; i < 300; i++) {
+            LocalDate start = base.plusDays(random.nextInt(365));
+            Task task = i % 10 == 0 ? new ToDo("todo") : event(start, start.plusDays(random.nextInt(5)));
+            tasks.add(task);
+            index.taskAdded(i, task);
+        }
+        tasks.get(1).markDone();
+        index.taskUpdated(1, tasks.get(1));
+
+        // Act
+        Set<String> found = new HashSet<>();
+        for (IntervalIndex.Overlap overlap : index.overlaps()) {
+            found.add(Math.min(overlap.first(), overlap.second()) + "-" + Math.max(overlap.first(), overlap.second()));
+        }
+
+        // Assert
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (int j = i + 1; j < tasks.size(); j++) {
+                if (tasks.get(i) instanceof Event a && tasks.get(j) instanceof Event b && !a.isDone() && !b.isDone()
+                        && !a.getDate().isAfter(b.getEndDate()) && !b.getDate().isAfter(a.getEndDate())) {
+                    expected.add(i + "-" + j);
+                }
+            }
+        }
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void testOverlappingExcludesTheEventItself() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>(List.of(
+                event(LocalDate.of(2025, 5, 3), LocalDate.of(2025, 5, 9)),
+                event(LocalDate.of(2025, 5, 9), LocalDate.of(2025, 5, 10)),
+                event(LocalDate.of(2025, 5, 11), LocalDate.of(2025, 5, 12))));
+        IntervalIndex index = new IntervalIndex(tasks);
+
+        // Act & Assert
+        assertEquals(List.of(1), index.overlapping(0));
+        assertEquals(List.of(0), index.overlapping(1));
+        assertEquals(List.of(), index.overlapping(2));
+        assertEquals(List.of(1, 2), index.overlapping(LocalDate.of(2025, 5, 10), LocalDate.of(2025, 5, 31)));
+    }
+}
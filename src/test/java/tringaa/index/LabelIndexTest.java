@@ -0,0 +1,105 @@
+package tringaa.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class LabelIndexTest {
+
+    @Test
+    void testSelectIntersectsTagsAndPriority() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(labelled("report", Task.Priority.HIGH, "q4", "work"));
+        tasks.add(labelled("taxes", null, "q4"));
+        tasks.add(labelled("slides", Task.Priority.HIGH, "work"));
+        LabelIndex index = new LabelIndex(tasks);
+
+        // Act
+        BitSet q4 = index.select(List.of("q4"), null);
+        BitSet q4AndWork = index.select(List.of("q4", "work"), null);
+        BitSet highWork = index.select(List.of("work"), Task.Priority.HIGH);
+
+        // Assert
+        assertEquals(bits(0, 1), q4);
+        assertEquals(bits(0), q4AndWork);
+        assertEquals(bits(0, 2), highWork);
+        assertEquals(new BitSet(), index.select(List.of("missing"), null));
+        assertNull(index.select(List.of(), null), "Nothing to match should select no bitmap at all");
+    }
+
+    @Test
+    void testSelectFollowsRemovedTasks() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(labelled("a", null, "x"));
+        tasks.add(labelled("b", null, "x"));
+        LabelIndex index = new LabelIndex(tasks);
+        index.select(List.of("x"), null);
+
+        // Act
+        Task removed = tasks.remove(0);
+        index.taskRemoved(0, removed);
+
+        // Assert
+        assertEquals(bits(0), index.select(List.of("x"), null), "Later tasks should move up after a removal");
+    }
+
+    @Test
+    void testCompressedBitmapMatchesBitSet() {
+        // Arrange
+        Random random = new Random(42);
+        CompressedBitmap sparse = new CompressedBitmap();
+        CompressedBitmap dense = new CompressedBitmap();
+        BitSet expectedSparse = new BitSet();
+        BitSet expectedDense = new BitSet();
+        for (int i = 0; i < 300_000; i++) {
+            if (random.nextInt(100) == 0) {
+                sparse.add(i);
+                expectedSparse.set(i);
+            }
+            if (random.nextInt(3) > 0) {
+                dense.add(i);
+                expectedDense.set(i);
+            }
+        }
+
+        // Act
+        for (int i = 0; i < 300_000; i += 7) {
+            dense.remove(i);
+            expectedDense.clear(i);
+        }
+        CompressedBitmap intersection = sparse.and(dense);
+
+        // Assert
+        expectedSparse.and(expectedDense);
+        assertEquals(expectedDense, dense.toBitSet());
+        assertEquals(expectedDense.cardinality(), dense.cardinality());
+        assertEquals(expectedSparse, intersection.toBitSet());
+        assertEquals(expectedSparse.cardinality(), intersection.cardinality());
+    }
+
+    private static Task labelled(String description, Task.Priority priority, String... tags) {
+        Task task = new ToDo(description);
+        task.setPriority(priority);
+        task.setTags(List.of(tags));
+        return task;
+    }
+
+    private static BitSet bits(int... positions) {
+        BitSet bits = new BitSet();
+        for (int position : positions) {
+            bits.set(position);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,89 @@
+package tringaa.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class PrefixIndexTest {
+
+    @Test
+    void testCompletionsAreSortedAndLimited() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>();
+        for (String description : List.of("Read book", "return parcel", "review PR", "read notes", "rent")) {
+            tasks.add(new ToDo(description));
+        }
+        PrefixIndex index = new PrefixIndex(tasks);
+
+        // Act
+        List<String> words = index.completeWord("RE", 10);
+        List<String> limited = index.completeWord("re", 2);
+        List<String> descriptions = index.completeDescription("read", 10);
+
+        // Assert
+        assertEquals(List.of("read", "rent", "return", "review"), words);
+        assertEquals(List.of("read", "rent"), limited);
+        assertEquals(List.of("Read book", "read notes"), descriptions, "Descriptions keep their case");
+        assertEquals(List.of(), index.completeWord("rex", 10));
+    }
+
+    @Test
+    void testRepeatedWordsStayUntilTheLastTaskWithThemIsRemoved() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("team standup"));
+        tasks.add(new ToDo("team lunch"));
+        PrefixIndex index = new PrefixIndex(tasks);
+        index.completeWord("", 10);
+
+        // Act
+        Task removed = tasks.remove(0);
+        index.taskRemoved(0, removed);
+        List<String> afterFirst = index.completeWord("", 10);
+        Task replaced = tasks.set(0, new ToDo("retro"));
+        index.taskReplaced(0, replaced, tasks.get(0));
+
+        // Assert
+        assertEquals(List.of("lunch", "team"), afterFirst);
+        assertEquals(List.of("retro"), index.completeWord("", 10));
+        assertEquals(List.of("retro"), index.completeDescription("", 10));
+    }
+
+    @Test
+    void testRandomChangesMatchASortedSet() {
+        // Arrange
+        Random random = new Random(50);
+        PrefixTrie trie = new PrefixTrie();
+        List<String> added = new ArrayList<>();
+        String[] parts = {"a", "b", "ab", "ba", "abc", "c"};
+
+        // Act
+        for (int step = 0; step < 2000; step++) {
+            if (added.isEmpty() || random.nextInt(3) > 0) {
+                String value = parts[random.nextInt(parts.length)] + parts[random.nextInt(parts.length)];
+                trie.add(value);
+                added.add(value);
+            } else {
+                assertTrue(trie.remove(added.remove(random.nextInt(added.size()))));
+            }
+
+            // Assert
+            TreeSet<String> expected = new TreeSet<>(added);
+            assertEquals(expected.size(), trie.size());
+            assertEquals(new ArrayList<>(expected), trie.complete("", 100));
+            assertEquals(expected.stream().filter(value -> value.startsWith("ab")).limit(3).toList(),
+                    trie.complete("ab", 3));
+        }
+        assertFalse(trie.remove("zz"));
+    }
+}
@@ -0,0 +1,106 @@
+package tringaa.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class SearchIndexTest {
+
+    @Test
+    void testSearchToleratesTypos() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>(List.of(new ToDo("buy milk"), new ToDo("team meeting")));
+        SearchIndex index = new SearchIndex(tasks);
+
+        // Act
+        List<SearchIndex.Match> matches = index.search("meting", 5);
+
+        // Assert
+        assertEquals(1, matches.size());
+        assertEquals(1, matches.get(0).position(), "Misspelt query should still find the meeting");
+    }
+
+    @Test
+    void testSearchReturnsAtMostLimitBestFirst() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new ToDo("weekly report draft " + i));
+        }
+        tasks.add(new ToDo("report"));
+        SearchIndex index = new SearchIndex(tasks);
+
+        // Act
+        List<SearchIndex.Match> matches = index.search("report", 3);
+
+        // Assert
+        assertEquals(3, matches.size());
+        assertEquals(50, matches.get(0).position(), "Closest description should rank first");
+        assertTrue(matches.get(0).score() >= matches.get(1).score());
+    }
+
+    @Test
+    void testIndexFollowsAppendsAndRemovals() {
+        // Arrange
+        List<Task> tasks = new ArrayList<>(List.of(new ToDo("buy milk")));
+        SearchIndex index = new SearchIndex(tasks);
+        index.search("milk", 1);
+        Task added = new ToDo("buy bread");
+
+        // Act
+        tasks.add(added);
+        index.taskAdded(1, added);
+        Task removed = tasks.remove(0);
+        index.taskRemoved(0, removed);
+
+        // Assert
+        assertTrue(index.search("milk", 5).isEmpty(), "Removed task should no longer match");
+        assertEquals(0, index.search("bread", 5).get(0).position(), "Positions should follow the list");
+    }
+
+    @Test
+    void testInsertsAndDeletesInTheMiddleAreAppliedWithoutRebuilding() {
+        // Arrange
+        Random random = new Random(29);
+        int[] reads = new int[1];
+        List<Task> tasks = new ArrayList<>() {
+            @Override
+            public Task get(int index) {
+                reads[0]++;
+                return super.get(index);
+            }
+        };
+        for (int i = 0; i < 200; i++) {
+            tasks.add(new ToDo("task " + i + (i % 3 == 0 ? " report" : " meeting")));
+        }
+        SearchIndex index = new SearchIndex(tasks);
+        index.search("report", 1);
+        reads[0] = 0;
+
+        // Act
+        for (int step = 0; step < 100; step++) {
+            int position = random.nextInt(tasks.size());
+            if (random.nextBoolean()) {
+                Task added = new ToDo("added " + step + " report");
+                tasks.add(position, added);
+                index.taskAdded(position, added);
+            } else {
+                index.taskRemoved(position, tasks.remove(position));
+            }
+        }
+        List<SearchIndex.Match> matches = index.search("report", 500);
+
+        // Assert
+        assertEquals(0, reads[0], "The index should not be rebuilt from the list");
+        List<SearchIndex.Match> expected = new SearchIndex(new ArrayList<>(tasks)).search("report", 500);
+        assertEquals(expected, matches);
+    }
+}
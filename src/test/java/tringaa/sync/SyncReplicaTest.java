@@ -0,0 +1,201 @@
+package tringaa.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.ColumnarTaskList;
+import tringaa.Storage;
+import tringaa.TaskList;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.exceptions.TringaException;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class SyncReplicaTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNewTasksReachTheOtherDevice() throws TaskStorageException {
+        // Arrange
+        TaskList laptop = list("a", "b");
+        TaskList desktop = list();
+
+        // Act
+        sync(laptop, "laptop", 1000);
+        sync(desktop, "desktop", 2000);
+
+        // Assert
+        assertEquals(List.of("a", "b"), descriptions(desktop));
+        assertEquals(laptop.getTasks().get(1).getId(), desktop.getTasks().get(1).getId());
+    }
+
+    @Test
+    void testIdenticalListsAreMatchedOnFirstSync() throws TaskStorageException {
+        // Arrange
+        TaskList laptop = list("a", "b", "b");
+        TaskList desktop = list("a", "b", "b");
+
+        // Act
+        sync(laptop, "laptop", 1000);
+        sync(desktop, "desktop", 2000);
+        sync(laptop, "laptop", 3000);
+
+        // Assert
+        assertEquals(List.of("a", "b", "b"), descriptions(laptop));
+        assertEquals(List.of("a", "b", "b"), descriptions(desktop));
+    }
+
+    @Test
+    void testConcurrentChangesMergeTheSameWayOnBothDevices() throws TaskStorageException, TringaException {
+        // Arrange
+        TaskList laptop = list("typo", "call bob", "plan");
+        TaskList desktop = list();
+        sync(laptop, "laptop", 1000);
+        sync(desktop, "desktop", 2000);
+
+        // Act
+        laptop.markTaskDone(1);
+        laptop.markTaskDone(2);
+        edit(laptop, 2, "plan trip");
+        edit(desktop, 0, "fixed");
+        desktop.deleteTask(2);
+        edit(desktop, 1, "plan holiday");
+        sync(laptop, "laptop", 3000);
+        sync(desktop, "desktop", 4000);
+        sync(laptop, "laptop", 5000);
+
+        // Assert
+        assertEquals(List.of("fixed", "plan holiday"), descriptions(laptop),
+                "Edits should merge with marks, deletes should win, and the later edit should win");
+        assertEquals(descriptions(laptop), descriptions(desktop));
+        assertTrue(laptop.getTasks().get(0).isDone());
+        assertTrue(desktop.getTasks().get(0).isDone());
+        assertFalse(desktop.getTasks().get(1).isDone());
+    }
+
+    @Test
+    void testOnlyChangesAreSent() throws TaskStorageException, TringaException, IOException {
+        // Arrange
+        String[] descriptions = new String[100];
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = "task " + i;
+        }
+        TaskList laptop = list(descriptions);
+        TaskList desktop = list();
+        sync(laptop, "laptop", 1000);
+        sync(desktop, "desktop", 2000);
+
+        // Act
+        laptop.markTaskDone(50);
+        SyncReplica.Result laptopResult = sync(laptop, "laptop", 3000);
+        SyncReplica.Result desktopResult = sync(desktop, "desktop", 4000);
+
+        // Assert
+        assertEquals(1, laptopResult.sent());
+        assertEquals(1, desktopResult.received());
+        assertEquals(1, desktopResult.applied());
+        assertEquals(1, Files.readAllLines(latestDelta()).size());
+        assertTrue(desktop.getTasks().get(49).isDone());
+    }
+
+    @Test
+    void testColumnarListsKeepTheirIdentifiers() throws TaskStorageException, TringaException {
+        // Arrange
+        TaskList laptop = new TaskList(new ColumnarTaskList(list("a", "b").getTasks()));
+        TaskList desktop = new TaskList(new ColumnarTaskList());
+        sync(laptop, "laptop", 1000);
+        sync(desktop, "desktop", 2000);
+
+        // Act
+        laptop.markTaskDone(1);
+        SyncReplica.Result laptopResult = sync(laptop, "laptop", 3000);
+        sync(desktop, "desktop", 4000);
+
+        // Assert
+        assertEquals(1, laptopResult.sent(), "Only the marked task should be sent once ids are stored");
+        assertEquals(laptop.getTasks().get(1).getId(), desktop.getTasks().get(1).getId());
+        assertTrue(desktop.getTasks().get(0).isDone());
+        assertFalse(desktop.getTasks().get(1).isDone());
+    }
+
+    @Test
+    void testListsSharingAFolderAreKeptApart() throws TaskStorageException {
+        // Arrange
+        TaskList laptopWork = list("report");
+        TaskList laptopHome = list("laundry");
+        TaskList desktopWork = list();
+        TaskList desktopHome = list();
+
+        // Act
+        sync(laptopWork, "laptop", "work", 1000);
+        sync(laptopHome, "laptop", "home", 1000);
+        sync(desktopWork, "desktop", "work", 2000);
+        sync(desktopHome, "desktop", "home", 2000);
+
+        // Assert
+        assertEquals(List.of("report"), descriptions(desktopWork));
+        assertEquals(List.of("laundry"), descriptions(desktopHome));
+    }
+
+    private SyncReplica.Result sync(TaskList tasks, String device, long millis) throws TaskStorageException {
+        return sync(tasks, device, "tasks", millis);
+    }
+
+    private SyncReplica.Result sync(TaskList tasks, String device, String list, long millis)
+            throws TaskStorageException {
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        SyncReplica replica = new SyncReplica(tempDir.resolve(device + "-" + list + ".sync"), clock);
+        replica.recordChanges(tasks);
+        SyncReplica.Result result = replica.sync(tasks, new SyncFolder(tempDir.resolve("shared"), list));
+        replica.save();
+        return result;
+    }
+
+    private static void edit(TaskList tasks, int position, String description) {
+        Task edited = new ToDo(description);
+        Task task = tasks.getTasks().get(position);
+        edited.setId(task.getId());
+        if (task.isDone()) {
+            edited.markDone(task.getDoneDate());
+        }
+        tasks.applyFileChanges(List.of(new Storage.FileChange(position, 1, List.of(edited))));
+    }
+
+    private Path latestDelta() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("shared").resolve("tasks"))) {
+            return files.max(Comparator.comparing(file -> file.getFileName().toString())).orElseThrow();
+        }
+    }
+
+    private static TaskList list(String... descriptions) {
+        List<Task> tasks = new ArrayList<>();
+        for (String description : descriptions) {
+            tasks.add(new ToDo(description));
+        }
+        return new TaskList(tasks);
+    }
+
+    private static List<String> descriptions(TaskList tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks.getTasks()) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,87 @@
+package tringaa.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tringaa.exceptions.InvalidCommandException;
+import tringaa.exceptions.TaskStorageException;
+import tringaa.tasks.Deadline;
+import tringaa.tasks.Event;
+import tringaa.tasks.Recurring;
+import tringaa.tasks.Task;
+import tringaa.tasks.ToDo;
+
+class TaskTransferTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<Task> sampleTasks() {
+        Task done = new ToDo("read \"Dune\", part 1; then\nwrite notes");
+        done.markDone();
+        return List.of(done,
+                new Deadline("return book", "2026-11-02"),
+                new Event("conference", "Nov 10 2026", "Nov 12 2026"),
+                new Event("lunch", "noon", "2pm"),
+                new Recurring("standup", Recurring.Frequency.WEEKLY, LocalDate.of(2026, 11, 2)));
+    }
+
+    @Test
+    void testEveryFormatRoundTripsTasks() throws InvalidCommandException, TaskStorageException {
+        for (String fileName : List.of("tasks.csv", "tasks.ndjson", "tasks.ics")) {
+            // Arrange
+            Path file = tempDir.resolve(fileName);
+            List<Task> tasks = sampleTasks();
+
+            // Act
+            TaskTransfer.exportTasks(tasks, file);
+            List<Task> imported = TaskTransfer.importTasks(file);
+
+            // Assert
+            assertEquals(tasks.size(), imported.size(), fileName);
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(tasks.get(i).toString(), imported.get(i).toString(), fileName);
+            }
+        }
+    }
+
+    @Test
+    void testIcsLongLinesAreFolded() throws InvalidCommandException, TaskStorageException, IOException {
+        // Arrange
+        Path file = tempDir.resolve("tasks.ics");
+        Task task = new ToDo("a very long description ".repeat(10).trim());
+
+        // Act
+        TaskTransfer.exportTasks(List.of(task), file);
+
+        // Assert
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertEquals(task.getDescription(), TaskTransfer.importTasks(file).get(0).getDescription());
+    }
+
+    @Test
+    void testInvalidRecordReportsLine() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("tasks.csv");
+        Files.writeString(file, "type,done,description,date,end,every\nT,false,ok,,,\nD,false,bad,someday,,\n",
+                StandardCharsets.UTF_8);
+
+        // Act
+        TaskStorageException e = assertThrows(TaskStorageException.class, () -> TaskTransfer.importTasks(file));
+
+        // Assert
+        assertEquals("TaskStorage Error: Line 3: Invalid date: someday", e.getMessage());
+    }
+}